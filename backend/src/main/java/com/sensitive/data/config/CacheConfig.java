@@ -1,21 +1,32 @@
 package com.sensitive.data.config;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
-import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sensitive.data.service.cache.DetectionCacheWeigher;
+import com.sensitive.data.service.cache.SensitiveDataCacheService;
+import com.sensitive.data.service.cache.l2.L2CacheBackend;
+import com.sensitive.data.service.cache.l2.MappedSegmentL2CacheBackend;
+import com.sensitive.data.service.cache.l2.RedisL2CacheBackend;
 
 /**
- * 缓存配置类，配置多级缓存（本地缓存 + Redis分布式缓存）
+ * 缓存配置类，配置多级缓存（本地缓存 + 可选的二级缓存）
+ * 
+ * 二级缓存由sensitive.data.detector.cache.l2.type选择：none（默认，只用本地缓存）、
+ * redis（Redis分布式缓存）或mapped（内嵌的内存映射段文件）
  */
 @Configuration
 @EnableCaching
@@ -25,44 +36,78 @@ public class CacheConfig {
     @Value("${sensitive.data.detector.cache.ttl:3600}")
     private long localCacheTtl;
     
-    // 本地缓存最大大小
+    // 本地缓存最大条目数，未按字节数限制时使用
     @Value("${sensitive.data.detector.cache.max-size:100000}")
     private long localCacheMaxSize;
     
-    // Redis缓存过期时间（秒）
-    @Value("${sensitive.data.detector.cache.redis-ttl:86400}")
-    private long redisCacheTtl;
+    // 本地缓存最大字节数（MB），按条目估算的堆字节数限制，为0时按条目数限制
+    @Value("${sensitive.data.detector.cache.max-weight-mb:64}")
+    private long localCacheMaxWeightMb;
+    
+    // 二级缓存过期时间（秒），兼容原Redis缓存过期时间配置
+    @Value("${sensitive.data.detector.cache.l2.ttl:${sensitive.data.detector.cache.redis-ttl:86400}}")
+    private long l2CacheTtl;
+    
+    // 内嵌二级缓存的段文件目录
+    @Value("${sensitive.data.detector.cache.l2.mapped.directory:${java.io.tmpdir}/sensitive-data-l2}")
+    private String mappedDirectory;
+    
+    // 内嵌二级缓存的段数
+    @Value("${sensitive.data.detector.cache.l2.mapped.segments:8}")
+    private int mappedSegments;
+    
+    // 内嵌二级缓存每段文件大小（MB）
+    @Value("${sensitive.data.detector.cache.l2.mapped.segment-size-mb:64}")
+    private int mappedSegmentSizeMb;
+    
+    // 内嵌二级缓存每条记录的值容量（字节），更大的结果只保存在本地缓存
+    @Value("${sensitive.data.detector.cache.l2.mapped.value-capacity:480}")
+    private int mappedValueCapacity;
     
     /**
      * 配置Caffeine本地缓存（一级缓存）
+     * 
+     * 默认按条目估算的堆字节数限制容量，短文本的小结果和大量检测项的大结果占用不同的预算
      * @return Caffeine缓存管理器
      */
     @Bean
     @Primary
     public CacheManager caffeineCacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
-        cacheManager.setCaffeine(Caffeine.newBuilder()
+        Caffeine<Object, Object> caffeine = Caffeine.newBuilder()
                 .expireAfterWrite(localCacheTtl, TimeUnit.SECONDS)
-                .maximumSize(localCacheMaxSize)
-                .recordStats());
+                .recordStats();
+        if (localCacheMaxWeightMb > 0) {
+            caffeine.maximumWeight(localCacheMaxWeightMb * 1024L * 1024L).weigher(new DetectionCacheWeigher());
+        } else {
+            caffeine.maximumSize(localCacheMaxSize);
+        }
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(caffeine);
         return cacheManager;
     }
     
     /**
-     * 配置Redis分布式缓存（二级缓存）
+     * 配置Redis二级缓存，sensitive.data.detector.cache.l2.type=redis时启用
      * @param connectionFactory Redis连接工厂
-     * @return Redis缓存管理器
+     * @return Redis二级缓存后端
      */
     @Bean
-    public CacheManager redisCacheManager(RedisConnectionFactory connectionFactory) {
-        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(connectionFactory);
-        
-        builder.cacheDefaults(org.springframework.data.redis.cache.RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(java.time.Duration.ofSeconds(redisCacheTtl))
-                .serializeKeysWith(org.springframework.data.redis.cache.RedisCacheConfiguration.defaultCacheConfig().getKeySerializationPair())
-                .serializeValuesWith(org.springframework.data.redis.cache.RedisCacheConfiguration.defaultCacheConfig().getValueSerializationPair())
-                .disableCachingNullValues());
-        
-        return builder.build();
+    @ConditionalOnProperty(name = "sensitive.data.detector.cache.l2.type", havingValue = "redis")
+    public L2CacheBackend redisL2CacheBackend(RedisConnectionFactory connectionFactory) {
+        return new RedisL2CacheBackend(connectionFactory, SensitiveDataCacheService.DETECTION_CACHE_NAME,
+                Duration.ofSeconds(l2CacheTtl));
+    }
+    
+    /**
+     * 配置内嵌的内存映射二级缓存，sensitive.data.detector.cache.l2.type=mapped时启用，
+     * 适用于单机和测试部署，不依赖外部服务，重启后缓存仍然有效
+     * @return 内存映射二级缓存后端
+     * @throws IOException 段文件无法创建或映射
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "sensitive.data.detector.cache.l2.type", havingValue = "mapped")
+    public L2CacheBackend mappedL2CacheBackend() throws IOException {
+        return new MappedSegmentL2CacheBackend(Paths.get(mappedDirectory), mappedSegments,
+                mappedSegmentSizeMb * 1024L * 1024L, mappedValueCapacity, Duration.ofSeconds(l2CacheTtl));
     }
 }
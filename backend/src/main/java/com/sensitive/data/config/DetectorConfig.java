@@ -3,10 +3,9 @@ package com.sensitive.data.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
-import java.util.concurrent.Executor;
-import java.util.concurrent.ThreadPoolExecutor;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * 敏感数据检测服务配置类
@@ -14,35 +13,23 @@ import java.util.concurrent.ThreadPoolExecutor;
 @Configuration
 public class DetectorConfig {
 
-    @Value("${sensitive.data.detector.thread-pool.core-size:10}")
-    private int corePoolSize;
-
     @Value("${sensitive.data.detector.thread-pool.max-size:50}")
     private int maxPoolSize;
 
     @Value("${sensitive.data.detector.thread-pool.queue-capacity:1000}")
     private int queueCapacity;
 
-    @Value("${sensitive.data.detector.thread-pool.keep-alive-time:60s}")
+    @Value("${sensitive.data.detector.thread-pool.keep-alive-time:60}")
     private int keepAliveTime;
 
     /**
-     * 配置检测服务线程池
-     * @return Executor
+     * 配置检测调度器，异步检测和批量检测在其上执行
+     * 
+     * 线程数和排队任务数都有上限，超出时任务以RejectedExecutionException失败，而不是无限排队或占用调用线程
+     * @return Scheduler
      */
-    @Bean("detectorThreadPool")
-    public Executor detectorThreadPool() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(corePoolSize);
-        executor.setMaxPoolSize(maxPoolSize);
-        executor.setQueueCapacity(queueCapacity);
-        executor.setKeepAliveSeconds(keepAliveTime);
-        executor.setThreadNamePrefix("Detector-Thread-");
-        
-        // 拒绝策略：当线程池满时，由调用线程处理
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
-        
-        executor.initialize();
-        return executor;
+    @Bean(name = "detectorScheduler", destroyMethod = "dispose")
+    public Scheduler detectorScheduler() {
+        return Schedulers.newBoundedElastic(maxPoolSize, queueCapacity, "Detector-Thread", keepAliveTime, true);
     }
 }
@@ -1,22 +1,41 @@
 package com.sensitive.data.controller;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import javax.servlet.http.HttpServletRequest;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.sensitive.data.model.BatchDetectionItem;
+import com.sensitive.data.model.CompactDetectionResult;
+import com.sensitive.data.model.DetectionCheckResult;
+import com.sensitive.data.model.DetectionProfile;
 import com.sensitive.data.model.SensitiveDataDetectionResult;
 import com.sensitive.data.model.SensitiveDataType;
+import com.sensitive.data.model.StreamingDetectionResult;
+import com.sensitive.data.service.cache.SensitiveDataCacheService;
+import com.sensitive.data.service.detector.DetectionCoalescer;
 import com.sensitive.data.service.detector.SensitiveDataDetectorService;
 import com.sensitive.data.service.processor.SensitiveDataProcessorService;
+import com.sensitive.data.util.SingleFlight;
+import com.sensitive.data.util.json.NdjsonTextReader;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
@@ -28,36 +47,219 @@ public class SensitiveDataController {
     
     private final SensitiveDataDetectorService detectorService;
     private final SensitiveDataProcessorService processorService;
+    private final DetectionCoalescer coalescer;
+    private final SensitiveDataCacheService cacheService;
+    
+    // NDJSON流式批量检测的总时长上限，为0时不限制。Spring MVC对流式响应不应用spring.mvc.async.request-timeout
+    @Value("${sensitive.data.detector.batch-stream.timeout:0}")
+    private Duration batchStreamTimeout = Duration.ZERO;
     
     @Autowired
     public SensitiveDataController(SensitiveDataDetectorService detectorService, 
-                                  SensitiveDataProcessorService processorService) {
+                                  SensitiveDataProcessorService processorService,
+                                  DetectionCoalescer coalescer,
+                                  SensitiveDataCacheService cacheService) {
         this.detectorService = detectorService;
         this.processorService = processorService;
+        this.coalescer = coalescer;
+        this.cacheService = cacheService;
     }
     
     /**
      * 检测文本中的敏感数据
+     * 
+     * 可选的检测配置档参数：types（逗号分隔的类型名或代码）、riskFloor（风险下限）、
+     * keywords（是否启用关键词检测）、maxItems（最大返回条数）。未指定时检测全部类型。
      */
     @PostMapping("/text")
-    public SensitiveDataDetectionResult detectText(@RequestBody String text) {
-        return detectorService.detectSensitiveData(text);
+    public SensitiveDataDetectionResult detectText(@RequestBody String text,
+                                                   @RequestParam(required = false) String types,
+                                                   @RequestParam(required = false) String riskFloor,
+                                                   @RequestParam(required = false) Boolean keywords,
+                                                   @RequestParam(required = false) Integer maxItems) {
+        DetectionProfile profile = buildProfile(types, riskFloor, keywords, maxItems);
+        if (coalescer.isEnabled()) {
+            return coalescer.detect(text, profile);
+        }
+        if (profile == DetectionProfile.DEFAULT) {
+            return detectorService.detectSensitiveData(text);
+        }
+        return detectorService.detectSensitiveData(text, profile);
+    }
+    
+    /**
+     * 获取请求合并器的指标：批次数、平均/最大批大小、平均/最大排队延迟（微秒）
+     */
+    @GetMapping("/coalescer/metrics")
+    public DetectionCoalescer.Metrics getCoalescerMetrics() {
+        return coalescer.getMetrics();
+    }
+    
+    /**
+     * 获取进行中检测合并的指标：实际执行次数、节省的检测次数（saved）和指纹碰撞次数
+     */
+    @GetMapping("/single-flight/metrics")
+    public SingleFlight.Metrics getSingleFlightMetrics() {
+        return detectorService.getSingleFlightMetrics();
+    }
+    
+    /**
+     * 获取本地缓存的统计：条目数、估算字节数与上限、命中率、淘汰字节数、未准入次数，
+     * 以及按条目大小分档的准入字节和每MB命中次数
+     */
+    @GetMapping("/cache/metrics")
+    public SensitiveDataCacheService.LocalMetrics getCacheMetrics() {
+        return cacheService.getLocalMetrics();
+    }
+    
+    /**
+     * 以紧凑格式检测文本中的敏感数据（view=compact）
+     * 
+     * 只返回检测项的位置和类型序号（与/types返回的顺序一致），不回显原文、内容和处理建议；
+     * preview=true时附带掩码后的内容预览。支持与/text相同的检测配置档参数。
+     */
+    @PostMapping(value = "/text", params = "view=compact")
+    public CompactDetectionResult detectTextCompact(@RequestBody String text,
+                                                    @RequestParam(defaultValue = "false") boolean preview,
+                                                    @RequestParam(required = false) String types,
+                                                    @RequestParam(required = false) String riskFloor,
+                                                    @RequestParam(required = false) Boolean keywords,
+                                                    @RequestParam(required = false) Integer maxItems) {
+        DetectionProfile profile = buildProfile(types, riskFloor, keywords, maxItems);
+        return detectorService.detectSensitiveDataCompact(text, profile, preview);
+    }
+    
+    /**
+     * 直接检测原始请求体中的UTF-8字节，不预先解码为字符串，返回紧凑格式的结果
+     * 
+     * 结果中的位置为字符偏移，与/text一致。preview=true时附带掩码后的内容预览。
+     * 支持与/text相同的检测配置档参数。
+     */
+    @PostMapping("/text/raw")
+    public CompactDetectionResult detectRawText(@RequestBody byte[] body,
+                                                @RequestParam(defaultValue = "false") boolean preview,
+                                                @RequestParam(required = false) String types,
+                                                @RequestParam(required = false) String riskFloor,
+                                                @RequestParam(required = false) Boolean keywords,
+                                                @RequestParam(required = false) Integer maxItems) {
+        DetectionProfile profile = buildProfile(types, riskFloor, keywords, maxItems);
+        return detectorService.detectSensitiveDataUtf8(body, profile, preview);
+    }
+    
+    /**
+     * 以字典格式检测文本中的敏感数据（view=dictionary）
+     * 
+     * 检测项直接从检测命中写出，只包含类型代码、内容和位置；类型名称、风险等级和处理建议
+     * 在types字典中每种类型只输出一次。支持与/text相同的检测配置档参数。
+     */
+    @PostMapping(value = "/text", params = "view=dictionary")
+    public StreamingDetectionResult detectTextDictionary(@RequestBody String text,
+                                                         @RequestParam(required = false) String types,
+                                                         @RequestParam(required = false) String riskFloor,
+                                                         @RequestParam(required = false) Boolean keywords,
+                                                         @RequestParam(required = false) Integer maxItems) {
+        DetectionProfile profile = buildProfile(types, riskFloor, keywords, maxItems);
+        return detectorService.detectSensitiveDataStreaming(text, profile);
     }
     
     /**
      * 异步检测文本中的敏感数据
+     * 
+     * 响应时长受spring.mvc.async.request-timeout限制
      */
     @PostMapping("/text/async")
-    public Mono<SensitiveDataDetectionResult> detectTextAsync(@RequestBody String text) {
-        return detectorService.detectSensitiveDataAsync(text);
+    public Mono<SensitiveDataDetectionResult> detectTextAsync(@RequestBody String text,
+                                                              @RequestParam(required = false) String types,
+                                                              @RequestParam(required = false) String riskFloor,
+                                                              @RequestParam(required = false) Boolean keywords,
+                                                              @RequestParam(required = false) Integer maxItems) {
+        DetectionProfile profile = buildProfile(types, riskFloor, keywords, maxItems);
+        if (profile == DetectionProfile.DEFAULT) {
+            return detectorService.detectSensitiveDataAsync(text);
+        }
+        return detectorService.detectSensitiveDataAsync(text, profile);
     }
     
     /**
      * 批量检测文本中的敏感数据
+     * 
+     * 结果按输入顺序组成JSON数组返回，检测在检测调度器上并行执行，不占用请求线程。
+     * 整个批次需在spring.mvc.async.request-timeout内完成，大批量请求应使用NDJSON流式接口。
      */
     @PostMapping("/text/batch")
-    public Mono<List<SensitiveDataDetectionResult>> detectTextBatch(@RequestBody List<String> texts) {
-        return detectorService.detectSensitiveDataBatch(texts);
+    public Flux<SensitiveDataDetectionResult> detectTextBatch(@RequestBody List<String> texts,
+                                                              @RequestParam(required = false) String types,
+                                                              @RequestParam(required = false) String riskFloor,
+                                                              @RequestParam(required = false) Boolean keywords,
+                                                              @RequestParam(required = false) Integer maxItems) {
+        DetectionProfile profile = buildProfile(types, riskFloor, keywords, maxItems);
+        return detectorService.detectSensitiveDataBatchFlux(texts, profile);
+    }
+    
+    /**
+     * 流式批量检测文本中的敏感数据（NDJSON）
+     * 
+     * 请求体每行一条文本（JSON字符串或原始文本），边读取边并行检测；响应每行一条结果，
+     * 在检测完成后立即写出，sequence为文本在请求中的序号（从0开始，跳过空行），顺序按完成先后。
+     * 客户端读取变慢时读取和检测随之暂停。支持与/text相同的检测配置档参数。
+     * 
+     * 流式响应不受spring.mvc.async.request-timeout限制，大批量请求可以持续任意时长；
+     * 总时长由batch-stream.timeout限制，超时后以错误结束响应，为0时不限制。
+     */
+    @PostMapping(value = "/text/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BatchDetectionItem> detectTextBatchStream(HttpServletRequest request,
+                                                          @RequestParam(required = false) String types,
+                                                          @RequestParam(required = false) String riskFloor,
+                                                          @RequestParam(required = false) Boolean keywords,
+                                                          @RequestParam(required = false) Integer maxItems)
+            throws IOException {
+        DetectionProfile profile = buildProfile(types, riskFloor, keywords, maxItems);
+        Flux<BatchDetectionItem> results =
+                detectorService.detectSensitiveDataStream(NdjsonTextReader.read(request.getInputStream()), profile);
+        if (batchStreamTimeout.isZero() || batchStreamTimeout.isNegative()) {
+            return results;
+        }
+        // 同一个截止信号作为每条结果的超时，限制的是整个响应的总时长而不是结果之间的间隔
+        Mono<Long> deadline = Mono.delay(batchStreamTimeout).cache();
+        return results.timeout(deadline, item -> deadline);
+    }
+    
+    /**
+     * 轻量检测，命中即停止扫描，只返回是否存在敏感数据
+     * 
+     * mode=contains（默认）时命中第一个检测项即返回；mode=maxRisk时同时返回最高风险等级，达到HIGH即返回。
+     * 正则执行预算耗尽时partial为true，默认按失败关闭处理：未发现检测项也返回sensitive=true。
+     * 支持与/text相同的检测配置档参数。
+     */
+    @PostMapping("/check")
+    public DetectionCheckResult checkText(@RequestBody String text,
+                                          @RequestParam(defaultValue = "contains") String mode,
+                                          @RequestParam(required = false) String types,
+                                          @RequestParam(required = false) String riskFloor,
+                                          @RequestParam(required = false) Boolean keywords) {
+        DetectionProfile profile = buildProfile(types, riskFloor, keywords, null);
+        if ("contains".equalsIgnoreCase(mode)) {
+            DetectionCheckResult result = detectorService.checkSensitiveData(text, profile, true);
+            // contains模式只返回是否存在敏感数据
+            result.setMaxRiskLevel(null);
+            return result;
+        }
+        if ("maxRisk".equalsIgnoreCase(mode)) {
+            return detectorService.checkSensitiveData(text, profile, false);
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown check mode: " + mode);
+    }
+    
+    /**
+     * 根据请求参数构建检测配置档，参数无法识别时返回400
+     */
+    private DetectionProfile buildProfile(String types, String riskFloor, Boolean keywords, Integer maxItems) {
+        try {
+            return DetectionProfile.of(types, riskFloor, keywords, maxItems);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
     
     /**
@@ -0,0 +1,36 @@
+package com.sensitive.data.model;
+
+/**
+ * 流式批量检测的单条结果，sequence为该文本在输入中的序号（从0开始）
+ * 
+ * 结果按完成先后输出，客户端需要按sequence还原输入顺序
+ */
+public class BatchDetectionItem {
+    private long sequence;
+    private SensitiveDataDetectionResult result;
+    
+    public BatchDetectionItem() {
+    }
+    
+    public BatchDetectionItem(long sequence, SensitiveDataDetectionResult result) {
+        this.sequence = sequence;
+        this.result = result;
+    }
+    
+    // Getters and Setters
+    public long getSequence() {
+        return sequence;
+    }
+    
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+    
+    public SensitiveDataDetectionResult getResult() {
+        return result;
+    }
+    
+    public void setResult(SensitiveDataDetectionResult result) {
+        this.result = result;
+    }
+}
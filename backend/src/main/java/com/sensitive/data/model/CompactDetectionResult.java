@@ -0,0 +1,143 @@
+package com.sensitive.data.model;
+
+import java.io.Serializable;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.sensitive.data.util.MatchBuffer;
+
+/**
+ * 紧凑检测结果，只包含检测项的位置和类型，不回显原文、内容和处理建议
+ *
+ * offsets按[起始, 结束, 起始, 结束, ...]平铺存储，types为{@link SensitiveDataType}的序号
+ * （与/api/detect/types返回的顺序一致）。labels仅在合并策略产生多标签检测项时存在，
+ * 每项为类型序号的位掩码；previews仅在请求掩码预览时存在。
+ * 该结构同时作为检测结果缓存的存储形式，完整结果可由原文和紧凑结果还原。
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CompactDetectionResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private int totalDetected;
+    private int[] offsets;
+    private int[] types;
+    private int[] labels;
+    private String[] previews;
+    private long processingTimeMs;
+    private boolean partial;
+
+    public CompactDetectionResult() {
+    }
+
+    public CompactDetectionResult(int[] offsets, int[] types, int[] labels, long processingTimeMs, boolean partial) {
+        this.totalDetected = types.length;
+        this.offsets = offsets;
+        this.types = types;
+        this.labels = labels;
+        this.processingTimeMs = processingTimeMs;
+        this.partial = partial;
+    }
+
+    /**
+     * 由检测命中缓冲区构建紧凑结果
+     *
+     * @param matches 检测命中
+     * @param processingTimeMs 处理耗时
+     * @param partial 是否为部分结果
+     * @return 紧凑结果
+     */
+    public static CompactDetectionResult from(MatchBuffer matches, long processingTimeMs, boolean partial) {
+        return new CompactDetectionResult(matches.copyOffsets(), matches.copyTypes(), matches.copyLabels(),
+                processingTimeMs, partial);
+    }
+
+    /**
+     * 获取基于本结果数组的命中缓冲区视图，用于还原检测项
+     *
+     * @return 命中缓冲区
+     */
+    public MatchBuffer toMatchBuffer() {
+        return MatchBuffer.wrap(offsets, types, labels);
+    }
+
+    /**
+     * 复制一份带掩码预览的结果，缓存中的实例不会被修改
+     *
+     * @param previews 与检测项一一对应的掩码预览
+     * @return 新的紧凑结果
+     */
+    public CompactDetectionResult withPreviews(String[] previews) {
+        CompactDetectionResult copy = new CompactDetectionResult(offsets, types, labels, processingTimeMs, partial);
+        copy.previews = previews;
+        return copy;
+    }
+
+    public int getStart(int index) {
+        return offsets[2 * index];
+    }
+
+    public int getEnd(int index) {
+        return offsets[2 * index + 1];
+    }
+
+    public SensitiveDataType getType(int index) {
+        return SensitiveDataType.values()[types[index]];
+    }
+
+    // Getters and Setters
+    public int getTotalDetected() {
+        return totalDetected;
+    }
+
+    public void setTotalDetected(int totalDetected) {
+        this.totalDetected = totalDetected;
+    }
+
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    public void setOffsets(int[] offsets) {
+        this.offsets = offsets;
+    }
+
+    public int[] getTypes() {
+        return types;
+    }
+
+    public void setTypes(int[] types) {
+        this.types = types;
+    }
+
+    public int[] getLabels() {
+        return labels;
+    }
+
+    public void setLabels(int[] labels) {
+        this.labels = labels;
+    }
+
+    public String[] getPreviews() {
+        return previews;
+    }
+
+    public void setPreviews(String[] previews) {
+        this.previews = previews;
+    }
+
+    public long getProcessingTimeMs() {
+        return processingTimeMs;
+    }
+
+    public void setProcessingTimeMs(long processingTimeMs) {
+        this.processingTimeMs = processingTimeMs;
+    }
+
+    public boolean isPartial() {
+        return partial;
+    }
+
+    public void setPartial(boolean partial) {
+        this.partial = partial;
+    }
+}
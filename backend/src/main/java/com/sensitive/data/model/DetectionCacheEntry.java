@@ -0,0 +1,118 @@
+package com.sensitive.data.model;
+
+import java.io.Serializable;
+
+/**
+ * 检测结果缓存条目
+ *
+ * 缓存键只包含文本指纹，不包含原文。条目随结果保存用于校验的信息，命中时按校验方式确认
+ * 指纹对应的确实是同一文本，校验不通过视为未命中：
+ * NONE只信任128位指纹；LENGTH额外比较文本长度（默认，无额外开销）；
+ * FULL保存原文并逐字比较，完全排除碰撞，但缓存占用与原文大小相当。
+ */
+public class DetectionCacheEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 命中校验方式
+     */
+    public enum Verification {
+        NONE, LENGTH, FULL
+    }
+
+    private CompactDetectionResult result;
+    private int textLength;
+    private String text;
+
+    public DetectionCacheEntry() {
+    }
+
+    public DetectionCacheEntry(CompactDetectionResult result, int textLength, String text) {
+        this.result = result;
+        this.textLength = textLength;
+        this.text = text;
+    }
+
+    /**
+     * 按校验方式创建缓存条目，只有FULL保存原文
+     *
+     * @param text 原文
+     * @param result 检测结果
+     * @param verification 校验方式
+     * @return 缓存条目
+     */
+    public static DetectionCacheEntry of(String text, CompactDetectionResult result, Verification verification) {
+        return new DetectionCacheEntry(result, text.length(), verification == Verification.FULL ? text : null);
+    }
+
+    /**
+     * 条目是否属于给定文本
+     *
+     * 以FULL方式校验未保存原文的条目时不通过，避免切换校验方式后误用其他实例写入的条目
+     * @param text 原文
+     * @param verification 校验方式
+     * @return 是否通过校验
+     */
+    public boolean matches(String text, Verification verification) {
+        switch (verification) {
+            case NONE:
+                return true;
+            case FULL:
+                return this.text != null && this.text.equals(text);
+            default:
+                return textLength == text.length();
+        }
+    }
+
+    /**
+     * 估算条目在堆中保留的字节数（64位JVM、压缩指针），包括结果数组和保存的原文，原文按UTF-16估算
+     *
+     * @return 估算的字节数
+     */
+    public long retainedBytes() {
+        // 条目对象本身
+        long bytes = 24;
+        if (result != null) {
+            // 紧凑结果对象和数组
+            bytes += 48 + arrayBytes(result.getOffsets()) + arrayBytes(result.getTypes())
+                    + arrayBytes(result.getLabels());
+        }
+        if (text != null) {
+            bytes += 24 + align(16 + 2L * text.length());
+        }
+        return bytes;
+    }
+
+    private static long arrayBytes(int[] array) {
+        return array == null ? 0 : align(16 + 4L * array.length);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    public CompactDetectionResult getResult() {
+        return result;
+    }
+
+    public void setResult(CompactDetectionResult result) {
+        this.result = result;
+    }
+
+    public int getTextLength() {
+        return textLength;
+    }
+
+    public void setTextLength(int textLength) {
+        this.textLength = textLength;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+}
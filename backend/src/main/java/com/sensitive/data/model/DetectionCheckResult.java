@@ -0,0 +1,62 @@
+package com.sensitive.data.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * 轻量检测结果，只包含是否存在敏感数据和最高风险等级，供网关等对延迟敏感的场景使用
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DetectionCheckResult {
+    private boolean sensitive;
+    private RiskLevel maxRiskLevel;
+    private long processingTimeMs;
+    // 是否为部分结果（正则执行预算耗尽时部分检测被中止，未命中不代表不包含敏感数据）
+    private boolean partial;
+    
+    public DetectionCheckResult() {
+    }
+    
+    public DetectionCheckResult(boolean sensitive, RiskLevel maxRiskLevel, long processingTimeMs) {
+        this(sensitive, maxRiskLevel, processingTimeMs, false);
+    }
+    
+    public DetectionCheckResult(boolean sensitive, RiskLevel maxRiskLevel, long processingTimeMs, boolean partial) {
+        this.sensitive = sensitive;
+        this.maxRiskLevel = maxRiskLevel;
+        this.processingTimeMs = processingTimeMs;
+        this.partial = partial;
+    }
+    
+    // Getters and Setters
+    public boolean isSensitive() {
+        return sensitive;
+    }
+    
+    public void setSensitive(boolean sensitive) {
+        this.sensitive = sensitive;
+    }
+    
+    public RiskLevel getMaxRiskLevel() {
+        return maxRiskLevel;
+    }
+    
+    public void setMaxRiskLevel(RiskLevel maxRiskLevel) {
+        this.maxRiskLevel = maxRiskLevel;
+    }
+    
+    public long getProcessingTimeMs() {
+        return processingTimeMs;
+    }
+    
+    public void setProcessingTimeMs(long processingTimeMs) {
+        this.processingTimeMs = processingTimeMs;
+    }
+    
+    public boolean isPartial() {
+        return partial;
+    }
+    
+    public void setPartial(boolean partial) {
+        this.partial = partial;
+    }
+}
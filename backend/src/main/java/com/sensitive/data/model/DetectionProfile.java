@@ -0,0 +1,182 @@
+package com.sensitive.data.model;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 检测配置档，按请求选择检测的类型范围、风险下限、是否启用关键词检测以及最大返回条数
+ *
+ * 配置档为不可变对象，可直接作为执行计划缓存和检测结果缓存的键。
+ */
+public final class DetectionProfile {
+
+    /**
+     * 默认配置档：检测全部类型，启用关键词检测，不限制返回条数
+     */
+    public static final DetectionProfile DEFAULT = new DetectionProfile(null, null, true, 0);
+
+    // 检测的类型范围，为空表示全部类型
+    private final Set<SensitiveDataType> types;
+
+    // 风险下限，低于该等级的类型不检测，为空表示不限制
+    private final RiskLevel riskFloor;
+
+    // 是否启用关键词检测
+    private final boolean keywordEnabled;
+
+    // 最大返回条数，0表示不限制
+    private final int maxItems;
+
+    // 缓存键
+    private final String cacheKey;
+
+    /**
+     * 构造函数
+     *
+     * @param types 检测的类型范围，为空表示全部类型
+     * @param riskFloor 风险下限，为空表示不限制
+     * @param keywordEnabled 是否启用关键词检测
+     * @param maxItems 最大返回条数，0表示不限制
+     */
+    public DetectionProfile(Set<SensitiveDataType> types, RiskLevel riskFloor, boolean keywordEnabled, int maxItems) {
+        if (maxItems < 0) {
+            throw new IllegalArgumentException("maxItems must not be negative: " + maxItems);
+        }
+        this.types = types == null || types.isEmpty()
+                ? Collections.<SensitiveDataType>emptySet()
+                : Collections.unmodifiableSet(EnumSet.copyOf(types));
+        this.riskFloor = riskFloor;
+        this.keywordEnabled = keywordEnabled;
+        this.maxItems = maxItems;
+        this.cacheKey = buildCacheKey();
+    }
+
+    /**
+     * 根据请求参数构建配置档，参数都为空时返回默认配置档
+     *
+     * @param types 逗号分隔的类型，支持枚举名（如BANK_CARD）和代码（如bankCard）
+     * @param riskFloor 风险下限（HIGH、MEDIUM、LOW）
+     * @param keywordEnabled 是否启用关键词检测
+     * @param maxItems 最大返回条数
+     * @return 配置档
+     * @throws IllegalArgumentException 参数无法识别时抛出
+     */
+    public static DetectionProfile of(String types, String riskFloor, Boolean keywordEnabled, Integer maxItems) {
+        if (types == null && riskFloor == null && keywordEnabled == null && maxItems == null) {
+            return DEFAULT;
+        }
+
+        Set<SensitiveDataType> typeSet = EnumSet.noneOf(SensitiveDataType.class);
+        if (types != null) {
+            for (String token : types.split(",")) {
+                String name = token.trim();
+                if (name.isEmpty()) {
+                    continue;
+                }
+                SensitiveDataType type = SensitiveDataType.getByCode(name);
+                if (type == null) {
+                    try {
+                        type = SensitiveDataType.valueOf(name.toUpperCase());
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Unknown sensitive data type: " + name);
+                    }
+                }
+                typeSet.add(type);
+            }
+        }
+
+        RiskLevel floor = null;
+        if (riskFloor != null && !riskFloor.trim().isEmpty()) {
+            try {
+                floor = RiskLevel.valueOf(riskFloor.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown risk level: " + riskFloor);
+            }
+        }
+
+        DetectionProfile profile = new DetectionProfile(typeSet, floor,
+                keywordEnabled == null || keywordEnabled, maxItems == null ? 0 : maxItems);
+        return DEFAULT.equals(profile) ? DEFAULT : profile;
+    }
+
+    /**
+     * 判断类型是否在配置档的检测范围内
+     *
+     * @param type 敏感数据类型
+     * @return 是否检测
+     */
+    public boolean includes(SensitiveDataType type) {
+        if (!types.isEmpty() && !types.contains(type)) {
+            return false;
+        }
+        // RiskLevel按HIGH、MEDIUM、LOW声明，序号越小风险越高
+        return riskFloor == null || type.getRiskLevel().ordinal() <= riskFloor.ordinal();
+    }
+
+    private String buildCacheKey() {
+        StringBuilder sb = new StringBuilder();
+        for (SensitiveDataType type : types) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(type.ordinal());
+        }
+        sb.append('|').append(riskFloor == null ? "" : riskFloor.name());
+        sb.append('|').append(keywordEnabled ? 'K' : '-');
+        sb.append('|').append(maxItems);
+        return sb.toString();
+    }
+
+    public Set<SensitiveDataType> getTypes() {
+        return types;
+    }
+
+    public RiskLevel getRiskFloor() {
+        return riskFloor;
+    }
+
+    public boolean isKeywordEnabled() {
+        return keywordEnabled;
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    /**
+     * 获取缓存键，相同检测范围的配置档缓存键相同
+     *
+     * @return 缓存键
+     */
+    public String getCacheKey() {
+        return cacheKey;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DetectionProfile)) {
+            return false;
+        }
+        return cacheKey.equals(((DetectionProfile) o).cacheKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(cacheKey);
+    }
+
+    @Override
+    public String toString() {
+        return "DetectionProfile{" +
+                "types=" + types +
+                ", riskFloor=" + riskFloor +
+                ", keywordEnabled=" + keywordEnabled +
+                ", maxItems=" + maxItems +
+                '}';
+    }
+}
@@ -0,0 +1,21 @@
+package com.sensitive.data.model;
+
+/**
+ * 重叠检测项的处理策略枚举
+ */
+public enum OverlapStrategy {
+    KEEP_ALL("保留全部标签"),
+    HIGHEST_RISK("保留风险最高的标签"),
+    MOST_SPECIFIC("保留最具体的标签"),
+    MERGED("合并为多标签检测项");
+
+    private final String name;
+
+    OverlapStrategy(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
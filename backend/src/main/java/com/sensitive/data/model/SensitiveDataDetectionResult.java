@@ -12,6 +12,8 @@ public class SensitiveDataDetectionResult {
     private List<SensitiveDataItem> detectedItems;
     private int totalDetected;
     private long processingTimeMs;
+    // 是否为部分结果（正则执行预算耗尽时部分检测被中止）
+    private boolean partial;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
@@ -79,6 +81,14 @@ public class SensitiveDataDetectionResult {
         this.updatedAt = LocalDateTime.now();
     }
     
+    public boolean isPartial() {
+        return partial;
+    }
+    
+    public void setPartial(boolean partial) {
+        this.partial = partial;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
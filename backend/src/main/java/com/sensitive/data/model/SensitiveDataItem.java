@@ -1,5 +1,9 @@
 package com.sensitive.data.model;
 
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 /**
  * 敏感数据项
  */
@@ -10,6 +14,10 @@ public class SensitiveDataItem {
     private int endPosition;
     private String suggestion;
     
+    // 合并策略下同一区间命中的全部类型，未合并时为空
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<SensitiveDataType> labels;
+    
     public SensitiveDataItem() {
     }
     
@@ -60,4 +68,12 @@ public class SensitiveDataItem {
     public void setSuggestion(String suggestion) {
         this.suggestion = suggestion;
     }
+    
+    public List<SensitiveDataType> getLabels() {
+        return labels;
+    }
+    
+    public void setLabels(List<SensitiveDataType> labels) {
+        this.labels = labels;
+    }
 }
\ No newline at end of file
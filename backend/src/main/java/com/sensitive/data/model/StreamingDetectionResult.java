@@ -0,0 +1,61 @@
+package com.sensitive.data.model;
+
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.sensitive.data.util.MatchBuffer;
+import com.sensitive.data.util.json.StreamingDetectionResultSerializer;
+
+/**
+ * 流式序列化的检测结果，直接持有检测命中缓冲区，不创建检测项对象
+ *
+ * 序列化时检测项由缓冲区直接写出，内容按偏移从原文写出；类型的名称、风险等级和处理建议
+ * 作为字典每次响应只写一次，检测项只引用类型代码。
+ */
+@JsonSerialize(using = StreamingDetectionResultSerializer.class)
+public class StreamingDetectionResult {
+
+    private final String originalText;
+    private final MatchBuffer matches;
+    private final Function<SensitiveDataType, String> suggestions;
+    private final long processingTimeMs;
+    private final boolean partial;
+
+    /**
+     * 构造函数
+     *
+     * @param originalText 原始文本
+     * @param matches 检测命中
+     * @param suggestions 按类型提供处理建议
+     * @param processingTimeMs 处理耗时
+     * @param partial 是否为部分结果
+     */
+    public StreamingDetectionResult(String originalText, MatchBuffer matches,
+            Function<SensitiveDataType, String> suggestions, long processingTimeMs, boolean partial) {
+        this.originalText = originalText;
+        this.matches = matches;
+        this.suggestions = suggestions;
+        this.processingTimeMs = processingTimeMs;
+        this.partial = partial;
+    }
+
+    public String getOriginalText() {
+        return originalText;
+    }
+
+    public MatchBuffer getMatches() {
+        return matches;
+    }
+
+    public Function<SensitiveDataType, String> getSuggestions() {
+        return suggestions;
+    }
+
+    public long getProcessingTimeMs() {
+        return processingTimeMs;
+    }
+
+    public boolean isPartial() {
+        return partial;
+    }
+}
@@ -0,0 +1,255 @@
+package com.sensitive.data.service.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.sensitive.data.model.CompactDetectionResult;
+import com.sensitive.data.model.DetectionCacheEntry;
+import com.sensitive.data.model.SensitiveDataType;
+
+/**
+ * 检测结果缓存条目的二进制编解码器，用于二级缓存（Redis）等按字节存储的缓存层
+ *
+ * 格式（版本1），整数均为无符号LEB128变长编码：
+ * <pre>
+ * 版本(1字节) 标志(1字节: bit0部分结果, bit1多标签, bit2含原文)
+ * 处理耗时 文本长度 检测项数n
+ * n × [起始位置与上一项起始位置之差(zigzag) 长度 类型序号]
+ * [n × 标签位掩码]          多标签时
+ * [原文UTF-8字节数 原文字节]  FULL校验方式保存原文时
+ * </pre>
+ * 不回显原文内容和掩码预览，检测项位置按差值编码，典型结果每项3到4字节。
+ * 类型序号依赖{@link com.sensitive.data.model.SensitiveDataType}的声明顺序，
+ * 格式或类型顺序不兼容地变化时需要递增版本号；版本不符的数据解码为null，按缓存未命中处理。
+ * 解码时校验类型序号和检测项位置，越界的数据与截断的数据一样视为损坏，
+ * 避免在读取结果时才抛出数组越界异常。
+ */
+public final class DetectionCacheCodec {
+
+    /**
+     * 当前格式版本
+     */
+    public static final byte FORMAT_VERSION = 1;
+
+    private static final int FLAG_PARTIAL = 1;
+    private static final int FLAG_LABELS = 1 << 1;
+    private static final int FLAG_TEXT = 1 << 2;
+
+    private static final int[] EMPTY = new int[0];
+
+    private DetectionCacheCodec() {
+    }
+
+    /**
+     * 编码缓存条目
+     *
+     * @param entry 缓存条目
+     * @return 编码后的字节
+     */
+    public static byte[] encode(DetectionCacheEntry entry) {
+        CompactDetectionResult result = entry.getResult();
+        int[] offsets = result.getOffsets() == null ? EMPTY : result.getOffsets();
+        int[] types = result.getTypes() == null ? EMPTY : result.getTypes();
+        int[] labels = result.getLabels();
+        byte[] text = entry.getText() == null ? null : entry.getText().getBytes(StandardCharsets.UTF_8);
+
+        int count = types.length;
+        Writer out = new Writer(16 + count * 4 + (labels != null ? count * 2 : 0) + (text != null ? text.length : 0));
+        out.writeByte(FORMAT_VERSION);
+        out.writeByte((result.isPartial() ? FLAG_PARTIAL : 0) | (labels != null ? FLAG_LABELS : 0)
+                | (text != null ? FLAG_TEXT : 0));
+        out.writeVarLong(result.getProcessingTimeMs());
+        out.writeVarInt(entry.getTextLength());
+        out.writeVarInt(count);
+
+        int previousStart = 0;
+        for (int i = 0; i < count; i++) {
+            int start = offsets[2 * i];
+            int end = offsets[2 * i + 1];
+            int delta = start - previousStart;
+            out.writeVarInt((delta << 1) ^ (delta >> 31));
+            out.writeVarInt(end - start);
+            out.writeVarInt(types[i]);
+            previousStart = start;
+        }
+        if (labels != null) {
+            for (int i = 0; i < count; i++) {
+                out.writeVarInt(labels[i]);
+            }
+        }
+        if (text != null) {
+            out.writeVarInt(text.length);
+            out.writeBytes(text);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 解码缓存条目
+     *
+     * @param bytes 编码后的字节
+     * @return 缓存条目，版本不符时为null
+     * @throws IllegalArgumentException 数据截断或损坏，包括类型序号未知、检测项位置超出文本长度
+     */
+    public static DetectionCacheEntry decode(byte[] bytes) {
+        if (bytes == null || bytes.length == 0 || bytes[0] != FORMAT_VERSION) {
+            return null;
+        }
+        Reader in = new Reader(bytes, 1);
+        int flags = in.readByte();
+        long processingTimeMs = in.readVarLong();
+        int textLength = in.readVarInt();
+        if (textLength < 0) {
+            throw new IllegalArgumentException("Corrupted detection cache entry: text length " + textLength);
+        }
+        int count = in.readVarInt();
+        // 每项至少3字节，防止损坏的数据导致超大分配
+        if (count < 0 || count > (bytes.length - in.position) / 3) {
+            throw new IllegalArgumentException("Corrupted detection cache entry: " + count + " items");
+        }
+
+        int typeCount = SensitiveDataType.values().length;
+        int[] offsets = new int[2 * count];
+        int[] types = new int[count];
+        long start = 0;
+        for (int i = 0; i < count; i++) {
+            int zigzag = in.readVarInt();
+            start += (zigzag >>> 1) ^ -(zigzag & 1);
+            // 长度按无符号数读取，用long计算结束位置避免溢出
+            long end = start + (in.readVarInt() & 0xFFFFFFFFL);
+            int type = in.readVarInt();
+            if (start < 0 || end > textLength) {
+                throw new IllegalArgumentException("Corrupted detection cache entry: range [" + start + ", " + end
+                        + ") out of text length " + textLength);
+            }
+            if (type < 0 || type >= typeCount) {
+                throw new IllegalArgumentException("Corrupted detection cache entry: type " + type);
+            }
+            offsets[2 * i] = (int) start;
+            offsets[2 * i + 1] = (int) end;
+            types[i] = type;
+        }
+        int[] labels = null;
+        if ((flags & FLAG_LABELS) != 0) {
+            labels = new int[count];
+            for (int i = 0; i < count; i++) {
+                labels[i] = in.readVarInt();
+            }
+        }
+        String text = null;
+        if ((flags & FLAG_TEXT) != 0) {
+            int length = in.readVarInt();
+            if (length < 0) {
+                throw new IllegalArgumentException("Corrupted detection cache entry: text length " + length);
+            }
+            text = new String(in.readBytes(length), StandardCharsets.UTF_8);
+        }
+
+        CompactDetectionResult result = new CompactDetectionResult(offsets, types, labels, processingTimeMs,
+                (flags & FLAG_PARTIAL) != 0);
+        return new DetectionCacheEntry(result, textLength, text);
+    }
+
+    /**
+     * 可增长的字节写入器
+     */
+    private static final class Writer {
+
+        private byte[] buffer;
+        private int size;
+
+        Writer(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[size++] = (byte) value;
+        }
+
+        void writeVarInt(int value) {
+            ensureCapacity(5);
+            while ((value & ~0x7F) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void writeBytes(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        byte[] toByteArray() {
+            return size == buffer.length ? buffer : Arrays.copyOf(buffer, size);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+
+    /**
+     * 字节读取器，越界时抛出IllegalArgumentException
+     */
+    private static final class Reader {
+
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes, int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        int readByte() {
+            if (position >= bytes.length) {
+                throw new IllegalArgumentException("Truncated detection cache entry");
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        int readVarInt() {
+            long value = readVarLong();
+            // 按32位无符号数读取，与写入时一致
+            if (value > 0xFFFFFFFFL) {
+                throw new IllegalArgumentException("Corrupted detection cache entry: varint overflow");
+            }
+            return (int) value;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Corrupted detection cache entry: varint too long");
+        }
+
+        byte[] readBytes(int length) {
+            if (length > bytes.length - position) {
+                throw new IllegalArgumentException("Truncated detection cache entry");
+            }
+            byte[] result = Arrays.copyOfRange(bytes, position, position + length);
+            position += length;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.sensitive.data.service.cache;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.sensitive.data.model.DetectionCacheEntry;
+
+/**
+ * 本地缓存的权重计算：按缓存键和条目估算保留的堆字节数
+ *
+ * 本地缓存按总字节数（maximumWeight）而不是条目数限制，短文本的小结果和长文本的大结果占用的预算不同。
+ */
+public final class DetectionCacheWeigher implements Weigher<Object, Object> {
+
+    // 非检测条目（如空值占位）按对象头估算
+    private static final int OTHER_VALUE_BYTES = 16;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        long bytes = keyBytes(key) + (value instanceof DetectionCacheEntry
+                ? ((DetectionCacheEntry) value).retainedBytes() : OTHER_VALUE_BYTES);
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    /**
+     * 估算缓存键和条目保留的字节数
+     *
+     * @param key 缓存键
+     * @param value 缓存条目
+     * @return 估算的字节数
+     */
+    public static int weigh(String key, DetectionCacheEntry value) {
+        return (int) Math.min(Integer.MAX_VALUE, keyBytes(key) + value.retainedBytes());
+    }
+
+    private static long keyBytes(Object key) {
+        if (key instanceof String) {
+            // 缓存键为ASCII，字符串对象 + 单字节编码的字节数组
+            return 24 + ((16 + ((String) key).length() + 7) & ~7);
+        }
+        return OTHER_VALUE_BYTES;
+    }
+}
@@ -1,95 +1,322 @@
 package com.sensitive.data.service.cache;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.stereotype.Service;
 
+import com.sensitive.data.model.DetectionCacheEntry;
+import com.sensitive.data.service.cache.l2.L2CacheBackend;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
 /**
  * 敏感数据缓存服务，支持多级缓存
+ *
+ * 一级缓存为本地缓存，保存{@link DetectionCacheEntry}对象本身；二级缓存为可插拔的{@link L2CacheBackend}
+ * （Redis或内嵌的内存映射段文件），保存{@link DetectionCacheCodec}编码的紧凑字节。
+ * 未配置二级缓存时只使用本地缓存；二级缓存故障按未命中处理，不影响检测。
+ *
+ * 二级缓存为远程后端时：写入先进入有界队列，由后台线程合并成批以管道方式写出（write-behind），
+ * 队列满时丢弃二级缓存写入，请求线程不等待网络；读取可以异步发起，与检测并行竞速。
+ *
+ * 写入带有检测耗时时按代价准入：命中缓存同样要计算整段文本的指纹并查找、展开条目，代价约为
+ * min-nanos + 文本长度 × min-nanos-per-char，条目还按字节数 × min-nanos-per-byte计入占用堆的代价；
+ * 检测耗时低于两者之和的结果重新检测比缓存更划算，不写入任何一级。本地缓存按条目字节数分档统计准入字节和命中次数，用于按每字节命中率评估堆容量。
+ *
+ * 作为{@link MeterBinder}注册各级缓存的Micrometer指标（标签tier=l1/l2）：命中与未命中、二级缓存回填本地缓存的次数、
+ * 写入次数与耗时、二级缓存读取耗时、本地缓存的条目数、估算字节数与淘汰，以及准入拒绝、二级缓存故障和写入丢弃。
  */
 @Service
-public class SensitiveDataCacheService {
-    
+public class SensitiveDataCacheService implements MeterBinder {
+
+    // 指标名前缀
+    private static final String METRIC_PREFIX = "sensitive.cache.";
+
+    // 缓存名称
+    public static final String DETECTION_CACHE_NAME = "sensitiveDataDetection";
+
     // 本地缓存管理器
     private final CacheManager caffeineCacheManager;
-    
-    // Redis缓存管理器
-    private final CacheManager redisCacheManager;
-    
-    // 缓存名称
-    private static final String DETECTION_CACHE_NAME = "sensitiveDataDetection";
-    
+
+    // 二级缓存后端，未配置时为null
+    private L2CacheBackend l2CacheBackend;
+
+    // 二级缓存访问失败次数
+    private final LongAdder l2Errors = new LongAdder();
+
+    // 队列满而丢弃的二级缓存写入次数
+    private final LongAdder l2WriteDrops = new LongAdder();
+
+    // 已入队但尚未写出的二级缓存写入数
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+
+    // 后台写入队列和写入线程，首次写入时创建
+    private volatile BlockingQueue<PendingWrite> writeQueue;
+    private volatile Thread writerThread;
+    private volatile boolean closed;
+
+    // 远程二级缓存是否后台批量写入
+    @Value("${sensitive.data.detector.cache.l2.write-behind.enabled:true}")
+    private boolean writeBehindEnabled = true;
+
+    // 后台写入队列容量
+    @Value("${sensitive.data.detector.cache.l2.write-behind.queue-capacity:10000}")
+    private int writeQueueCapacity = 10000;
+
+    // 每批写入的最大条数
+    @Value("${sensitive.data.detector.cache.l2.write-behind.batch-size:128}")
+    private int writeBatchSize = 128;
+
+    // 远程二级缓存的读取是否与检测竞速
+    @Value("${sensitive.data.detector.cache.l2.race.enabled:true}")
+    private boolean raceEnabled = true;
+
+    // 是否按检测代价准入
+    @Value("${sensitive.data.detector.cache.admission.enabled:true}")
+    private boolean admissionEnabled = true;
+
+    // 准入所需的固定最低检测耗时（纳秒），对应一次缓存命中的键构造、查找与条目展开
+    @Value("${sensitive.data.detector.cache.admission.min-nanos:5000}")
+    private long admissionMinNanos = 5000L;
+
+    // 准入所需的每个文本字符最低检测耗时（纳秒），对应命中时计算文本指纹与校验
+    @Value("${sensitive.data.detector.cache.admission.min-nanos-per-char:2}")
+    private double admissionMinNanosPerChar = 2;
+
+    // 准入所需的每个条目字节最低检测耗时（纳秒），对应条目占用堆的代价
+    @Value("${sensitive.data.detector.cache.admission.min-nanos-per-byte:5}")
+    private double admissionMinNanosPerByte = 5;
+
+    // 本地缓存的准入与命中统计
+    private final LocalMetrics localMetrics = new LocalMetrics();
+
+    // 各级缓存的命中、未命中、写入次数和二级缓存回填本地缓存的次数
+    private final LongAdder l1Hits = new LongAdder();
+    private final LongAdder l1Misses = new LongAdder();
+    private final LongAdder l1Puts = new LongAdder();
+    private final LongAdder l2Hits = new LongAdder();
+    private final LongAdder l2Misses = new LongAdder();
+    private final LongAdder l2Puts = new LongAdder();
+    private final LongAdder promotions = new LongAdder();
+
+    // 写入和读取耗时，绑定指标注册表后创建
+    private volatile Timer l1PutTimer;
+    private volatile Timer l2PutTimer;
+    private volatile Timer l2GetTimer;
+
     /**
      * 构造函数
      * @param caffeineCacheManager 本地缓存管理器
-     * @param redisCacheManager Redis缓存管理器
      */
-    public SensitiveDataCacheService(CacheManager caffeineCacheManager, CacheManager redisCacheManager) {
+    public SensitiveDataCacheService(CacheManager caffeineCacheManager) {
         this.caffeineCacheManager = caffeineCacheManager;
-        this.redisCacheManager = redisCacheManager;
     }
-    
+
+    /**
+     * 设置二级缓存后端（可选）
+     * @param l2CacheBackend 二级缓存后端
+     */
+    @Autowired(required = false)
+    public void setL2CacheBackend(L2CacheBackend l2CacheBackend) {
+        this.l2CacheBackend = l2CacheBackend;
+    }
+
+    /**
+     * 获取二级缓存后端
+     * @return 二级缓存后端，未配置时为null
+     */
+    public L2CacheBackend getL2CacheBackend() {
+        return l2CacheBackend;
+    }
+
     /**
      * 获取缓存值
-     * 
+     *
      * @param key 缓存键
      * @return 缓存值
      */
-    public <T> Optional<T> get(String key, Class<T> type) {
+    public Optional<DetectionCacheEntry> get(String key) {
         // 1. 先从本地缓存获取
+        DetectionCacheEntry value = getLocal(key);
+        if (value != null) {
+            return Optional.of(value);
+        }
+
+        // 2. 本地缓存未命中，从二级缓存获取，命中时同步到本地缓存
+        value = getFromL2(key);
+        if (value != null) {
+            return Optional.of(value);
+        }
+
+        // 3. 缓存未命中
+        return Optional.empty();
+    }
+
+    /**
+     * 只从本地缓存获取缓存值
+     *
+     * @param key 缓存键
+     * @return 缓存值，未命中时为null
+     */
+    public DetectionCacheEntry getLocal(String key) {
         Cache caffeineCache = caffeineCacheManager.getCache(DETECTION_CACHE_NAME);
         if (caffeineCache != null) {
             Cache.ValueWrapper caffeineValue = caffeineCache.get(key);
-            if (caffeineValue != null) {
-                return Optional.ofNullable(type.cast(caffeineValue.get()));
+            if (caffeineValue != null && caffeineValue.get() instanceof DetectionCacheEntry) {
+                DetectionCacheEntry value = (DetectionCacheEntry) caffeineValue.get();
+                l1Hits.increment();
+                localMetrics.recordHit(DetectionCacheWeigher.weigh(key, value));
+                return value;
+            }
+        }
+        l1Misses.increment();
+        return null;
+    }
+
+    /**
+     * 在有界弹性调度器上异步从二级缓存获取缓存值，命中时同步到本地缓存
+     *
+     * @param key 缓存键
+     * @return 缓存值，未命中、未配置二级缓存或访问失败时为null
+     */
+    public CompletableFuture<DetectionCacheEntry> getRemoteAsync(String key) {
+        if (l2CacheBackend == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return Mono.fromCallable(() -> getFromL2(key))
+                .subscribeOn(Schedulers.boundedElastic())
+                .toFuture();
+    }
+
+    /**
+     * 二级缓存的读取是否应与检测竞速：只有远程后端值得异步读取，本地后端同步读取更快
+     */
+    public boolean isL2Racing() {
+        return raceEnabled && l2CacheBackend != null && l2CacheBackend.isRemote();
+    }
+
+    /**
+     * 批量获取缓存值，本地缓存未命中的键在二级缓存中一次往返批量读取
+     *
+     * @param keys 缓存键
+     * @return 命中的缓存键到缓存值
+     */
+    public Map<String, DetectionCacheEntry> getAll(Collection<String> keys) {
+        Map<String, DetectionCacheEntry> found = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String key : keys) {
+            DetectionCacheEntry value = getLocal(key);
+            if (value != null) {
+                found.put(key, value);
+            } else {
+                misses.add(key);
             }
         }
-        
-        // 2. 本地缓存未命中，从Redis缓存获取
-        Cache redisCache = redisCacheManager.getCache(DETECTION_CACHE_NAME);
-        if (redisCache != null) {
-            Cache.ValueWrapper redisValue = redisCache.get(key);
-            if (redisValue != null) {
-                T value = type.cast(redisValue.get());
-                
-                // 将Redis缓存值同步到本地缓存
-                if (caffeineCache != null) {
-                    caffeineCache.put(key, value);
-                }
-                
-                return Optional.ofNullable(value);
+        if (misses.isEmpty() || l2CacheBackend == null) {
+            return found;
+        }
+
+        List<byte[]> values;
+        long startNanos = System.nanoTime();
+        try {
+            values = l2CacheBackend.getAll(misses);
+        } catch (RuntimeException e) {
+            l2Errors.increment();
+            return found;
+        } finally {
+            record(l2GetTimer, startNanos);
+        }
+        for (int i = 0; i < misses.size(); i++) {
+            DetectionCacheEntry value = decode(values.get(i));
+            if (value != null) {
+                l2Hits.increment();
+                found.put(misses.get(i), value);
+                promote(misses.get(i), value);
+            } else {
+                l2Misses.increment();
             }
         }
-        
-        // 3. 缓存未命中
-        return Optional.empty();
+        return found;
     }
-    
+
     /**
-     * 设置缓存值
-     * 
+     * 设置缓存值，不经过准入判断
+     *
      * @param key 缓存键
      * @param value 缓存值
      */
-    public <T> void put(String key, T value) {
+    public void put(String key, DetectionCacheEntry value) {
+        put(key, value, -1);
+    }
+
+    /**
+     * 按检测代价准入后设置缓存值
+     *
+     * @param key 缓存键
+     * @param value 缓存值
+     * @param computeNanos 得到该结果的检测耗时（纳秒），为负数时不做准入判断
+     * @return 是否写入缓存
+     */
+    public boolean put(String key, DetectionCacheEntry value, long computeNanos) {
+        int weight = DetectionCacheWeigher.weigh(key, value);
+        if (admissionEnabled && computeNanos >= 0 && computeNanos < admissionThresholdNanos(value, weight)) {
+            // 重新检测比命中缓存并占用堆更划算
+            localMetrics.rejected.increment();
+            return false;
+        }
+
         // 1. 设置本地缓存
-        Cache caffeineCache = caffeineCacheManager.getCache(DETECTION_CACHE_NAME);
-        if (caffeineCache != null) {
-            caffeineCache.put(key, value);
+        putLocal(key, value, weight);
+
+        // 2. 设置二级缓存，远程后端由后台线程批量写入
+        if (l2CacheBackend == null) {
+            return true;
+        }
+        if (writeBehindEnabled && l2CacheBackend.isRemote() && !closed) {
+            enqueueWrite(key, value);
+            return true;
         }
-        
-        // 2. 设置Redis缓存
-        Cache redisCache = redisCacheManager.getCache(DETECTION_CACHE_NAME);
-        if (redisCache != null) {
-            redisCache.put(key, value);
+        long startNanos = System.nanoTime();
+        try {
+            l2CacheBackend.put(key, DetectionCacheCodec.encode(value));
+            l2Puts.increment();
+        } catch (RuntimeException e) {
+            l2Errors.increment();
+        } finally {
+            record(l2PutTimer, startNanos);
         }
+        return true;
     }
-    
+
     /**
      * 删除缓存值
-     * 
+     *
      * @param key 缓存键
      */
     public void evict(String key) {
@@ -98,56 +325,523 @@ public class SensitiveDataCacheService {
         if (caffeineCache != null) {
             caffeineCache.evict(key);
         }
-        
-        // 2. 删除Redis缓存
-        Cache redisCache = redisCacheManager.getCache(DETECTION_CACHE_NAME);
-        if (redisCache != null) {
-            redisCache.evict(key);
+
+        // 2. 删除二级缓存
+        if (l2CacheBackend != null) {
+            try {
+                l2CacheBackend.evict(key);
+            } catch (RuntimeException e) {
+                l2Errors.increment();
+            }
         }
     }
-    
+
     /**
      * 清空缓存
      */
     public void clear() {
         // 1. 清空本地缓存
+        clearLocal();
+
+        // 2. 清空二级缓存
+        if (l2CacheBackend != null) {
+            try {
+                l2CacheBackend.clear();
+            } catch (RuntimeException e) {
+                l2Errors.increment();
+            }
+        }
+    }
+
+    /**
+     * 只清空本地缓存，二级缓存可能由多个实例共享，其中的条目按过期时间或容量淘汰
+     */
+    public void clearLocal() {
         Cache caffeineCache = caffeineCacheManager.getCache(DETECTION_CACHE_NAME);
         if (caffeineCache != null) {
             caffeineCache.clear();
         }
-        
-        // 2. 清空Redis缓存
-        Cache redisCache = redisCacheManager.getCache(DETECTION_CACHE_NAME);
-        if (redisCache != null) {
-            redisCache.clear();
-        }
     }
-    
+
     /**
      * 检查缓存是否存在
-     * 
+     *
      * @param key 缓存键
      * @return 是否存在
      */
     public boolean exists(String key) {
-        // 1. 检查本地缓存
+        return get(key).isPresent();
+    }
+
+    /**
+     * 注册各级缓存的指标
+     * @param registry 指标注册表
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindGets(registry, "l1", l1Hits, l1Misses);
+        bindGets(registry, "l2", l2Hits, l2Misses);
+        FunctionCounter.builder(METRIC_PREFIX + "puts", l1Puts, LongAdder::sum).tag("tier", "l1")
+                .description("写入本地缓存的条目数").register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + "puts", l2Puts, LongAdder::sum).tag("tier", "l2")
+                .description("写入二级缓存的条目数").register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + "promotions", promotions, LongAdder::sum)
+                .description("二级缓存命中后回填本地缓存的条目数").register(registry);
+        l1PutTimer = Timer.builder(METRIC_PREFIX + "put.duration").tag("tier", "l1")
+                .description("本地缓存写入耗时").register(registry);
+        l2PutTimer = Timer.builder(METRIC_PREFIX + "put.duration").tag("tier", "l2")
+                .description("二级缓存写入耗时，后台批量写入按批计时").register(registry);
+        l2GetTimer = Timer.builder(METRIC_PREFIX + "get.duration").tag("tier", "l2")
+                .description("二级缓存读取耗时，批量读取按批计时").register(registry);
+
+        // 本地缓存容量与淘汰，读取Caffeine自身的统计
+        Gauge.builder(METRIC_PREFIX + "size", localMetrics, LocalMetrics::getEntries).tag("tier", "l1")
+                .description("本地缓存条目数").register(registry);
+        Gauge.builder(METRIC_PREFIX + "weight", localMetrics, LocalMetrics::getWeightedBytes).tag("tier", "l1")
+                .baseUnit("bytes").description("本地缓存条目的估算字节数").register(registry);
+        Gauge.builder(METRIC_PREFIX + "max.weight", localMetrics, LocalMetrics::getMaximumBytes).tag("tier", "l1")
+                .baseUnit("bytes").description("本地缓存的字节数上限").register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + "evictions", localMetrics, LocalMetrics::getEvictions)
+                .tag("tier", "l1").description("本地缓存因容量淘汰的条目数").register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + "evictions.weight", localMetrics, LocalMetrics::getEvictedBytes)
+                .tag("tier", "l1").baseUnit("bytes").description("本地缓存因容量淘汰的字节数").register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + "admission.rejected", localMetrics, LocalMetrics::getRejected)
+                .description("重新检测比缓存更划算而未写入的结果数").register(registry);
+
+        // 二级缓存故障与后台写入
+        FunctionCounter.builder(METRIC_PREFIX + "errors", l2Errors, LongAdder::sum).tag("tier", "l2")
+                .description("二级缓存访问失败次数").register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + "write.drops", l2WriteDrops, LongAdder::sum).tag("tier", "l2")
+                .description("后台写入队列满而丢弃的写入数").register(registry);
+        Gauge.builder(METRIC_PREFIX + "pending.writes", pendingWrites, AtomicInteger::get).tag("tier", "l2")
+                .description("尚未写出的二级缓存写入数").register(registry);
+
+        // 二级缓存容量与淘汰，只绑定能统计的后端（Redis由服务端自行淘汰，不在此统计）
+        L2CacheBackend backend = l2CacheBackend;
+        if (backend != null && backend.getEntryCount() >= 0) {
+            Gauge.builder(METRIC_PREFIX + "size", backend, L2CacheBackend::getEntryCount).tag("tier", "l2")
+                    .description("二级缓存条目数").register(registry);
+        }
+        if (backend != null && backend.getEvictionCount() >= 0) {
+            FunctionCounter.builder(METRIC_PREFIX + "evictions", backend, L2CacheBackend::getEvictionCount)
+                    .tag("tier", "l2").description("二级缓存因容量淘汰的条目数").register(registry);
+        }
+    }
+
+    private static void bindGets(MeterRegistry registry, String tier, LongAdder hits, LongAdder misses) {
+        FunctionCounter.builder(METRIC_PREFIX + "gets", hits, LongAdder::sum).tags("tier", tier, "result", "hit")
+                .description("缓存读取次数").register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + "gets", misses, LongAdder::sum).tags("tier", tier, "result", "miss")
+                .description("缓存读取次数").register(registry);
+    }
+
+    /**
+     * 准入所需的最低检测耗时：一次命中的代价加上条目占用堆的代价
+     */
+    private double admissionThresholdNanos(DetectionCacheEntry value, int weight) {
+        return admissionMinNanos + value.getTextLength() * admissionMinNanosPerChar
+                + weight * admissionMinNanosPerByte;
+    }
+
+    /**
+     * 获取本地缓存的准入、容量与按条目大小分档的命中统计
+     * @return 本地缓存统计
+     */
+    public LocalMetrics getLocalMetrics() {
+        return localMetrics;
+    }
+
+    /**
+     * 获取二级缓存访问失败次数
+     * @return 失败次数
+     */
+    public long getL2Errors() {
+        return l2Errors.sum();
+    }
+
+    /**
+     * 获取队列满而丢弃的二级缓存写入次数
+     * @return 丢弃次数
+     */
+    public long getL2WriteDrops() {
+        return l2WriteDrops.sum();
+    }
+
+    /**
+     * 获取尚未写出的二级缓存写入数
+     * @return 待写入数
+     */
+    public int getPendingWrites() {
+        return pendingWrites.get();
+    }
+
+    /**
+     * 在调用线程上写出队列中的全部写入，并等待后台线程正在写出的批次完成
+     *
+     * @param timeoutMillis 最长等待时间（毫秒）
+     * @return 是否已全部写出
+     */
+    public boolean flushWrites(long timeoutMillis) {
+        BlockingQueue<PendingWrite> queue = writeQueue;
+        if (queue != null) {
+            List<PendingWrite> batch = new ArrayList<>();
+            while (queue.drainTo(batch, Math.max(1, writeBatchSize)) > 0) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (pendingWrites.get() > 0 && System.nanoTime() - deadline < 0) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return pendingWrites.get() == 0;
+    }
+
+    /**
+     * 停止后台写入线程并写出剩余的写入
+     */
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        Thread thread = writerThread;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushWrites(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private DetectionCacheEntry getFromL2(String key) {
+        if (l2CacheBackend == null) {
+            return null;
+        }
+        long startNanos = System.nanoTime();
+        byte[] bytes;
+        try {
+            bytes = l2CacheBackend.get(key);
+        } catch (RuntimeException e) {
+            // 后端故障按未命中处理
+            l2Errors.increment();
+            l2Misses.increment();
+            return null;
+        } finally {
+            record(l2GetTimer, startNanos);
+        }
+        DetectionCacheEntry value = decode(bytes);
+        if (value == null) {
+            l2Misses.increment();
+            return null;
+        }
+        l2Hits.increment();
+        promote(key, value);
+        return value;
+    }
+
+    /**
+     * 二级缓存命中的条目回填本地缓存
+     */
+    private void promote(String key, DetectionCacheEntry value) {
+        putLocal(key, value, DetectionCacheWeigher.weigh(key, value));
+        promotions.increment();
+    }
+
+    private void putLocal(String key, DetectionCacheEntry value, int weight) {
         Cache caffeineCache = caffeineCacheManager.getCache(DETECTION_CACHE_NAME);
         if (caffeineCache != null) {
-            Cache.ValueWrapper caffeineValue = caffeineCache.get(key);
-            if (caffeineValue != null) {
-                return true;
+            long startNanos = System.nanoTime();
+            caffeineCache.put(key, value);
+            record(l1PutTimer, startNanos);
+            l1Puts.increment();
+            localMetrics.recordAdmission(weight);
+        }
+    }
+
+    private static void record(Timer timer, long startNanos) {
+        if (timer != null) {
+            timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private DetectionCacheEntry decode(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            return DetectionCacheCodec.decode(bytes);
+        } catch (IllegalArgumentException e) {
+            l2Errors.increment();
+            return null;
+        }
+    }
+
+    private void enqueueWrite(String key, DetectionCacheEntry value) {
+        BlockingQueue<PendingWrite> queue = writeQueue;
+        if (queue == null) {
+            queue = startWriter();
+        }
+        pendingWrites.incrementAndGet();
+        if (!queue.offer(new PendingWrite(key, value))) {
+            pendingWrites.decrementAndGet();
+            l2WriteDrops.increment();
+        }
+    }
+
+    private synchronized BlockingQueue<PendingWrite> startWriter() {
+        if (writeQueue == null) {
+            BlockingQueue<PendingWrite> queue = new ArrayBlockingQueue<>(Math.max(1, writeQueueCapacity));
+            Thread thread = new Thread(() -> drainLoop(queue), "L2-Cache-Writer");
+            thread.setDaemon(true);
+            thread.start();
+            writerThread = thread;
+            writeQueue = queue;
+        }
+        return writeQueue;
+    }
+
+    /**
+     * 后台写入循环：等待第一条写入，再取出此刻已排队的写入凑成一批
+     */
+    private void drainLoop(BlockingQueue<PendingWrite> queue) {
+        List<PendingWrite> batch = new ArrayList<>(Math.max(1, writeBatchSize));
+        while (!closed) {
+            try {
+                PendingWrite first = queue.take();
+                batch.add(first);
+                queue.drainTo(batch, Math.max(1, writeBatchSize) - 1);
+                writeBatch(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // 关闭时由shutdown写出剩余的写入
+                return;
             }
         }
-        
-        // 2. 检查Redis缓存
-        Cache redisCache = redisCacheManager.getCache(DETECTION_CACHE_NAME);
-        if (redisCache != null) {
-            Cache.ValueWrapper redisValue = redisCache.get(key);
-            if (redisValue != null) {
-                return true;
+    }
+
+    private void writeBatch(List<PendingWrite> batch) {
+        // 同一批内同一个键只写最后一次
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        for (PendingWrite write : batch) {
+            entries.put(write.key, DetectionCacheCodec.encode(write.value));
+        }
+        long startNanos = System.nanoTime();
+        try {
+            l2CacheBackend.putAll(entries);
+            l2Puts.add(entries.size());
+        } catch (RuntimeException e) {
+            l2Errors.increment();
+        } finally {
+            // 后台批量写入按批计时
+            record(l2PutTimer, startNanos);
+            pendingWrites.addAndGet(-batch.size());
+        }
+    }
+
+    /**
+     * 本地缓存统计
+     *
+     * 条目按估算字节数分为若干档，每档统计准入的条目数、字节数和命中次数；
+     * 每MB准入字节的命中次数（hitsPerMegabyte）低的档位占用堆却很少被复用。
+     * 容量和整体命中率来自Caffeine自身的统计，本地缓存不是Caffeine时为-1。
+     */
+    public final class LocalMetrics {
+
+        // 各档的字节数上限（不含），最后一档无上限
+        private final long[] bounds = {256, 1024, 4096, 16384, 65536, Long.MAX_VALUE};
+        private final LongAdder[] admitted = newAdders(bounds.length);
+        private final LongAdder[] admittedBytes = newAdders(bounds.length);
+        private final LongAdder[] hits = newAdders(bounds.length);
+        private final LongAdder rejected = new LongAdder();
+
+        private LocalMetrics() {
+        }
+
+        void recordAdmission(int weight) {
+            int sizeClass = sizeClass(weight);
+            admitted[sizeClass].increment();
+            admittedBytes[sizeClass].add(weight);
+        }
+
+        void recordHit(int weight) {
+            hits[sizeClass(weight)].increment();
+        }
+
+        /**
+         * 因重新检测比缓存更划算而未写入的结果数
+         */
+        public long getRejected() {
+            return rejected.sum();
+        }
+
+        /**
+         * 本地缓存当前条目数
+         */
+        public long getEntries() {
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> cache = nativeCache();
+            return cache == null ? -1 : cache.estimatedSize();
+        }
+
+        /**
+         * 本地缓存当前的估算字节数（权重之和）
+         */
+        public long getWeightedBytes() {
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> cache = nativeCache();
+            if (cache == null) {
+                return -1;
+            }
+            return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(-1)).orElse(-1L);
+        }
+
+        /**
+         * 本地缓存的字节数上限，未按权重限制时为-1
+         */
+        public long getMaximumBytes() {
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> cache = nativeCache();
+            if (cache == null) {
+                return -1;
+            }
+            return cache.policy().eviction()
+                    .filter(eviction -> eviction.isWeighted())
+                    .map(eviction -> eviction.getMaximum()).orElse(-1L);
+        }
+
+        /**
+         * 本地缓存命中率，未记录统计时为-1
+         */
+        public double getHitRate() {
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> cache = nativeCache();
+            return cache == null ? -1 : cache.stats().hitRate();
+        }
+
+        /**
+         * 因容量淘汰的条目数
+         */
+        public long getEvictions() {
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> cache = nativeCache();
+            return cache == null ? 0 : cache.stats().evictionCount();
+        }
+
+        /**
+         * 因容量淘汰的字节数
+         */
+        public long getEvictedBytes() {
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> cache = nativeCache();
+            return cache == null ? 0 : cache.stats().evictionWeight();
+        }
+
+        /**
+         * 当前每MB缓存字节的累计命中次数
+         */
+        public double getHitsPerMegabyte() {
+            long bytes = getWeightedBytes();
+            long totalHits = 0;
+            for (LongAdder hit : hits) {
+                totalHits += hit.sum();
             }
+            return bytes <= 0 ? 0 : totalHits * 1048576.0 / bytes;
+        }
+
+        /**
+         * 按条目大小分档的统计
+         */
+        public List<SizeClass> getSizeClasses() {
+            List<SizeClass> sizeClasses = new ArrayList<>(bounds.length);
+            for (int i = 0; i < bounds.length; i++) {
+                sizeClasses.add(new SizeClass(bounds[i] == Long.MAX_VALUE ? -1 : bounds[i], admitted[i].sum(),
+                        admittedBytes[i].sum(), hits[i].sum()));
+            }
+            return sizeClasses;
+        }
+
+        private int sizeClass(long weight) {
+            int i = 0;
+            while (weight >= bounds[i]) {
+                i++;
+            }
+            return i;
+        }
+
+        @SuppressWarnings("unchecked")
+        private com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache() {
+            Cache cache = caffeineCacheManager.getCache(DETECTION_CACHE_NAME);
+            if (cache instanceof CaffeineCache) {
+                return ((CaffeineCache) cache).getNativeCache();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 一档条目大小的统计
+     */
+    public static final class SizeClass {
+
+        private final long maxBytes;
+        private final long admitted;
+        private final long admittedBytes;
+        private final long hits;
+
+        SizeClass(long maxBytes, long admitted, long admittedBytes, long hits) {
+            this.maxBytes = maxBytes;
+            this.admitted = admitted;
+            this.admittedBytes = admittedBytes;
+            this.hits = hits;
+        }
+
+        /**
+         * 本档条目字节数上限（不含），最后一档为-1
+         */
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public long getAdmitted() {
+            return admitted;
+        }
+
+        public long getAdmittedBytes() {
+            return admittedBytes;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * 每MB准入字节带来的命中次数
+         */
+        public double getHitsPerMegabyte() {
+            return admittedBytes == 0 ? 0 : hits * 1048576.0 / admittedBytes;
+        }
+    }
+
+    private static LongAdder[] newAdders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * 等待写入二级缓存的条目
+     */
+    private static final class PendingWrite {
+
+        private final String key;
+        private final DetectionCacheEntry value;
+
+        PendingWrite(String key, DetectionCacheEntry value) {
+            this.key = key;
+            this.value = value;
         }
-        
-        return false;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,94 @@
+package com.sensitive.data.service.cache.l2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 二级缓存后端
+ *
+ * 按字节存取，值的编码由调用方负责（检测结果使用{@link com.sensitive.data.service.cache.DetectionCacheCodec}）。
+ * 实现需要线程安全；后端故障时可以抛出运行时异常，由调用方按未命中处理。
+ * 批量操作默认逐个执行，远程后端应覆盖为一次往返完成。
+ */
+public interface L2CacheBackend {
+
+    /**
+     * 获取缓存值
+     *
+     * @param key 缓存键
+     * @return 缓存值，未命中或已过期时为null
+     */
+    byte[] get(String key);
+
+    /**
+     * 写入缓存值，已存在时覆盖
+     *
+     * @param key 缓存键
+     * @param value 缓存值
+     */
+    void put(String key, byte[] value);
+
+    /**
+     * 批量获取缓存值
+     *
+     * @param keys 缓存键
+     * @return 与键顺序一致的缓存值，未命中的位置为null
+     */
+    default List<byte[]> getAll(List<String> keys) {
+        List<byte[]> values = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            values.add(get(key));
+        }
+        return values;
+    }
+
+    /**
+     * 批量写入缓存值
+     *
+     * @param entries 缓存键到缓存值
+     */
+    default void putAll(Map<String, byte[]> entries) {
+        for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * 删除缓存值
+     *
+     * @param key 缓存键
+     */
+    void evict(String key);
+
+    /**
+     * 清空缓存
+     */
+    void clear();
+
+    /**
+     * 后端名称，用于指标和诊断
+     */
+    String getName();
+
+    /**
+     * 是否为远程后端。远程后端的读取有网络往返，缓存服务会让读取与检测并行竞速，写入改为后台批量执行
+     */
+    default boolean isRemote() {
+        return false;
+    }
+
+    /**
+     * 当前的条目数，用于指标；后端无法统计时返回-1
+     */
+    default long getEntryCount() {
+        return -1;
+    }
+
+    /**
+     * 因容量淘汰的累计条目数，用于指标；后端无法统计（如由Redis自行淘汰）时返回-1
+     */
+    default long getEvictionCount() {
+        return -1;
+    }
+}
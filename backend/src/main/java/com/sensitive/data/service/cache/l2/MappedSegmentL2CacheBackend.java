@@ -0,0 +1,366 @@
+package com.sensitive.data.service.cache.l2;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import com.sensitive.data.util.hash.Fingerprint128;
+import com.sensitive.data.util.hash.MurmurHash3;
+
+/**
+ * 内嵌的磁盘二级缓存后端：内存映射的段文件 + 开放寻址哈希索引 + CLOCK淘汰
+ *
+ * 缓存由若干段文件组成，按键的128位哈希选择段，每段一把锁。段文件是一张开放寻址的记录表，
+ * 每条记录定长，包含键哈希、过期时间、值长度、状态、引用位和值本身：
+ * <pre>
+ * 文件头(64字节): 魔数 布局版本 记录数 值容量
+ * 记录(32字节头 + 值容量): 键哈希高64位 低64位 过期时间(毫秒) 值长度 状态 引用位 值
+ * </pre>
+ * 键从哈希决定的起始记录开始线性探测至多{@link #PROBE_WINDOW}条记录。写入时优先使用同键、空或已过期的记录，
+ * 窗口已满时按CLOCK淘汰：指针在窗口内轮转，被访问过（引用位为1）的记录清除引用位获得第二次机会，
+ * 遇到引用位为0的记录即淘汰。新写入的记录引用位为0，只被写入一次的结果先被淘汰。
+ * 超过值容量的值不写入。
+ *
+ * 数据写入内存映射区域后由操作系统回写，进程重启后段文件中的条目仍可读取；
+ * 文件头与当前布局不一致的段文件会被重新初始化。写入时先清除状态再写内容，最后置位状态，
+ * 进程在写入中途退出不会留下半条记录。
+ */
+public class MappedSegmentL2CacheBackend implements L2CacheBackend, Closeable {
+
+    /**
+     * 每个键的探测窗口（记录数）
+     */
+    public static final int PROBE_WINDOW = 8;
+
+    private static final int MAGIC = 0x53444C32;
+    private static final int LAYOUT_VERSION = 1;
+    private static final int FILE_HEADER_BYTES = 64;
+    private static final int RECORD_HEADER_BYTES = 32;
+
+    private static final int OFFSET_KEY_HIGH = 0;
+    private static final int OFFSET_KEY_LOW = 8;
+    private static final int OFFSET_EXPIRE_AT = 16;
+    private static final int OFFSET_LENGTH = 24;
+    private static final int OFFSET_STATE = 28;
+    private static final int OFFSET_REFERENCED = 29;
+
+    private static final byte STATE_EMPTY = 0;
+    private static final byte STATE_LIVE = 1;
+
+    // 与检测文本指纹使用不同的种子
+    private static final int KEY_SEED = 0x5EED;
+
+    private final Segment[] segments;
+    private final int valueCapacity;
+    private final long ttlMillis;
+
+    /**
+     * 打开或创建段文件
+     *
+     * @param directory 段文件目录，不存在时创建
+     * @param segmentCount 段数
+     * @param segmentBytes 每段文件大小（字节），不超过2GB
+     * @param valueCapacity 每条记录的值容量（字节）
+     * @param ttl 条目过期时间
+     * @throws IOException 段文件无法创建或映射
+     */
+    public MappedSegmentL2CacheBackend(Path directory, int segmentCount, long segmentBytes, int valueCapacity,
+            Duration ttl) throws IOException {
+        if (segmentCount <= 0 || valueCapacity <= 0) {
+            throw new IllegalArgumentException("segmentCount and valueCapacity must be positive");
+        }
+        if (segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("segmentBytes must not exceed 2GB: " + segmentBytes);
+        }
+        int recordBytes = (RECORD_HEADER_BYTES + valueCapacity + 7) & ~7;
+        int recordCount = (int) ((segmentBytes - FILE_HEADER_BYTES) / recordBytes);
+        if (recordCount < PROBE_WINDOW) {
+            throw new IllegalArgumentException("Segment too small for " + PROBE_WINDOW + " records: " + segmentBytes);
+        }
+        this.valueCapacity = valueCapacity;
+        this.ttlMillis = ttl.toMillis();
+
+        Files.createDirectories(directory);
+        this.segments = new Segment[segmentCount];
+        try {
+            for (int i = 0; i < segmentCount; i++) {
+                segments[i] = Segment.open(directory.resolve(String.format("segment-%03d.dat", i)),
+                        recordCount, recordBytes, valueCapacity);
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public byte[] get(String key) {
+        Fingerprint128 hash = MurmurHash3.hash128(key, KEY_SEED);
+        return segmentFor(hash).get(hash.getHigh(), hash.getLow(), System.currentTimeMillis());
+    }
+
+    @Override
+    public void put(String key, byte[] value) {
+        if (value.length > valueCapacity) {
+            return;
+        }
+        Fingerprint128 hash = MurmurHash3.hash128(key, KEY_SEED);
+        long now = System.currentTimeMillis();
+        segmentFor(hash).put(hash.getHigh(), hash.getLow(), value, now, now + ttlMillis);
+    }
+
+    @Override
+    public void evict(String key) {
+        Fingerprint128 hash = MurmurHash3.hash128(key, KEY_SEED);
+        segmentFor(hash).evict(hash.getHigh(), hash.getLow());
+    }
+
+    @Override
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "mapped";
+    }
+
+    /**
+     * 状态为有效的记录数，包括已过期但尚未被读取或覆盖回收的记录
+     */
+    @Override
+    public long getEntryCount() {
+        long count = 0;
+        for (Segment segment : segments) {
+            count += segment.liveRecords;
+        }
+        return count;
+    }
+
+    /**
+     * 探测窗口已满、按CLOCK淘汰未过期记录的累计次数
+     */
+    @Override
+    public long getEvictionCount() {
+        long count = 0;
+        for (Segment segment : segments) {
+            count += segment.evictions;
+        }
+        return count;
+    }
+
+    /**
+     * 每条记录的值容量，超过容量的值不写入
+     */
+    public int getValueCapacity() {
+        return valueCapacity;
+    }
+
+    /**
+     * 把映射区域的修改刷写到磁盘并关闭段文件
+     */
+    @Override
+    public void close() {
+        for (Segment segment : segments) {
+            if (segment != null) {
+                segment.close();
+            }
+        }
+    }
+
+    private Segment segmentFor(Fingerprint128 hash) {
+        return segments[(int) Long.remainderUnsigned(hash.getHigh(), segments.length)];
+    }
+
+    /**
+     * 一个段文件
+     */
+    private static final class Segment {
+
+        private final RandomAccessFile file;
+        private final MappedByteBuffer buffer;
+        private final int recordCount;
+        private final int recordBytes;
+        // CLOCK指针，在探测窗口内轮转
+        private int clockHand;
+        // 有效记录数与淘汰次数，在段锁内修改，指标读取不加锁
+        private volatile int liveRecords;
+        private volatile long evictions;
+
+        private Segment(RandomAccessFile file, MappedByteBuffer buffer, int recordCount, int recordBytes) {
+            this.file = file;
+            this.buffer = buffer;
+            this.recordCount = recordCount;
+            this.recordBytes = recordBytes;
+            // 重新打开的段文件中已有的记录
+            int live = 0;
+            for (int record = 0; record < recordCount; record++) {
+                if (buffer.get(offset(record) + OFFSET_STATE) == STATE_LIVE) {
+                    live++;
+                }
+            }
+            this.liveRecords = live;
+        }
+
+        static Segment open(Path path, int recordCount, int recordBytes, int valueCapacity) throws IOException {
+            long size = FILE_HEADER_BYTES + (long) recordCount * recordBytes;
+            RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw");
+            try {
+                boolean compatible = file.length() == size && file.readInt() == MAGIC
+                        && file.readInt() == LAYOUT_VERSION && file.readInt() == recordCount
+                        && file.readInt() == valueCapacity;
+                if (!compatible) {
+                    // 布局不一致（或新文件）时重新初始化，截断后扩展的区域全部为0，即全部记录为空
+                    file.setLength(0);
+                    file.setLength(size);
+                }
+                MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+                if (!compatible) {
+                    buffer.putInt(0, MAGIC);
+                    buffer.putInt(4, LAYOUT_VERSION);
+                    buffer.putInt(8, recordCount);
+                    buffer.putInt(12, valueCapacity);
+                }
+                return new Segment(file, buffer, recordCount, recordBytes);
+            } catch (IOException | RuntimeException e) {
+                file.close();
+                throw e;
+            }
+        }
+
+        synchronized byte[] get(long keyHigh, long keyLow, long now) {
+            int record = find(keyHigh, keyLow);
+            if (record < 0) {
+                return null;
+            }
+            int base = offset(record);
+            if (buffer.getLong(base + OFFSET_EXPIRE_AT) <= now) {
+                buffer.put(base + OFFSET_STATE, STATE_EMPTY);
+                liveRecords--;
+                return null;
+            }
+            buffer.put(base + OFFSET_REFERENCED, (byte) 1);
+            byte[] value = new byte[buffer.getInt(base + OFFSET_LENGTH)];
+            // 通过Buffer调用position，避免在JDK 9+上编译后链接到JDK 8不存在的协变返回方法
+            ((Buffer) buffer).position(base + RECORD_HEADER_BYTES);
+            buffer.get(value);
+            return value;
+        }
+
+        synchronized void put(long keyHigh, long keyLow, byte[] value, long now, long expireAt) {
+            int record = find(keyHigh, keyLow);
+            if (record < 0) {
+                record = findFree(keyHigh, keyLow, now);
+                if (record >= 0 && buffer.get(offset(record) + OFFSET_STATE) != STATE_LIVE) {
+                    liveRecords++;
+                }
+            }
+            if (record < 0) {
+                record = clockVictim(keyLow);
+                evictions++;
+            }
+            int base = offset(record);
+            buffer.put(base + OFFSET_STATE, STATE_EMPTY);
+            buffer.putLong(base + OFFSET_KEY_HIGH, keyHigh);
+            buffer.putLong(base + OFFSET_KEY_LOW, keyLow);
+            buffer.putLong(base + OFFSET_EXPIRE_AT, expireAt);
+            buffer.putInt(base + OFFSET_LENGTH, value.length);
+            buffer.put(base + OFFSET_REFERENCED, (byte) 0);
+            ((Buffer) buffer).position(base + RECORD_HEADER_BYTES);
+            buffer.put(value);
+            buffer.put(base + OFFSET_STATE, STATE_LIVE);
+        }
+
+        synchronized void evict(long keyHigh, long keyLow) {
+            int record = find(keyHigh, keyLow);
+            if (record >= 0) {
+                buffer.put(offset(record) + OFFSET_STATE, STATE_EMPTY);
+                liveRecords--;
+            }
+        }
+
+        synchronized void clear() {
+            for (int record = 0; record < recordCount; record++) {
+                buffer.put(offset(record) + OFFSET_STATE, STATE_EMPTY);
+            }
+            liveRecords = 0;
+        }
+
+        synchronized void close() {
+            try {
+                buffer.force();
+                file.close();
+            } catch (IOException e) {
+                // 关闭时刷写失败不影响缓存语义，下次启动时最多丢失部分条目
+            }
+        }
+
+        /**
+         * 在探测窗口内查找键，未找到时返回-1
+         */
+        private int find(long keyHigh, long keyLow) {
+            int start = start(keyLow);
+            for (int i = 0; i < PROBE_WINDOW; i++) {
+                int base = offset(slot(start, i));
+                if (buffer.get(base + OFFSET_STATE) == STATE_LIVE && buffer.getLong(base + OFFSET_KEY_HIGH) == keyHigh
+                        && buffer.getLong(base + OFFSET_KEY_LOW) == keyLow) {
+                    return slot(start, i);
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * 在探测窗口内查找空或已过期的记录，未找到时返回-1
+         */
+        private int findFree(long keyHigh, long keyLow, long now) {
+            int start = start(keyLow);
+            for (int i = 0; i < PROBE_WINDOW; i++) {
+                int base = offset(slot(start, i));
+                if (buffer.get(base + OFFSET_STATE) != STATE_LIVE || buffer.getLong(base + OFFSET_EXPIRE_AT) <= now) {
+                    return slot(start, i);
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * 按CLOCK在探测窗口内选出被淘汰的记录
+         */
+        private int clockVictim(long keyLow) {
+            int start = start(keyLow);
+            // 至多两轮：第一轮清除引用位，第二轮必然遇到引用位为0的记录
+            for (int step = 0; step < 2 * PROBE_WINDOW; step++) {
+                int record = slot(start, clockHand);
+                clockHand = (clockHand + 1) % PROBE_WINDOW;
+                int base = offset(record);
+                if (buffer.get(base + OFFSET_REFERENCED) == 0) {
+                    return record;
+                }
+                buffer.put(base + OFFSET_REFERENCED, (byte) 0);
+            }
+            return slot(start, clockHand);
+        }
+
+        private int start(long keyLow) {
+            return (int) Long.remainderUnsigned(keyLow, recordCount);
+        }
+
+        private int slot(int start, int i) {
+            int slot = start + i;
+            return slot >= recordCount ? slot - recordCount : slot;
+        }
+
+        private int offset(int record) {
+            return FILE_HEADER_BYTES + record * recordBytes;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.sensitive.data.service.cache.l2;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.types.Expiration;
+
+/**
+ * 基于Redis的二级缓存后端
+ *
+ * 键格式与Spring RedisCache一致（缓存名::键），值为调用方编码好的字节，按固定过期时间写入。
+ * 批量读取使用MGET，批量写入在单机连接上以管道方式发送SET EX，集群连接不支持管道时逐条写入。
+ */
+public class RedisL2CacheBackend implements L2CacheBackend {
+
+    private final RedisConnectionFactory connectionFactory;
+    private final RedisCacheWriter cacheWriter;
+    private final String cacheName;
+    private final Duration ttl;
+
+    /**
+     * 构造函数
+     * @param connectionFactory Redis连接工厂
+     * @param cacheName 缓存名称，作为键前缀
+     * @param ttl 过期时间
+     */
+    public RedisL2CacheBackend(RedisConnectionFactory connectionFactory, String cacheName, Duration ttl) {
+        this.connectionFactory = connectionFactory;
+        this.cacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory);
+        this.cacheName = cacheName;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public byte[] get(String key) {
+        return cacheWriter.get(cacheName, rawKey(key));
+    }
+
+    @Override
+    public void put(String key, byte[] value) {
+        cacheWriter.put(cacheName, rawKey(key), value, ttl);
+    }
+
+    @Override
+    public List<byte[]> getAll(List<String> keys) {
+        if (keys.isEmpty()) {
+            return Collections.emptyList();
+        }
+        byte[][] rawKeys = new byte[keys.size()][];
+        for (int i = 0; i < rawKeys.length; i++) {
+            rawKeys[i] = rawKey(keys.get(i));
+        }
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            List<byte[]> values = connection.stringCommands().mGet(rawKeys);
+            return values != null ? values : Collections.<byte[]>nCopies(keys.size(), null);
+        }
+    }
+
+    @Override
+    public void putAll(Map<String, byte[]> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        Expiration expiration = Expiration.from(ttl);
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            boolean pipelined = !(connection instanceof RedisClusterConnection);
+            if (pipelined) {
+                connection.openPipeline();
+            }
+            try {
+                for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                    connection.stringCommands().set(rawKey(entry.getKey()), entry.getValue(), expiration,
+                            RedisStringCommands.SetOption.upsert());
+                }
+            } finally {
+                if (pipelined) {
+                    connection.closePipeline();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void evict(String key) {
+        cacheWriter.remove(cacheName, rawKey(key));
+    }
+
+    @Override
+    public void clear() {
+        cacheWriter.clean(cacheName, (cacheName + "::*").getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public String getName() {
+        return "redis";
+    }
+
+    @Override
+    public boolean isRemote() {
+        return true;
+    }
+
+    private byte[] rawKey(String key) {
+        return (cacheName + "::" + key).getBytes(StandardCharsets.UTF_8);
+    }
+}
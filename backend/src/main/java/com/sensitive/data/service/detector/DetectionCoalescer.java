@@ -0,0 +1,252 @@
+package com.sensitive.data.service.detector;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.sensitive.data.model.DetectionProfile;
+import com.sensitive.data.model.SensitiveDataDetectionResult;
+
+/**
+ * 并发单条检测请求的合并器
+ *
+ * 请求先进入共享队列，等待一个很短的窗口（默认200微秒）。窗口内队列积累到批量上限时，
+ * 使队列达到上限的请求线程立即取出一批执行；否则窗口到期的请求线程取出当前排队的请求执行。
+ * 一批内按检测配置档分组调用{@link SensitiveDataDetectorService#detectSensitiveDataBulk}，
+ * 每个请求取回自己的结果。批次在请求线程上执行，不引入额外的线程切换，并发的多个批次互不阻塞。
+ * 批次执行失败（包括StackOverflowError等Error）时，批内所有尚未完成的请求都以异常结束，不会一直等待。
+ * 默认关闭，开启后/api/detect/text的默认JSON格式请求经由合并器检测。
+ */
+@Service
+public class DetectionCoalescer {
+
+    private final SensitiveDataDetectorService detectorService;
+
+    private final Queue<PendingRequest> queue = new ConcurrentLinkedQueue<>();
+
+    // 队列中的请求数，ConcurrentLinkedQueue的size()需要遍历
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final Metrics metrics = new Metrics();
+
+    // 是否启用请求合并
+    @Value("${sensitive.data.detector.coalescer.enabled:false}")
+    private boolean enabled = false;
+
+    // 等待合并的窗口（微秒）
+    @Value("${sensitive.data.detector.coalescer.window-micros:200}")
+    private long windowMicros = 200L;
+
+    // 每批最多合并的请求数
+    @Value("${sensitive.data.detector.coalescer.max-batch-size:64}")
+    private int maxBatchSize = 64;
+
+    /**
+     * 构造函数
+     * @param detectorService 敏感数据检测服务
+     */
+    @Autowired
+    public DetectionCoalescer(SensitiveDataDetectorService detectorService) {
+        this.detectorService = detectorService;
+    }
+
+    /**
+     * 是否启用请求合并
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 合并检测文本中的敏感数据，阻塞直到本请求所在的批次完成
+     * @param text 待检测文本
+     * @param profile 检测配置档，为空时使用默认配置档
+     * @return 检测结果
+     */
+    public SensitiveDataDetectionResult detect(String text, DetectionProfile profile) {
+        PendingRequest request = new PendingRequest(text, profile == null ? DetectionProfile.DEFAULT : profile);
+        queue.offer(request);
+        if (queued.incrementAndGet() >= maxBatchSize) {
+            drainAndRun();
+        }
+        long windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+        // 窗口到期本请求仍在排队时，由本线程取出排队的请求执行；排在前面的请求超过一批时可能需要多轮
+        while (!request.taken) {
+            try {
+                return await(request, windowNanos);
+            } catch (TimeoutException e) {
+                drainAndRun();
+            }
+        }
+        try {
+            return await(request, Long.MAX_VALUE);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Coalesced detection did not complete", e);
+        }
+    }
+
+    /**
+     * 获取合并器的指标快照
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 取出至多一批请求，按检测配置档分组执行
+     */
+    private void drainAndRun() {
+        List<PendingRequest> batch = new ArrayList<>(maxBatchSize);
+        PendingRequest request;
+        while (batch.size() < maxBatchSize && (request = queue.poll()) != null) {
+            request.taken = true;
+            batch.add(request);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        queued.addAndGet(-batch.size());
+
+        long now = System.nanoTime();
+        for (PendingRequest pending : batch) {
+            metrics.recordQueueDelay(now - pending.enqueuedAt);
+        }
+        metrics.recordBatch(batch.size());
+
+        Map<DetectionProfile, List<PendingRequest>> byProfile = new LinkedHashMap<>();
+        for (PendingRequest pending : batch) {
+            byProfile.computeIfAbsent(pending.profile, key -> new ArrayList<>()).add(pending);
+        }
+        try {
+            for (Map.Entry<DetectionProfile, List<PendingRequest>> group : byProfile.entrySet()) {
+                run(group.getKey(), group.getValue());
+            }
+        } catch (Throwable e) {
+            // 批内请求已被标记为取出，它们的线程只等待结果，必须在此结束，包括尚未执行的其他配置档分组
+            for (PendingRequest pending : batch) {
+                pending.result.completeExceptionally(e);
+            }
+            throw e;
+        }
+    }
+
+    private void run(DetectionProfile profile, List<PendingRequest> group) {
+        List<String> texts = new ArrayList<>(group.size());
+        for (PendingRequest pending : group) {
+            texts.add(pending.text);
+        }
+        try {
+            List<SensitiveDataDetectionResult> results = detectorService.detectSensitiveDataBulk(texts, profile);
+            for (int i = 0; i < group.size(); i++) {
+                group.get(i).result.complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            for (PendingRequest pending : group) {
+                pending.result.completeExceptionally(e);
+            }
+        }
+        // Error由drainAndRun结束整批请求后重新抛出
+    }
+
+    private static SensitiveDataDetectionResult await(PendingRequest request, long timeoutNanos)
+            throws TimeoutException {
+        try {
+            return request.result.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for coalesced detection", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * 排队中的检测请求
+     */
+    private static final class PendingRequest {
+
+        private final String text;
+        private final DetectionProfile profile;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<SensitiveDataDetectionResult> result = new CompletableFuture<>();
+        // 是否已被某个线程取出执行
+        private volatile boolean taken;
+
+        PendingRequest(String text, DetectionProfile profile) {
+            this.text = text;
+            this.profile = profile;
+        }
+    }
+
+    /**
+     * 合并器指标：批次数、批大小和排队延迟
+     */
+    public static final class Metrics {
+
+        private final LongAdder batches = new LongAdder();
+        private final LongAdder requests = new LongAdder();
+        private final AtomicLong maxBatchSize = new AtomicLong();
+        private final LongAdder totalQueueDelayNanos = new LongAdder();
+        private final AtomicLong maxQueueDelayNanos = new AtomicLong();
+
+        void recordBatch(int size) {
+            batches.increment();
+            requests.add(size);
+            maxBatchSize.accumulateAndGet(size, Math::max);
+        }
+
+        void recordQueueDelay(long nanos) {
+            totalQueueDelayNanos.add(nanos);
+            maxQueueDelayNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        public long getBatches() {
+            return batches.sum();
+        }
+
+        public long getRequests() {
+            return requests.sum();
+        }
+
+        public double getAverageBatchSize() {
+            long count = batches.sum();
+            return count > 0 ? (double) requests.sum() / count : 0;
+        }
+
+        public long getMaxBatchSize() {
+            return maxBatchSize.get();
+        }
+
+        /**
+         * 平均排队延迟（微秒）
+         */
+        public double getAverageQueueDelayMicros() {
+            long count = requests.sum();
+            return count > 0 ? totalQueueDelayNanos.sum() / 1000.0 / count : 0;
+        }
+
+        /**
+         * 最大排队延迟（微秒）
+         */
+        public double getMaxQueueDelayMicros() {
+            return maxQueueDelayNanos.get() / 1000.0;
+        }
+    }
+}
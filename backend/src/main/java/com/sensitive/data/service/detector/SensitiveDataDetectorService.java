@@ -2,8 +2,17 @@ package com.sensitive.data.service.detector;
 
 import java.util.List;
 
+import com.sensitive.data.model.BatchDetectionItem;
+import com.sensitive.data.model.CompactDetectionResult;
+import com.sensitive.data.model.DetectionCheckResult;
+import com.sensitive.data.model.DetectionProfile;
+import com.sensitive.data.model.RiskLevel;
 import com.sensitive.data.model.SensitiveDataDetectionResult;
+import com.sensitive.data.model.StreamingDetectionResult;
 
+import com.sensitive.data.util.SingleFlight;
+
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
@@ -19,6 +28,44 @@ public interface SensitiveDataDetectorService {
      */
     SensitiveDataDetectionResult detectSensitiveData(String text);
     
+    /**
+     * 按检测配置档检测文本中的敏感数据，只执行配置档范围内的检测
+     * 
+     * @param text 待检测的文本
+     * @param profile 检测配置档，为空时使用默认配置档
+     * @return 检测结果
+     */
+    SensitiveDataDetectionResult detectSensitiveData(String text, DetectionProfile profile);
+    
+    /**
+     * 按检测配置档检测文本中的敏感数据，返回只包含位置和类型序号的紧凑结果，不回显原文
+     * 
+     * @param text 待检测的文本
+     * @param profile 检测配置档，为空时使用默认配置档
+     * @param includePreview 是否附带掩码后的内容预览
+     * @return 紧凑检测结果
+     */
+    CompactDetectionResult detectSensitiveDataCompact(String text, DetectionProfile profile, boolean includePreview);
+    
+    /**
+     * 直接在UTF-8字节上检测敏感数据，不预先解码整个文本，结果中的位置为字符偏移
+     * 
+     * @param utf8 UTF-8编码的文本
+     * @param profile 检测配置档，为空时使用默认配置档
+     * @param includePreview 是否附带掩码后的内容预览
+     * @return 紧凑检测结果
+     */
+    CompactDetectionResult detectSensitiveDataUtf8(byte[] utf8, DetectionProfile profile, boolean includePreview);
+    
+    /**
+     * 按检测配置档检测文本中的敏感数据，返回直接从检测命中写出JSON的结果，类型信息和处理建议以字典形式只输出一次
+     * 
+     * @param text 待检测的文本
+     * @param profile 检测配置档，为空时使用默认配置档
+     * @return 流式序列化的检测结果
+     */
+    StreamingDetectionResult detectSensitiveDataStreaming(String text, DetectionProfile profile);
+    
     /**
      * 异步检测文本中的敏感数据
      * 
@@ -27,6 +74,15 @@ public interface SensitiveDataDetectorService {
      */
     Mono<SensitiveDataDetectionResult> detectSensitiveDataAsync(String text);
     
+    /**
+     * 按检测配置档异步检测文本中的敏感数据
+     * 
+     * @param text 待检测的文本
+     * @param profile 检测配置档，为空时使用默认配置档
+     * @return 异步检测结果
+     */
+    Mono<SensitiveDataDetectionResult> detectSensitiveDataAsync(String text, DetectionProfile profile);
+    
     /**
      * 批量检测文本中的敏感数据
      * 
@@ -35,6 +91,80 @@ public interface SensitiveDataDetectorService {
      */
     Mono<List<SensitiveDataDetectionResult>> detectSensitiveDataBatch(List<String> texts);
     
+    /**
+     * 按检测配置档批量检测文本中的敏感数据
+     * 
+     * @param texts 待检测的文本列表
+     * @param profile 检测配置档，为空时使用默认配置档
+     * @return 检测结果列表
+     */
+    Mono<List<SensitiveDataDetectionResult>> detectSensitiveDataBatch(List<String> texts, DetectionProfile profile);
+    
+    /**
+     * 按检测配置档批量检测文本中的敏感数据，逐条发出结果，顺序与输入一致
+     * 
+     * @param texts 待检测的文本列表
+     * @param profile 检测配置档，为空时使用默认配置档
+     * @return 检测结果流，按下游请求的数量检测
+     */
+    Flux<SensitiveDataDetectionResult> detectSensitiveDataBatchFlux(List<String> texts, DetectionProfile profile);
+    
+    /**
+     * 流式批量检测文本中的敏感数据，每条结果在完成后立即发出
+     * 
+     * @param texts 待检测的文本流，按下游请求增量读取
+     * @param profile 检测配置档，为空时使用默认配置档
+     * @return 检测结果流，按完成先后排列，sequence为文本在输入中的序号
+     */
+    Flux<BatchDetectionItem> detectSensitiveDataStream(Flux<String> texts, DetectionProfile profile);
+    
+    /**
+     * 在调用线程上批量检测文本中的敏感数据，整批共用执行计划、缓存句柄和中间缓冲区
+     * 
+     * @param texts 待检测的文本列表
+     * @param profile 检测配置档，为空时使用默认配置档
+     * @return 与输入顺序一致的检测结果
+     */
+    List<SensitiveDataDetectionResult> detectSensitiveDataBulk(List<String> texts, DetectionProfile profile);
+    
+    /**
+     * 获取进行中检测合并（single-flight）的指标
+     * 
+     * @return 实际执行次数、节省的检测次数和指纹碰撞次数
+     */
+    SingleFlight.Metrics getSingleFlightMetrics();
+    
+    /**
+     * 判断文本是否包含敏感数据，命中第一个有效检测项即停止扫描，用于对延迟敏感的内联检查
+     * 
+     * @param text 待检测的文本
+     * @param profile 检测配置档，为空时使用默认配置档
+     * @return 是否包含敏感数据
+     */
+    boolean containsSensitiveData(String text, DetectionProfile profile);
+    
+    /**
+     * 获取文本中敏感数据的最高风险等级，达到HIGH即停止扫描
+     * 
+     * @param text 待检测的文本
+     * @param profile 检测配置档，为空时使用默认配置档
+     * @return 最高风险等级，不包含敏感数据时返回null
+     */
+    RiskLevel getMaxRiskLevel(String text, DetectionProfile profile);
+    
+    /**
+     * 轻量检测，返回是否包含敏感数据、已发现的最高风险等级，以及正则执行预算耗尽时的部分结果标记
+     * 
+     * 部分结果时未扫描完的内容可能包含敏感数据：按配置失败关闭（fail-closed）时sensitive为true，
+     * maxRiskLevel只反映已发现的检测项。
+     * 
+     * @param text 待检测的文本
+     * @param profile 检测配置档，为空时使用默认配置档
+     * @param stopAtFirstHit 为true时命中第一个检测项即返回，否则达到HIGH才返回
+     * @return 轻量检测结果
+     */
+    DetectionCheckResult checkSensitiveData(String text, DetectionProfile profile, boolean stopAtFirstHit);
+    
     /**
      * 检测文本中的敏感数据（实时检测，用于WebSocket）
      * 
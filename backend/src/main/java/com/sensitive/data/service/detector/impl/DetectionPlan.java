@@ -0,0 +1,153 @@
+package com.sensitive.data.service.detector.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import com.sensitive.data.model.DetectionProfile;
+import com.sensitive.data.model.SensitiveDataType;
+import com.sensitive.data.util.composite.CompositeRuleEngine;
+import com.sensitive.data.util.regex.RegexPrefilter;
+
+/**
+ * 检测执行计划，由检测配置档和当前规则集编译而来
+ *
+ * 计划确定本次检测需要执行的结构化正则、是否执行用户正则和关键词扫描，以及结果输出的类型范围。
+ * 组合规则依赖的类型即使不在输出范围内也会被检测，但只作为组合规则的输入，不会出现在结果中。
+ */
+final class DetectionPlan {
+
+    // 关键词检测产出的类型
+    static final Set<SensitiveDataType> KEYWORD_TYPES = Collections.unmodifiableSet(EnumSet.of(
+            SensitiveDataType.POLITICAL,
+            SensitiveDataType.PORNOGRAPHY,
+            SensitiveDataType.VIOLENCE,
+            SensitiveDataType.COPYRIGHT));
+
+    // 编译来源的配置档
+    private final DetectionProfile profile;
+
+    // 需要输出的类型
+    private final Set<SensitiveDataType> outputTypes;
+
+    // 组合规则依赖的类型
+    private final Set<SensitiveDataType> requiredTypes;
+
+    // 需要执行的结构化正则类型，保持检测顺序
+    private final List<SensitiveDataType> structuredTypes;
+
+    // 需要输出的结构化正则类型，按风险从高到低排列，供短路查询使用
+    private final List<SensitiveDataType> riskOrderedStructuredTypes;
+
+    // 是否执行用户正则规则
+    private final boolean customRegexEnabled;
+
+    // 是否执行关键词扫描
+    private final boolean keywordScanEnabled;
+
+    // 是否求值组合规则
+    private final boolean compositeEnabled;
+
+    // 是否需要在输出前按类型过滤
+    private final boolean filterRequired;
+
+    DetectionPlan(DetectionProfile profile, List<SensitiveDataType> detectionOrder,
+            RegexPrefilter regexPrefilter, CompositeRuleEngine compositeRuleEngine) {
+        this.profile = profile;
+
+        Set<SensitiveDataType> output = EnumSet.noneOf(SensitiveDataType.class);
+        for (SensitiveDataType type : SensitiveDataType.values()) {
+            if (profile.includes(type)) {
+                output.add(type);
+            }
+        }
+        this.outputTypes = Collections.unmodifiableSet(output);
+
+        Set<SensitiveDataType> required = compositeRuleEngine.getRequiredTypes(output);
+        this.requiredTypes = Collections.unmodifiableSet(required);
+        // 需要检测的类型为输出类型加上组合规则依赖的类型
+        Set<SensitiveDataType> scan = EnumSet.copyOf(required);
+        scan.addAll(output);
+
+        List<SensitiveDataType> structured = new ArrayList<>();
+        for (SensitiveDataType type : detectionOrder) {
+            if (scan.contains(type)) {
+                structured.add(type);
+            }
+        }
+        this.structuredTypes = Collections.unmodifiableList(structured);
+
+        List<SensitiveDataType> riskOrdered = new ArrayList<>();
+        for (SensitiveDataType type : structured) {
+            if (output.contains(type)) {
+                riskOrdered.add(type);
+            }
+        }
+        // RiskLevel按HIGH、MEDIUM、LOW声明，稳定排序保持同等风险下的检测顺序
+        riskOrdered.sort((a, b) -> Integer.compare(a.getRiskLevel().ordinal(), b.getRiskLevel().ordinal()));
+        this.riskOrderedStructuredTypes = Collections.unmodifiableList(riskOrdered);
+
+        this.customRegexEnabled = !Collections.disjoint(regexPrefilter.getRuleTypes(), scan);
+        this.compositeEnabled = compositeRuleEngine.hasRulesFor(output);
+        this.keywordScanEnabled = (profile.isKeywordEnabled() && !Collections.disjoint(KEYWORD_TYPES, output))
+                || !Collections.disjoint(KEYWORD_TYPES, required)
+                || compositeRuleEngine.requiresKeywords(output);
+        // 只为组合规则检测的类型、关闭关键词检测时作为组合规则输入的关键词命中，都需要在输出前过滤
+        this.filterRequired = !output.containsAll(required) || !profile.isKeywordEnabled();
+    }
+
+    /**
+     * 关键词命中是否作为检测项产出（输出或作为组合规则的输入）
+     */
+    boolean emitsKeywordType(SensitiveDataType type) {
+        return (profile.isKeywordEnabled() && outputTypes.contains(type)) || requiredTypes.contains(type);
+    }
+
+    /**
+     * 基础检测项（非组合规则产出）是否可以输出
+     *
+     * @param type 类型
+     * @param fromKeyword 是否来自关键词检测
+     */
+    boolean outputs(SensitiveDataType type, boolean fromKeyword) {
+        return outputTypes.contains(type) && (!fromKeyword || profile.isKeywordEnabled());
+    }
+
+    DetectionProfile getProfile() {
+        return profile;
+    }
+
+    Set<SensitiveDataType> getOutputTypes() {
+        return outputTypes;
+    }
+
+    List<SensitiveDataType> getStructuredTypes() {
+        return structuredTypes;
+    }
+
+    List<SensitiveDataType> getRiskOrderedStructuredTypes() {
+        return riskOrderedStructuredTypes;
+    }
+
+    boolean isCustomRegexEnabled() {
+        return customRegexEnabled;
+    }
+
+    boolean isKeywordScanEnabled() {
+        return keywordScanEnabled;
+    }
+
+    boolean isCompositeEnabled() {
+        return compositeEnabled;
+    }
+
+    boolean isFilterRequired() {
+        return filterRequired;
+    }
+
+    int getMaxItems() {
+        return profile.getMaxItems();
+    }
+}
@@ -1,60 +1,269 @@
 package com.sensitive.data.service.detector.impl;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import com.sensitive.data.model.BatchDetectionItem;
+import com.sensitive.data.model.CompactDetectionResult;
+import com.sensitive.data.model.DetectionCacheEntry;
+import com.sensitive.data.model.DetectionCheckResult;
+import com.sensitive.data.model.DetectionProfile;
+import com.sensitive.data.model.OverlapStrategy;
+import com.sensitive.data.model.RiskLevel;
 import com.sensitive.data.model.SensitiveDataDetectionResult;
 import com.sensitive.data.model.SensitiveDataItem;
+import com.sensitive.data.model.SensitiveDataRule;
 import com.sensitive.data.model.SensitiveDataType;
+import com.sensitive.data.model.StreamingDetectionResult;
+import com.sensitive.data.service.cache.SensitiveDataCacheService;
 import com.sensitive.data.service.detector.SensitiveDataDetectorService;
 import com.sensitive.data.service.processor.SensitiveDataProcessorService;
 import com.sensitive.data.util.AhoCorasick;
+import com.sensitive.data.util.DigitRunScanner;
 import com.sensitive.data.util.IdCardUtil;
 import com.sensitive.data.util.LuhnUtil;
+import com.sensitive.data.util.MatchBuffer;
+import com.sensitive.data.util.OverlapResolver;
 import com.sensitive.data.util.PerformanceMonitor;
+import com.sensitive.data.util.SingleFlight;
+import com.sensitive.data.util.bloom.RotatingBloomFilter;
+import com.sensitive.data.util.chunk.ContentDefinedChunker;
+import com.sensitive.data.util.composite.CompositeRuleEngine;
+import com.sensitive.data.util.hash.Fingerprint128;
+import com.sensitive.data.util.hash.MurmurHash3;
+import com.sensitive.data.util.normalize.NormalizedText;
+import com.sensitive.data.util.normalize.TextNormalizer;
+import com.sensitive.data.util.regex.BudgetedCharSequence;
 import com.sensitive.data.util.regex.RegexPatterns;
+import com.sensitive.data.util.regex.RegexPrefilter;
+import com.sensitive.data.util.utf8.Utf8ByteSequence;
+import com.sensitive.data.util.utf8.Utf8KeywordMatcher;
+import com.sensitive.data.util.utf8.Utf8OffsetTranslator;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 /**
  * 敏感数据检测服务实现
  */
 @Service
-public class SensitiveDataDetectorServiceImpl implements SensitiveDataDetectorService {
+public class SensitiveDataDetectorServiceImpl implements SensitiveDataDetectorService, MeterBinder {
+    
+    // 结构化数据的检测顺序，按照类型的特异性和典型长度排序，确保更具体的类型优先检测
+    // 1. 优先检测更具体的类型（如身份证号、银行卡号）
+    // 2. 然后检测较通用的类型（如银行账号）
+    // 3. 最后检测其他类型
+    private static final List<SensitiveDataType> DETECTION_ORDER = Collections.unmodifiableList(Arrays.asList(
+        SensitiveDataType.ID_CARD,        // 15或18位，最具体的个人身份信息
+        SensitiveDataType.CREDIT_CARD,    // 16位，具体的金融信息，优先检测
+        SensitiveDataType.BANK_CARD,      // 13-19位，具体的金融信息
+        SensitiveDataType.DRIVER_LICENSE, // 17位，具体的个人身份信息
+        SensitiveDataType.PHONE_NUMBER,   // 11位，具体的联系方式
+        SensitiveDataType.PASSPORT,       // 9位，具体的个人身份信息
+        SensitiveDataType.EMAIL,          // 不确定，但通常较长，具体的联系方式
+        SensitiveDataType.USERNAME,       // 4-20位，具体的账号信息
+        SensitiveDataType.PASSWORD,       // 6-20位，具体的账号信息
+        SensitiveDataType.BANK_ACCOUNT    // 16-22位，较通用的金融信息，放在最后检测
+    ));
     
     private final SensitiveDataProcessorService dataProcessorService;
     
     // 敏感关键词列表（示例）
     private volatile List<String> sensitiveKeywords = new ArrayList<>();
     
-    // Aho-Corasick算法实例，用于高效的多模式关键词匹配
+    // 需要作为检测结果输出的关键词，不包含仅供组合规则使用的锚点关键词
+    private volatile Set<String> emittedKeywords = new HashSet<>();
+    
+    // Aho-Corasick算法实例，用于高效的多模式关键词匹配（包含组合规则的锚点关键词）
     private volatile AhoCorasick ahoCorasick;
     
+    // 字节级关键词匹配器，供UTF-8字节检测使用（只包含输出的关键词）
+    private volatile Utf8KeywordMatcher utf8KeywordMatcher;
+    
+    // 用户正则规则预过滤器，按字面量因子决定哪些规则需要执行完整正则
+    private volatile RegexPrefilter regexPrefilter = RegexPrefilter.EMPTY;
+    
+    // 组合规则引擎，在已产生的命中流上求值邻近和布尔条件
+    private volatile CompositeRuleEngine compositeRuleEngine = CompositeRuleEngine.EMPTY;
+    
+    // 执行计划缓存上限，超过后整体清空重建
+    private static final int MAX_CACHED_PLANS = 1024;
+    
+    // 检测配置档到执行计划的缓存，规则变化时清空
+    private final ConcurrentMap<DetectionProfile, DetectionPlan> planCache = new ConcurrentHashMap<>();
+    
     // 性能监控器，用于记录和统计检测性能指标
     private static final PerformanceMonitor PERFORMANCE_MONITOR = new PerformanceMonitor();
     
+    // 缓存键前缀，包含缓存条目格式版本，条目结构或检测逻辑不兼容地变化时递增
+    private static final String CACHE_KEY_PREFIX = "d1:";
+    
+    // 长文本分段结果的缓存键前缀
+    private static final String SEGMENT_CACHE_KEY_PREFIX = "s1:";
+    
+    // 密码正则的前缀，字节路径遇到时回退为字符串检测
+    private static final Utf8KeywordMatcher PASSWORD_PREFIXES =
+            new Utf8KeywordMatcher(Arrays.asList("密码", "password"), true);
+    
+    // 批量检测时每个并行轨道预取的文本数
+    private static final int BATCH_PREFETCH = 4;
+    
+    // 不放弃检测
+    private static final BooleanSupplier NEVER_ABANDONED = () -> false;
+    
+    // 空的紧凑结果
+    private static final CompactDetectionResult EMPTY_COMPACT_RESULT =
+            new CompactDetectionResult(new int[0], new int[0], null, 0, false);
+    
+    // 检测结果缓存服务（本地缓存 + 可选的二级缓存），未配置时不缓存，缓存中存放带校验信息的紧凑结果
+    private SensitiveDataCacheService cacheService;
+    
+    // 规则集版本，由关键词、组合规则和用户正则的内容计算，作为缓存键和合并键的一部分
+    private volatile long rulesetVersion;
+    
+    // 各部分规则的内容哈希
+    private long keywordRulesHash;
+    private long compositeRulesHash;
+    private long regexRulesHash;
+    
+    // 缓存命中后校验不通过的次数
+    private final LongAdder cacheKeyCollisions = new LongAdder();
+    
+    // 二级缓存先于检测命中的次数
+    private final LongAdder l2RaceWins = new LongAdder();
+    
+    // 缓存命中的校验方式：NONE、LENGTH或FULL
+    @Value("${sensitive.data.detector.cache.verification:LENGTH}")
+    private DetectionCacheEntry.Verification cacheVerification = DetectionCacheEntry.Verification.LENGTH;
+    
+    // 进行中的检测，按文本指纹、配置档和规则集版本合并
+    private final SingleFlight<FlightKey, CompactDetectionResult> inFlight = new SingleFlight<>();
+    
+    // 是否合并并发的相同检测
+    @Value("${sensitive.data.detector.single-flight.enabled:true}")
+    private boolean singleFlightEnabled = true;
+    
+    // 异步检测和批量检测的调度器，未配置时使用Reactor共享的有界调度器
+    private Scheduler detectorScheduler = Schedulers.boundedElastic();
+    
+    // 批量检测的并行轨道数
+    @Value("${sensitive.data.detector.thread-pool.core-size:10}")
+    private int batchParallelism = 10;
+    
     // 规则刷新间隔（秒）
     @Value("${sensitive.data.detector.rules.refresh-interval:300}")
     private long rulesRefreshInterval;
     
     // 最大规则数量
     @Value("${sensitive.data.detector.rules.max-rules:10000}")
-    private int maxRules;
+    private int maxRules = 10000;
     
     // 缓存启用标志
     @Value("${sensitive.data.detector.cache.enabled:true}")
-    private boolean cacheEnabled;
+    private boolean cacheEnabled = true;
+    
+    // 正则执行预算：每次请求的基础字符访问次数
+    @Value("${sensitive.data.detector.regex.budget.base-steps:1000000}")
+    private long regexBudgetBaseSteps = 1_000_000L;
+    
+    // 正则执行预算：每个输入字符额外允许的字符访问次数
+    @Value("${sensitive.data.detector.regex.budget.steps-per-char:1000}")
+    private long regexBudgetStepsPerChar = 1000L;
+    
+    // 正则执行预算：每次请求的基础正则执行时间（毫秒）
+    @Value("${sensitive.data.detector.regex.budget.timeout-ms:200}")
+    private long regexBudgetTimeoutMs = 200L;
+    
+    // 正则执行预算：每个输入字符额外允许的正则执行时间（纳秒），长文本的时间预算随长度增长
+    @Value("${sensitive.data.detector.regex.budget.timeout-nanos-per-char:2000}")
+    private long regexBudgetTimeoutNanosPerChar = 2000L;
+    
+    // 轻量检测在正则执行预算耗尽且未发现检测项时是否按包含敏感数据处理（失败关闭）
+    @Value("${sensitive.data.detector.check.fail-closed:true}")
+    private boolean checkFailClosed = true;
+    
+    // 重叠检测项的处理策略
+    @Value("${sensitive.data.detector.overlap-strategy:KEEP_ALL}")
+    private OverlapStrategy overlapStrategy = OverlapStrategy.KEEP_ALL;
+    
+    // 长文本是否分段检测并逐段缓存
+    @Value("${sensitive.data.detector.segment.enabled:true}")
+    private boolean segmentEnabled = true;
+    
+    // 分段检测的最小文本长度（字符）
+    @Value("${sensitive.data.detector.segment.min-text-length:16384}")
+    private int segmentMinTextLength = 16384;
+    
+    // 最小、平均和最大段长度（字符）
+    @Value("${sensitive.data.detector.segment.min-size:2048}")
+    private int segmentMinSize = 2048;
+    
+    @Value("${sensitive.data.detector.segment.average-size:8192}")
+    private int segmentAverageSize = 8192;
+    
+    @Value("${sensitive.data.detector.segment.max-size:32768}")
+    private int segmentMaxSize = 32768;
+    
+    // 每段前后附带检测的上下文长度（字符），跨越段边界的命中在上下文中完整匹配
+    @Value("${sensitive.data.detector.segment.context:256}")
+    private int segmentContext = 256;
+    
+    // 分段器，首次分段检测时按配置创建
+    private volatile ContentDefinedChunker segmentChunker;
+    
+    // 分段检测中命中缓存和重新检测的段数
+    private final LongAdder segmentHits = new LongAdder();
+    private final LongAdder segmentMisses = new LongAdder();
+    
+    // 是否用布隆过滤器记录无敏感数据的文本
+    @Value("${sensitive.data.detector.clean-filter.enabled:true}")
+    private boolean cleanFilterEnabled = true;
+    
+    // 布隆过滤器第一级的预期文本数和误判率，每代的最大级数
+    @Value("${sensitive.data.detector.clean-filter.expected-insertions:262144}")
+    private long cleanFilterExpectedInsertions = 262144;
+    
+    @Value("${sensitive.data.detector.clean-filter.fpp:0.000001}")
+    private double cleanFilterFpp = 0.000001;
+    
+    @Value("${sensitive.data.detector.clean-filter.max-stages:4}")
+    private int cleanFilterMaxStages = 4;
+    
+    // 当前规则集版本的无敏感数据文本过滤器，规则集变化时重建
+    private volatile CleanTextFilter cleanTextFilter;
+    
+    // 由无敏感数据文本过滤器直接返回的次数
+    private final LongAdder cleanFilterHits = new LongAdder();
     
     /**
      * 构造函数
@@ -66,7 +275,25 @@ public class SensitiveDataDetectorServiceImpl implements SensitiveDataDetectorSe
         // 初始化敏感关键词
         initializeSensitiveKeywords();
         // 初始化Aho-Corasick算法
-        this.ahoCorasick = new AhoCorasick(sensitiveKeywords);
+        rebuildKeywordAutomaton();
+    }
+    
+    /**
+     * 设置检测结果的缓存服务
+     * @param cacheService 缓存服务
+     */
+    @Autowired(required = false)
+    public void setCacheService(SensitiveDataCacheService cacheService) {
+        this.cacheService = cacheService;
+    }
+    
+    /**
+     * 设置异步检测和批量检测的调度器
+     * @param detectorScheduler 检测调度器
+     */
+    @Autowired(required = false)
+    public void setDetectorScheduler(@Qualifier("detectorScheduler") Scheduler detectorScheduler) {
+        this.detectorScheduler = detectorScheduler;
     }
     
     /**
@@ -95,38 +322,758 @@ public class SensitiveDataDetectorServiceImpl implements SensitiveDataDetectorSe
     }
     
     /**
-     * 检测敏感数据（同步方法）
-     * @param text 待检测文本
-     * @return 检测结果
+     * 检测敏感数据（同步方法）
+     * @param text 待检测文本
+     * @return 检测结果
+     */
+    @Override
+    public SensitiveDataDetectionResult detectSensitiveData(String text) {
+        return detectSensitiveData(text, DetectionProfile.DEFAULT);
+    }
+    
+    /**
+     * 按检测配置档检测敏感数据，默认配置档与不带配置档的检测共用缓存
+     * @param text 待检测文本
+     * @param profile 检测配置档，为空时使用默认配置档
+     * @return 检测结果
+     */
+    @Override
+    public SensitiveDataDetectionResult detectSensitiveData(String text, DetectionProfile profile) {
+        return expand(text, detectCached(text, profile == null ? DetectionProfile.DEFAULT : profile));
+    }
+    
+    /**
+     * 按检测配置档检测敏感数据，返回不回显原文的紧凑结果
+     * @param text 待检测文本
+     * @param profile 检测配置档，为空时使用默认配置档
+     * @param includePreview 是否附带掩码预览
+     * @return 紧凑检测结果
+     */
+    @Override
+    public CompactDetectionResult detectSensitiveDataCompact(String text, DetectionProfile profile,
+            boolean includePreview) {
+        CompactDetectionResult compact = detectCached(text, profile == null ? DetectionProfile.DEFAULT : profile);
+        if (!includePreview || compact.getTotalDetected() == 0) {
+            return compact;
+        }
+        String[] previews = new String[compact.getTotalDetected()];
+        for (int i = 0; i < previews.length; i++) {
+            previews[i] = dataProcessorService.maskSensitiveData(
+                    text.substring(compact.getStart(i), compact.getEnd(i)), compact.getType(i));
+        }
+        return compact.withPreviews(previews);
+    }
+    
+    /**
+     * 按检测配置档检测敏感数据，返回由检测命中直接序列化的结果
+     * @param text 待检测文本
+     * @param profile 检测配置档，为空时使用默认配置档
+     * @return 流式序列化的检测结果
+     */
+    @Override
+    public StreamingDetectionResult detectSensitiveDataStreaming(String text, DetectionProfile profile) {
+        CompactDetectionResult compact = detectCached(text, profile == null ? DetectionProfile.DEFAULT : profile);
+        return new StreamingDetectionResult(StringUtils.isBlank(text) ? "" : text, compact.toMatchBuffer(),
+                dataProcessorService::getProcessingSuggestion, compact.getProcessingTimeMs(), compact.isPartial());
+    }
+    
+    /**
+     * 带缓存的检测，缓存中只存放紧凑结果，部分结果不缓存
+     */
+    private CompactDetectionResult detectCached(String text, DetectionProfile profile) {
+        return detectCached(text, profile, true);
+    }
+    
+    /**
+     * 带缓存的检测
+     * 
+     * 本地缓存未命中时，远程二级缓存的读取异步发起并与检测竞速：检测在各阶段之间发现二级缓存已命中即放弃，
+     * 二级缓存未命中或晚于检测返回时不增加等待；本地二级缓存直接同步读取。
+     * @param lookupL2 是否读取二级缓存，调用方已批量读取过时为false
+     */
+    private CompactDetectionResult detectCached(String text, DetectionProfile profile, boolean lookupL2) {
+        if (StringUtils.isBlank(text)) {
+            return EMPTY_COMPACT_RESULT;
+        }
+        Fingerprint128 fingerprint = Fingerprint128.of(text);
+        long version = rulesetVersion;
+        if (isKnownClean(fingerprint, profile, version)) {
+            return EMPTY_COMPACT_RESULT;
+        }
+        SensitiveDataCacheService cache = getDetectionCache();
+        String key = cache == null ? null : cacheKey(fingerprint, profile, version);
+        CompletableFuture<CompactDetectionResult> remote = null;
+        if (cache != null) {
+            boolean racing = lookupL2 && cache.isL2Racing();
+            CompactDetectionResult cached = verified(
+                    lookupL2 && !racing ? cache.get(key).orElse(null) : cache.getLocal(key), text);
+            if (cached != null) {
+                return cached;
+            }
+            if (racing) {
+                remote = cache.getRemoteAsync(key).thenApply(entry -> verified(entry, text));
+            }
+        }
+        CompletableFuture<CompactDetectionResult> l2Lookup = remote;
+        if (!singleFlightEnabled) {
+            return detectAndCache(text, fingerprint, profile, version, cache, key, l2Lookup);
+        }
+        
+        // 并发的相同请求（同一文本、配置档和规则版本）等待同一次检测，不重复执行；
+        // 指纹相同但文本不同时由SingleFlight校验原文后各自检测
+        FlightKey flightKey = new FlightKey(fingerprint, profile, version);
+        return inFlight.execute(flightKey, text,
+                () -> detectAndCache(text, fingerprint, profile, version, cache, key, l2Lookup));
+    }
+    
+    /**
+     * 检测并保存结果；二级缓存先于检测命中时直接返回其结果
+     */
+    private CompactDetectionResult detectAndCache(String text, Fingerprint128 fingerprint, DetectionProfile profile,
+            long version, SensitiveDataCacheService cache, String key,
+            CompletableFuture<CompactDetectionResult> l2Lookup) {
+        long startNanos = System.nanoTime();
+        CompactDetectionResult result = l2Lookup == null ? detect(text, profile)
+                : detect(text, profile, () -> isHit(l2Lookup));
+        if (result == null) {
+            l2RaceWins.increment();
+            return l2Lookup.join();
+        }
+        saveResult(text, fingerprint, profile, version, cache, key, result, System.nanoTime() - startNanos);
+        return result;
+    }
+    
+    /**
+     * 保存检测结果：部分结果不保存；启用过滤器时无敏感数据的文本只记入过滤器，缓存空间留给有检测项的结果；
+     * 其余结果写入缓存，检测耗时用于缓存准入
+     */
+    private void saveResult(String text, Fingerprint128 fingerprint, DetectionProfile profile, long version,
+            SensitiveDataCacheService cache, String key, CompactDetectionResult result, long computeNanos) {
+        if (result.isPartial()) {
+            return;
+        }
+        CleanTextFilter filter = result.getTotalDetected() == 0 ? getCleanTextFilter(version) : null;
+        if (filter != null) {
+            filter.put(fingerprint, profile);
+        } else if (cache != null) {
+            cache.put(key, DetectionCacheEntry.of(text, result, cacheVerification), computeNanos);
+        }
+    }
+    
+    /**
+     * 文本是否已知不含敏感数据（在当前规则集版本的过滤器中）
+     * 
+     * 布隆过滤器没有假阴性，但有按fpp配置的假阳性：极少数从未检测过的文本会被当作无敏感数据直接返回，
+     * 默认误判率为百万分之一量级
+     */
+    private boolean isKnownClean(Fingerprint128 fingerprint, DetectionProfile profile, long version) {
+        CleanTextFilter filter = getCleanTextFilter(version);
+        if (filter != null && filter.mightContain(fingerprint, profile)) {
+            cleanFilterHits.increment();
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * 获取给定规则集版本的无敏感数据文本过滤器，未启用时返回null
+     */
+    private CleanTextFilter getCleanTextFilter(long version) {
+        if (!cleanFilterEnabled || !cacheEnabled) {
+            return null;
+        }
+        CleanTextFilter filter = cleanTextFilter;
+        if (filter != null && filter.version == version) {
+            return filter;
+        }
+        synchronized (this) {
+            filter = cleanTextFilter;
+            if (filter == null || filter.version != version) {
+                if (version != rulesetVersion) {
+                    // 规则集已经变化，旧版本的检测结果不再记录
+                    return null;
+                }
+                filter = new CleanTextFilter(version, new RotatingBloomFilter(cleanFilterExpectedInsertions,
+                        cleanFilterFpp, cleanFilterMaxStages));
+                cleanTextFilter = filter;
+            }
+            return filter;
+        }
+    }
+    
+    private static boolean isHit(CompletableFuture<CompactDetectionResult> l2Lookup) {
+        return l2Lookup.isDone() && !l2Lookup.isCompletedExceptionally() && l2Lookup.getNow(null) != null;
+    }
+    
+    /**
+     * 批量读取文本的缓存结果，已知不含敏感数据的文本直接命中，本地缓存未命中的在二级缓存中一次往返读取
+     * @return 命中的文本到紧凑结果
+     */
+    private Map<String, CompactDetectionResult> prefetchCached(List<String> texts, DetectionProfile profile) {
+        SensitiveDataCacheService cache = getDetectionCache();
+        if (cache == null && getCleanTextFilter(rulesetVersion) == null) {
+            return Collections.emptyMap();
+        }
+        long version = rulesetVersion;
+        Map<String, String> keys = new HashMap<>();
+        Map<String, CompactDetectionResult> hits = new HashMap<>();
+        for (String text : texts) {
+            if (!StringUtils.isBlank(text) && !keys.containsKey(text) && !hits.containsKey(text)) {
+                Fingerprint128 fingerprint = Fingerprint128.of(text);
+                if (isKnownClean(fingerprint, profile, version)) {
+                    hits.put(text, EMPTY_COMPACT_RESULT);
+                } else {
+                    keys.put(text, cacheKey(fingerprint, profile, version));
+                }
+            }
+        }
+        if (keys.isEmpty() || cache == null) {
+            return hits;
+        }
+        Map<String, DetectionCacheEntry> entries = cache.getAll(keys.values());
+        for (Map.Entry<String, String> key : keys.entrySet()) {
+            CompactDetectionResult hit = verified(entries.get(key.getValue()), key.getKey());
+            if (hit != null) {
+                hits.put(key.getKey(), hit);
+            }
+        }
+        return hits;
+    }
+    
+    /**
+     * 获取进行中检测合并的指标
+     * @return 实际执行次数、节省的检测次数和指纹碰撞次数
+     */
+    @Override
+    public SingleFlight.Metrics getSingleFlightMetrics() {
+        return inFlight.getMetrics();
+    }
+    
+    /**
+     * 获取检测结果缓存，未启用时返回null
+     */
+    private SensitiveDataCacheService getDetectionCache() {
+        return cacheEnabled ? cacheService : null;
+    }
+    
+    /**
+     * 构建检测结果的缓存键：缓存格式版本、规则集版本、检测配置档和文本指纹，键长与文本长度无关
+     */
+    static String cacheKey(Fingerprint128 fingerprint, DetectionProfile profile, long rulesetVersion) {
+        return appendCacheKey(new StringBuilder(64).append(CACHE_KEY_PREFIX), fingerprint, profile, rulesetVersion)
+                .toString();
+    }
+    
+    /**
+     * 构建长文本中一段的缓存键：检测窗口（段及其上下文）的指纹，加上段在窗口中的范围
+     */
+    static String segmentCacheKey(Fingerprint128 windowFingerprint, DetectionProfile profile, long rulesetVersion,
+            int segmentStart, int segmentEnd) {
+        return appendCacheKey(new StringBuilder(80).append(SEGMENT_CACHE_KEY_PREFIX), windowFingerprint, profile,
+                rulesetVersion).append(':').append(segmentStart).append('-').append(segmentEnd).toString();
+    }
+    
+    private static StringBuilder appendCacheKey(StringBuilder key, Fingerprint128 fingerprint,
+            DetectionProfile profile, long rulesetVersion) {
+        key.append(Long.toHexString(rulesetVersion)).append(':');
+        if (!DetectionProfile.DEFAULT.equals(profile)) {
+            key.append(profile.getCacheKey());
+        }
+        return key.append(':').append(fingerprint);
+    }
+    
+    /**
+     * 校验缓存条目，校验不通过（指纹碰撞）视为未命中
+     */
+    private CompactDetectionResult verified(DetectionCacheEntry entry, String text) {
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.matches(text, cacheVerification)) {
+            cacheKeyCollisions.increment();
+            return null;
+        }
+        return entry.getResult();
+    }
+    
+    /**
+     * 获取当前规则集版本，由关键词、组合规则和用户正则的内容计算，相同规则集在各实例上版本相同
+     * @return 规则集版本
+     */
+    public long getRulesetVersion() {
+        return rulesetVersion;
+    }
+    
+    /**
+     * 获取缓存命中后校验不通过的次数
+     * @return 校验不通过次数
+     */
+    public long getCacheKeyCollisions() {
+        return cacheKeyCollisions.sum();
+    }
+    
+    /**
+     * 获取二级缓存先于检测返回命中、检测被放弃的次数
+     * @return 次数
+     */
+    public long getL2RaceWins() {
+        return l2RaceWins.sum();
+    }
+    
+    /**
+     * 注册检测服务一侧的缓存指标：无敏感数据文本过滤器（tier=clean）、长文本分段缓存（tier=segment）、
+     * 二级缓存竞速胜出次数和缓存键校验不通过次数
+     * @param registry 指标注册表
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("sensitive.cache.gets", cleanFilterHits, LongAdder::sum)
+                .tags("tier", "clean", "result", "hit").description("缓存读取次数").register(registry);
+        FunctionCounter.builder("sensitive.cache.gets", segmentHits, LongAdder::sum)
+                .tags("tier", "segment", "result", "hit").description("缓存读取次数").register(registry);
+        FunctionCounter.builder("sensitive.cache.gets", segmentMisses, LongAdder::sum)
+                .tags("tier", "segment", "result", "miss").description("缓存读取次数").register(registry);
+        Gauge.builder("sensitive.cache.size", this, SensitiveDataDetectorServiceImpl::getCleanFilterCount)
+                .tag("tier", "clean").description("无敏感数据文本过滤器中的估算文本数").register(registry);
+        Gauge.builder("sensitive.cache.weight", this, SensitiveDataDetectorServiceImpl::getCleanFilterSizeInBytes)
+                .tag("tier", "clean").baseUnit("bytes").description("无敏感数据文本过滤器占用的字节数")
+                .register(registry);
+        FunctionCounter.builder("sensitive.cache.race.wins", l2RaceWins, LongAdder::sum).tag("tier", "l2")
+                .description("二级缓存先于检测返回命中的次数").register(registry);
+        FunctionCounter.builder("sensitive.cache.key.collisions", cacheKeyCollisions, LongAdder::sum)
+                .description("缓存命中后校验不通过的次数").register(registry);
+    }
+    
+    /**
+     * 获取由无敏感数据文本过滤器直接返回的次数
+     * @return 次数
+     */
+    public long getCleanFilterHits() {
+        return cleanFilterHits.sum();
+    }
+    
+    /**
+     * 获取无敏感数据文本过滤器中的估算文本数
+     * @return 文本数，未启用或尚未创建时为0
+     */
+    public long getCleanFilterCount() {
+        CleanTextFilter filter = cleanTextFilter;
+        return filter == null ? 0 : filter.filter.getApproximateCount();
+    }
+    
+    /**
+     * 获取无敏感数据文本过滤器占用的字节数
+     * @return 字节数，未启用或尚未创建时为0
+     */
+    public long getCleanFilterSizeInBytes() {
+        CleanTextFilter filter = cleanTextFilter;
+        return filter == null ? 0 : filter.filter.getSizeInBytes();
+    }
+    
+    /**
+     * 获取长文本分段检测中直接使用缓存结果的段数
+     * @return 段数
+     */
+    public long getSegmentHits() {
+        return segmentHits.sum();
+    }
+    
+    /**
+     * 获取长文本分段检测中重新检测的段数
+     * @return 段数
+     */
+    public long getSegmentMisses() {
+        return segmentMisses.sum();
+    }
+    
+    /**
+     * 批量优化的同步检测，供合并的并发请求使用
+     * 
+     * 整批共用一次执行计划查找、一次批量缓存读取和一个命中缓冲区，性能指标在批末汇总记录一次；
+     * 每条文本仍按单条检测的规则读写缓存，结果与逐条调用detectSensitiveData一致。
+     * @param texts 待检测文本列表
+     * @param profile 检测配置档，为空时使用默认配置档
+     * @return 与输入顺序一致的检测结果
+     */
+    @Override
+    public List<SensitiveDataDetectionResult> detectSensitiveDataBulk(List<String> texts, DetectionProfile profile) {
+        DetectionProfile effective = profile == null ? DetectionProfile.DEFAULT : profile;
+        DetectionPlan plan = getPlan(effective);
+        SensitiveDataCacheService cache = getDetectionCache();
+        long version = rulesetVersion;
+        Map<String, CompactDetectionResult> prefetched = prefetchCached(texts, effective);
+        MatchBuffer matches = new MatchBuffer();
+        List<SensitiveDataDetectionResult> results = new ArrayList<>(texts.size());
+        // 同一批内的相同文本只检测一次
+        Map<String, CompactDetectionResult> batchResults = new HashMap<>();
+        
+        int detectedRequests = 0;
+        long totalTime = 0;
+        long minTime = Long.MAX_VALUE;
+        long maxTime = 0;
+        int detectedItems = 0;
+        int partialRequests = 0;
+        for (String text : texts) {
+            if (StringUtils.isBlank(text)) {
+                results.add(expand(text, EMPTY_COMPACT_RESULT));
+                continue;
+            }
+            CompactDetectionResult compact = batchResults.get(text);
+            if (compact == null) {
+                compact = prefetched.get(text);
+            }
+            if (compact == null) {
+                matches.truncate(0);
+                long startNanos = System.nanoTime();
+                compact = scan(text, plan, matches);
+                Fingerprint128 fingerprint = Fingerprint128.of(text);
+                saveResult(text, fingerprint, effective, version, cache,
+                        cache == null ? null : cacheKey(fingerprint, effective, version), compact,
+                        System.nanoTime() - startNanos);
+                detectedRequests++;
+                totalTime += compact.getProcessingTimeMs();
+                minTime = Math.min(minTime, compact.getProcessingTimeMs());
+                maxTime = Math.max(maxTime, compact.getProcessingTimeMs());
+                detectedItems += compact.getTotalDetected();
+                partialRequests += compact.isPartial() ? 1 : 0;
+            }
+            batchResults.put(text, compact);
+            results.add(expand(text, compact));
+        }
+        
+        if (detectedRequests > 0) {
+            PERFORMANCE_MONITOR.recordRequests(detectedRequests, totalTime, minTime, maxTime, detectedItems);
+            PERFORMANCE_MONITOR.recordRegexBudgetExceeded(partialRequests);
+        }
+        return results;
+    }
+    
+    /**
+     * 由原文和紧凑结果还原完整的检测结果，检测项在首次访问时才创建
+     */
+    private SensitiveDataDetectionResult expand(String text, CompactDetectionResult compact) {
+        if (StringUtils.isBlank(text)) {
+            return new SensitiveDataDetectionResult("", new ArrayList<>(), 0);
+        }
+        
+        List<SensitiveDataItem> detectedItems = compact.toMatchBuffer()
+                .asItems(text, dataProcessorService::getProcessingSuggestion);
+        SensitiveDataDetectionResult result = new SensitiveDataDetectionResult(text, detectedItems,
+                compact.getProcessingTimeMs());
+        result.setPartial(compact.isPartial());
+        return result;
+    }
+    
+    /**
+     * 按检测配置档检测敏感数据并记录性能指标
+     */
+    private CompactDetectionResult detect(String text, DetectionProfile profile) {
+        return detect(text, profile, NEVER_ABANDONED);
+    }
+    
+    /**
+     * 按检测配置档检测敏感数据，检测各阶段之间abandoned返回true时放弃并返回null
+     */
+    private CompactDetectionResult detect(String text, DetectionProfile profile, BooleanSupplier abandoned) {
+        if (StringUtils.isBlank(text)) {
+            return EMPTY_COMPACT_RESULT;
+        }
+        CompactDetectionResult result = scan(text, getPlan(profile), new MatchBuffer(), abandoned);
+        if (result != null) {
+            recordDetection(result);
+        }
+        return result;
+    }
+    
+    /**
+     * 记录一次检测的性能指标
+     */
+    private static void recordDetection(CompactDetectionResult result) {
+        PERFORMANCE_MONITOR.recordRequest(result.getProcessingTimeMs(), result.getTotalDetected(), true);
+        if (result.isPartial()) {
+            PERFORMANCE_MONITOR.recordRegexBudgetExceeded();
+        }
+    }
+    
+    /**
+     * 按执行计划检测非空文本，命中写入给定的空缓冲区
+     */
+    private CompactDetectionResult scan(String text, DetectionPlan plan, MatchBuffer matches) {
+        return scan(text, plan, matches, NEVER_ABANDONED);
+    }
+    
+    /**
+     * 检测文本，在各阶段之间检查是否放弃（例如二级缓存已先返回结果），放弃时返回null
+     */
+    private CompactDetectionResult scan(String text, DetectionPlan plan, MatchBuffer matches,
+            BooleanSupplier abandoned) {
+        if (isSegmented(text, plan)) {
+            return scanSegmented(text, plan, matches, abandoned);
+        }
+        long startTime = System.currentTimeMillis();
+        BudgetedCharSequence input = collectMatches(text, plan, matches, abandoned);
+        if (input == null) {
+            return null;
+        }
+        
+        // 7-9. 消解重叠、限制条数并转换为紧凑结果
+        return resolveAndCompact(text, plan, matches, input.isExhausted(), startTime);
+    }
+    
+    /**
+     * 执行检测各阶段，把输出范围内的命中（原文位置）写入缓冲区
+     * @return 本次检测的正则预算，放弃时返回null
+     */
+    private BudgetedCharSequence collectMatches(String text, DetectionPlan plan, MatchBuffer matches,
+            BooleanSupplier abandoned) {
+        // 折叠全角字符、删除零宽字符，所有检测器都在规范化后的文本上执行
+        NormalizedText normalized = TextNormalizer.normalize(text);
+        String scanText = normalized.getText();
+        
+        // 正则执行预算，防止灾难性回溯长时间占用检测线程
+        BudgetedCharSequence input = createBudgetedInput(scanText);
+        
+        // 1. 使用正则表达式检测结构化敏感数据，数字类正则只在数字串区域内执行
+        detectStructuredData(scanText, input, plan.getStructuredTypes(), DigitRunScanner.scan(scanText), matches);
+        if (abandoned.getAsBoolean()) {
+            return null;
+        }
+        
+        // 2. 执行用户自定义的正则规则
+        if (plan.isCustomRegexEnabled()) {
+            detectCustomRegexData(scanText, input, matches);
+            if (abandoned.getAsBoolean()) {
+                return null;
+            }
+        }
+        
+        // 3. 使用关键词匹配检测非结构化敏感数据
+        int keywordStart = matches.size();
+        List<AhoCorasick.MatchResult> keywordHits = plan.isKeywordScanEnabled()
+                ? detectUnstructuredData(scanText, plan, matches)
+                : Collections.<AhoCorasick.MatchResult>emptyList();
+        int keywordEnd = matches.size();
+        if (abandoned.getAsBoolean()) {
+            return null;
+        }
+        
+        // 4. 在已产生的命中流上求值组合规则
+        if (plan.isCompositeEnabled()) {
+            detectCompositeData(keywordHits, plan, matches);
+        }
+        
+        // 5. 命中位置换算回原文
+        mapToOriginal(normalized, matches);
+        
+        // 6. 去除不在输出范围内的检测项
+        filterOutputs(plan, matches, keywordStart, keywordEnd);
+        return input;
+    }
+    
+    /**
+     * 长文本是否分段检测：组合规则的AND在整篇文本上求值，不能逐段缓存，这类执行计划整体检测
+     */
+    private boolean isSegmented(String text, DetectionPlan plan) {
+        return segmentEnabled && text.length() >= segmentMinTextLength && !plan.isCompositeEnabled()
+                && getDetectionCache() != null;
+    }
+    
+    /**
+     * 分段检测长文本
+     * 
+     * 文本按内容分段，每段连同前后各segmentContext个字符的上下文作为检测窗口，只保留起点在段内的命中，
+     * 位置改为相对段起点后按窗口指纹缓存。跨越段边界的命中在上下文中完整匹配，由起点所在的段产出；
+     * 长度超过上下文的命中可能被截断。各段结果平移回原文位置拼接后，在整篇文本上消解重叠和限制条数。
+     * 文档局部修改时，只有修改处所在的段（及上下文覆盖到修改处的相邻段）需要重新检测。
+     */
+    private CompactDetectionResult scanSegmented(String text, DetectionPlan plan, MatchBuffer matches,
+            BooleanSupplier abandoned) {
+        long startTime = System.currentTimeMillis();
+        SensitiveDataCacheService cache = getDetectionCache();
+        long version = rulesetVersion;
+        MatchBuffer windowMatches = new MatchBuffer();
+        boolean partial = false;
+        int segmentStart = 0;
+        for (int segmentEnd : getSegmentChunker().split(text)) {
+            if (abandoned.getAsBoolean()) {
+                return null;
+            }
+            int windowStart = Math.max(0, segmentStart - segmentContext);
+            String window = text.substring(windowStart, Math.min(text.length(), segmentEnd + segmentContext));
+            int from = segmentStart - windowStart;
+            int to = segmentEnd - windowStart;
+            String key = segmentCacheKey(Fingerprint128.of(window), plan.getProfile(), version, from, to);
+            CompactDetectionResult segment = verified(cache.get(key).orElse(null), window);
+            if (segment != null) {
+                segmentHits.increment();
+            } else {
+                segmentMisses.increment();
+                long startNanos = System.nanoTime();
+                windowMatches.truncate(0);
+                BudgetedCharSequence input = collectMatches(window, plan, windowMatches, NEVER_ABANDONED);
+                windowMatches.retain(i -> windowMatches.start(i) >= from && windowMatches.start(i) < to);
+                for (int i = 0; i < windowMatches.size(); i++) {
+                    windowMatches.setRange(i, windowMatches.start(i) - from, windowMatches.end(i) - from);
+                }
+                segment = CompactDetectionResult.from(windowMatches, 0, input.isExhausted());
+                if (!segment.isPartial()) {
+                    cache.put(key, DetectionCacheEntry.of(window, segment, cacheVerification),
+                            System.nanoTime() - startNanos);
+                }
+            }
+            
+            // 段内位置平移回原文位置
+            for (int i = 0; i < segment.getTotalDetected(); i++) {
+                matches.add(segmentStart + segment.getStart(i), segmentStart + segment.getEnd(i), segment.getType(i),
+                        null);
+            }
+            partial |= segment.isPartial();
+            segmentStart = segmentEnd;
+        }
+        return resolveAndCompact(text, plan, matches, partial, startTime);
+    }
+    
+    private ContentDefinedChunker getSegmentChunker() {
+        ContentDefinedChunker chunker = segmentChunker;
+        if (chunker == null) {
+            chunker = new ContentDefinedChunker(segmentMinSize, segmentAverageSize, segmentMaxSize);
+            segmentChunker = chunker;
+        }
+        return chunker;
+    }
+    
+    /**
+     * 直接在UTF-8字节上检测敏感数据，返回字符偏移的紧凑结果
+     * 
+     * 结构化正则在字节的ASCII投影上执行，关键词由字节级自动机匹配，只把命中位置换算为字符偏移，
+     * 不解码整个文本。启用了用户正则或组合规则、文本可能包含密码前缀、包含需要规范化的字符或不是合法UTF-8时，
+     * 解码为字符串后按常规路径检测。字节路径不读写检测结果缓存（缓存以字符串为键）。
+     * @param utf8 UTF-8编码的文本
+     * @param profile 检测配置档，为空时使用默认配置档
+     * @param includePreview 是否附带掩码预览
+     * @return 紧凑检测结果
      */
     @Override
-    @Cacheable(value = "sensitiveDataDetection", key = "#text", unless = "#result == null")
-    public SensitiveDataDetectionResult detectSensitiveData(String text) {
-        if (StringUtils.isBlank(text)) {
-            return new SensitiveDataDetectionResult("", new ArrayList<>(), 0);
+    public CompactDetectionResult detectSensitiveDataUtf8(byte[] utf8, DetectionProfile profile,
+            boolean includePreview) {
+        if (utf8 == null || utf8.length == 0) {
+            return EMPTY_COMPACT_RESULT;
+        }
+        DetectionProfile effective = profile == null ? DetectionProfile.DEFAULT : profile;
+        DetectionPlan plan = getPlan(effective);
+        if (!canScanBytes(utf8, plan)) {
+            return detectSensitiveDataCompact(new String(utf8, StandardCharsets.UTF_8), effective, includePreview);
         }
         
+        CompactDetectionResult compact = detectUtf8(utf8, plan);
+        recordDetection(compact);
+        if (!includePreview || compact.getTotalDetected() == 0) {
+            return compact;
+        }
+        // 预览只解码命中区间
+        Utf8OffsetTranslator translator = new Utf8OffsetTranslator(utf8);
+        String[] previews = new String[compact.getTotalDetected()];
+        for (int i = 0; i < previews.length; i++) {
+            int byteStart = translator.toByteOffset(compact.getStart(i));
+            int byteEnd = translator.toByteOffset(compact.getEnd(i));
+            String content = new String(utf8, byteStart, byteEnd - byteStart, StandardCharsets.UTF_8);
+            previews[i] = dataProcessorService.maskSensitiveData(content, compact.getType(i));
+        }
+        return compact.withPreviews(previews);
+    }
+    
+    /**
+     * 判断执行计划能否完全在字节上完成
+     */
+    private boolean canScanBytes(byte[] utf8, DetectionPlan plan) {
+        if (plan.isCustomRegexEnabled() || plan.isCompositeEnabled()) {
+            // 用户正则可能包含非ASCII字符，组合规则依赖字符串上的命中流
+            return false;
+        }
+        if (plan.getStructuredTypes().contains(SensitiveDataType.PASSWORD) && PASSWORD_PREFIXES.containsAny(utf8)) {
+            // 密码正则以中文前缀开头，无法在ASCII投影上匹配
+            return false;
+        }
+        if (TextNormalizer.requiresNormalization(utf8)) {
+            // 全角字符和零宽字符需要先在字符串上规范化
+            return false;
+        }
+        return Utf8ByteSequence.isWellFormed(utf8);
+    }
+    
+    /**
+     * 字节路径的检测流水线，命中先以字节偏移记录，消解重叠前换算为字符偏移
+     */
+    private CompactDetectionResult detectUtf8(byte[] utf8, DetectionPlan plan) {
         long startTime = System.currentTimeMillis();
-        List<SensitiveDataItem> detectedItems = new ArrayList<>();
+        MatchBuffer matches = new MatchBuffer();
+        Utf8ByteSequence view = new Utf8ByteSequence(utf8);
+        BudgetedCharSequence input = createBudgetedInput(view);
         
-        // 1. 使用正则表达式检测结构化敏感数据
-        detectStructuredData(text, detectedItems);
+        // 1. 在ASCII投影上执行结构化正则，数字串区域按8字节一组扫描得到
+        detectStructuredData(view, input, plan.getStructuredTypes(), DigitRunScanner.scan(utf8), matches);
         
-        // 2. 使用关键词匹配检测非结构化敏感数据
-        detectUnstructuredData(text, detectedItems);
+        // 2. 字节级关键词匹配
+        int keywordStart = matches.size();
+        if (plan.isKeywordScanEnabled()) {
+            for (AhoCorasick.MatchResult result : utf8KeywordMatcher.match(utf8)) {
+                SensitiveDataType type = determineKeywordType(result.getPattern());
+                if (plan.emitsKeywordType(type)) {
+                    matches.add(result.getStart(), result.getEnd(), type, null);
+                }
+            }
+        }
+        int keywordEnd = matches.size();
         
-        // 3. 为每个检测到的项目添加处理建议
-        for (SensitiveDataItem item : detectedItems) {
-            item.setSuggestion(dataProcessorService.getProcessingSuggestion(item.getType()));
+        // 3. 字节偏移换算为字符偏移，结束位置从起始位置继续计数
+        Utf8OffsetTranslator translator = new Utf8OffsetTranslator(utf8);
+        for (int i = 0; i < matches.size(); i++) {
+            int byteStart = matches.start(i);
+            int charStart = translator.toCharOffset(byteStart);
+            int charEnd = charStart + Utf8OffsetTranslator.countChars(utf8, byteStart, matches.end(i));
+            matches.setRange(i, charStart, charEnd);
         }
         
-        long endTime = System.currentTimeMillis();
-        long processingTime = endTime - startTime;
+        // 4-7. 过滤、消解重叠、限制条数并转换为紧凑结果，内容不参与这些步骤
+        return finishDetection(null, plan, matches, keywordStart, keywordEnd, input, startTime);
+    }
+    
+    /**
+     * 检测流水线的公共收尾：过滤输出范围、消解重叠、限制条数并转换为紧凑结果
+     * @param text 原始文本，字节路径为null（只在合并重叠项时用于生成内容）
+     */
+    private CompactDetectionResult finishDetection(String text, DetectionPlan plan, MatchBuffer matches,
+            int keywordStart, int keywordEnd, BudgetedCharSequence input, long startTime) {
+        filterOutputs(plan, matches, keywordStart, keywordEnd);
+        return resolveAndCompact(text, plan, matches, input.isExhausted(), startTime);
+    }
+    
+    /**
+     * 去除只作为组合规则输入、不在输出范围内的检测项
+     */
+    private static void filterOutputs(DetectionPlan plan, MatchBuffer matches, int keywordStart, int keywordEnd) {
+        if (plan.isFilterRequired()) {
+            matches.retain(i -> i >= keywordEnd || plan.outputs(matches.type(i), i >= keywordStart));
+        }
+    }
+    
+    /**
+     * 消解重叠、限制条数并转换为紧凑结果
+     */
+    private CompactDetectionResult resolveAndCompact(String text, DetectionPlan plan, MatchBuffer matches,
+            boolean partial, long startTime) {
+        // 按配置的策略消解重叠的检测项
+        MatchBuffer resolved = resolveOverlaps(text, matches);
         
-        // 记录性能指标
-        PERFORMANCE_MONITOR.recordRequest(processingTime, detectedItems.size(), true);
+        // 限制返回条数
+        if (plan.getMaxItems() > 0) {
+            resolved.truncate(plan.getMaxItems());
+        }
+        
+        long processingTime = System.currentTimeMillis() - startTime;
         
-        return new SensitiveDataDetectionResult(text, detectedItems, processingTime);
+        // 转换为紧凑结果，处理建议和内容在还原完整结果时按类型和位置补齐
+        return CompactDetectionResult.from(resolved, processingTime, partial);
     }
     
     /**
@@ -135,9 +1082,19 @@ public class SensitiveDataDetectorServiceImpl implements SensitiveDataDetectorSe
      * @return 异步检测结果
      */
     @Override
-    @Async("detectorThreadPool")
     public Mono<SensitiveDataDetectionResult> detectSensitiveDataAsync(String text) {
-        return Mono.just(detectSensitiveData(text));
+        return Mono.fromCallable(() -> detectSensitiveData(text)).subscribeOn(detectorScheduler);
+    }
+    
+    /**
+     * 按检测配置档异步检测敏感数据
+     * @param text 待检测文本
+     * @param profile 检测配置档
+     * @return 异步检测结果
+     */
+    @Override
+    public Mono<SensitiveDataDetectionResult> detectSensitiveDataAsync(String text, DetectionProfile profile) {
+        return Mono.fromCallable(() -> detectSensitiveData(text, profile)).subscribeOn(detectorScheduler);
     }
     
     /**
@@ -146,12 +1103,8 @@ public class SensitiveDataDetectorServiceImpl implements SensitiveDataDetectorSe
      * @return 检测结果列表
      */
     @Override
-    @Async("detectorThreadPool")
     public Mono<List<SensitiveDataDetectionResult>> detectSensitiveDataBatch(List<String> texts) {
-        List<SensitiveDataDetectionResult> results = texts.stream()
-                .map(this::detectSensitiveData)
-                .collect(Collectors.toList());
-        return Mono.just(results);
+        return detectSensitiveDataBatchFlux(texts, DetectionProfile.DEFAULT).collectList();
     }
     
     /**
@@ -167,126 +1120,409 @@ public class SensitiveDataDetectorServiceImpl implements SensitiveDataDetectorSe
         }
         
         long startTime = System.currentTimeMillis();
-        List<SensitiveDataItem> detectedItems = new ArrayList<>();
+        MatchBuffer matches = new MatchBuffer();
+        NormalizedText normalized = TextNormalizer.normalize(text);
+        BudgetedCharSequence input = createBudgetedInput(normalized.getText());
         
         // 只检测高风险的结构化数据
-        detectHighRiskStructuredData(text, detectedItems);
+        detectHighRiskStructuredData(normalized.getText(), input, matches);
+        mapToOriginal(normalized, matches);
         
-        // 为每个检测到的项目添加处理建议
-        for (SensitiveDataItem item : detectedItems) {
-            item.setSuggestion(dataProcessorService.getProcessingSuggestion(item.getType()));
-        }
+        // 按配置的策略消解重叠的检测项
+        matches = resolveOverlaps(text, matches);
         
         long endTime = System.currentTimeMillis();
         long processingTime = endTime - startTime;
         
         // 记录性能指标
-        PERFORMANCE_MONITOR.recordRequest(processingTime, detectedItems.size(), true);
+        PERFORMANCE_MONITOR.recordRequest(processingTime, matches.size(), true);
         
-        return new SensitiveDataDetectionResult(text, detectedItems, processingTime);
+        // 检测项及其处理建议在首次访问时才创建
+        return buildResult(text, input, matches.asItems(text, dataProcessorService::getProcessingSuggestion),
+                processingTime);
     }
     
     /**
-     * 检测结构化敏感数据
+     * 按检测配置档批量检测敏感数据
+     * @param texts 待检测文本列表
+     * @param profile 检测配置档
+     * @return 检测结果列表
+     */
+    @Override
+    public Mono<List<SensitiveDataDetectionResult>> detectSensitiveDataBatch(List<String> texts,
+            DetectionProfile profile) {
+        return detectSensitiveDataBatchFlux(texts, profile).collectList();
+    }
+    
+    /**
+     * 按检测配置档批量检测敏感数据，逐条发出结果
+     * 
+     * 文本按序号分配到多个并行轨道，在检测调度器上执行，再按序号合并，结果顺序与输入一致。
+     * 每个轨道只预取少量文本，下游请求多少才检测多少。
+     * @param texts 待检测文本列表
+     * @param profile 检测配置档
+     * @return 按输入顺序排列的检测结果流
+     */
+    @Override
+    public Flux<SensitiveDataDetectionResult> detectSensitiveDataBatchFlux(List<String> texts,
+            DetectionProfile profile) {
+        if (texts == null || texts.isEmpty()) {
+            return Flux.empty();
+        }
+        DetectionProfile effective = profile == null ? DetectionProfile.DEFAULT : profile;
+        int rails = Math.max(1, Math.min(batchParallelism, texts.size()));
+        // 先批量读取整批的缓存结果，二级缓存只需一次往返，未命中的文本再并行检测
+        return Mono.fromCallable(() -> prefetchCached(texts, effective))
+                .subscribeOn(detectorScheduler)
+                .flatMapMany(prefetched -> Flux.fromIterable(texts)
+                        .index()
+                        .parallel(rails)
+                        .runOn(detectorScheduler, BATCH_PREFETCH)
+                        .map(indexed -> Tuples.of(indexed.getT1(),
+                                detectPrefetched(indexed.getT2(), effective, prefetched)))
+                        .ordered(Comparator.comparingLong(Tuple2::getT1), BATCH_PREFETCH)
+                        .map(Tuple2::getT2));
+    }
+    
+    private SensitiveDataDetectionResult detectPrefetched(String text, DetectionProfile profile,
+            Map<String, CompactDetectionResult> prefetched) {
+        CompactDetectionResult hit = text == null ? null : prefetched.get(text);
+        return expand(text, hit != null ? hit : detectCached(text, profile, false));
+    }
+    
+    /**
+     * 流式批量检测敏感数据，结果按完成先后发出并带有输入序号
+     * 
+     * 同时检测的文本数不超过并行轨道数，上游文本只在有空闲检测槽位时才读取，
+     * 下游停止请求时读取和检测随之暂停，内存占用与批量大小无关。
+     * @param texts 待检测文本流
+     * @param profile 检测配置档
+     * @return 带序号的检测结果流
+     */
+    @Override
+    public Flux<BatchDetectionItem> detectSensitiveDataStream(Flux<String> texts, DetectionProfile profile) {
+        return texts.index()
+                .flatMap(indexed -> Mono.fromCallable(() -> new BatchDetectionItem(indexed.getT1(),
+                                detectSensitiveData(indexed.getT2(), profile)))
+                        .subscribeOn(detectorScheduler),
+                        Math.max(1, batchParallelism), 1);
+    }
+    
+    /**
+     * 判断文本是否包含敏感数据，命中第一个有效检测项即返回
+     * @param text 待检测文本
+     * @param profile 检测配置档，为空时使用默认配置档
+     * @return 是否包含敏感数据
+     */
+    @Override
+    public boolean containsSensitiveData(String text, DetectionProfile profile) {
+        return checkSensitiveData(text, profile, true).isSensitive();
+    }
+    
+    /**
+     * 获取文本中敏感数据的最高风险等级，达到HIGH即返回
+     * @param text 待检测文本
+     * @param profile 检测配置档，为空时使用默认配置档
+     * @return 最高风险等级，不包含敏感数据时返回null
+     */
+    @Override
+    public RiskLevel getMaxRiskLevel(String text, DetectionProfile profile) {
+        return checkSensitiveData(text, profile, false).getMaxRiskLevel();
+    }
+    
+    /**
+     * 轻量检测，正则执行预算耗尽时标记为部分结果；开启失败关闭时，部分结果即使未发现检测项也按包含敏感数据返回
+     * @param text 待检测文本
+     * @param profile 检测配置档，为空时使用默认配置档
+     * @param stopAtFirstHit 为true时命中第一个检测项即返回，否则达到HIGH才返回
+     * @return 轻量检测结果
+     */
+    @Override
+    public DetectionCheckResult checkSensitiveData(String text, DetectionProfile profile, boolean stopAtFirstHit) {
+        long startTime = System.currentTimeMillis();
+        if (StringUtils.isBlank(text)) {
+            return new DetectionCheckResult(false, null, 0);
+        }
+        boolean[] partial = new boolean[1];
+        RiskLevel maxRisk = scanMaxRisk(text, profile, stopAtFirstHit, partial, startTime);
+        boolean sensitive = maxRisk != null || (partial[0] && checkFailClosed);
+        return new DetectionCheckResult(sensitive, maxRisk, System.currentTimeMillis() - startTime, partial[0]);
+    }
+    
+    /**
+     * 短路扫描：结构化正则按风险从高到低执行，每种类型只查找第一个有效命中，
+     * 已确定结果（stopAtFirstHit时任一命中，否则达到HIGH）后立即返回，不再执行剩余检测
+     * @param partial 输出参数，正则执行预算耗尽、结果不完整时置为true
+     * @return 已发现的最高风险等级，没有命中时返回null
      */
-    private void detectStructuredData(String text, List<SensitiveDataItem> detectedItems) {
-        // 定义检测顺序，按照类型的特异性和典型长度排序，确保更具体的类型优先检测
-        // 1. 优先检测更具体的类型（如身份证号、银行卡号）
-        // 2. 然后检测较通用的类型（如银行账号）
-        // 3. 最后检测其他类型
-        List<SensitiveDataType> detectionOrder = new ArrayList<>(Arrays.asList(
-            SensitiveDataType.ID_CARD,        // 15或18位，最具体的个人身份信息
-            SensitiveDataType.CREDIT_CARD,    // 16位，具体的金融信息，优先检测
-            SensitiveDataType.BANK_CARD,      // 13-19位，具体的金融信息
-            SensitiveDataType.DRIVER_LICENSE, // 17位，具体的个人身份信息
-            SensitiveDataType.PHONE_NUMBER,   // 11位，具体的联系方式
-            SensitiveDataType.PASSPORT,       // 9位，具体的个人身份信息
-            SensitiveDataType.EMAIL,          // 不确定，但通常较长，具体的联系方式
-            SensitiveDataType.USERNAME,       // 4-20位，具体的账号信息
-            SensitiveDataType.PASSWORD,       // 6-20位，具体的账号信息
-            SensitiveDataType.BANK_ACCOUNT    // 16-22位，较通用的金融信息，放在最后检测
-        ));
-        
-        // 使用顺序流处理所有敏感数据类型，按照自定义顺序
-        List<SensitiveDataItem> items = detectionOrder.stream()
-                .sequential() // 启用顺序流
-                .flatMap(type -> {
-                    Pattern pattern = RegexPatterns.getPattern(type);
-                    if (pattern == null) {
-                        // 如果没有对应的正则表达式模式，跳过该类型
-                        return java.util.stream.Stream.empty();
+    private RiskLevel scanMaxRisk(String text, DetectionProfile profile, boolean stopAtFirstHit,
+                                  boolean[] partial, long startTime) {
+        DetectionPlan plan = getPlan(profile == null ? DetectionProfile.DEFAULT : profile);
+        // 只判断风险等级，不需要换算偏移
+        String scanText = TextNormalizer.normalize(text).getText();
+        BudgetedCharSequence input = createBudgetedInput(scanText);
+        RiskLevel maxRisk = null;
+        
+        try {
+            // 1. 结构化正则，跳过无法提高当前最高风险的类型
+            for (SensitiveDataType type : plan.getRiskOrderedStructuredTypes()) {
+                if (isDecided(maxRisk, stopAtFirstHit)) {
+                    return maxRisk;
+                }
+                if (!isHigherRisk(type.getRiskLevel(), maxRisk)) {
+                    continue;
+                }
+                if (containsValidMatch(scanText, type, input)) {
+                    maxRisk = type.getRiskLevel();
+                }
+            }
+            
+            // 2. 关键词，只接受能提高当前最高风险的关键词
+            if (plan.getProfile().isKeywordEnabled() && !isDecided(maxRisk, stopAtFirstHit)) {
+                maxRisk = scanKeywordMaxRisk(scanText, plan, maxRisk, stopAtFirstHit);
+            }
+            
+            // 3. 用户正则和组合规则依赖完整的命中流，仍未确定时回退为完整检测
+            if (!isDecided(maxRisk, stopAtFirstHit) && !input.isExhausted()
+                    && (plan.isCustomRegexEnabled() || plan.isCompositeEnabled())) {
+                CompactDetectionResult result = detect(text, plan.getProfile());
+                partial[0] = result.isPartial();
+                for (int i = 0; i < result.getTotalDetected(); i++) {
+                    if (isHigherRisk(result.getType(i).getRiskLevel(), maxRisk)) {
+                        maxRisk = result.getType(i).getRiskLevel();
                     }
-                    Matcher matcher = pattern.matcher(text);
-                    List<SensitiveDataItem> typeItems = new ArrayList<>();
-                    
-                    while (matcher.find()) {
-                        String content;
-                        int startPos;
-                        int endPos;
-                        
-                        // 对于身份证号类型，使用捕获组提取身份证号内容
-                        if (type == SensitiveDataType.ID_CARD) {
-                            if (matcher.groupCount() > 0 && matcher.group(1) != null) {
-                                content = matcher.group(1);
-                                startPos = matcher.start(1);
-                                endPos = matcher.end(1);
-                            } else {
-                                continue;
-                            }
-                        } 
-                        // 对于银行账号类型，使用捕获组提取银行账号内容
-                        else if (type == SensitiveDataType.BANK_ACCOUNT) {
-                            if (matcher.groupCount() > 0 && matcher.group(1) != null) {
-                                content = matcher.group(1);
-                                startPos = matcher.start(1);
-                                endPos = matcher.end(1);
-                            } else {
-                                continue;
-                            }
-                        } 
-                        // 对于密码类型，使用捕获组提取密码内容
-                        else if (type == SensitiveDataType.PASSWORD) {
-                            if (matcher.groupCount() > 0 && matcher.group(1) != null) {
-                                content = matcher.group(1);
-                                startPos = matcher.start(1);
-                                endPos = matcher.end(1);
-                            } else {
-                                continue;
-                            }
-                        } else {
-                            content = matcher.group();
-                            startPos = matcher.start();
-                            endPos = matcher.end();
-                        }
-                        
-                        // 对于银行卡号和信用卡号，添加Luhn算法校验
-                        if (type == SensitiveDataType.BANK_CARD || type == SensitiveDataType.CREDIT_CARD) {
-                            if (LuhnUtil.isValidCardNumber(content)) {
-                                typeItems.add(new SensitiveDataItem(content, type, startPos, endPos));
-                            }
-                        } 
-                        // 对于身份证号，添加校验码验证
-                        else if (type == SensitiveDataType.ID_CARD) {
-                            if (IdCardUtil.isValidIdCard(content)) {
-                                typeItems.add(new SensitiveDataItem(content, type, startPos, endPos));
-                            }
-                        } else {
-                            typeItems.add(new SensitiveDataItem(content, type, startPos, endPos));
-                        }
+                }
+            }
+            return maxRisk;
+        } finally {
+            if (input.isExhausted()) {
+                partial[0] = true;
+                PERFORMANCE_MONITOR.recordRegexBudgetExceeded();
+            }
+            PERFORMANCE_MONITOR.recordRequest(System.currentTimeMillis() - startTime, maxRisk == null ? 0 : 1, true);
+        }
+    }
+    
+    /**
+     * 查找结构化正则的第一个有效命中
+     */
+    private boolean containsValidMatch(String text, SensitiveDataType type, BudgetedCharSequence input) {
+        Pattern pattern = RegexPatterns.getPattern(type);
+        if (pattern == null || input.isExhausted()) {
+            return false;
+        }
+        Matcher matcher = pattern.matcher(input);
+        try {
+            while (matcher.find()) {
+                if (validatedGroup(text, type, matcher) >= 0) {
+                    return true;
+                }
+            }
+        } catch (BudgetedCharSequence.BudgetExceededException e) {
+            // 预算耗尽，本类型按未命中处理，由调用方根据input.isExhausted()标记部分结果
+        }
+        return false;
+    }
+    
+    /**
+     * 关键词短路扫描，每轮只接受风险高于当前最高风险的关键词，找到后提高门槛继续，直到确定结果
+     */
+    private RiskLevel scanKeywordMaxRisk(String text, DetectionPlan plan, RiskLevel maxRisk, boolean stopAtFirstHit) {
+        Set<String> keywords = emittedKeywords;
+        RiskLevel current = maxRisk;
+        while (!isDecided(current, stopAtFirstHit)) {
+            final RiskLevel floor = current;
+            AhoCorasick.MatchResult hit = ahoCorasick.findFirst(text, keyword -> {
+                if (!keywords.contains(keyword)) {
+                    return false;
+                }
+                SensitiveDataType type = determineKeywordType(keyword);
+                return plan.outputs(type, true) && isHigherRisk(type.getRiskLevel(), floor);
+            });
+            if (hit == null) {
+                break;
+            }
+            current = determineKeywordType(hit.getPattern()).getRiskLevel();
+        }
+        return current;
+    }
+    
+    private static boolean isDecided(RiskLevel maxRisk, boolean stopAtFirstHit) {
+        return maxRisk != null && (stopAtFirstHit || maxRisk == RiskLevel.HIGH);
+    }
+    
+    /**
+     * RiskLevel按HIGH、MEDIUM、LOW声明，序号越小风险越高
+     */
+    private static boolean isHigherRisk(RiskLevel level, RiskLevel current) {
+        return current == null || level.ordinal() < current.ordinal();
+    }
+    
+    /**
+     * 获取检测配置档对应的执行计划，计划按配置档缓存，规则变化时失效
+     */
+    private DetectionPlan getPlan(DetectionProfile profile) {
+        DetectionPlan plan = planCache.get(profile);
+        if (plan == null) {
+            if (planCache.size() >= MAX_CACHED_PLANS) {
+                planCache.clear();
+            }
+            plan = planCache.computeIfAbsent(profile,
+                    p -> new DetectionPlan(p, DETECTION_ORDER, regexPrefilter, compositeRuleEngine));
+        }
+        return plan;
+    }
+    
+    /**
+     * 创建受执行预算保护的正则输入
+     * @param text 待检测文本
+     * @return 带预算的字符序列
+     */
+    private BudgetedCharSequence createBudgetedInput(CharSequence text) {
+        // 步数和时间预算都随文本长度增长：正常的长文本能完整检测，只有回溯异常的规则会耗尽预算
+        long maxSteps = regexBudgetBaseSteps + regexBudgetStepsPerChar * text.length();
+        long maxNanos = TimeUnit.MILLISECONDS.toNanos(regexBudgetTimeoutMs)
+                + regexBudgetTimeoutNanosPerChar * text.length();
+        return new BudgetedCharSequence(text, maxSteps, maxNanos);
+    }
+    
+    /**
+     * 构建检测结果，正则预算耗尽时记录指标并标记为部分结果
+     */
+    private SensitiveDataDetectionResult buildResult(String text, BudgetedCharSequence input,
+            List<SensitiveDataItem> detectedItems, long processingTime) {
+        SensitiveDataDetectionResult result = new SensitiveDataDetectionResult(text, detectedItems, processingTime);
+        if (input.isExhausted()) {
+            PERFORMANCE_MONITOR.recordRegexBudgetExceeded();
+            result.setPartial(true);
+        }
+        return result;
+    }
+    
+    /**
+     * 规范化删除了字符时，把命中位置从规范化文本换算回原文
+     */
+    private static void mapToOriginal(NormalizedText normalized, MatchBuffer matches) {
+        if (!normalized.isShifted()) {
+            return;
+        }
+        for (int i = 0; i < matches.size(); i++) {
+            matches.setRange(i, normalized.toOriginalStart(matches.start(i)),
+                    normalized.toOriginalEnd(matches.end(i)));
+        }
+    }
+    
+    /**
+     * 按配置的策略消解重叠的检测项，特异性按结构化数据的检测顺序判定
+     * 
+     * KEEP_ALL只需排序去重，直接在缓冲区上完成；其余策略需要比较检测项，交由OverlapResolver处理
+     */
+    private MatchBuffer resolveOverlaps(String text, MatchBuffer matches) {
+        if (overlapStrategy == null || overlapStrategy == OverlapStrategy.KEEP_ALL) {
+            matches.sortAndDeduplicate();
+            return matches;
+        }
+        if (matches.size() < 2) {
+            return matches;
+        }
+        List<SensitiveDataItem> resolved = new OverlapResolver(overlapStrategy, DETECTION_ORDER)
+                .resolve(text, matches.asItems(text, null));
+        MatchBuffer result = new MatchBuffer(resolved.size());
+        for (SensitiveDataItem item : resolved) {
+            result.add(item);
+        }
+        return result;
+    }
+    
+    /**
+     * 检测结构化敏感数据
+     * @param digitRuns 文本中的数字串区域，纯数字类正则只在数字个数足够的区域内执行
+     */
+    private void detectStructuredData(CharSequence text, BudgetedCharSequence input,
+            List<SensitiveDataType> detectionOrder, DigitRunScanner.Candidates digitRuns, MatchBuffer matches) {
+        // 按执行计划中的顺序逐类型检测，保留所有检测结果，允许同一个敏感数据命中多个标签，由后续的重叠消解按策略处理
+        for (SensitiveDataType type : detectionOrder) {
+            Pattern pattern = RegexPatterns.getPattern(type);
+            if (pattern == null || input.isExhausted()) {
+                // 如果没有对应的正则表达式模式或预算已耗尽，跳过该类型
+                continue;
+            }
+            int minDigits = RegexPatterns.getMinDigits(type);
+            if (minDigits > digitRuns.getMaxDigits()) {
+                // 没有数字足够多的区域，不可能匹配
+                continue;
+            }
+            Matcher matcher = pattern.matcher(input);
+            try {
+                if (minDigits == 0) {
+                    findStructuredMatches(text, type, matcher, matches);
+                    continue;
+                }
+                // 透明边界让边界断言看到区域外的字符，区域多包含一个字符以容纳卡号末尾的分隔符
+                matcher.useTransparentBounds(true).useAnchoringBounds(false);
+                for (int i = 0; i < digitRuns.size(); i++) {
+                    if (digitRuns.digits(i) >= minDigits) {
+                        matcher.region(digitRuns.start(i), Math.min(digitRuns.end(i) + 1, input.length()));
+                        findStructuredMatches(text, type, matcher, matches);
                     }
-                    
-                    return typeItems.stream();
-                })
-                .collect(Collectors.toList());
+                }
+            } catch (BudgetedCharSequence.BudgetExceededException e) {
+                // 预算耗尽，保留该类型已找到的结果，请求将被标记为部分结果
+            }
+        }
+    }
+    
+    /**
+     * 在匹配器的当前区域内查找并校验结构化数据
+     */
+    private void findStructuredMatches(CharSequence text, SensitiveDataType type, Matcher matcher,
+            MatchBuffer matches) {
+        while (matcher.find()) {
+            int group = validatedGroup(text, type, matcher);
+            if (group >= 0) {
+                matches.add(matcher.start(group), matcher.end(group), type, null);
+            }
+        }
+    }
+    
+    /**
+     * 对结构化正则的一次匹配做类型相关的校验，校验直接读取原文区间，不创建子串
+     * @return 检测内容所在的捕获组（0表示整个匹配），捕获组缺失或校验不通过时返回-1
+     */
+    private int validatedGroup(CharSequence text, SensitiveDataType type, Matcher matcher) {
+        int group = 0;
+        
+        // 身份证号、银行账号和密码类型使用捕获组提取内容
+        if (type == SensitiveDataType.ID_CARD || type == SensitiveDataType.BANK_ACCOUNT
+                || type == SensitiveDataType.PASSWORD) {
+            if (matcher.groupCount() > 0 && matcher.start(1) >= 0) {
+                group = 1;
+            } else {
+                return -1;
+            }
+        }
+        int startPos = matcher.start(group);
+        int endPos = matcher.end(group);
         
-        // 保留所有检测结果，允许同一个敏感数据命中多个标签
-        detectedItems.addAll(items);
+        // 对于银行卡号和信用卡号，添加Luhn算法校验
+        if (type == SensitiveDataType.BANK_CARD || type == SensitiveDataType.CREDIT_CARD) {
+            if (!LuhnUtil.isValidCardNumber(text, startPos, endPos)) {
+                return -1;
+            }
+        } 
+        // 对于身份证号，添加校验码验证
+        else if (type == SensitiveDataType.ID_CARD) {
+            if (!IdCardUtil.isValidIdCard(text, startPos, endPos)) {
+                return -1;
+            }
+        }
+        return group;
     }
     
     /**
      * 检测高风险结构化数据（用于实时检测）
      */
-    private void detectHighRiskStructuredData(String text, List<SensitiveDataItem> detectedItems) {
+    private void detectHighRiskStructuredData(String text, BudgetedCharSequence input, MatchBuffer matches) {
         // 只检测高风险类型
         SensitiveDataType[] highRiskTypes = {
             SensitiveDataType.ID_CARD,
@@ -295,65 +1531,96 @@ public class SensitiveDataDetectorServiceImpl implements SensitiveDataDetectorSe
             SensitiveDataType.PASSWORD
         };
         
-        // 使用顺序流处理高风险类型
-        List<SensitiveDataItem> items = java.util.stream.Stream.of(highRiskTypes)
-                .sequential() // 启用顺序流
-                .filter(RegexPatterns::isSupported)
-                .flatMap(type -> {
-                    Pattern pattern = RegexPatterns.getPattern(type);
-                    Matcher matcher = pattern.matcher(text);
-                    List<SensitiveDataItem> typeItems = new ArrayList<>();
+        for (SensitiveDataType type : highRiskTypes) {
+            if (!RegexPatterns.isSupported(type) || input.isExhausted()) {
+                continue;
+            }
+            Matcher matcher = RegexPatterns.getPattern(type).matcher(input);
+            try {
+                while (matcher.find()) {
+                    int group = 0;
                     
-                    while (matcher.find()) {
-                        String content;
-                        int startPos;
-                        int endPos;
-                        
-                        // 对于密码类型，使用捕获组提取密码内容
-                        if (type == SensitiveDataType.PASSWORD) {
-                            if (matcher.groupCount() > 0 && matcher.group(1) != null) {
-                                content = matcher.group(1);
-                                startPos = matcher.start(1);
-                                endPos = matcher.end(1);
-                            } else {
-                                continue;
-                            }
-                        } else {
-                            content = matcher.group();
-                            startPos = matcher.start();
-                            endPos = matcher.end();
-                        }
-                        
-                        // 对于银行卡号和信用卡号，添加Luhn算法校验
-                        if (type == SensitiveDataType.BANK_CARD || type == SensitiveDataType.CREDIT_CARD) {
-                            if (LuhnUtil.isValidCardNumber(content)) {
-                                typeItems.add(new SensitiveDataItem(content, type, startPos, endPos));
-                            }
+                    // 对于密码类型，使用捕获组提取密码内容
+                    if (type == SensitiveDataType.PASSWORD) {
+                        if (matcher.groupCount() > 0 && matcher.start(1) >= 0) {
+                            group = 1;
                         } else {
-                            typeItems.add(new SensitiveDataItem(content, type, startPos, endPos));
+                            continue;
                         }
                     }
+                    int startPos = matcher.start(group);
+                    int endPos = matcher.end(group);
                     
-                    return typeItems.stream();
-                })
-                .collect(Collectors.toList());
-        
-        detectedItems.addAll(items);
+                    // 对于银行卡号和信用卡号，添加Luhn算法校验
+                    if ((type == SensitiveDataType.BANK_CARD || type == SensitiveDataType.CREDIT_CARD)
+                            && !LuhnUtil.isValidCardNumber(text, startPos, endPos)) {
+                        continue;
+                    }
+                    matches.add(startPos, endPos, type, null);
+                }
+            } catch (BudgetedCharSequence.BudgetExceededException e) {
+                // 预算耗尽，保留该类型已找到的结果，请求将被标记为部分结果
+            }
+        }
+    }
+    
+    /**
+     * 执行用户自定义正则规则（经字面量预过滤，只在因子附近区域执行完整正则）
+     */
+    private void detectCustomRegexData(String text, BudgetedCharSequence input, MatchBuffer matches) {
+        if (input.isExhausted()) {
+            return;
+        }
+        for (RegexPrefilter.RuleMatch match : regexPrefilter.match(text, input)) {
+            SensitiveDataType type = match.getRule().getSensitiveDataType();
+            if (type == null) {
+                continue;
+            }
+            matches.add(match.getStart(), match.getEnd(), type, match.getRule().getId());
+        }
     }
     
     /**
      * 检测非结构化敏感数据（使用Aho-Corasick算法优化）
+     * @return 关键词自动机的全部命中，包含组合规则的锚点关键词
      */
-    private void detectUnstructuredData(String text, List<SensitiveDataItem> detectedItems) {
+    private List<AhoCorasick.MatchResult> detectUnstructuredData(String text, DetectionPlan plan,
+            MatchBuffer matches) {
         // 使用Aho-Corasick算法进行高效的多模式匹配
         List<AhoCorasick.MatchResult> matchResults = ahoCorasick.match(text);
+        Set<String> keywords = emittedKeywords;
         
-        // 将匹配结果转换为SensitiveDataItem
+        // 记录关键词命中，锚点关键词只供组合规则使用，不作为检测结果
         for (AhoCorasick.MatchResult result : matchResults) {
             String keyword = result.getPattern();
+            if (!keywords.contains(keyword)) {
+                continue;
+            }
             SensitiveDataType type = determineKeywordType(keyword);
-            SensitiveDataItem item = new SensitiveDataItem(keyword, type, result.getStart(), result.getEnd());
-            detectedItems.add(item);
+            if (!plan.emitsKeywordType(type)) {
+                continue;
+            }
+            matches.add(result.getStart(), result.getEnd(), type, null);
+        }
+        return matchResults;
+    }
+    
+    /**
+     * 求值组合规则，命中区间以规则的敏感数据类型输出
+     */
+    private void detectCompositeData(List<AhoCorasick.MatchResult> keywordHits, DetectionPlan plan,
+            MatchBuffer matches) {
+        CompositeRuleEngine engine = compositeRuleEngine;
+        if (engine.getRuleCount() == 0 || (matches.isEmpty() && keywordHits.isEmpty())) {
+            return;
+        }
+        for (CompositeRuleEngine.RuleMatch match : engine.evaluate(matches, keywordHits,
+                plan.getOutputTypes())) {
+            SensitiveDataType type = match.getRule().getSensitiveDataType();
+            if (type == null) {
+                continue;
+            }
+            matches.add(match.getStart(), match.getEnd(), type, match.getRule().getId());
         }
     }
     
@@ -398,8 +1665,103 @@ public class SensitiveDataDetectorServiceImpl implements SensitiveDataDetectorSe
                 this.sensitiveKeywords = newKeywords;
             }
             // 重新初始化Aho-Corasick算法
-            this.ahoCorasick = new AhoCorasick(this.sensitiveKeywords);
+            rebuildKeywordAutomaton();
+        }
+    }
+    
+    /**
+     * 更新组合规则
+     * @param compositeRules 启用的组合规则列表
+     */
+    public void updateCompositeRules(List<SensitiveDataRule> compositeRules) {
+        if (compositeRules == null) {
+            return;
+        }
+        List<SensitiveDataRule> rules = compositeRules.size() > maxRules
+                ? compositeRules.subList(0, maxRules) : compositeRules;
+        this.compositeRuleEngine = new CompositeRuleEngine(new ArrayList<>(rules));
+        this.compositeRulesHash = hashRules(rules);
+        planCache.clear();
+        // 锚点关键词变化后需要重建关键词自动机
+        rebuildKeywordAutomaton();
+    }
+    
+    /**
+     * 重建关键词自动机，包含敏感关键词和组合规则的锚点关键词
+     */
+    private synchronized void rebuildKeywordAutomaton() {
+        Set<String> keywords = new HashSet<>(sensitiveKeywords);
+        Set<String> patterns = new HashSet<>(keywords);
+        patterns.addAll(compositeRuleEngine.getAnchorKeywords());
+        this.ahoCorasick = new AhoCorasick(new ArrayList<>(patterns));
+        this.utf8KeywordMatcher = new Utf8KeywordMatcher(keywords);
+        this.emittedKeywords = keywords;
+        List<String> sortedKeywords = new ArrayList<>(keywords);
+        Collections.sort(sortedKeywords);
+        this.keywordRulesHash = MurmurHash3.hash128(String.join("\u0000", sortedKeywords), 0).getHigh();
+        refreshRulesetVersion();
+    }
+    
+    /**
+     * 更新用户自定义正则规则
+     * @param regexRules 启用的正则规则列表
+     */
+    public void updateRegexRules(List<SensitiveDataRule> regexRules) {
+        if (regexRules == null) {
+            return;
+        }
+        // 限制规则数量，防止内存溢出
+        List<SensitiveDataRule> rules = regexRules.size() > maxRules ? regexRules.subList(0, maxRules) : regexRules;
+        // 重新编译规则并建立字面量因子索引
+        this.regexPrefilter = new RegexPrefilter(new ArrayList<>(rules));
+        this.regexRulesHash = hashRules(rules);
+        // 执行计划依赖规则集，需要重新编译
+        planCache.clear();
+        refreshRulesetVersion();
+    }
+    
+    /**
+     * 根据各部分规则的内容哈希重新计算规则集版本
+     * 
+     * 版本变化后旧版本的缓存键不再被访问，本地缓存随即清空以释放旧结果，
+     * 二级缓存中的旧结果按过期时间或容量淘汰
+     */
+    private synchronized void refreshRulesetVersion() {
+        String hashes = keywordRulesHash + ":" + compositeRulesHash + ":" + regexRulesHash;
+        long version = MurmurHash3.hash128(hashes, 0).getHigh();
+        if (version == rulesetVersion) {
+            return;
+        }
+        rulesetVersion = version;
+        // 旧规则集下无敏感数据的文本在新规则下可能命中
+        cleanTextFilter = null;
+        SensitiveDataCacheService cache = getDetectionCache();
+        if (cache != null) {
+            cache.clearLocal();
+        }
+    }
+    
+    /**
+     * 计算规则列表的内容哈希，只包含影响检测结果的字段
+     */
+    private static long hashRules(List<SensitiveDataRule> rules) {
+        StringBuilder sb = new StringBuilder();
+        for (SensitiveDataRule rule : rules) {
+            sb.append(rule.getId()).append('\u0000')
+                    .append(rule.getType()).append('\u0000')
+                    .append(rule.getContent()).append('\u0000')
+                    .append(rule.getSensitiveDataType()).append('\u0000')
+                    .append(rule.getRiskLevel()).append('\u0001');
         }
+        return MurmurHash3.hash128(sb, 0).getHigh();
+    }
+    
+    /**
+     * 获取没有可提取字面量因子的正则规则，这些规则每次检测都需要全文执行
+     * @return 正则规则列表
+     */
+    public List<SensitiveDataRule> getUnfilteredRegexRules() {
+        return regexPrefilter.getUnfilteredRegexRules();
     }
     
     /**
@@ -409,4 +1771,68 @@ public class SensitiveDataDetectorServiceImpl implements SensitiveDataDetectorSe
     public List<String> getSensitiveKeywords() {
         return new ArrayList<>(sensitiveKeywords);
     }
-}
\ No newline at end of file
+    
+    /**
+     * 一个规则集版本下无敏感数据文本的布隆过滤器，元素为文本指纹与检测配置档的组合
+     */
+    private static final class CleanTextFilter {
+        
+        private final long version;
+        private final RotatingBloomFilter filter;
+        
+        CleanTextFilter(long version, RotatingBloomFilter filter) {
+            this.version = version;
+            this.filter = filter;
+        }
+        
+        boolean mightContain(Fingerprint128 fingerprint, DetectionProfile profile) {
+            return filter.mightContain(withProfile(fingerprint, profile));
+        }
+        
+        void put(Fingerprint128 fingerprint, DetectionProfile profile) {
+            filter.put(withProfile(fingerprint, profile));
+        }
+        
+        private static Fingerprint128 withProfile(Fingerprint128 fingerprint, DetectionProfile profile) {
+            if (DetectionProfile.DEFAULT.equals(profile)) {
+                return fingerprint;
+            }
+            return new Fingerprint128(fingerprint.getHigh() ^ profile.getCacheKey().hashCode() * 0x9E3779B97F4A7C15L,
+                    fingerprint.getLow());
+        }
+    }
+    
+    /**
+     * 进行中检测的合并键
+     */
+    private static final class FlightKey {
+        
+        private final Fingerprint128 fingerprint;
+        private final DetectionProfile profile;
+        private final long rulesetVersion;
+        
+        FlightKey(Fingerprint128 fingerprint, DetectionProfile profile, long rulesetVersion) {
+            this.fingerprint = fingerprint;
+            this.profile = profile;
+            this.rulesetVersion = rulesetVersion;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FlightKey)) {
+                return false;
+            }
+            FlightKey that = (FlightKey) o;
+            return rulesetVersion == that.rulesetVersion && fingerprint.equals(that.fingerprint)
+                    && profile.equals(that.profile);
+        }
+        
+        @Override
+        public int hashCode() {
+            return fingerprint.hashCode() * 31 + profile.hashCode();
+        }
+    }
+}
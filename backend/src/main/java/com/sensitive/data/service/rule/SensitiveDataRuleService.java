@@ -5,6 +5,7 @@ import java.util.Optional;
 
 import com.sensitive.data.model.SensitiveDataRule;
 import com.sensitive.data.model.SensitiveDataType;
+import com.sensitive.data.util.regex.RegexCostAnalyzer;
 
 /**
  * 敏感数据规则服务接口
@@ -115,4 +116,19 @@ public interface SensitiveDataRuleService {
      * @return 正则表达式列表
      */
     List<String> getAllEnabledRegexPatterns();
+    
+    /**
+     * 获取无法提取字面量因子的启用正则规则，这些规则无法预过滤，每次检测都需全文执行
+     * 
+     * @return 敏感数据规则列表
+     */
+    List<SensitiveDataRule> getUnfilteredRegexRules();
+    
+    /**
+     * 分析正则表达式的执行代价，供规则作者在提交前自查
+     * 
+     * @param regex 正则表达式
+     * @return 代价分析报告
+     */
+    RegexCostAnalyzer.CostReport analyzeRegexCost(String regex);
 }
\ No newline at end of file
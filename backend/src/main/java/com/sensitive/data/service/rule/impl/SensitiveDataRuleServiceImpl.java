@@ -9,6 +9,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -16,6 +17,8 @@ import com.sensitive.data.model.SensitiveDataRule;
 import com.sensitive.data.model.SensitiveDataType;
 import com.sensitive.data.service.detector.impl.SensitiveDataDetectorServiceImpl;
 import com.sensitive.data.service.rule.SensitiveDataRuleService;
+import com.sensitive.data.util.composite.CompositeExpression;
+import com.sensitive.data.util.regex.RegexCostAnalyzer;
 
 /**
  * 敏感数据规则服务实现
@@ -29,6 +32,22 @@ public class SensitiveDataRuleServiceImpl implements SensitiveDataRuleService {
     // 敏感数据检测服务
     private final SensitiveDataDetectorServiceImpl detectorService;
     
+    // 正则规则超出代价预算时的处理方式：REJECT拒绝保存，PENDING置为待审核
+    @Value("${sensitive.data.detector.rules.regex-cost.action:REJECT}")
+    private String regexCostAction = "REJECT";
+    
+    // 代价基准测试的对抗串长度
+    @Value("${sensitive.data.detector.rules.regex-cost.benchmark-length:256}")
+    private int regexCostBenchmarkLength = 256;
+    
+    // 代价基准测试中每个输入字符允许的最大字符访问次数
+    @Value("${sensitive.data.detector.rules.regex-cost.max-steps-per-char:200}")
+    private long regexCostMaxStepsPerChar = 200L;
+    
+    // 代价基准测试中单个对抗串的超时时间（毫秒）
+    @Value("${sensitive.data.detector.rules.regex-cost.timeout-ms:50}")
+    private long regexCostTimeoutMs = 50L;
+    
     /**
      * 构造函数
      * @param detectorService 敏感数据检测服务
@@ -104,6 +123,12 @@ public class SensitiveDataRuleServiceImpl implements SensitiveDataRuleService {
             rule.setId(generateRuleId(rule));
         }
         
+        // 检查正则规则的执行代价
+        checkRegexCost(rule);
+        
+        // 检查组合规则的表达式语法
+        checkCompositeExpression(rule);
+        
         // 设置默认值
         LocalDateTime now = LocalDateTime.now();
         rule.setCreatedAt(now);
@@ -126,6 +151,12 @@ public class SensitiveDataRuleServiceImpl implements SensitiveDataRuleService {
             throw new IllegalArgumentException("Rule not found: " + rule.getId());
         }
         
+        // 检查正则规则的执行代价
+        checkRegexCost(rule);
+        
+        // 检查组合规则的表达式语法
+        checkCompositeExpression(rule);
+        
         // 更新规则
         SensitiveDataRule existingRule = ruleStore.get(rule.getId());
         rule.setCreatedAt(existingRule.getCreatedAt());
@@ -189,6 +220,14 @@ public class SensitiveDataRuleServiceImpl implements SensitiveDataRuleService {
             throw new IllegalArgumentException("Rule not found: " + id);
         }
         
+        // 超出代价预算的正则规则不允许直接启用，需修改后重新提交
+        if (rule.getType() == SensitiveDataRule.RuleType.REGEX) {
+            RegexCostAnalyzer.CostReport report = analyzeRegexCost(rule.getContent());
+            if (report.isOverBudget()) {
+                throw new IllegalArgumentException("Regex rule exceeds cost budget: " + id + " " + report);
+            }
+        }
+        
         // 启用规则
         rule.setStatus(SensitiveDataRule.RuleStatus.ENABLED);
         rule.setUpdatedAt(LocalDateTime.now());
@@ -267,6 +306,65 @@ public class SensitiveDataRuleServiceImpl implements SensitiveDataRuleService {
                 .collect(Collectors.toList());
     }
     
+    @Override
+    public List<SensitiveDataRule> getUnfilteredRegexRules() {
+        return detectorService.getUnfilteredRegexRules();
+    }
+    
+    @Override
+    public RegexCostAnalyzer.CostReport analyzeRegexCost(String regex) {
+        RegexCostAnalyzer analyzer = new RegexCostAnalyzer(regexCostBenchmarkLength, regexCostMaxStepsPerChar,
+                regexCostTimeoutMs * 1_000_000L);
+        return analyzer.analyze(regex);
+    }
+    
+    /**
+     * 检查正则规则的执行代价，语法错误直接拒绝，超出预算时按配置拒绝或置为待审核
+     * @param rule 规则
+     */
+    private void checkRegexCost(SensitiveDataRule rule) {
+        if (rule.getType() != SensitiveDataRule.RuleType.REGEX) {
+            return;
+        }
+        
+        RegexCostAnalyzer.CostReport report = analyzeRegexCost(rule.getContent());
+        if (!report.isValid()) {
+            throw new IllegalArgumentException("Invalid regex in rule " + rule.getId() + ": " + report.getError());
+        }
+        if (!report.isOverBudget()) {
+            return;
+        }
+        
+        if ("PENDING".equalsIgnoreCase(regexCostAction)) {
+            // 置为待审核，不会进入检测热路径
+            rule.setStatus(SensitiveDataRule.RuleStatus.PENDING);
+        } else {
+            throw new IllegalArgumentException("Regex rule exceeds cost budget: " + rule.getId() + " " + report);
+        }
+    }
+    
+    /**
+     * 检查组合规则的表达式语法，语法错误时抛出IllegalArgumentException
+     * @param rule 规则
+     */
+    private void checkCompositeExpression(SensitiveDataRule rule) {
+        if (rule.getType() == SensitiveDataRule.RuleType.COMPOSITE) {
+            CompositeExpression.parse(rule.getContent());
+        }
+    }
+    
+    /**
+     * 获取指定类型的所有启用规则
+     * @param type 规则类型
+     * @return 规则列表
+     */
+    private List<SensitiveDataRule> getEnabledRules(SensitiveDataRule.RuleType type) {
+        return ruleStore.values().stream()
+                .filter(rule -> rule.getType() == type)
+                .filter(rule -> rule.getStatus() == SensitiveDataRule.RuleStatus.ENABLED)
+                .collect(Collectors.toList());
+    }
+    
     /**
      * 生成规则ID
      * @param rule 规则
@@ -287,5 +385,11 @@ public class SensitiveDataRuleServiceImpl implements SensitiveDataRuleService {
         
         // 更新检测服务的关键词
         detectorService.updateSensitiveKeywords(keywords);
+        
+        // 更新检测服务的正则规则
+        detectorService.updateRegexRules(getEnabledRules(SensitiveDataRule.RuleType.REGEX));
+        
+        // 更新检测服务的组合规则
+        detectorService.updateCompositeRules(getEnabledRules(SensitiveDataRule.RuleType.COMPOSITE));
     }
 }
\ No newline at end of file
@@ -10,6 +10,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
 
 /**
  * 优化后的Aho-Corasick算法实现，用于高效的多模式字符串匹配
@@ -51,14 +52,28 @@ public class AhoCorasick {
     // 模式串数量
     private volatile int patternCount;
     
+    // 是否忽略大小写，忽略时模式串和文本字符都做大小写折叠后再匹配
+    private final boolean ignoreCase;
+    
     /**
      * 构造函数，初始化Aho-Corasick算法
      * 
      * @param patterns 模式串列表
      */
     public AhoCorasick(List<String> patterns) {
+        this(patterns, false);
+    }
+    
+    /**
+     * 构造函数，初始化Aho-Corasick算法
+     * 
+     * @param patterns 模式串列表
+     * @param ignoreCase 是否忽略大小写，为true时匹配结果中的模式串为折叠后的形式
+     */
+    public AhoCorasick(List<String> patterns, boolean ignoreCase) {
         root = new Node(0);
         patternCount = 0;
+        this.ignoreCase = ignoreCase;
         buildTrie(patterns);
         buildFailPointers();
     }
@@ -69,6 +84,7 @@ public class AhoCorasick {
     public AhoCorasick() {
         root = new Node(0);
         patternCount = 0;
+        ignoreCase = false;
     }
     
     /**
@@ -112,6 +128,9 @@ public class AhoCorasick {
             if (pattern == null || pattern.isEmpty()) {
                 continue;
             }
+            if (ignoreCase) {
+                pattern = foldCase(pattern);
+            }
             
             Node current = root;
             for (char c : pattern.toCharArray()) {
@@ -179,8 +198,8 @@ public class AhoCorasick {
      * @param text 要匹配的文本
      * @return 匹配结果列表，每个元素包含匹配的模式串和结束位置
      */
-    public List<MatchResult> match(String text) {
-        if (text == null || text.isEmpty() || patternCount == 0) {
+    public List<MatchResult> match(CharSequence text) {
+        if (text == null || text.length() == 0 || patternCount == 0) {
             return Collections.emptyList();
         }
         
@@ -190,7 +209,7 @@ public class AhoCorasick {
             Node current = root;
             
             for (int i = 0; i < text.length(); i++) {
-                char c = text.charAt(i);
+                char c = ignoreCase ? foldCase(text.charAt(i)) : text.charAt(i);
                 
                 // 沿着失败指针查找匹配的子节点
                 while (current != root && !current.children.containsKey(c)) {
@@ -220,6 +239,52 @@ public class AhoCorasick {
         }
     }
     
+    /**
+     * 查找文本中第一个被接受的匹配，找到后立即返回，不再扫描剩余文本
+     * 
+     * @param text 要匹配的文本
+     * @param accept 判断模式串是否被接受，为null时接受所有模式串
+     * @return 第一个被接受的匹配结果，没有时返回null
+     */
+    public MatchResult findFirst(CharSequence text, Predicate<String> accept) {
+        if (text == null || text.length() == 0 || patternCount == 0) {
+            return null;
+        }
+        
+        readLock.lock();
+        try {
+            Node current = root;
+            
+            for (int i = 0; i < text.length(); i++) {
+                char c = ignoreCase ? foldCase(text.charAt(i)) : text.charAt(i);
+                
+                // 沿着失败指针查找匹配的子节点
+                while (current != root && !current.children.containsKey(c)) {
+                    current = current.fail;
+                }
+                
+                Node child = current.children.get(c);
+                if (child != null) {
+                    current = child;
+                    
+                    if (!current.patterns.isEmpty()) {
+                        synchronized (current.patterns) {
+                            for (String pattern : current.patterns) {
+                                if (accept == null || accept.test(pattern)) {
+                                    return new MatchResult(pattern, i - pattern.length() + 1, i + 1);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            
+            return null;
+        } finally {
+            readLock.unlock();
+        }
+    }
+    
     /**
      * 批量匹配文本，返回所有匹配结果
      * 
@@ -242,6 +307,27 @@ public class AhoCorasick {
         return batchResults;
     }
     
+    /**
+     * 对单个字符做大小写折叠，忽略大小写匹配时模式串和文本都使用该折叠方式
+     * 
+     * @param c 字符
+     * @return 折叠后的字符
+     */
+    public static char foldCase(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+    
+    /**
+     * 对模式串做大小写折叠
+     */
+    private static String foldCase(String pattern) {
+        StringBuilder sb = new StringBuilder(pattern.length());
+        for (int i = 0; i < pattern.length(); i++) {
+            sb.append(foldCase(pattern.charAt(i)));
+        }
+        return sb.toString();
+    }
+    
     /**
      * 获取模式串数量
      * 
@@ -0,0 +1,185 @@
+package com.sensitive.data.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * 数字串扫描器，为身份证号、银行卡号、手机号等数字类正则定位候选区域
+ *
+ * 扫描找出所有连续的ASCII数字串，并把只间隔一个空格或连字符的数字串合并为一个候选区域
+ * （对应卡号的分组写法），同时统计区域内的数字个数。数字类正则只需在数字个数达到下限的区域内执行，
+ * 不含足够数字的文本（如中文正文）完全跳过这些正则。
+ *
+ * 字节输入按8字节一个long做SWAR判定：每字节与0x30异或后，数字字节落在0x00-0x09，
+ * 低7位加0x76后数字字节的最高位仍为0，其余字节最高位为1，一次得到8个字节的数字掩码，
+ * 整个字内没有状态变化时直接跳过。字符输入逐字符判定。
+ */
+public final class DigitRunScanner {
+
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long LOW_7_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long ZEROS = 0x3030303030303030L;
+    private static final long ADD_TO_OVERFLOW = 0x7676767676767676L;
+
+    private DigitRunScanner() {
+    }
+
+    /**
+     * 扫描UTF-8（或任意ASCII兼容编码）字节中的数字串
+     *
+     * @param bytes 字节数组
+     * @return 候选区域，位置为字节偏移
+     */
+    public static Candidates scan(byte[] bytes) {
+        Candidates candidates = new Candidates();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        int length = bytes.length;
+        int runStart = -1;
+        int i = 0;
+        while (i < length) {
+            if (i + 8 <= length) {
+                long digits = digitMask(buffer.getLong(i));
+                // 不在数字串内时找下一个数字字节，在数字串内时找下一个非数字字节
+                long transitions = runStart < 0 ? digits : ~digits & HIGH_BITS;
+                if (transitions == 0) {
+                    i += 8;
+                    continue;
+                }
+                i += Long.numberOfTrailingZeros(transitions) >>> 3;
+            } else if (isDigit(bytes[i]) == (runStart >= 0)) {
+                i++;
+                continue;
+            }
+
+            if (runStart < 0) {
+                runStart = i;
+            } else {
+                candidates.addRun(runStart, i, isSeparator(bytes, runStart - 1));
+                runStart = -1;
+            }
+        }
+        if (runStart >= 0) {
+            candidates.addRun(runStart, length, isSeparator(bytes, runStart - 1));
+        }
+        return candidates;
+    }
+
+    /**
+     * 扫描字符序列中的数字串
+     *
+     * @param text 字符序列
+     * @return 候选区域，位置为字符偏移
+     */
+    public static Candidates scan(CharSequence text) {
+        Candidates candidates = new Candidates();
+        int length = text.length();
+        int runStart = -1;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            boolean digit = c >= '0' && c <= '9';
+            if (digit && runStart < 0) {
+                runStart = i;
+            } else if (!digit && runStart >= 0) {
+                candidates.addRun(runStart, i, runStart > 0 && isSeparator(text.charAt(runStart - 1)));
+                runStart = -1;
+            }
+        }
+        if (runStart >= 0) {
+            candidates.addRun(runStart, length, runStart > 0 && isSeparator(text.charAt(runStart - 1)));
+        }
+        return candidates;
+    }
+
+    /**
+     * 计算8个字节的数字掩码，数字字节的最高位为1，其余为0
+     *
+     * @param word 小端序读取的8个字节
+     * @return 数字掩码
+     */
+    static long digitMask(long word) {
+        long t = word ^ ZEROS;
+        // 只对低7位做加法，避免字节间进位
+        long nonDigits = (((t & LOW_7_BITS) + ADD_TO_OVERFLOW) | t) & HIGH_BITS;
+        return ~nonDigits & HIGH_BITS;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isSeparator(byte[] bytes, int index) {
+        return index >= 0 && isSeparator((char) bytes[index]);
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '-';
+    }
+
+    /**
+     * 候选区域列表，每个区域由若干只间隔一个空格或连字符的数字串组成
+     */
+    public static final class Candidates {
+
+        private int size;
+        private int[] starts = new int[8];
+        private int[] ends = new int[8];
+        private int[] digits = new int[8];
+        private int maxDigits;
+
+        /**
+         * 追加一个数字串，紧跟在上一区域的单个分隔符之后时并入该区域
+         */
+        void addRun(int start, int end, boolean afterSeparator) {
+            int count = end - start;
+            if (afterSeparator && size > 0 && ends[size - 1] == start - 1) {
+                ends[size - 1] = end;
+                digits[size - 1] += count;
+                maxDigits = Math.max(maxDigits, digits[size - 1]);
+                return;
+            }
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+                digits = Arrays.copyOf(digits, size * 2);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            digits[size] = count;
+            maxDigits = Math.max(maxDigits, count);
+            size++;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * 区域起始位置（第一个数字，包含）
+         */
+        public int start(int index) {
+            return starts[index];
+        }
+
+        /**
+         * 区域结束位置（最后一个数字之后，不包含）
+         */
+        public int end(int index) {
+            return ends[index];
+        }
+
+        /**
+         * 区域内的数字个数
+         */
+        public int digits(int index) {
+            return digits[index];
+        }
+
+        /**
+         * 所有区域中最多的数字个数
+         */
+        public int getMaxDigits() {
+            return maxDigits;
+        }
+    }
+}
@@ -15,23 +15,32 @@ public class LuhnUtil {
         if (cardNumber == null || cardNumber.isEmpty()) {
             return false;
         }
-        
-        // 移除空格和连字符
-        String cleanedNumber = cardNumber.replaceAll("[- ]", "");
-        
-        // 检查是否只包含数字且长度在13-19位之间（银行卡号标准长度）
-        if (!cleanedNumber.matches("\\d{13,19}")) {
-            return false;
-        }
-        
-
-        
+        return isValidCardNumber(cardNumber, 0, cardNumber.length());
+    }
+    
+    /**
+     * 使用Luhn算法校验文本中指定区间的卡号，不创建子串
+     * 
+     * @param text 文本
+     * @param start 起始位置（包含）
+     * @param end 结束位置（不包含）
+     * @return true表示卡号有效，false表示无效
+     */
+    public static boolean isValidCardNumber(CharSequence text, int start, int end) {
         int sum = 0;
+        int digits = 0;
         boolean isEven = false;
         
-        // 从右到左遍历数字
-        for (int i = cleanedNumber.length() - 1; i >= 0; i--) {
-            int digit = Character.getNumericValue(cleanedNumber.charAt(i));
+        // 从右到左遍历数字，跳过空格和连字符
+        for (int i = end - 1; i >= start; i--) {
+            char c = text.charAt(i);
+            if (c == ' ' || c == '-') {
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                return false;
+            }
+            int digit = c - '0';
             
             if (isEven) {
                 digit *= 2;
@@ -42,10 +51,11 @@ public class LuhnUtil {
             }
             
             sum += digit;
+            digits++;
             isEven = !isEven;
         }
         
-        // 如果总和能被10整除，则卡号有效
-        return sum % 10 == 0;
+        // 长度在13-19位之间（银行卡号标准长度），且总和能被10整除，则卡号有效
+        return digits >= 13 && digits <= 19 && sum % 10 == 0;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,397 @@
+package com.sensitive.data.util;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+import com.sensitive.data.model.SensitiveDataItem;
+import com.sensitive.data.model.SensitiveDataType;
+
+/**
+ * 检测命中缓冲区，用并行的基本类型数组记录单次检测的全部命中
+ *
+ * 每个命中只占用起止偏移、类型序号和规则ID引用，检测流水线各阶段（过滤、排序去重、截断）
+ * 都在数组上原地进行；{@link SensitiveDataItem}和内容子串只在调用方或序列化需要时才创建。
+ * offsets按[起始, 结束, 起始, 结束, ...]平铺存储，与紧凑结果的布局一致。
+ * 缓冲区不是线程安全的，只在单次检测内使用。
+ */
+public final class MatchBuffer {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private static final SensitiveDataType[] TYPES = SensitiveDataType.values();
+
+    private int size;
+    private int[] offsets;
+    private int[] types;
+    // 产生命中的规则ID，结构化检测和关键词命中为null
+    private String[] ruleIds;
+    // 合并检测项的标签位掩码，只在存在标签时分配
+    private int[] labels;
+
+    public MatchBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MatchBuffer(int capacity) {
+        int initial = Math.max(capacity, 1);
+        this.offsets = new int[initial * 2];
+        this.types = new int[initial];
+        this.ruleIds = new String[initial];
+    }
+
+    /**
+     * 包装已有的偏移和类型数组（如缓存中的紧凑结果），不复制数组
+     *
+     * @param offsets 平铺的起止偏移
+     * @param types 类型序号
+     * @param labels 标签位掩码，可为null
+     * @return 缓冲区
+     */
+    public static MatchBuffer wrap(int[] offsets, int[] types, int[] labels) {
+        MatchBuffer buffer = new MatchBuffer(0);
+        buffer.size = types.length;
+        buffer.offsets = offsets;
+        buffer.types = types;
+        buffer.ruleIds = new String[types.length];
+        buffer.labels = labels;
+        return buffer;
+    }
+
+    /**
+     * 追加一个命中
+     *
+     * @param start 起始位置（包含）
+     * @param end 结束位置（不包含）
+     * @param type 敏感数据类型
+     * @param ruleId 规则ID，可为null
+     */
+    public void add(int start, int end, SensitiveDataType type, String ruleId) {
+        ensureCapacity(size + 1);
+        offsets[2 * size] = start;
+        offsets[2 * size + 1] = end;
+        types[size] = type.ordinal();
+        ruleIds[size] = ruleId;
+        if (labels != null) {
+            // 缓冲区复用时清除该位置残留的标签
+            labels[size] = 0;
+        }
+        size++;
+    }
+
+    /**
+     * 追加一个检测项，保留其标签
+     *
+     * @param item 检测项
+     */
+    public void add(SensitiveDataItem item) {
+        add(item.getStartPosition(), item.getEndPosition(), item.getType(), null);
+        if (item.getLabels() != null) {
+            int mask = 0;
+            for (SensitiveDataType label : item.getLabels()) {
+                mask |= 1 << label.ordinal();
+            }
+            if (labels == null) {
+                labels = new int[types.length];
+            }
+            labels[size - 1] = mask;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int start(int index) {
+        return offsets[2 * index];
+    }
+
+    public int end(int index) {
+        return offsets[2 * index + 1];
+    }
+
+    public SensitiveDataType type(int index) {
+        return TYPES[types[index]];
+    }
+
+    /**
+     * 修改指定命中的位置，用于偏移换算
+     */
+    public void setRange(int index, int start, int end) {
+        offsets[2 * index] = start;
+        offsets[2 * index + 1] = end;
+    }
+
+    public String ruleId(int index) {
+        return ruleIds[index];
+    }
+
+    /**
+     * 获取标签位掩码，没有标签时返回0
+     */
+    public int labelMask(int index) {
+        return labels == null ? 0 : labels[index];
+    }
+
+    /**
+     * 截断到指定条数
+     *
+     * @param newSize 保留的条数
+     */
+    public void truncate(int newSize) {
+        if (newSize < size) {
+            Arrays.fill(ruleIds, newSize, size, null);
+            size = newSize;
+        }
+    }
+
+    /**
+     * 原地保留满足条件的命中，保持相对顺序
+     *
+     * @param keep 按下标判断是否保留，下标为过滤前的位置
+     */
+    public void retain(IntPredicate keep) {
+        int write = 0;
+        for (int read = 0; read < size; read++) {
+            if (keep.test(read)) {
+                move(read, write++);
+            }
+        }
+        truncate(write);
+    }
+
+    /**
+     * 按起始位置、结束位置（长的在前）稳定排序，并去除类型和位置完全相同的重复命中
+     */
+    public void sortAndDeduplicate() {
+        if (!isSorted()) {
+            int[] order = new int[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            mergeSort(order, new int[size], 0, size);
+            permute(order);
+        }
+
+        // 排序后位置相同的命中相邻，只需在同位置的一段内比较类型
+        int write = 0;
+        int runStart = 0;
+        for (int read = 0; read < size; read++) {
+            if (write > 0 && (start(write - 1) != start(read) || end(write - 1) != end(read))) {
+                runStart = write;
+            }
+            boolean duplicate = false;
+            for (int i = runStart; i < write; i++) {
+                if (types[i] == types[read]) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (!duplicate) {
+                move(read, write++);
+            }
+        }
+        truncate(write);
+    }
+
+    /**
+     * 创建指定命中的检测项
+     *
+     * @param text 原始文本，为null时检测项不包含内容
+     * @param index 下标
+     * @return 检测项
+     */
+    public SensitiveDataItem toItem(String text, int index) {
+        int start = start(index);
+        int end = end(index);
+        SensitiveDataType type = type(index);
+        String content = text == null ? null : text.substring(start, end);
+        SensitiveDataItem item = new SensitiveDataItem(content, type, start, end);
+        int mask = labelMask(index);
+        if (mask != 0) {
+            item.setLabels(decodeLabels(type, mask));
+        }
+        return item;
+    }
+
+    /**
+     * 获取检测项列表视图，检测项在首次访问时才创建
+     *
+     * @param text 原始文本，为null时检测项不包含内容
+     * @param suggestions 按类型提供处理建议，可为null
+     * @return 只读的检测项列表
+     */
+    public List<SensitiveDataItem> asItems(String text, Function<SensitiveDataType, String> suggestions) {
+        return new LazyItemList(this, text, suggestions);
+    }
+
+    public int[] copyOffsets() {
+        return Arrays.copyOf(offsets, size * 2);
+    }
+
+    public int[] copyTypes() {
+        return Arrays.copyOf(types, size);
+    }
+
+    /**
+     * 复制标签位掩码，没有任何标签时返回null
+     */
+    public int[] copyLabels() {
+        if (labels == null) {
+            return null;
+        }
+        for (int i = 0; i < size; i++) {
+            if (labels[i] != 0) {
+                return Arrays.copyOf(labels, size);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 解码标签位掩码，主类型在前，其余按类型序号排列
+     */
+    private static List<SensitiveDataType> decodeLabels(SensitiveDataType primary, int mask) {
+        List<SensitiveDataType> decoded = new ArrayList<>(Integer.bitCount(mask));
+        decoded.add(primary);
+        for (SensitiveDataType type : TYPES) {
+            if (type != primary && (mask & (1 << type.ordinal())) != 0) {
+                decoded.add(type);
+            }
+        }
+        return decoded;
+    }
+
+    private boolean isSorted() {
+        for (int i = 1; i < size; i++) {
+            if (compare(i - 1, i) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int compare(int a, int b) {
+        int c = Integer.compare(start(a), start(b));
+        return c != 0 ? c : Integer.compare(end(b), end(a));
+    }
+
+    /**
+     * 对下标数组做稳定的归并排序，避免装箱
+     */
+    private void mergeSort(int[] order, int[] tmp, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(order, tmp, from, mid);
+        mergeSort(order, tmp, mid, to);
+        if (compare(order[mid - 1], order[mid]) <= 0) {
+            return;
+        }
+        System.arraycopy(order, from, tmp, from, to - from);
+        int i = from;
+        int j = mid;
+        for (int k = from; k < to; k++) {
+            if (j >= to || (i < mid && compare(tmp[i], tmp[j]) <= 0)) {
+                order[k] = tmp[i++];
+            } else {
+                order[k] = tmp[j++];
+            }
+        }
+    }
+
+    /**
+     * 按排序后的下标重排所有并行数组
+     */
+    private void permute(int[] order) {
+        int[] newOffsets = new int[offsets.length];
+        int[] newTypes = new int[types.length];
+        String[] newRuleIds = new String[ruleIds.length];
+        int[] newLabels = labels == null ? null : new int[labels.length];
+        for (int i = 0; i < size; i++) {
+            int from = order[i];
+            newOffsets[2 * i] = offsets[2 * from];
+            newOffsets[2 * i + 1] = offsets[2 * from + 1];
+            newTypes[i] = types[from];
+            newRuleIds[i] = ruleIds[from];
+            if (newLabels != null) {
+                newLabels[i] = labels[from];
+            }
+        }
+        offsets = newOffsets;
+        types = newTypes;
+        ruleIds = newRuleIds;
+        labels = newLabels;
+    }
+
+    private void move(int from, int to) {
+        if (from == to) {
+            return;
+        }
+        offsets[2 * to] = offsets[2 * from];
+        offsets[2 * to + 1] = offsets[2 * from + 1];
+        types[to] = types[from];
+        ruleIds[to] = ruleIds[from];
+        if (labels != null) {
+            labels[to] = labels[from];
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= types.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, types.length * 2);
+        offsets = Arrays.copyOf(offsets, newCapacity * 2);
+        types = Arrays.copyOf(types, newCapacity);
+        ruleIds = Arrays.copyOf(ruleIds, newCapacity);
+        if (labels != null) {
+            labels = Arrays.copyOf(labels, newCapacity);
+        }
+    }
+
+    /**
+     * 惰性创建检测项的列表视图，每项只创建一次
+     */
+    private static final class LazyItemList extends AbstractList<SensitiveDataItem> implements RandomAccess {
+
+        private final MatchBuffer buffer;
+        private final String text;
+        private final Function<SensitiveDataType, String> suggestions;
+        private final SensitiveDataItem[] items;
+
+        LazyItemList(MatchBuffer buffer, String text, Function<SensitiveDataType, String> suggestions) {
+            this.buffer = buffer;
+            this.text = text;
+            this.suggestions = suggestions;
+            this.items = new SensitiveDataItem[buffer.size()];
+        }
+
+        @Override
+        public SensitiveDataItem get(int index) {
+            SensitiveDataItem item = items[index];
+            if (item == null) {
+                item = buffer.toItem(text, index);
+                if (suggestions != null) {
+                    item.setSuggestion(suggestions.apply(item.getType()));
+                }
+                items[index] = item;
+            }
+            return item;
+        }
+
+        @Override
+        public int size() {
+            return items.length;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.sensitive.data.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sensitive.data.model.OverlapStrategy;
+import com.sensitive.data.model.SensitiveDataItem;
+import com.sensitive.data.model.SensitiveDataType;
+
+/**
+ * 检测项重叠消解器
+ *
+ * 将检测项按起始位置排序后一次扫描，把区间相互重叠的检测项归为一组，再按策略处理每组：
+ * KEEP_ALL只去除类型和位置完全相同的重复项；HIGHEST_RISK保留风险等级最高的一项；
+ * MOST_SPECIFIC按类型特异性保留一项；MERGED合并为覆盖整组区间、携带所有标签的一项。
+ * 排序O(n log n)，分组和消解均为线性。
+ */
+public class OverlapResolver {
+
+    // 未出现在特异性顺序中的类型（关键词、自定义规则等）排在最后
+    private static final int UNRANKED = Integer.MAX_VALUE;
+
+    // 按起始位置、结束位置（长的在前）排序
+    private static final Comparator<SensitiveDataItem> POSITION_ORDER =
+            Comparator.comparingInt(SensitiveDataItem::getStartPosition)
+                    .thenComparing(Comparator.comparingInt(SensitiveDataItem::getEndPosition).reversed());
+
+    // 消解策略
+    private final OverlapStrategy strategy;
+
+    // 类型特异性排名，值越小越具体
+    private final Map<SensitiveDataType, Integer> specificityRank = new EnumMap<>(SensitiveDataType.class);
+
+    /**
+     * 构造函数
+     *
+     * @param strategy 消解策略
+     * @param specificityOrder 按特异性从高到低排列的类型
+     */
+    public OverlapResolver(OverlapStrategy strategy, List<SensitiveDataType> specificityOrder) {
+        this.strategy = strategy == null ? OverlapStrategy.KEEP_ALL : strategy;
+        for (int i = 0; i < specificityOrder.size(); i++) {
+            specificityRank.put(specificityOrder.get(i), i);
+        }
+    }
+
+    /**
+     * 消解重叠的检测项
+     *
+     * @param text 原始文本，用于生成合并项的内容
+     * @param items 检测项
+     * @return 消解后的检测项，按起始位置排序
+     */
+    public List<SensitiveDataItem> resolve(String text, List<SensitiveDataItem> items) {
+        if (items.size() < 2) {
+            return items;
+        }
+
+        SensitiveDataItem[] sorted = items.toArray(new SensitiveDataItem[0]);
+        Arrays.sort(sorted, POSITION_ORDER);
+
+        List<SensitiveDataItem> resolved = new ArrayList<>(sorted.length);
+        int groupStart = 0;
+        int groupEnd = sorted[0].getEndPosition();
+        for (int i = 1; i <= sorted.length; i++) {
+            if (i < sorted.length && sorted[i].getStartPosition() < groupEnd) {
+                groupEnd = Math.max(groupEnd, sorted[i].getEndPosition());
+                continue;
+            }
+            resolveGroup(text, sorted, groupStart, i, groupEnd, resolved);
+            if (i < sorted.length) {
+                groupStart = i;
+                groupEnd = sorted[i].getEndPosition();
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * 处理一组相互重叠的检测项[from, to)
+     */
+    private void resolveGroup(String text, SensitiveDataItem[] sorted, int from, int to, int groupEnd,
+            List<SensitiveDataItem> resolved) {
+        if (to - from == 1) {
+            resolved.add(sorted[from]);
+            return;
+        }
+
+        switch (strategy) {
+            case HIGHEST_RISK:
+                resolved.add(pick(sorted, from, to, true));
+                break;
+            case MOST_SPECIFIC:
+                resolved.add(pick(sorted, from, to, false));
+                break;
+            case MERGED:
+                resolved.add(merge(text, sorted, from, to, groupEnd));
+                break;
+            case KEEP_ALL:
+            default:
+                // 组内已按位置排序，完全相同的项只需与组内已保留的项比较
+                int groupOutputStart = resolved.size();
+                for (int i = from; i < to; i++) {
+                    if (!containsSame(resolved, groupOutputStart, sorted[i])) {
+                        resolved.add(sorted[i]);
+                    }
+                }
+                break;
+        }
+    }
+
+    /**
+     * 选出组内最优的一项
+     */
+    private SensitiveDataItem pick(SensitiveDataItem[] sorted, int from, int to, boolean riskFirst) {
+        SensitiveDataItem best = sorted[from];
+        for (int i = from + 1; i < to; i++) {
+            if (comparePreference(sorted[i], best, riskFirst) > 0) {
+                best = sorted[i];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 比较两项的优先程度，a更优时返回正数：按风险优先时依次比较风险、特异性、长度，否则依次比较特异性、长度、风险
+     */
+    private int comparePreference(SensitiveDataItem a, SensitiveDataItem b, boolean riskFirst) {
+        int risk = compareRisk(a, b);
+        int specificity = compareSpecificity(a, b);
+        int length = Integer.compare(length(a), length(b));
+        if (riskFirst) {
+            return risk != 0 ? risk : (specificity != 0 ? specificity : length);
+        }
+        return specificity != 0 ? specificity : (length != 0 ? length : risk);
+    }
+
+    /**
+     * 合并整组为一项，主类型取最具体的类型，其余类型作为附加标签
+     */
+    private SensitiveDataItem merge(String text, SensitiveDataItem[] sorted, int from, int to, int groupEnd) {
+        SensitiveDataItem primary = pick(sorted, from, to, false);
+        int start = sorted[from].getStartPosition();
+
+        List<SensitiveDataType> labels = new ArrayList<>();
+        labels.add(primary.getType());
+        for (int i = from; i < to; i++) {
+            SensitiveDataType type = sorted[i].getType();
+            if (!labels.contains(type)) {
+                labels.add(type);
+            }
+        }
+
+        String content = text != null && groupEnd <= text.length()
+                ? text.substring(start, groupEnd) : primary.getContent();
+        SensitiveDataItem merged = new SensitiveDataItem(content, primary.getType(), start, groupEnd);
+        merged.setLabels(labels);
+        return merged;
+    }
+
+    private boolean containsSame(List<SensitiveDataItem> resolved, int from, SensitiveDataItem item) {
+        for (int i = from; i < resolved.size(); i++) {
+            SensitiveDataItem existing = resolved.get(i);
+            if (existing.getType() == item.getType()
+                    && existing.getStartPosition() == item.getStartPosition()
+                    && existing.getEndPosition() == item.getEndPosition()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 风险越高结果越大
+     */
+    private static int compareRisk(SensitiveDataItem a, SensitiveDataItem b) {
+        // RiskLevel按HIGH、MEDIUM、LOW声明，序号越小风险越高
+        return Integer.compare(b.getType().getRiskLevel().ordinal(), a.getType().getRiskLevel().ordinal());
+    }
+
+    /**
+     * 越具体结果越大
+     */
+    private int compareSpecificity(SensitiveDataItem a, SensitiveDataItem b) {
+        return Integer.compare(rank(b.getType()), rank(a.getType()));
+    }
+
+    private int rank(SensitiveDataType type) {
+        Integer rank = specificityRank.get(type);
+        return rank == null ? UNRANKED : rank;
+    }
+
+    private static int length(SensitiveDataItem item) {
+        return item.getEndPosition() - item.getStartPosition();
+    }
+
+    public OverlapStrategy getStrategy() {
+        return strategy;
+    }
+}
@@ -22,6 +22,8 @@ public class PerformanceMonitor {
     private final AtomicLong minProcessingTime = new AtomicLong(Long.MAX_VALUE);
     // 检测到的敏感数据项总数
     private final LongAdder totalDetectedItems = new LongAdder();
+    // 正则执行预算耗尽而中止的请求数
+    private final LongAdder regexBudgetExceeded = new LongAdder();
     
     /**
      * 记录一次检测请求
@@ -50,6 +52,40 @@ public class PerformanceMonitor {
         totalDetectedItems.add(detectedItemsCount);
     }
     
+    /**
+     * 汇总记录一批检测请求，每批只更新一次计数器
+     * 
+     * @param requests 请求数
+     * @param totalTime 总处理时间（毫秒）
+     * @param minTime 批内最小处理时间（毫秒）
+     * @param maxTime 批内最大处理时间（毫秒）
+     * @param detectedItemsCount 检测到的敏感数据项总数
+     */
+    public void recordRequests(int requests, long totalTime, long minTime, long maxTime, int detectedItemsCount) {
+        totalRequests.add(requests);
+        successfulRequests.add(requests);
+        totalProcessingTime.addAndGet(totalTime);
+        updateMaxProcessingTime(maxTime);
+        updateMinProcessingTime(minTime);
+        totalDetectedItems.add(detectedItemsCount);
+    }
+    
+    /**
+     * 记录一次正则执行预算耗尽（请求返回部分结果）
+     */
+    public void recordRegexBudgetExceeded() {
+        regexBudgetExceeded.increment();
+    }
+    
+    /**
+     * 记录多次正则执行预算耗尽
+     * 
+     * @param count 次数
+     */
+    public void recordRegexBudgetExceeded(int count) {
+        regexBudgetExceeded.add(count);
+    }
+    
     /**
      * 更新最大处理时间
      */
@@ -151,6 +187,15 @@ public class PerformanceMonitor {
         return requests > 0 ? (double) totalDetectedItems.sum() / requests : 0;
     }
     
+    /**
+     * 获取正则执行预算耗尽的请求数
+     * 
+     * @return 正则执行预算耗尽的请求数
+     */
+    public long getRegexBudgetExceeded() {
+        return regexBudgetExceeded.sum();
+    }
+    
     /**
      * 重置所有统计数据
      */
@@ -162,6 +207,7 @@ public class PerformanceMonitor {
         maxProcessingTime.set(0);
         minProcessingTime.set(Long.MAX_VALUE);
         totalDetectedItems.reset();
+        regexBudgetExceeded.reset();
     }
     
     /**
@@ -180,6 +226,7 @@ public class PerformanceMonitor {
                 ", minProcessingTime=" + getMinProcessingTime() + "ms" +
                 ", totalDetectedItems=" + getTotalDetectedItems() +
                 ", avgDetectedItemsPerRequest=" + String.format("%.2f", getAverageDetectedItemsPerRequest()) +
+                ", regexBudgetExceeded=" + getRegexBudgetExceeded() +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,122 @@
+package com.sensitive.data.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 进行中计算的合并（single-flight）
+ *
+ * 同一个键同时只执行一次计算：第一个调用者执行，其余并发调用者等待并共享其结果，计算结束后键即被移除，
+ * 之后的调用重新计算（结果的复用交给缓存）。键只是指纹时，调用方可传入原始输入用于校验，
+ * 输入不同（指纹碰撞）的调用者不共享结果，改为自行计算。
+ *
+ * @param <K> 键类型
+ * @param <V> 结果类型
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+
+    private final Metrics metrics = new Metrics();
+
+    /**
+     * 执行或加入计算
+     *
+     * @param key 键
+     * @param input 用于校验的原始输入，为null时不校验
+     * @param computation 计算
+     * @return 计算结果
+     */
+    public V execute(K key, Object input, Supplier<V> computation) {
+        Flight<V> flight = new Flight<>(input);
+        Flight<V> existing = flights.putIfAbsent(key, flight);
+        if (existing != null) {
+            if (input == null || input.equals(existing.input)) {
+                metrics.shared.increment();
+                return join(existing);
+            }
+            // 指纹相同但输入不同，不能共享结果
+            metrics.collisions.increment();
+            return computation.get();
+        }
+
+        metrics.executions.increment();
+        try {
+            V value = computation.get();
+            flight.result.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * 当前进行中的计算数
+     */
+    public int inFlight() {
+        return flights.size();
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    private static <V> V join(Flight<V> flight) {
+        try {
+            return flight.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 一次进行中的计算
+     */
+    private static final class Flight<V> {
+
+        private final Object input;
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+
+        Flight(Object input) {
+            this.input = input;
+        }
+    }
+
+    /**
+     * 合并指标：实际执行次数、共享结果（节省）的次数和指纹碰撞次数
+     */
+    public static final class Metrics {
+
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder shared = new LongAdder();
+        private final LongAdder collisions = new LongAdder();
+
+        public long getExecutions() {
+            return executions.sum();
+        }
+
+        /**
+         * 等待并共享进行中计算结果的调用次数，即节省的计算次数
+         */
+        public long getSaved() {
+            return shared.sum();
+        }
+
+        public long getCollisions() {
+            return collisions.sum();
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.sensitive.data.util.bloom;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.sensitive.data.util.hash.Fingerprint128;
+
+/**
+ * 可扩展、按代轮换的布隆过滤器，元素为128位指纹
+ *
+ * 每一代是一个可扩展布隆过滤器（Scalable Bloom Filter）：由若干级组成，当前级写满预期元素数后追加一级，
+ * 新一级的容量翻倍、误判率减半，整代的误判率不超过初始误判率的两倍。一代达到最大级数且最后一级写满后轮换：
+ * 当前代成为上一代，丢弃更早的一代。查询同时检查当前代和上一代，在上一代命中的元素写回当前代，
+ * 持续出现的元素跨越轮换保留，不再出现的元素随轮换淘汰，内存上限为两代的大小。
+ *
+ * 指纹本身已是均匀的哈希值，第i个位置按双重哈希 high + i × (low | 1) 计算，不再重新哈希。
+ * 并发的写入和查询无锁，只有追加级和轮换时加锁。
+ */
+public class RotatingBloomFilter {
+
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final int maxStages;
+
+    private volatile Generation current;
+    private volatile Generation previous;
+
+    /**
+     * 构造函数
+     *
+     * @param expectedInsertions 第一级的预期元素数
+     * @param falsePositiveRate 第一级的误判率
+     * @param maxStages 每代的最大级数
+     */
+    public RotatingBloomFilter(long expectedInsertions, double falsePositiveRate, int maxStages) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1 || maxStages <= 0) {
+            throw new IllegalArgumentException("Invalid bloom filter parameters: " + expectedInsertions + ", "
+                    + falsePositiveRate + ", " + maxStages);
+        }
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxStages = maxStages;
+        this.current = newGeneration();
+        this.previous = null;
+    }
+
+    /**
+     * 指纹是否可能已加入，返回false时一定未加入
+     *
+     * @param fingerprint 指纹
+     * @return 是否可能已加入
+     */
+    public boolean mightContain(Fingerprint128 fingerprint) {
+        long high = fingerprint.getHigh();
+        long low = fingerprint.getLow();
+        if (current.mightContain(high, low)) {
+            return true;
+        }
+        Generation old = previous;
+        if (old != null && old.mightContain(high, low)) {
+            // 仍在使用的元素写回当前代，轮换后继续保留
+            put(high, low);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 加入指纹
+     *
+     * @param fingerprint 指纹
+     */
+    public void put(Fingerprint128 fingerprint) {
+        long high = fingerprint.getHigh();
+        long low = fingerprint.getLow();
+        if (!current.mightContain(high, low)) {
+            put(high, low);
+        }
+    }
+
+    /**
+     * 估算已加入当前代和上一代的元素数
+     */
+    public long getApproximateCount() {
+        Generation old = previous;
+        return current.count() + (old == null ? 0 : old.count());
+    }
+
+    /**
+     * 两代占用的位数组字节数
+     */
+    public long getSizeInBytes() {
+        Generation old = previous;
+        return current.sizeInBytes() + (old == null ? 0 : old.sizeInBytes());
+    }
+
+    private void put(long high, long low) {
+        Stage stage = current.last();
+        stage.put(high, low);
+        if (stage.count.incrementAndGet() >= stage.capacity) {
+            grow(stage);
+        }
+    }
+
+    private synchronized void grow(Stage full) {
+        Generation generation = current;
+        if (generation.last() != full) {
+            return;
+        }
+        if (generation.stages.length < maxStages) {
+            current = generation.append(new Stage(full.capacity * 2, full.falsePositiveRate / 2));
+        } else {
+            previous = generation;
+            current = newGeneration();
+        }
+    }
+
+    private Generation newGeneration() {
+        return new Generation(new Stage[] {new Stage(expectedInsertions, falsePositiveRate)});
+    }
+
+    /**
+     * 一代：若干级，只有最后一级接受写入
+     */
+    private static final class Generation {
+
+        private final Stage[] stages;
+
+        Generation(Stage[] stages) {
+            this.stages = stages;
+        }
+
+        Generation append(Stage stage) {
+            Stage[] appended = new Stage[stages.length + 1];
+            System.arraycopy(stages, 0, appended, 0, stages.length);
+            appended[stages.length] = stage;
+            return new Generation(appended);
+        }
+
+        Stage last() {
+            return stages[stages.length - 1];
+        }
+
+        boolean mightContain(long high, long low) {
+            for (int i = stages.length - 1; i >= 0; i--) {
+                if (stages[i].mightContain(high, low)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        long count() {
+            long count = 0;
+            for (Stage stage : stages) {
+                count += stage.count.get();
+            }
+            return count;
+        }
+
+        long sizeInBytes() {
+            long bytes = 0;
+            for (Stage stage : stages) {
+                bytes += stage.bits.length() * 8L;
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * 一级：按预期元素数和误判率确定位数和哈希函数个数的标准布隆过滤器
+     */
+    private static final class Stage {
+
+        private final long capacity;
+        private final double falsePositiveRate;
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+        private final AtomicLong count = new AtomicLong();
+
+        Stage(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            // m = -n ln p / (ln 2)^2，k = m / n × ln 2
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int words = (int) Math.min(Integer.MAX_VALUE - 8, (optimalBits + 63) >>> 6);
+            this.bits = new AtomicLongArray(words);
+            this.bitCount = words * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+        }
+
+        boolean mightContain(long high, long low) {
+            // 步长取奇数，避免偶数步长使各位置只落在同奇偶的位上
+            long step = low | 1;
+            long hash = high;
+            for (int i = 0; i < hashCount; i++) {
+                long index = Long.remainderUnsigned(hash, bitCount);
+                if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+                hash += step;
+            }
+            return true;
+        }
+
+        void put(long high, long low) {
+            long step = low | 1;
+            long hash = high;
+            for (int i = 0; i < hashCount; i++) {
+                long index = Long.remainderUnsigned(hash, bitCount);
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                long value;
+                do {
+                    value = bits.get(word);
+                } while ((value & mask) == 0 && !bits.compareAndSet(word, value, value | mask));
+                hash += step;
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.sensitive.data.util.chunk;
+
+import java.util.Arrays;
+
+/**
+ * 基于内容的文本分段（content-defined chunking）
+ *
+ * 用Gear滚动哈希逐字符更新指纹：hash = (hash << 1) + GEAR[char]，每个字符的影响在64个字符后移出，
+ * 因此指纹只取决于最近64个字符。段长度达到最小长度后，指纹低位全为0的位置成为段边界，
+ * 达到最大长度时强制分段。边界由局部内容决定而不是固定位置，文档中间插入或删除一段文字时，
+ * 只有改动附近的段发生变化，其余段的边界和内容保持不变。
+ */
+public final class ContentDefinedChunker {
+
+    private static final long[] GEAR = new long[256];
+
+    static {
+        // SplitMix64生成固定的随机表，分段结果在不同进程和版本间保持一致
+        long seed = 0x2545F4914F6CDD1DL;
+        for (int i = 0; i < GEAR.length; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            long z = seed;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            GEAR[i] = z ^ (z >>> 31);
+        }
+    }
+
+    private final int minSize;
+    private final int maxSize;
+    private final long mask;
+
+    /**
+     * 构造函数
+     *
+     * @param minSize 最小段长度（字符）
+     * @param averageSize 期望的平均段长度（字符），超过最小长度后每个位置成为边界的概率约为1/(averageSize - minSize)
+     * @param maxSize 最大段长度（字符）
+     */
+    public ContentDefinedChunker(int minSize, int averageSize, int maxSize) {
+        if (minSize <= 0 || averageSize <= minSize || maxSize < averageSize) {
+            throw new IllegalArgumentException("Require 0 < minSize < averageSize <= maxSize: "
+                    + minSize + ", " + averageSize + ", " + maxSize);
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        int bits = 31 - Integer.numberOfLeadingZeros(averageSize - minSize);
+        // 使用指纹的高位，高位混合了更多字符的影响
+        this.mask = ((1L << bits) - 1) << (64 - bits);
+    }
+
+    /**
+     * 把文本分为若干段
+     *
+     * @param text 文本
+     * @return 各段的结束位置（不包含），按升序排列，最后一个为文本长度；空文本返回空数组
+     */
+    public int[] split(CharSequence text) {
+        int length = text.length();
+        int[] ends = new int[Math.max(1, length / minSize + 1)];
+        int count = 0;
+        int start = 0;
+        while (start < length) {
+            int end = nextBoundary(text, start, length);
+            ends[count++] = end;
+            start = end;
+        }
+        return Arrays.copyOf(ends, count);
+    }
+
+    private int nextBoundary(CharSequence text, int start, int length) {
+        int limit = Math.min(length, start + maxSize);
+        if (limit - start <= minSize) {
+            return limit;
+        }
+        // 最小长度之前的字符不会成为边界，只需为指纹预热最后64个字符
+        long hash = 0;
+        for (int i = Math.max(start, start + minSize - 64); i < start + minSize; i++) {
+            hash = (hash << 1) + gear(text.charAt(i));
+        }
+        for (int i = start + minSize; i < limit; i++) {
+            hash = (hash << 1) + gear(text.charAt(i));
+            if ((hash & mask) == 0) {
+                return i + 1;
+            }
+        }
+        return limit;
+    }
+
+    private static long gear(char c) {
+        return GEAR[(c ^ (c >>> 8)) & 0xFF];
+    }
+}
@@ -0,0 +1,386 @@
+package com.sensitive.data.util.composite;
+
+import java.util.Set;
+
+import com.sensitive.data.model.SensitiveDataType;
+
+/**
+ * 组合规则表达式
+ *
+ * 语法（运算符大小写不敏感，优先级 NEAR > AND > OR，可用括号改变优先级）：
+ * <pre>
+ * expr    := and ( OR and )*
+ * and     := near ( AND near )*
+ * near    := operand ( NEAR(n) operand )?
+ * operand := 敏感数据类型名 | '关键词' | "关键词" | ( expr )
+ * </pre>
+ * 示例：{@code PHONE_NUMBER NEAR(30) '紧急联系人'}、{@code ID_CARD AND BANK_CARD}。
+ *
+ * 求值结果为按起始位置排序的区间流：类型操作数取该类型的命中区间，关键词操作数取关键词出现区间；
+ * A NEAR(n) B 保留与B中任一区间间隔不超过n个字符的A区间；A AND B 在两者都非空时取并集；A OR B 取并集。
+ */
+public abstract class CompositeExpression {
+
+    /**
+     * 对命中流求值
+     *
+     * @param streams 已产生的命中流
+     * @return 按起始位置排序的结果区间
+     */
+    abstract IntervalList evaluate(MatchStreams streams);
+
+    /**
+     * 收集表达式引用的关键词
+     *
+     * @param keywords 关键词集合
+     */
+    abstract void collectKeywords(Set<String> keywords);
+
+    /**
+     * 收集表达式引用的敏感数据类型
+     *
+     * @param types 类型集合
+     */
+    abstract void collectTypes(Set<SensitiveDataType> types);
+
+    /**
+     * 解析组合规则表达式
+     *
+     * @param source 表达式文本
+     * @return 表达式
+     * @throws IllegalArgumentException 语法错误时抛出
+     */
+    public static CompositeExpression parse(String source) {
+        if (source == null || source.trim().isEmpty()) {
+            throw new IllegalArgumentException("Composite expression is empty");
+        }
+        Parser parser = new Parser(source);
+        CompositeExpression expression = parser.parseOr();
+        parser.skipWhitespace();
+        if (!parser.atEnd()) {
+            throw parser.error("Unexpected input");
+        }
+        return expression;
+    }
+
+    /**
+     * 递归下降解析器
+     */
+    private static final class Parser {
+
+        private final String source;
+        private int pos;
+
+        Parser(String source) {
+            this.source = source;
+        }
+
+        CompositeExpression parseOr() {
+            CompositeExpression left = parseAnd();
+            while (acceptKeyword("OR")) {
+                left = new Or(left, parseAnd());
+            }
+            return left;
+        }
+
+        CompositeExpression parseAnd() {
+            CompositeExpression left = parseNear();
+            while (acceptKeyword("AND")) {
+                left = new And(left, parseNear());
+            }
+            return left;
+        }
+
+        CompositeExpression parseNear() {
+            CompositeExpression left = parseOperand();
+            if (acceptKeyword("NEAR")) {
+                skipWhitespace();
+                expect('(');
+                int distance = parseNumber();
+                skipWhitespace();
+                expect(')');
+                left = new Near(left, parseOperand(), distance);
+            }
+            return left;
+        }
+
+        CompositeExpression parseOperand() {
+            skipWhitespace();
+            if (atEnd()) {
+                throw error("Operand expected");
+            }
+            char c = source.charAt(pos);
+            if (c == '(') {
+                pos++;
+                CompositeExpression inner = parseOr();
+                skipWhitespace();
+                expect(')');
+                return inner;
+            }
+            if (c == '\'' || c == '"') {
+                int close = source.indexOf(c, pos + 1);
+                if (close < 0) {
+                    throw error("Unterminated keyword");
+                }
+                String keyword = source.substring(pos + 1, close);
+                if (keyword.isEmpty()) {
+                    throw error("Empty keyword");
+                }
+                pos = close + 1;
+                return new Keyword(keyword);
+            }
+            String name = readWord();
+            if (name.isEmpty()) {
+                throw error("Operand expected");
+            }
+            try {
+                return new TypeOperand(SensitiveDataType.valueOf(name.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw error("Unknown sensitive data type '" + name + "'");
+            }
+        }
+
+        private int parseNumber() {
+            skipWhitespace();
+            int start = pos;
+            while (!atEnd() && Character.isDigit(source.charAt(pos))) {
+                pos++;
+            }
+            if (start == pos) {
+                throw error("Distance expected");
+            }
+            try {
+                return Integer.parseInt(source.substring(start, pos));
+            } catch (NumberFormatException e) {
+                throw error("Distance out of range");
+            }
+        }
+
+        /**
+         * 尝试读取指定的运算符关键字，不匹配时不移动位置
+         */
+        private boolean acceptKeyword(String keyword) {
+            skipWhitespace();
+            int end = pos + keyword.length();
+            if (end <= source.length() && source.regionMatches(true, pos, keyword, 0, keyword.length())
+                    && (end == source.length() || !isWordChar(source.charAt(end)))) {
+                pos = end;
+                return true;
+            }
+            return false;
+        }
+
+        private String readWord() {
+            int start = pos;
+            while (!atEnd() && isWordChar(source.charAt(pos))) {
+                pos++;
+            }
+            return source.substring(start, pos);
+        }
+
+        private void expect(char c) {
+            if (atEnd() || source.charAt(pos) != c) {
+                throw error("'" + c + "' expected");
+            }
+            pos++;
+        }
+
+        void skipWhitespace() {
+            while (!atEnd() && Character.isWhitespace(source.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        boolean atEnd() {
+            return pos >= source.length();
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + pos + " in composite expression: "
+                    + source);
+        }
+
+        private static boolean isWordChar(char c) {
+            return Character.isLetterOrDigit(c) || c == '_';
+        }
+    }
+
+    /**
+     * 敏感数据类型操作数
+     */
+    static final class TypeOperand extends CompositeExpression {
+        private final SensitiveDataType type;
+
+        TypeOperand(SensitiveDataType type) {
+            this.type = type;
+        }
+
+        @Override
+        IntervalList evaluate(MatchStreams streams) {
+            return streams.ofType(type);
+        }
+
+        @Override
+        void collectKeywords(Set<String> keywords) {
+        }
+
+        @Override
+        void collectTypes(Set<SensitiveDataType> types) {
+            types.add(type);
+        }
+
+        @Override
+        public String toString() {
+            return type.name();
+        }
+    }
+
+    /**
+     * 关键词操作数
+     */
+    static final class Keyword extends CompositeExpression {
+        private final String keyword;
+
+        Keyword(String keyword) {
+            this.keyword = keyword;
+        }
+
+        @Override
+        IntervalList evaluate(MatchStreams streams) {
+            return streams.ofKeyword(keyword);
+        }
+
+        @Override
+        void collectKeywords(Set<String> keywords) {
+            keywords.add(keyword);
+        }
+
+        @Override
+        void collectTypes(Set<SensitiveDataType> types) {
+        }
+
+        @Override
+        public String toString() {
+            return "'" + keyword + "'";
+        }
+    }
+
+    /**
+     * 邻近条件：保留左侧中与右侧任一区间间隔不超过distance的区间
+     */
+    static final class Near extends CompositeExpression {
+        private final CompositeExpression left;
+        private final CompositeExpression right;
+        private final int distance;
+
+        Near(CompositeExpression left, CompositeExpression right, int distance) {
+            this.left = left;
+            this.right = right;
+            this.distance = distance;
+        }
+
+        @Override
+        IntervalList evaluate(MatchStreams streams) {
+            IntervalList a = left.evaluate(streams);
+            if (a.isEmpty()) {
+                return a;
+            }
+            return a.near(right.evaluate(streams), distance);
+        }
+
+        @Override
+        void collectKeywords(Set<String> keywords) {
+            left.collectKeywords(keywords);
+            right.collectKeywords(keywords);
+        }
+
+        @Override
+        void collectTypes(Set<SensitiveDataType> types) {
+            left.collectTypes(types);
+            right.collectTypes(types);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + left + " NEAR(" + distance + ") " + right + ")";
+        }
+    }
+
+    /**
+     * 与条件：两侧都有命中时取两侧区间的并集
+     */
+    static final class And extends CompositeExpression {
+        private final CompositeExpression left;
+        private final CompositeExpression right;
+
+        And(CompositeExpression left, CompositeExpression right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        IntervalList evaluate(MatchStreams streams) {
+            IntervalList a = left.evaluate(streams);
+            if (a.isEmpty()) {
+                return a;
+            }
+            IntervalList b = right.evaluate(streams);
+            if (b.isEmpty()) {
+                return b;
+            }
+            return a.union(b);
+        }
+
+        @Override
+        void collectKeywords(Set<String> keywords) {
+            left.collectKeywords(keywords);
+            right.collectKeywords(keywords);
+        }
+
+        @Override
+        void collectTypes(Set<SensitiveDataType> types) {
+            left.collectTypes(types);
+            right.collectTypes(types);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + left + " AND " + right + ")";
+        }
+    }
+
+    /**
+     * 或条件：取两侧区间的并集
+     */
+    static final class Or extends CompositeExpression {
+        private final CompositeExpression left;
+        private final CompositeExpression right;
+
+        Or(CompositeExpression left, CompositeExpression right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        IntervalList evaluate(MatchStreams streams) {
+            return left.evaluate(streams).union(right.evaluate(streams));
+        }
+
+        @Override
+        void collectKeywords(Set<String> keywords) {
+            left.collectKeywords(keywords);
+            right.collectKeywords(keywords);
+        }
+
+        @Override
+        void collectTypes(Set<SensitiveDataType> types) {
+            left.collectTypes(types);
+            right.collectTypes(types);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + left + " OR " + right + ")";
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.sensitive.data.util.composite;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.sensitive.data.model.SensitiveDataItem;
+import com.sensitive.data.model.SensitiveDataRule;
+import com.sensitive.data.model.SensitiveDataType;
+import com.sensitive.data.util.AhoCorasick;
+import com.sensitive.data.util.MatchBuffer;
+
+/**
+ * 组合规则引擎
+ *
+ * 组合规则不重新扫描文本，而是在结构化检测、用户正则和关键词匹配已经产生的命中流上，
+ * 通过有序区间的归并与双指针连接求值，总代价与命中数量成线性关系。
+ * 规则中引用的关键词（锚点词）需加入关键词自动机，由检测服务在关键词扫描时一并产出。
+ */
+public class CompositeRuleEngine {
+
+    /**
+     * 空的组合规则引擎
+     */
+    public static final CompositeRuleEngine EMPTY = new CompositeRuleEngine(Collections.<SensitiveDataRule>emptyList());
+
+    // 解析成功的规则
+    private final List<CompiledRule> compiledRules = new ArrayList<>();
+
+    // 表达式语法错误而被跳过的规则
+    private final List<SensitiveDataRule> invalidRules = new ArrayList<>();
+
+    // 所有规则引用的锚点关键词
+    private final Set<String> anchorKeywords = new LinkedHashSet<>();
+
+    /**
+     * 构造函数，解析规则表达式并收集锚点关键词
+     *
+     * @param rules 组合规则列表
+     */
+    public CompositeRuleEngine(List<SensitiveDataRule> rules) {
+        for (SensitiveDataRule rule : rules) {
+            CompositeExpression expression;
+            try {
+                expression = CompositeExpression.parse(rule.getContent());
+            } catch (IllegalArgumentException e) {
+                invalidRules.add(rule);
+                continue;
+            }
+            expression.collectKeywords(anchorKeywords);
+            compiledRules.add(new CompiledRule(rule, expression));
+        }
+    }
+
+    /**
+     * 在已产生的命中流上求值所有组合规则
+     *
+     * @param items 已检测到的敏感数据项
+     * @param keywordHits 关键词自动机的全部命中，包含锚点关键词
+     * @return 规则命中列表
+     */
+    public List<RuleMatch> evaluate(List<SensitiveDataItem> items, List<AhoCorasick.MatchResult> keywordHits) {
+        return evaluate(items, keywordHits, null);
+    }
+
+    /**
+     * 在已产生的命中流上求值输出类型在指定范围内的组合规则
+     *
+     * @param items 已检测到的敏感数据项
+     * @param keywordHits 关键词自动机的全部命中，包含锚点关键词
+     * @param outputTypes 需要输出的类型，为null表示全部
+     * @return 规则命中列表
+     */
+    public List<RuleMatch> evaluate(List<SensitiveDataItem> items, List<AhoCorasick.MatchResult> keywordHits,
+            Set<SensitiveDataType> outputTypes) {
+        if (compiledRules.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return evaluate(new MatchStreams(items, keywordHits, anchorKeywords), outputTypes);
+    }
+
+    /**
+     * 在检测命中缓冲区上求值输出类型在指定范围内的组合规则
+     *
+     * @param matches 已检测到的命中
+     * @param keywordHits 关键词自动机的全部命中，包含锚点关键词
+     * @param outputTypes 需要输出的类型，为null表示全部
+     * @return 规则命中列表
+     */
+    public List<RuleMatch> evaluate(MatchBuffer matches, List<AhoCorasick.MatchResult> keywordHits,
+            Set<SensitiveDataType> outputTypes) {
+        if (compiledRules.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return evaluate(new MatchStreams(matches, keywordHits, anchorKeywords), outputTypes);
+    }
+
+    private List<RuleMatch> evaluate(MatchStreams streams, Set<SensitiveDataType> outputTypes) {
+        List<RuleMatch> results = new ArrayList<>();
+        for (CompiledRule compiled : compiledRules) {
+            if (!compiled.outputs(outputTypes)) {
+                continue;
+            }
+            IntervalList intervals = compiled.expression.evaluate(streams);
+            for (int i = 0; i < intervals.size(); i++) {
+                results.add(new RuleMatch(compiled.rule, intervals.start(i), intervals.end(i)));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 获取输出类型在指定范围内的规则所依赖的敏感数据类型，检测时需要一并产出这些类型的命中流
+     *
+     * @param outputTypes 需要输出的类型
+     * @return 依赖的类型
+     */
+    public Set<SensitiveDataType> getRequiredTypes(Set<SensitiveDataType> outputTypes) {
+        Set<SensitiveDataType> types = EnumSet.noneOf(SensitiveDataType.class);
+        for (CompiledRule compiled : compiledRules) {
+            if (compiled.outputs(outputTypes)) {
+                types.addAll(compiled.referencedTypes);
+            }
+        }
+        return types;
+    }
+
+    /**
+     * 输出类型在指定范围内的规则是否引用了锚点关键词
+     *
+     * @param outputTypes 需要输出的类型
+     * @return 是否需要关键词扫描
+     */
+    public boolean requiresKeywords(Set<SensitiveDataType> outputTypes) {
+        for (CompiledRule compiled : compiledRules) {
+            if (compiled.outputs(outputTypes) && compiled.referencesKeywords) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 是否存在输出类型在指定范围内的规则
+     *
+     * @param outputTypes 需要输出的类型
+     * @return 是否存在
+     */
+    public boolean hasRulesFor(Set<SensitiveDataType> outputTypes) {
+        for (CompiledRule compiled : compiledRules) {
+            if (compiled.outputs(outputTypes)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 获取所有规则引用的锚点关键词
+     *
+     * @return 关键词集合
+     */
+    public Set<String> getAnchorKeywords() {
+        return Collections.unmodifiableSet(anchorKeywords);
+    }
+
+    /**
+     * 获取因表达式语法错误被跳过的规则
+     *
+     * @return 规则列表
+     */
+    public List<SensitiveDataRule> getInvalidRules() {
+        return Collections.unmodifiableList(invalidRules);
+    }
+
+    /**
+     * 获取成功解析的规则数量
+     *
+     * @return 规则数量
+     */
+    public int getRuleCount() {
+        return compiledRules.size();
+    }
+
+    /**
+     * 解析后的组合规则
+     */
+    private static class CompiledRule {
+        private final SensitiveDataRule rule;
+        private final CompositeExpression expression;
+        private final Set<SensitiveDataType> referencedTypes = EnumSet.noneOf(SensitiveDataType.class);
+        private final boolean referencesKeywords;
+
+        CompiledRule(SensitiveDataRule rule, CompositeExpression expression) {
+            this.rule = rule;
+            this.expression = expression;
+            expression.collectTypes(referencedTypes);
+            Set<String> keywords = new LinkedHashSet<>();
+            expression.collectKeywords(keywords);
+            this.referencesKeywords = !keywords.isEmpty();
+        }
+
+        boolean outputs(Set<SensitiveDataType> outputTypes) {
+            return outputTypes == null || outputTypes.contains(rule.getSensitiveDataType());
+        }
+    }
+
+    /**
+     * 规则命中结果
+     */
+    public static class RuleMatch {
+        // 命中的规则
+        private final SensitiveDataRule rule;
+        // 命中区间的起始位置（包含）
+        private final int start;
+        // 命中区间的结束位置（不包含）
+        private final int end;
+
+        public RuleMatch(SensitiveDataRule rule, int start, int end) {
+            this.rule = rule;
+            this.start = start;
+            this.end = end;
+        }
+
+        public SensitiveDataRule getRule() {
+            return rule;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        @Override
+        public String toString() {
+            return "RuleMatch{rule=" + rule.getId() + ", start=" + start + ", end=" + end + "}";
+        }
+    }
+}
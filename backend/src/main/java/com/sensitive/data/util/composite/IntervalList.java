@@ -0,0 +1,157 @@
+package com.sensitive.data.util.composite;
+
+import java.util.Arrays;
+
+/**
+ * 按起始位置排序的区间列表，使用并行int数组存储
+ *
+ * 所有集合运算都要求输入已排序，在线性时间内完成。
+ */
+final class IntervalList {
+
+    static final IntervalList EMPTY = new IntervalList(new int[0], new int[0], 0);
+
+    // 区间起始位置（包含）
+    private final int[] starts;
+
+    // 区间结束位置（不包含）
+    private final int[] ends;
+
+    // 区间数量
+    private final int size;
+
+    IntervalList(int[] starts, int[] ends, int size) {
+        this.starts = starts;
+        this.ends = ends;
+        this.size = size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int start(int index) {
+        return starts[index];
+    }
+
+    int end(int index) {
+        return ends[index];
+    }
+
+    /**
+     * 保留与other中任一区间间隔不超过distance个字符的区间
+     *
+     * 对每个区间a，other中起点不晚于a起点的区间里，结束位置最大的一个距离a最近；
+     * 起点晚于a起点的区间里，起点最小的一个距离a最近。两者都可用单调指针维护。
+     */
+    IntervalList near(IntervalList other, int distance) {
+        if (isEmpty() || other.isEmpty()) {
+            return EMPTY;
+        }
+        Builder result = new Builder(size);
+        int j = 0;
+        int maxEndBefore = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            int start = starts[i];
+            int end = ends[i];
+            while (j < other.size && other.starts[j] <= start) {
+                maxEndBefore = Math.max(maxEndBefore, other.ends[j]);
+                j++;
+            }
+            boolean near = maxEndBefore != Integer.MIN_VALUE && start - maxEndBefore <= distance;
+            if (!near && j < other.size) {
+                near = other.starts[j] - end <= distance;
+            }
+            if (near) {
+                result.add(start, end);
+            }
+        }
+        return result.build();
+    }
+
+    /**
+     * 归并两个有序区间列表，去除完全相同的区间
+     */
+    IntervalList union(IntervalList other) {
+        if (other.isEmpty()) {
+            return this;
+        }
+        if (isEmpty()) {
+            return other;
+        }
+        Builder result = new Builder(size + other.size);
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            boolean takeLeft = j >= other.size || (i < size && (starts[i] < other.starts[j]
+                    || (starts[i] == other.starts[j] && ends[i] <= other.ends[j])));
+            if (takeLeft) {
+                result.addDistinct(starts[i], ends[i]);
+                i++;
+            } else {
+                result.addDistinct(other.starts[j], other.ends[j]);
+                j++;
+            }
+        }
+        return result.build();
+    }
+
+    /**
+     * 区间列表构建器，追加顺序无序时在build时排序
+     */
+    static final class Builder {
+        private int[] starts;
+        private int[] ends;
+        private int size;
+        private boolean sorted = true;
+
+        Builder(int capacity) {
+            int initial = Math.max(capacity, 4);
+            this.starts = new int[initial];
+            this.ends = new int[initial];
+        }
+
+        void add(int start, int end) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            if (size > 0 && (start < starts[size - 1] || (start == starts[size - 1] && end < ends[size - 1]))) {
+                sorted = false;
+            }
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+        }
+
+        void addDistinct(int start, int end) {
+            if (size > 0 && starts[size - 1] == start && ends[size - 1] == end) {
+                return;
+            }
+            add(start, end);
+        }
+
+        IntervalList build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            if (!sorted) {
+                // 各命中来源内部基本有序，只有多来源交错时才需要排序
+                long[] packed = new long[size];
+                for (int i = 0; i < size; i++) {
+                    packed[i] = ((long) starts[i] << 32) | (ends[i] & 0xFFFFFFFFL);
+                }
+                Arrays.sort(packed);
+                for (int i = 0; i < size; i++) {
+                    starts[i] = (int) (packed[i] >>> 32);
+                    ends[i] = (int) packed[i];
+                }
+            }
+            return new IntervalList(starts, ends, size);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.sensitive.data.util.composite;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.sensitive.data.model.SensitiveDataItem;
+import com.sensitive.data.model.SensitiveDataType;
+import com.sensitive.data.util.AhoCorasick;
+import com.sensitive.data.util.MatchBuffer;
+
+/**
+ * 单次检测中已产生的命中流，按敏感数据类型和组合规则关键词分桶
+ *
+ * 构建只遍历一次命中结果，各桶在首次被表达式引用时才生成有序区间列表。
+ */
+final class MatchStreams {
+
+    private final Map<SensitiveDataType, IntervalList.Builder> typeBuilders = new EnumMap<>(SensitiveDataType.class);
+    private final Map<String, IntervalList.Builder> keywordBuilders = new HashMap<>();
+
+    private final Map<SensitiveDataType, IntervalList> typeLists = new EnumMap<>(SensitiveDataType.class);
+    private final Map<String, IntervalList> keywordLists = new HashMap<>();
+
+    MatchStreams(List<SensitiveDataItem> items, List<AhoCorasick.MatchResult> keywordHits, Set<String> keywords) {
+        for (SensitiveDataItem item : items) {
+            if (item.getType() != null) {
+                addTypeInterval(item.getType(), item.getStartPosition(), item.getEndPosition());
+            }
+        }
+        addKeywordHits(keywordHits, keywords);
+    }
+
+    MatchStreams(MatchBuffer matches, List<AhoCorasick.MatchResult> keywordHits, Set<String> keywords) {
+        for (int i = 0; i < matches.size(); i++) {
+            addTypeInterval(matches.type(i), matches.start(i), matches.end(i));
+        }
+        addKeywordHits(keywordHits, keywords);
+    }
+
+    private void addTypeInterval(SensitiveDataType type, int start, int end) {
+        IntervalList.Builder builder = typeBuilders.get(type);
+        if (builder == null) {
+            builder = new IntervalList.Builder(8);
+            typeBuilders.put(type, builder);
+        }
+        builder.add(start, end);
+    }
+
+    private void addKeywordHits(List<AhoCorasick.MatchResult> keywordHits, Set<String> keywords) {
+        for (AhoCorasick.MatchResult hit : keywordHits) {
+            if (!keywords.contains(hit.getPattern())) {
+                continue;
+            }
+            IntervalList.Builder builder = keywordBuilders.get(hit.getPattern());
+            if (builder == null) {
+                builder = new IntervalList.Builder(8);
+                keywordBuilders.put(hit.getPattern(), builder);
+            }
+            builder.add(hit.getStart(), hit.getEnd());
+        }
+    }
+
+    IntervalList ofType(SensitiveDataType type) {
+        IntervalList list = typeLists.get(type);
+        if (list == null) {
+            IntervalList.Builder builder = typeBuilders.get(type);
+            list = builder == null ? IntervalList.EMPTY : builder.build();
+            typeLists.put(type, list);
+        }
+        return list;
+    }
+
+    IntervalList ofKeyword(String keyword) {
+        IntervalList list = keywordLists.get(keyword);
+        if (list == null) {
+            IntervalList.Builder builder = keywordBuilders.get(keyword);
+            list = builder == null ? IntervalList.EMPTY : builder.build();
+            keywordLists.put(keyword, list);
+        }
+        return list;
+    }
+}
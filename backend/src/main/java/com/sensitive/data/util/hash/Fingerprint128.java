@@ -0,0 +1,67 @@
+package com.sensitive.data.util.hash;
+
+import java.io.Serializable;
+
+/**
+ * 128位文本指纹
+ */
+public final class Fingerprint128 implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long high;
+    private final long low;
+
+    public Fingerprint128(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    /**
+     * 计算文本指纹
+     *
+     * @param text 文本
+     * @return 指纹
+     */
+    public static Fingerprint128 of(CharSequence text) {
+        return MurmurHash3.hash128(text, 0);
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    public long getLow() {
+        return low;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Fingerprint128)) {
+            return false;
+        }
+        Fingerprint128 that = (Fingerprint128) o;
+        return high == that.high && low == that.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (high ^ (high >>> 32));
+    }
+
+    /**
+     * 32位十六进制表示
+     */
+    @Override
+    public String toString() {
+        return toHex(high) + toHex(low);
+    }
+
+    private static String toHex(long value) {
+        String hex = Long.toHexString(value);
+        return "0000000000000000".substring(hex.length()) + hex;
+    }
+}
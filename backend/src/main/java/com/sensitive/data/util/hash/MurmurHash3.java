@@ -0,0 +1,135 @@
+package com.sensitive.data.util.hash;
+
+/**
+ * MurmurHash3 x64 128位哈希
+ *
+ * 字符序列按UTF-16LE字节计算（每8个字符一个16字节块），与对其UTF-16LE编码调用字节版本结果相同，
+ * 无需先编码为字节数组。用于生成文本指纹，不用于任何安全场景。
+ */
+public final class MurmurHash3 {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private MurmurHash3() {
+    }
+
+    /**
+     * 计算字符序列的128位哈希
+     *
+     * @param text 字符序列
+     * @param seed 种子
+     * @return 128位指纹
+     */
+    public static Fingerprint128 hash128(CharSequence text, long seed) {
+        int length = text.length();
+        long h1 = seed;
+        long h2 = seed;
+        int blocks = length >>> 3;
+        for (int b = 0; b < blocks; b++) {
+            int i = b << 3;
+            long k1 = text.charAt(i) | (long) text.charAt(i + 1) << 16
+                    | (long) text.charAt(i + 2) << 32 | (long) text.charAt(i + 3) << 48;
+            long k2 = text.charAt(i + 4) | (long) text.charAt(i + 5) << 16
+                    | (long) text.charAt(i + 6) << 32 | (long) text.charAt(i + 7) << 48;
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27) + h2;
+            h1 = h1 * 5 + 0x52dce729;
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31) + h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        long k1 = 0;
+        long k2 = 0;
+        int tail = blocks << 3;
+        for (int i = length - 1; i >= tail; i--) {
+            int shift = ((i - tail) & 3) << 4;
+            if (i - tail >= 4) {
+                k2 |= (long) text.charAt(i) << shift;
+            } else {
+                k1 |= (long) text.charAt(i) << shift;
+            }
+        }
+        return finish(h1, h2, k1, k2, length - tail > 4, length > tail, (long) length << 1);
+    }
+
+    /**
+     * 计算字节数组的128位哈希
+     *
+     * @param bytes 字节数组
+     * @param seed 种子
+     * @return 128位指纹
+     */
+    public static Fingerprint128 hash128(byte[] bytes, long seed) {
+        int length = bytes.length;
+        long h1 = seed;
+        long h2 = seed;
+        int blocks = length >>> 4;
+        for (int b = 0; b < blocks; b++) {
+            int i = b << 4;
+            h1 ^= mixK1(getLong(bytes, i));
+            h1 = Long.rotateLeft(h1, 27) + h2;
+            h1 = h1 * 5 + 0x52dce729;
+            h2 ^= mixK2(getLong(bytes, i + 8));
+            h2 = Long.rotateLeft(h2, 31) + h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        long k1 = 0;
+        long k2 = 0;
+        int tail = blocks << 4;
+        for (int i = length - 1; i >= tail; i--) {
+            int shift = ((i - tail) & 7) << 3;
+            if (i - tail >= 8) {
+                k2 |= (bytes[i] & 0xFFL) << shift;
+            } else {
+                k1 |= (bytes[i] & 0xFFL) << shift;
+            }
+        }
+        return finish(h1, h2, k1, k2, length - tail > 8, length > tail, length);
+    }
+
+    private static Fingerprint128 finish(long h1, long h2, long k1, long k2, boolean hasK2, boolean hasK1,
+            long byteLength) {
+        if (hasK2) {
+            h2 ^= mixK2(k2);
+        }
+        if (hasK1) {
+            h1 ^= mixK1(k1);
+        }
+        h1 ^= byteLength;
+        h2 ^= byteLength;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        h2 += h1;
+        return new Fingerprint128(h1, h2);
+    }
+
+    private static long mixK1(long k1) {
+        return Long.rotateLeft(k1 * C1, 31) * C2;
+    }
+
+    private static long mixK2(long k2) {
+        return Long.rotateLeft(k2 * C2, 33) * C1;
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    private static long getLong(byte[] bytes, int index) {
+        return (bytes[index] & 0xFFL) | (bytes[index + 1] & 0xFFL) << 8 | (bytes[index + 2] & 0xFFL) << 16
+                | (bytes[index + 3] & 0xFFL) << 24 | (bytes[index + 4] & 0xFFL) << 32
+                | (bytes[index + 5] & 0xFFL) << 40 | (bytes[index + 6] & 0xFFL) << 48
+                | (bytes[index + 7] & 0xFFL) << 56;
+    }
+}
@@ -0,0 +1,79 @@
+package com.sensitive.data.util.json;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 按行增量读取NDJSON格式的待检测文本
+ *
+ * 每个非空行为一条文本：以双引号开头且是合法JSON字符串的行按JSON解码（可包含转义的换行），
+ * 其余行按原样作为文本。读取按下游请求逐行进行，任意时刻只持有正在处理的少量文本。
+ */
+public final class NdjsonTextReader {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private NdjsonTextReader() {
+    }
+
+    /**
+     * 创建按行读取输入流的文本流，输入流在文本流结束、出错或取消时关闭
+     *
+     * 阻塞读取在有界弹性调度器上执行，不占用检测线程
+     * @param in UTF-8编码的NDJSON输入流
+     * @return 文本流
+     */
+    public static Flux<String> read(InputStream in) {
+        return Flux.using(
+                () -> new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)),
+                reader -> Flux.<String>generate(sink -> {
+                    try {
+                        String line = reader.readLine();
+                        while (line != null && line.trim().isEmpty()) {
+                            line = reader.readLine();
+                        }
+                        if (line == null) {
+                            sink.complete();
+                        } else {
+                            sink.next(decodeLine(line));
+                        }
+                    } catch (IOException e) {
+                        sink.error(new UncheckedIOException(e));
+                    }
+                }),
+                NdjsonTextReader::closeQuietly)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * 解码一行文本
+     */
+    static String decodeLine(String line) {
+        if (line.charAt(0) == '"') {
+            try {
+                return MAPPER.readValue(line, String.class);
+            } catch (JsonProcessingException e) {
+                // 不是合法的JSON字符串，按原样处理
+            }
+        }
+        return line;
+    }
+
+    private static void closeQuietly(BufferedReader reader) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            // 忽略关闭异常
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.sensitive.data.util.json;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.sensitive.data.model.SensitiveDataType;
+import com.sensitive.data.model.StreamingDetectionResult;
+import com.sensitive.data.util.MatchBuffer;
+
+/**
+ * 检测结果的流式序列化器，直接从检测命中缓冲区写出JSON
+ *
+ * 输出格式：
+ * <pre>
+ * {
+ *   "originalText": "...",
+ *   "totalDetected": 1,
+ *   "processingTimeMs": 3,
+ *   "partial": false,
+ *   "types": {"phoneNumber": {"name": "手机号", "riskLevel": "中风险", "riskColor": "...", "suggestion": "..."}},
+ *   "detectedItems": [{"type": "phoneNumber", "content": "13812345678", "startPosition": 4, "endPosition": 15}]
+ * }
+ * </pre>
+ * types字典只包含本次结果中出现的类型（含合并项的标签），检测项的labels为类型代码数组，只在存在时输出。
+ * 原文只转换一次字符数组，检测项内容按偏移从中写出，不创建子串和检测项对象。
+ */
+public class StreamingDetectionResultSerializer extends JsonSerializer<StreamingDetectionResult> {
+
+    private static final SensitiveDataType[] TYPES = SensitiveDataType.values();
+
+    @Override
+    public void serialize(StreamingDetectionResult result, JsonGenerator gen, SerializerProvider serializers)
+            throws IOException {
+        String text = result.getOriginalText();
+        MatchBuffer matches = result.getMatches();
+        int size = matches.size();
+
+        gen.writeStartObject();
+        gen.writeStringField("originalText", text);
+        gen.writeNumberField("totalDetected", size);
+        gen.writeNumberField("processingTimeMs", result.getProcessingTimeMs());
+        gen.writeBooleanField("partial", result.isPartial());
+
+        // 类型字典，按位掩码收集本次结果中出现的类型
+        int usedTypes = 0;
+        for (int i = 0; i < size; i++) {
+            usedTypes |= 1 << matches.type(i).ordinal();
+            usedTypes |= matches.labelMask(i);
+        }
+        gen.writeObjectFieldStart("types");
+        for (SensitiveDataType type : TYPES) {
+            if ((usedTypes & (1 << type.ordinal())) == 0) {
+                continue;
+            }
+            gen.writeObjectFieldStart(type.getCode());
+            gen.writeStringField("name", type.getName());
+            gen.writeStringField("riskLevel", type.getRiskLevel().getName());
+            gen.writeStringField("riskColor", type.getRiskLevel().getColor());
+            if (result.getSuggestions() != null) {
+                gen.writeStringField("suggestion", result.getSuggestions().apply(type));
+            }
+            gen.writeEndObject();
+        }
+        gen.writeEndObject();
+
+        gen.writeArrayFieldStart("detectedItems");
+        char[] chars = size > 0 ? text.toCharArray() : null;
+        for (int i = 0; i < size; i++) {
+            int start = matches.start(i);
+            int end = matches.end(i);
+            SensitiveDataType type = matches.type(i);
+            gen.writeStartObject();
+            gen.writeStringField("type", type.getCode());
+            gen.writeFieldName("content");
+            gen.writeString(chars, start, end - start);
+            gen.writeNumberField("startPosition", start);
+            gen.writeNumberField("endPosition", end);
+            int mask = matches.labelMask(i);
+            if (mask != 0) {
+                // 主类型在前，其余按类型序号排列
+                gen.writeArrayFieldStart("labels");
+                gen.writeString(type.getCode());
+                for (SensitiveDataType label : TYPES) {
+                    if (label != type && (mask & (1 << label.ordinal())) != 0) {
+                        gen.writeString(label.getCode());
+                    }
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,90 @@
+package com.sensitive.data.util.normalize;
+
+/**
+ * 规范化后的文本及其到原文的偏移映射
+ *
+ * 映射只记录删除点：positions[k]为规范化文本中的位置，shifts[k]为该位置之前累计删除的原文字符数。
+ * 没有删除时映射为恒等，不分配数组。
+ */
+public final class NormalizedText {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final String original;
+    private final String text;
+    private final int[] positions;
+    private final int[] shifts;
+    private final int size;
+
+    NormalizedText(String original, String text, int[] positions, int[] shifts, int size) {
+        this.original = original;
+        this.text = text;
+        this.positions = positions;
+        this.shifts = shifts;
+        this.size = size;
+    }
+
+    static NormalizedText identity(String text) {
+        return new NormalizedText(text, text, EMPTY, EMPTY, 0);
+    }
+
+    /**
+     * 获取原始文本
+     */
+    public String getOriginal() {
+        return original;
+    }
+
+    /**
+     * 获取规范化后的文本，无需规范化时为原始文本本身
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * 规范化是否改变了文本
+     */
+    public boolean isChanged() {
+        return text != original;
+    }
+
+    /**
+     * 偏移是否需要换算（是否删除了字符）
+     */
+    public boolean isShifted() {
+        return size > 0;
+    }
+
+    /**
+     * 把规范化文本中的起始位置换算为原文位置，跳过该位置之前被删除的字符
+     *
+     * @param start 规范化文本中的起始位置（包含）
+     * @return 原文中的起始位置
+     */
+    public int toOriginalStart(int start) {
+        int low = 0;
+        int high = size - 1;
+        int shift = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (positions[mid] <= start) {
+                shift = shifts[mid];
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return start + shift;
+    }
+
+    /**
+     * 把规范化文本中的结束位置换算为原文位置，不包含末尾之后被删除的字符
+     *
+     * @param end 规范化文本中的结束位置（不包含）
+     * @return 原文中的结束位置
+     */
+    public int toOriginalEnd(int end) {
+        return end == 0 ? 0 : toOriginalStart(end - 1) + 1;
+    }
+}
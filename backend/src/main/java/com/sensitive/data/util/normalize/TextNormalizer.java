@@ -0,0 +1,135 @@
+package com.sensitive.data.util.normalize;
+
+import java.util.Arrays;
+
+/**
+ * 检测前的输入规范化，单次遍历完成
+ *
+ * 全角数字、全角字母和标识符中可能出现的全角符号（@ . - _ + %）折叠为对应的ASCII字符，
+ * 全角空格折叠为空格，零宽字符（零宽空格、零宽连接符/非连接符、词连接符、BOM、软连字符）被删除。
+ * 中文标点（如全角逗号、冒号、括号）不在折叠范围内：内置规则不依赖它们的ASCII形式，
+ * 保留它们可以让绝大多数中文文本无需规范化，直接原样返回。
+ * 折叠是一对一替换，只有删除会改变偏移，偏移映射只记录删除点。
+ */
+public final class TextNormalizer {
+
+    private static final int FULLWIDTH_OFFSET = 0xFEE0;
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * 规范化文本
+     *
+     * @param text 原始文本
+     * @return 规范化结果，文本无需规范化时返回原文本本身
+     */
+    public static NormalizedText normalize(String text) {
+        int length = text.length();
+        int i = 0;
+        while (i < length && !requiresNormalization(text.charAt(i))) {
+            i++;
+        }
+        if (i == length) {
+            return NormalizedText.identity(text);
+        }
+
+        char[] normalized = new char[length];
+        text.getChars(0, i, normalized, 0);
+        int n = i;
+        int[] positions = new int[4];
+        int[] shifts = new int[4];
+        int runs = 0;
+        int removed = 0;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (isZeroWidth(c)) {
+                removed++;
+                // 连续删除的字符合并为一个删除点
+                if (runs > 0 && positions[runs - 1] == n) {
+                    shifts[runs - 1] = removed;
+                } else {
+                    if (runs == positions.length) {
+                        positions = Arrays.copyOf(positions, runs * 2);
+                        shifts = Arrays.copyOf(shifts, runs * 2);
+                    }
+                    positions[runs] = n;
+                    shifts[runs] = removed;
+                    runs++;
+                }
+                continue;
+            }
+            normalized[n++] = fold(c);
+        }
+        return new NormalizedText(text, new String(normalized, 0, n), positions, shifts, runs);
+    }
+
+    /**
+     * 判断UTF-8字节中是否包含需要规范化的字符，用于决定字节路径能否直接检测
+     *
+     * @param utf8 UTF-8字节
+     * @return 是否包含需要规范化的字符
+     */
+    public static boolean requiresNormalization(byte[] utf8) {
+        int length = utf8.length;
+        for (int i = 0; i < length; i++) {
+            int b0 = utf8[i] & 0xFF;
+            // 需要规范化的字符均以C2、E2、E3或EF开头
+            if (b0 == 0xC2 && i + 1 < length) {
+                if (requiresNormalization((char) (((b0 & 0x1F) << 6) | (utf8[i + 1] & 0x3F)))) {
+                    return true;
+                }
+            } else if ((b0 == 0xE2 || b0 == 0xE3 || b0 == 0xEF) && i + 2 < length) {
+                char c = (char) (((b0 & 0x0F) << 12) | ((utf8[i + 1] & 0x3F) << 6) | (utf8[i + 2] & 0x3F));
+                if (requiresNormalization(c)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 判断字符是否需要折叠或删除
+     */
+    static boolean requiresNormalization(char c) {
+        return c >= '\u00AD' && (isZeroWidth(c) || fold(c) != c);
+    }
+
+    private static boolean isZeroWidth(char c) {
+        switch (c) {
+            case '\u200B':
+            case '\u200C':
+            case '\u200D':
+            case '\u2060':
+            case '\uFEFF':
+            case '\u00AD':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static char fold(char c) {
+        if (c < '\u3000') {
+            return c;
+        }
+        if (c == '\u3000') {
+            return ' ';
+        }
+        if ((c >= '\uFF10' && c <= '\uFF19') || (c >= '\uFF21' && c <= '\uFF3A') || (c >= '\uFF41' && c <= '\uFF5A')) {
+            return (char) (c - FULLWIDTH_OFFSET);
+        }
+        switch (c) {
+            case '\uFF20':
+            case '\uFF0E':
+            case '\uFF0D':
+            case '\uFF3F':
+            case '\uFF0B':
+            case '\uFF05':
+                return (char) (c - FULLWIDTH_OFFSET);
+            default:
+                return c;
+        }
+    }
+}
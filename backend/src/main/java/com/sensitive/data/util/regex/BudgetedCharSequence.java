@@ -0,0 +1,100 @@
+package com.sensitive.data.util.regex;
+
+/**
+ * 带执行预算的字符序列包装器，用于防止正则表达式灾难性回溯
+ *
+ * java.util.regex的回溯匹配通过charAt逐字符访问输入，本类统计字符访问次数，
+ * 并每隔固定步数检查一次耗时，超过步数上限或截止时间时抛出{@link BudgetExceededException}
+ * 中止当前匹配。同一请求内的多次正则执行共享同一个预算。
+ */
+public class BudgetedCharSequence implements CharSequence {
+
+    // 每隔多少次字符访问检查一次时间，取2的幂便于位运算
+    private static final long TIME_CHECK_MASK = 1024 - 1;
+
+    // 被包装的原始字符序列
+    private final CharSequence delegate;
+
+    // 允许的最大字符访问次数
+    private final long maxSteps;
+
+    // 截止时间（System.nanoTime）
+    private final long deadlineNanos;
+
+    // 已发生的字符访问次数
+    private long steps;
+
+    // 预算是否已耗尽
+    private boolean exhausted;
+
+    /**
+     * 构造函数
+     *
+     * @param delegate 原始字符序列
+     * @param maxSteps 允许的最大字符访问次数
+     * @param maxNanos 允许的最长执行时间（纳秒）
+     */
+    public BudgetedCharSequence(CharSequence delegate, long maxSteps, long maxNanos) {
+        this.delegate = delegate;
+        this.maxSteps = maxSteps;
+        this.deadlineNanos = System.nanoTime() + maxNanos;
+    }
+
+    @Override
+    public int length() {
+        return delegate.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (++steps > maxSteps || ((steps & TIME_CHECK_MASK) == 0 && System.nanoTime() - deadlineNanos > 0)) {
+            exhausted = true;
+            throw new BudgetExceededException(steps);
+        }
+        return delegate.charAt(index);
+    }
+
+    /**
+     * 子序列用于提取匹配分组内容，不计入预算
+     */
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return delegate.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+
+    /**
+     * 预算是否已耗尽，耗尽后后续匹配应直接跳过
+     *
+     * @return 是否已耗尽
+     */
+    public boolean isExhausted() {
+        return exhausted;
+    }
+
+    /**
+     * 获取已发生的字符访问次数
+     *
+     * @return 字符访问次数
+     */
+    public long getSteps() {
+        return steps;
+    }
+
+    /**
+     * 正则执行预算耗尽异常
+     */
+    public static class BudgetExceededException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public BudgetExceededException(long steps) {
+            // 该异常用于控制流程，不需要堆栈信息
+            super("Regex execution budget exceeded after " + steps + " steps", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,695 @@
+package com.sensitive.data.util.regex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.sensitive.data.util.AhoCorasick;
+
+/**
+ * 正则表达式字面量因子提取器
+ *
+ * 在规则编译期对正则表达式做一次语法分析，提取"每次匹配都必然包含其中之一"的字面量子串集合，
+ * 以及匹配长度的上下界。预过滤阶段用Aho-Corasick自动机查找这些因子，只有因子出现时才在其
+ * 附近区域执行完整的正则匹配（与Hyperscan的字面量预过滤思路一致）。
+ *
+ * 提取出的因子统一做大小写折叠，因此预过滤自动机需要以忽略大小写的方式匹配。
+ *
+ * 长度以UTF-16字符计：正则按码点匹配，可能匹配增补平面字符（代理对）的原子最多占2个字符。
+ */
+public final class LiteralFactorExtractor {
+
+    /**
+     * 无界长度标记
+     */
+    public static final int UNBOUNDED = -1;
+
+    // 精确字符串集合的最大规模，超过后放弃精确集合
+    private static final int MAX_EXACT_SET_SIZE = 16;
+
+    // 必需因子集合的最大规模，超过后视为无可用因子
+    private static final int MAX_FACTOR_SET_SIZE = 32;
+
+    // 可枚举字符类的最大字符数
+    private static final int MAX_ENUMERABLE_CLASS_SIZE = 4;
+
+    // 长度上界的截断值，超过后视为无界
+    private static final int MAX_BOUNDED_LENGTH = 1 << 20;
+
+    private final String regex;
+    private int pos;
+    // 是否启用了Unicode字符类（(?U)），启用后\d、\w、\s也可能匹配增补平面字符
+    private boolean unicodeClasses;
+
+    private LiteralFactorExtractor(String regex) {
+        this.regex = regex;
+        this.pos = 0;
+    }
+
+    /**
+     * 提取正则表达式的字面量因子
+     *
+     * @param regex 正则表达式（需已通过Pattern.compile校验）
+     * @return 字面量因子及长度信息，无法分析时返回无因子、长度无界的结果
+     */
+    public static LiteralFactors extract(String regex) {
+        if (regex == null || regex.isEmpty()) {
+            return LiteralFactors.UNKNOWN;
+        }
+
+        try {
+            LiteralFactorExtractor extractor = new LiteralFactorExtractor(regex);
+            Info info = extractor.parseAlternation();
+            if (extractor.pos < regex.length()) {
+                // 存在未配对的右括号等无法识别的结构
+                return LiteralFactors.UNKNOWN;
+            }
+            return new LiteralFactors(info.factors(), info.min, info.max);
+        } catch (UnsupportedPatternException | IndexOutOfBoundsException e) {
+            return LiteralFactors.UNKNOWN;
+        }
+    }
+
+    /**
+     * 解析分支：a|b|c
+     */
+    private Info parseAlternation() {
+        Info result = parseSequence();
+        while (pos < regex.length() && regex.charAt(pos) == '|') {
+            pos++;
+            result = Info.alternate(result, parseSequence());
+        }
+        return result;
+    }
+
+    /**
+     * 解析连接序列，直到遇到分支符或右括号
+     */
+    private Info parseSequence() {
+        Info result = Info.empty();
+        while (pos < regex.length()) {
+            char c = regex.charAt(pos);
+            if (c == '|' || c == ')') {
+                break;
+            }
+            Info atom = parseAtom();
+            atom = parseQuantifier(atom);
+            result = Info.concat(result, atom);
+        }
+        return result;
+    }
+
+    /**
+     * 解析单个原子：字面量、转义、字符类、分组等
+     */
+    private Info parseAtom() {
+        char c = regex.charAt(pos);
+        switch (c) {
+            case '(':
+                return parseGroup();
+            case '[':
+                return parseCharClass();
+            case '.':
+                pos++;
+                return Info.anyCodePoint();
+            case '^':
+            case '$':
+                pos++;
+                return Info.empty();
+            case '\\':
+                return parseEscape();
+            default:
+                int codePoint = regex.codePointAt(pos);
+                pos += Character.charCount(codePoint);
+                return Info.literal(new String(Character.toChars(codePoint)));
+        }
+    }
+
+    /**
+     * 解析分组，包括捕获组、非捕获组、零宽断言和内联标志
+     */
+    private Info parseGroup() {
+        pos++; // 跳过'('
+        boolean lookaround = false;
+
+        if (pos < regex.length() && regex.charAt(pos) == '?') {
+            pos++;
+            char c = regex.charAt(pos);
+            if (c == ':' || c == '>') {
+                pos++;
+            } else if (c == '=' || c == '!') {
+                pos++;
+                lookaround = true;
+            } else if (c == '<') {
+                char next = regex.charAt(pos + 1);
+                if (next == '=' || next == '!') {
+                    pos += 2;
+                    lookaround = true;
+                } else {
+                    // 命名捕获组 (?<name>...)
+                    int close = regex.indexOf('>', pos);
+                    if (close < 0) {
+                        throw new UnsupportedPatternException();
+                    }
+                    pos = close + 1;
+                }
+            } else {
+                // 内联标志 (?i) / (?i-s) / (?i:...)
+                int start = pos;
+                while (pos < regex.length() && (Character.isLetter(regex.charAt(pos)) || regex.charAt(pos) == '-')) {
+                    pos++;
+                }
+                String flags = regex.substring(start, pos);
+                int minus = flags.indexOf('-');
+                String enabled = minus >= 0 ? flags.substring(0, minus) : flags;
+                if (enabled.indexOf('x') >= 0) {
+                    // 注释模式下空白和#的语义不同，不做分析
+                    throw new UnsupportedPatternException();
+                }
+                if (enabled.indexOf('U') >= 0) {
+                    unicodeClasses = true;
+                }
+                char terminator = regex.charAt(pos++);
+                if (terminator == ')') {
+                    return Info.empty();
+                }
+                if (terminator != ':') {
+                    throw new UnsupportedPatternException();
+                }
+            }
+        }
+
+        Info inner = parseAlternation();
+        if (pos >= regex.length() || regex.charAt(pos) != ')') {
+            throw new UnsupportedPatternException();
+        }
+        pos++; // 跳过')'
+
+        // 零宽断言不消耗字符，其内容可能位于匹配范围之外，不作为必需因子
+        return lookaround ? Info.empty() : inner;
+    }
+
+    /**
+     * 解析字符类 [...]，少量纯字面量字符组成的字符类会被枚举为精确集合
+     */
+    private Info parseCharClass() {
+        pos++; // 跳过'['
+        boolean negated = false;
+        if (regex.charAt(pos) == '^') {
+            negated = true;
+            pos++;
+        }
+
+        Set<String> members = new LinkedHashSet<>();
+        boolean enumerable = !negated;
+        boolean first = true;
+        int depth = 1;
+
+        while (depth > 0) {
+            char c = regex.charAt(pos);
+            if (c == ']' && !first) {
+                depth--;
+                pos++;
+            } else if (c == '[') {
+                depth++;
+                enumerable = false;
+                pos++;
+            } else if (c == '\\') {
+                char escaped = regex.charAt(pos + 1);
+                if (escaped == 'Q') {
+                    int end = regex.indexOf("\\E", pos + 2);
+                    pos = end < 0 ? regex.length() : end + 2;
+                    enumerable = false;
+                } else {
+                    if (Character.isLetterOrDigit(escaped)) {
+                        enumerable = false;
+                    } else {
+                        members.add(String.valueOf(escaped));
+                    }
+                    pos += 2;
+                    skipBraces();
+                }
+            } else {
+                boolean literalHyphen = c == '-' && (first || regex.charAt(pos + 1) == ']');
+                if ((c == '-' && !literalHyphen) || c == '&' || Character.isSurrogate(c)) {
+                    // 范围、交集以及代理对字符不做枚举
+                    enumerable = false;
+                } else {
+                    members.add(String.valueOf(c));
+                }
+                pos++;
+            }
+            first = false;
+        }
+
+        if (enumerable && !members.isEmpty() && members.size() <= MAX_ENUMERABLE_CLASS_SIZE) {
+            return Info.exactSet(members, 1, 1);
+        }
+        // 取反、范围、属性等字符类可能匹配增补平面字符
+        return Info.anyCodePoint();
+    }
+
+    /**
+     * 解析转义序列
+     */
+    private Info parseEscape() {
+        char e = regex.charAt(pos + 1);
+        pos += 2;
+
+        switch (e) {
+            case 'd': case 'w': case 's':
+                return unicodeClasses ? Info.anyCodePoint() : Info.anyChar(1, 1);
+            case 'h': case 'v':
+                // 水平和垂直空白都在基本多文种平面内
+                return Info.anyChar(1, 1);
+            case 'D': case 'W': case 'S': case 'H': case 'V':
+                return Info.anyCodePoint();
+            case 'p': case 'P': case 'N':
+                if (pos < regex.length() && regex.charAt(pos) == '{') {
+                    skipBraces();
+                } else if (e != 'N') {
+                    // 单字母属性，如\pL
+                    pos++;
+                }
+                return Info.anyCodePoint();
+            case 'R':
+                return Info.anyChar(1, 2);
+            case 'X':
+                return Info.anyChar(1, UNBOUNDED);
+            case 'b':
+                skipBraces();
+                return Info.empty();
+            case 'B': case 'A': case 'z': case 'Z': case 'G':
+                return Info.empty();
+            case 'k':
+                // 命名反向引用 \k<name>
+                pos = regex.indexOf('>', pos) + 1;
+                return Info.anyChar(0, UNBOUNDED);
+            case 'Q': {
+                int end = regex.indexOf("\\E", pos);
+                String quoted = end < 0 ? regex.substring(pos) : regex.substring(pos, end);
+                pos = end < 0 ? regex.length() : end + 2;
+                return quoted.isEmpty() ? Info.empty() : Info.literal(quoted);
+            }
+            case 't':
+                return Info.literal("\t");
+            case 'n':
+                return Info.literal("\n");
+            case 'r':
+                return Info.literal("\r");
+            case 'f':
+                return Info.literal("\f");
+            case 'a':
+                return Info.literal("\u0007");
+            case 'e':
+                return Info.literal("\u001B");
+            case 'c':
+                return Info.literal(String.valueOf((char) (regex.charAt(pos++) ^ 64)));
+            case '0': {
+                int value = 0;
+                int digits = 0;
+                while (digits < 3 && pos < regex.length() && regex.charAt(pos) >= '0' && regex.charAt(pos) <= '7') {
+                    value = value * 8 + (regex.charAt(pos++) - '0');
+                    digits++;
+                }
+                return Info.literal(String.valueOf((char) value));
+            }
+            case 'x': {
+                int codePoint;
+                if (regex.charAt(pos) == '{') {
+                    int close = regex.indexOf('}', pos);
+                    codePoint = Integer.parseInt(regex.substring(pos + 1, close), 16);
+                    pos = close + 1;
+                } else {
+                    codePoint = Integer.parseInt(regex.substring(pos, pos + 2), 16);
+                    pos += 2;
+                }
+                return Info.literal(new String(Character.toChars(codePoint)));
+            }
+            case 'u': {
+                char value = (char) Integer.parseInt(regex.substring(pos, pos + 4), 16);
+                pos += 4;
+                return Info.literal(String.valueOf(value));
+            }
+            default:
+                if (e >= '1' && e <= '9') {
+                    // 数字反向引用，长度未知
+                    while (pos < regex.length() && Character.isDigit(regex.charAt(pos))) {
+                        pos++;
+                    }
+                    return Info.anyChar(0, UNBOUNDED);
+                }
+                if (Character.isLetterOrDigit(e)) {
+                    throw new UnsupportedPatternException();
+                }
+                return Info.literal(String.valueOf(e));
+        }
+    }
+
+    /**
+     * 解析量词：?、*、+、{n}、{n,}、{n,m}，以及随后的惰性/占有修饰符
+     */
+    private Info parseQuantifier(Info atom) {
+        if (pos >= regex.length()) {
+            return atom;
+        }
+
+        int min;
+        int max;
+        char c = regex.charAt(pos);
+        if (c == '?') {
+            min = 0;
+            max = 1;
+            pos++;
+        } else if (c == '*') {
+            min = 0;
+            max = UNBOUNDED;
+            pos++;
+        } else if (c == '+') {
+            min = 1;
+            max = UNBOUNDED;
+            pos++;
+        } else if (c == '{') {
+            int close = regex.indexOf('}', pos);
+            if (close < 0) {
+                throw new UnsupportedPatternException();
+            }
+            String body = regex.substring(pos + 1, close);
+            int comma = body.indexOf(',');
+            if (comma < 0) {
+                min = Integer.parseInt(body.trim());
+                max = min;
+            } else {
+                min = Integer.parseInt(body.substring(0, comma).trim());
+                String upper = body.substring(comma + 1).trim();
+                max = upper.isEmpty() ? UNBOUNDED : Integer.parseInt(upper);
+            }
+            pos = close + 1;
+        } else {
+            return atom;
+        }
+
+        // 惰性或占有量词不影响匹配内容
+        if (pos < regex.length() && (regex.charAt(pos) == '?' || regex.charAt(pos) == '+')) {
+            pos++;
+        }
+
+        return Info.repeat(atom, min, max);
+    }
+
+    /**
+     * 跳过紧随其后的{...}
+     */
+    private void skipBraces() {
+        if (pos < regex.length() && regex.charAt(pos) == '{') {
+            int close = regex.indexOf('}', pos);
+            pos = close < 0 ? regex.length() : close + 1;
+        }
+    }
+
+    /**
+     * 子表达式的分析信息
+     */
+    private static final class Info {
+        // 表示"无约束"的集合（只包含空串）
+        private static final Set<String> ANY = Collections.singleton("");
+
+        // 子表达式可能匹配的全部字符串（有限且较小时），null表示不可枚举
+        private final Set<String> exact;
+        // 每次匹配必然以其中之一开头的字面量集合
+        private final Set<String> prefix;
+        // 每次匹配必然以其中之一结尾的字面量集合
+        private final Set<String> suffix;
+        // 每次匹配必然包含其中之一的字面量集合，null表示没有
+        private final Set<String> required;
+        // 最小匹配长度
+        private final int min;
+        // 最大匹配长度，UNBOUNDED表示无界
+        private final int max;
+
+        private Info(Set<String> exact, Set<String> prefix, Set<String> suffix, Set<String> required,
+                     int min, int max) {
+            this.exact = exact;
+            this.prefix = exact != null ? exact : prefix;
+            this.suffix = exact != null ? exact : suffix;
+            this.required = required;
+            this.min = min;
+            this.max = max;
+        }
+
+        static Info empty() {
+            return new Info(ANY, null, null, null, 0, 0);
+        }
+
+        static Info literal(String text) {
+            return new Info(Collections.singleton(foldCase(text)), null, null, null, text.length(), text.length());
+        }
+
+        static Info exactSet(Set<String> members, int min, int max) {
+            Set<String> folded = new LinkedHashSet<>();
+            for (String member : members) {
+                folded.add(foldCase(member));
+            }
+            return new Info(folded, null, null, null, min, max);
+        }
+
+        static Info anyChar(int min, int max) {
+            return new Info(null, ANY, ANY, null, min, max);
+        }
+
+        /**
+         * 任意一个码点，增补平面字符占2个UTF-16字符
+         */
+        static Info anyCodePoint() {
+            return anyChar(1, 2);
+        }
+
+        /**
+         * 当前子表达式最好的必需因子集合
+         */
+        Set<String> factors() {
+            Set<String> best = usable(required);
+            best = better(best, usable(exact));
+            best = better(best, usable(prefix));
+            return better(best, usable(suffix));
+        }
+
+        static Info concat(Info a, Info b) {
+            Set<String> exact = (a.exact != null && b.exact != null) ? cross(a.exact, b.exact) : null;
+
+            // a可枚举时前缀可以向后延伸到b的前缀，否则沿用a的前缀
+            Set<String> prefix = a.prefix;
+            if (a.exact != null) {
+                Set<String> extended = cross(a.exact, b.prefix);
+                prefix = extended != null ? extended : a.exact;
+            }
+            Set<String> suffix = b.suffix;
+            if (b.exact != null) {
+                Set<String> extended = cross(a.suffix, b.exact);
+                suffix = extended != null ? extended : b.exact;
+            }
+
+            // a的后缀与b的前缀在连接处拼成的字面量同样是必需的
+            Set<String> required = better(a.factors(), b.factors());
+            required = better(required, usable(cross(a.suffix, b.prefix)));
+
+            return new Info(exact, prefix, suffix, required, addLength(a.min, b.min), addLength(a.max, b.max));
+        }
+
+        static Info alternate(Info a, Info b) {
+            Set<String> exact = (a.exact != null && b.exact != null) ? union(a.exact, b.exact, MAX_EXACT_SET_SIZE) : null;
+            Set<String> prefix = union(a.prefix, b.prefix, MAX_EXACT_SET_SIZE);
+            Set<String> suffix = union(a.suffix, b.suffix, MAX_EXACT_SET_SIZE);
+
+            Set<String> required = null;
+            Set<String> left = a.factors();
+            Set<String> right = b.factors();
+            if (left != null && right != null) {
+                required = union(left, right, MAX_FACTOR_SET_SIZE);
+            }
+
+            int max = (a.max == UNBOUNDED || b.max == UNBOUNDED) ? UNBOUNDED : Math.max(a.max, b.max);
+            return new Info(exact, prefix == null ? ANY : prefix, suffix == null ? ANY : suffix, required,
+                    Math.min(a.min, b.min), max);
+        }
+
+        static Info repeat(Info atom, int min, int max) {
+            int newMin = multiplyLength(atom.min, min);
+            int newMax = (max == UNBOUNDED) ? (atom.max == 0 ? 0 : UNBOUNDED) : multiplyLength(atom.max, max);
+
+            if (min == 0) {
+                // 可出现零次，不存在必需因子
+                Set<String> exact = null;
+                if (max == 1 && atom.exact != null) {
+                    exact = union(atom.exact, ANY, MAX_EXACT_SET_SIZE);
+                }
+                return new Info(exact, ANY, ANY, null, newMin, newMax);
+            }
+
+            Set<String> exact = null;
+            if (min == max && atom.exact != null) {
+                exact = atom.exact;
+                for (int i = 1; i < min && exact != null; i++) {
+                    exact = cross(exact, atom.exact);
+                }
+            }
+            // 首次重复决定前缀，末次重复决定后缀
+            return new Info(exact, atom.prefix, atom.suffix, atom.factors(), newMin, newMax);
+        }
+
+        /**
+         * 笛卡尔积拼接，规模超限时返回null
+         */
+        private static Set<String> cross(Set<String> a, Set<String> b) {
+            if (a.size() * b.size() > MAX_EXACT_SET_SIZE) {
+                return null;
+            }
+            Set<String> result = new LinkedHashSet<>();
+            for (String left : a) {
+                for (String right : b) {
+                    result.add(left + right);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * 并集，规模超限时返回null
+         */
+        private static Set<String> union(Set<String> a, Set<String> b, int limit) {
+            if (a.size() + b.size() > limit) {
+                return null;
+            }
+            Set<String> result = new LinkedHashSet<>(a);
+            result.addAll(b);
+            return result;
+        }
+
+        /**
+         * 只有不含空串的集合才能作为必需因子
+         */
+        private static Set<String> usable(Set<String> set) {
+            return (set == null || set.contains("")) ? null : set;
+        }
+
+        /**
+         * 选择更具选择性的因子集合：最短因子越长越好，长度相同则集合越小越好
+         */
+        private static Set<String> better(Set<String> a, Set<String> b) {
+            if (a == null) {
+                return b;
+            }
+            if (b == null) {
+                return a;
+            }
+            int scoreA = shortest(a);
+            int scoreB = shortest(b);
+            if (scoreA != scoreB) {
+                return scoreA > scoreB ? a : b;
+            }
+            return a.size() <= b.size() ? a : b;
+        }
+
+        private static int shortest(Set<String> set) {
+            int shortest = Integer.MAX_VALUE;
+            for (String s : set) {
+                shortest = Math.min(shortest, s.length());
+            }
+            return shortest;
+        }
+
+        private static String foldCase(String text) {
+            StringBuilder folded = new StringBuilder(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                folded.append(AhoCorasick.foldCase(text.charAt(i)));
+            }
+            return folded.toString();
+        }
+
+        private static int addLength(int a, int b) {
+            if (a == UNBOUNDED || b == UNBOUNDED) {
+                return UNBOUNDED;
+            }
+            long sum = (long) a + b;
+            return sum > MAX_BOUNDED_LENGTH ? UNBOUNDED : (int) sum;
+        }
+
+        private static int multiplyLength(int length, int times) {
+            if (length == UNBOUNDED) {
+                return UNBOUNDED;
+            }
+            long product = (long) length * times;
+            return product > MAX_BOUNDED_LENGTH ? UNBOUNDED : (int) product;
+        }
+    }
+
+    /**
+     * 无法分析的正则结构
+     */
+    private static final class UnsupportedPatternException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedPatternException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * 字面量因子提取结果
+     */
+    public static final class LiteralFactors {
+
+        /**
+         * 无法分析时的结果：无因子、长度无界
+         */
+        static final LiteralFactors UNKNOWN = new LiteralFactors(null, 0, UNBOUNDED);
+
+        // 大小写折叠后的因子列表，空列表表示没有可提取的因子
+        private final List<String> factors;
+        // 最小匹配长度
+        private final int minLength;
+        // 最大匹配长度，UNBOUNDED表示无界
+        private final int maxLength;
+
+        LiteralFactors(Set<String> factors, int minLength, int maxLength) {
+            this.factors = factors == null
+                    ? Collections.<String>emptyList()
+                    : Collections.unmodifiableList(new ArrayList<>(factors));
+            this.minLength = minLength;
+            this.maxLength = maxLength;
+        }
+
+        public List<String> getFactors() {
+            return factors;
+        }
+
+        public int getMinLength() {
+            return minLength;
+        }
+
+        public int getMaxLength() {
+            return maxLength;
+        }
+
+        /**
+         * 是否可以通过字面量预过滤
+         */
+        public boolean isFilterable() {
+            return !factors.isEmpty();
+        }
+
+        /**
+         * 最大匹配长度是否有界
+         */
+        public boolean isBounded() {
+            return maxLength != UNBOUNDED;
+        }
+
+        @Override
+        public String toString() {
+            return "LiteralFactors{factors=" + factors + ", minLength=" + minLength + ", maxLength=" + maxLength + "}";
+        }
+    }
+}
@@ -0,0 +1,724 @@
+package com.sensitive.data.util.regex;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * 正则表达式执行代价分析器，在规则创建和更新时拦截易发生灾难性回溯的正则
+ *
+ * 分析分两步：
+ * 1. 静态结构分析：识别嵌套量词（如(a+)+）、量词作用下有歧义的分支（如(a|ab)*）以及无界重复，
+ *    据此估算最坏情况的复杂度等级（线性/多项式/指数）；
+ * 2. 对抗性基准测试：根据正则中的字面量构造一组"长前缀+失败字符"的输入，在带预算的输入上
+ *    实际执行匹配，统计每个输入字符平均消耗的字符访问次数。
+ * 静态判定为指数级或基准测试超出预算的规则视为超预算。
+ */
+public class RegexCostAnalyzer {
+
+    /**
+     * 最坏情况复杂度等级
+     */
+    public enum Complexity {
+        /**
+         * 线性或近似线性
+         */
+        LINEAR,
+
+        /**
+         * 多项式级回溯
+         */
+        POLYNOMIAL,
+
+        /**
+         * 指数级回溯
+         */
+        EXPONENTIAL
+    }
+
+    // 基准测试使用的填充字符，覆盖数字、字母、空白、标点和中文
+    private static final char[] PUMP_CHARS = {'a', 'A', '0', ' ', '_', '-', '.', '@', '中'};
+
+    // 从正则中额外选取的字面量填充字符数量上限
+    private static final int MAX_LITERAL_PUMP_CHARS = 8;
+
+    // 判定字符类是否重叠时使用的样本字符
+    private static final String OVERLAP_SAMPLE_CHARS =
+            "aAzZ09_ -.@:：,，/\\\t\n!#$%&*+=?^`|~'\"()[]{}<>中文号码　";
+
+    // 无界标记
+    private static final int UNBOUNDED = -1;
+
+    // 无界重复计数的上限，固定次数重复展开后防止溢出
+    private static final int MAX_UNBOUNDED_COUNT = 1 << 16;
+
+    // 对抗串长度
+    private final int benchmarkLength;
+
+    // 每个输入字符允许的最大字符访问次数
+    private final long maxStepsPerChar;
+
+    // 单个对抗串允许的最长执行时间（纳秒）
+    private final long maxNanosPerInput;
+
+    /**
+     * 构造函数
+     *
+     * @param benchmarkLength 对抗串长度
+     * @param maxStepsPerChar 每个输入字符允许的最大字符访问次数
+     * @param maxNanosPerInput 单个对抗串允许的最长执行时间（纳秒）
+     */
+    public RegexCostAnalyzer(int benchmarkLength, long maxStepsPerChar, long maxNanosPerInput) {
+        this.benchmarkLength = benchmarkLength;
+        this.maxStepsPerChar = maxStepsPerChar;
+        this.maxNanosPerInput = maxNanosPerInput;
+    }
+
+    /**
+     * 分析正则表达式的执行代价
+     *
+     * @param regex 正则表达式
+     * @return 代价分析报告
+     */
+    public CostReport analyze(String regex) {
+        if (regex == null || regex.isEmpty()) {
+            return CostReport.invalid("正则表达式为空");
+        }
+
+        Pattern pattern;
+        try {
+            pattern = Pattern.compile(regex);
+        } catch (PatternSyntaxException e) {
+            return CostReport.invalid(e.getDescription());
+        }
+
+        StructureScanner scanner = new StructureScanner(regex);
+        scanner.scan();
+
+        Complexity complexity;
+        if (scanner.exponential) {
+            complexity = Complexity.EXPONENTIAL;
+        } else if (scanner.unboundedCount >= 2) {
+            complexity = Complexity.POLYNOMIAL;
+        } else {
+            complexity = Complexity.LINEAR;
+        }
+
+        // find()本身会从每个起点尝试一次，因此多项式次数为无界量词数加一；线性为1，指数级为0
+        int degree;
+        if (complexity == Complexity.POLYNOMIAL) {
+            degree = scanner.unboundedCount + 1;
+        } else {
+            degree = complexity == Complexity.LINEAR ? 1 : 0;
+        }
+
+        double worstStepsPerChar = 0;
+        String worstInput = null;
+        boolean benchmarkExceeded = false;
+        for (String input : buildAdversarialInputs(regex, scanner.literalChars)) {
+            BudgetedCharSequence guarded = new BudgetedCharSequence(input,
+                    maxStepsPerChar * input.length(), maxNanosPerInput);
+            try {
+                pattern.matcher(guarded).find();
+            } catch (BudgetedCharSequence.BudgetExceededException e) {
+                benchmarkExceeded = true;
+            }
+            double stepsPerChar = (double) guarded.getSteps() / input.length();
+            if (stepsPerChar > worstStepsPerChar || guarded.isExhausted()) {
+                worstStepsPerChar = stepsPerChar;
+                worstInput = input;
+            }
+            if (benchmarkExceeded) {
+                break;
+            }
+        }
+
+        List<String> issues = new ArrayList<>(scanner.issues);
+        if (benchmarkExceeded) {
+            issues.add("对抗性输入的执行代价超出预算（每字符" + maxStepsPerChar + "次字符访问）");
+        }
+
+        boolean overBudget = complexity == Complexity.EXPONENTIAL || benchmarkExceeded;
+        return new CostReport(true, null, complexity, degree, issues, worstStepsPerChar,
+                worstInput, overBudget);
+    }
+
+    /**
+     * 构造对抗性输入：在填充字符串前加上正则的字面量因子，末尾追加使匹配失败的字符
+     */
+    private List<String> buildAdversarialInputs(String regex, Set<Character> literalChars) {
+        Set<Character> pumps = new LinkedHashSet<>();
+        for (char c : PUMP_CHARS) {
+            pumps.add(c);
+        }
+        int added = 0;
+        for (Character c : literalChars) {
+            if (added++ >= MAX_LITERAL_PUMP_CHARS) {
+                break;
+            }
+            pumps.add(c);
+        }
+
+        List<String> prefixes = new ArrayList<>();
+        prefixes.add("");
+        prefixes.addAll(LiteralFactorExtractor.extract(regex).getFactors());
+
+        List<String> inputs = new ArrayList<>();
+        for (String prefix : prefixes) {
+            for (Character pump : pumps) {
+                StringBuilder sb = new StringBuilder(prefix.length() + benchmarkLength + 1);
+                sb.append(prefix);
+                for (int i = 0; i < benchmarkLength; i++) {
+                    sb.append(pump.charValue());
+                }
+                // 末尾追加一个罕见字符，迫使匹配在尽可能多的路径上失败回溯
+                sb.append('\u0001');
+                inputs.add(sb.toString());
+            }
+        }
+        return inputs;
+    }
+
+    /**
+     * 正则结构扫描器，识别嵌套量词、歧义分支和无界重复
+     */
+    private static final class StructureScanner {
+
+        private final String regex;
+        private int pos;
+
+        // 扫描结果
+        private final List<String> issues = new ArrayList<>();
+        private final Set<Character> literalChars = new LinkedHashSet<>();
+        private boolean exponential;
+        private int unboundedCount;
+
+        StructureScanner(String regex) {
+            this.regex = regex;
+        }
+
+        void scan() {
+            Deque<Frame> stack = new ArrayDeque<>();
+            stack.push(new Frame());
+            // 最近一个可被量词修饰的原子：分组帧或首字符描述
+            Frame lastGroup = null;
+            boolean hasLastAtom = false;
+
+            while (pos < regex.length()) {
+                char c = regex.charAt(pos);
+                Frame frame = stack.peek();
+
+                if (c == '(') {
+                    if (skipInlineFlags()) {
+                        continue;
+                    }
+                    Frame child = new Frame();
+                    child.lookaround = skipGroupPrefix();
+                    frame.recordFirst(null);
+                    stack.push(child);
+                    hasLastAtom = false;
+                    lastGroup = null;
+                } else if (c == ')') {
+                    pos++;
+                    if (stack.size() > 1) {
+                        Frame closed = stack.pop();
+                        stack.peek().containsVariable |= closed.containsVariable;
+                        stack.peek().variableAtoms.addAll(closed.variableAtoms);
+                        stack.peek().unboundedCount += closed.unboundedCount;
+                        lastGroup = closed;
+                        hasLastAtom = true;
+                    }
+                } else if (c == '|') {
+                    pos++;
+                    frame.newBranch();
+                    hasLastAtom = false;
+                    lastGroup = null;
+                } else if (c == '*' || c == '+' || c == '?' || c == '{') {
+                    int[] bounds = parseQuantifier();
+                    if (bounds == null) {
+                        // 非量词的'{'按字面量处理
+                        frame.recordFirst(String.valueOf(c));
+                        frame.recordAtom(String.valueOf(c));
+                        literalChars.add(c);
+                        pos++;
+                        hasLastAtom = true;
+                        lastGroup = null;
+                        continue;
+                    }
+                    if (hasLastAtom) {
+                        applyQuantifier(frame, lastGroup, bounds[0], bounds[1]);
+                    }
+                    hasLastAtom = false;
+                    lastGroup = null;
+                } else {
+                    String atom = readAtom();
+                    frame.recordFirst(atom);
+                    frame.recordAtom(atom);
+                    hasLastAtom = true;
+                    lastGroup = null;
+                }
+            }
+        }
+
+        /**
+         * 对最近的原子应用量词，检查嵌套量词和歧义分支
+         */
+        private void applyQuantifier(Frame frame, Frame group, int min, int max) {
+            boolean unbounded = max == UNBOUNDED;
+            boolean variable = unbounded || min != max;
+            boolean repeats = unbounded || max > 1;
+
+            if (group != null && repeats && variable) {
+                // 分组内有可变部分无法匹配的必需分隔符（如(\d{1,3}\.)+中的\.）时，每次重复的边界是确定的，
+                // 不会在重复之间重新划分字符，由基准测试判定实际代价
+                if (group.containsVariable && !group.isDelimited()) {
+                    exponential = true;
+                    issues.add("嵌套量词：可变长度的分组被重复量词修饰，可能导致指数级回溯");
+                }
+                if (group.isAmbiguous()) {
+                    exponential = true;
+                    issues.add("歧义分支：被重复的分组中存在可匹配相同字符的分支，可能导致指数级回溯");
+                }
+            } else if (group != null && repeats && group.unboundedCount > 0) {
+                // 固定次数重复展开后，分组内的每个无界重复都出现max次，如(.*a){20}相当于20个.*相连
+                issues.add("嵌套量词：包含无界重复的分组被重复" + max + "次，最坏情况为多项式级回溯");
+                addUnbounded(frame, (long) group.unboundedCount * (max - 1));
+            }
+            if (unbounded) {
+                addUnbounded(frame, 1);
+            }
+            if (variable) {
+                frame.containsVariable = true;
+            }
+            if (group == null) {
+                frame.quantifyLastAtom(min, variable);
+            } else if (variable) {
+                // 被重复的分组能匹配的字符未知，按可与任意分隔符重叠处理
+                frame.variableAtoms.add(null);
+            }
+        }
+
+        /**
+         * 累加无界重复的数量，达到两个时记录多项式回溯问题
+         */
+        private void addUnbounded(Frame frame, long count) {
+            boolean wasSingle = unboundedCount < 2;
+            unboundedCount = (int) Math.min(MAX_UNBOUNDED_COUNT, unboundedCount + count);
+            frame.unboundedCount = (int) Math.min(MAX_UNBOUNDED_COUNT, frame.unboundedCount + count);
+            if (wasSingle && unboundedCount >= 2) {
+                issues.add("多个无界重复（*、+、{n,}），最坏情况为多项式级回溯，建议改为有界重复");
+            }
+        }
+
+        /**
+         * 读取一个非分组原子，返回其首字符描述（字面量为字符本身，字符类为类表达式）
+         */
+        private String readAtom() {
+            char c = regex.charAt(pos);
+            if (c == '[') {
+                int start = pos;
+                skipCharClass();
+                return "[" + regex.substring(start + 1, pos);
+            }
+            if (c == '\\') {
+                int start = pos;
+                char e = regex.charAt(pos + 1);
+                pos += 2;
+                if (e == 'Q') {
+                    int end = regex.indexOf("\\E", pos);
+                    String quoted = end < 0 ? regex.substring(pos) : regex.substring(pos, end);
+                    pos = end < 0 ? regex.length() : end + 2;
+                    for (char q : quoted.toCharArray()) {
+                        literalChars.add(q);
+                    }
+                    return quoted.isEmpty() ? null : String.valueOf(quoted.charAt(0));
+                }
+                if (e == 'p' || e == 'P') {
+                    if (pos < regex.length() && regex.charAt(pos) == '{') {
+                        pos = regex.indexOf('}', pos) + 1;
+                    } else {
+                        pos++;
+                    }
+                    return "[" + regex.substring(start, pos) + "]";
+                }
+                if (e == 'x' || e == 'u' || e == '0' || Character.isDigit(e) || e == 'k' || e == 'c') {
+                    // 编码字符、反向引用等：按任意字符保守处理
+                    while (pos < regex.length() && (Character.isLetterOrDigit(regex.charAt(pos))
+                            || regex.charAt(pos) == '{' || regex.charAt(pos) == '}'
+                            || regex.charAt(pos) == '<' || regex.charAt(pos) == '>')) {
+                        pos++;
+                    }
+                    return ".";
+                }
+                if ("bBAzZG".indexOf(e) >= 0) {
+                    return null;
+                }
+                if (Character.isLetter(e)) {
+                    return "[" + regex.substring(start, pos) + "]";
+                }
+                literalChars.add(e);
+                // 保留转义，避免\.被当作任意字符
+                return "\\" + e;
+            }
+            pos++;
+            if (c == '.') {
+                return ".";
+            }
+            if (c == '^' || c == '$') {
+                return null;
+            }
+            literalChars.add(c);
+            return String.valueOf(c);
+        }
+
+        /**
+         * 跳过(?i)这类独立的内联标志，返回是否跳过
+         */
+        private boolean skipInlineFlags() {
+            if (pos + 1 < regex.length() && regex.charAt(pos + 1) == '?') {
+                int i = pos + 2;
+                while (i < regex.length() && (Character.isLetter(regex.charAt(i)) || regex.charAt(i) == '-')) {
+                    i++;
+                }
+                if (i > pos + 2 && i < regex.length() && regex.charAt(i) == ')') {
+                    pos = i + 1;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 跳过分组前缀（如(?:、(?<name>、(?=），返回是否为零宽断言
+         */
+        private boolean skipGroupPrefix() {
+            pos++; // 跳过'('
+            if (pos >= regex.length() || regex.charAt(pos) != '?') {
+                return false;
+            }
+            pos++;
+            char c = regex.charAt(pos);
+            if (c == '=' || c == '!') {
+                pos++;
+                return true;
+            }
+            if (c == '<') {
+                char next = regex.charAt(pos + 1);
+                if (next == '=' || next == '!') {
+                    pos += 2;
+                    return true;
+                }
+                pos = regex.indexOf('>', pos) + 1;
+                return false;
+            }
+            // (?:、(?>、(?i:
+            while (pos < regex.length() && regex.charAt(pos) != ':' && regex.charAt(pos) != '>') {
+                pos++;
+            }
+            pos++;
+            return false;
+        }
+
+        /**
+         * 解析量词，返回{min, max}，不是合法量词时返回null
+         */
+        private int[] parseQuantifier() {
+            char c = regex.charAt(pos);
+            int[] bounds;
+            if (c == '*') {
+                bounds = new int[]{0, UNBOUNDED};
+                pos++;
+            } else if (c == '+') {
+                bounds = new int[]{1, UNBOUNDED};
+                pos++;
+            } else if (c == '?') {
+                bounds = new int[]{0, 1};
+                pos++;
+            } else {
+                int close = regex.indexOf('}', pos);
+                if (close < 0) {
+                    return null;
+                }
+                String body = regex.substring(pos + 1, close);
+                try {
+                    int comma = body.indexOf(',');
+                    if (comma < 0) {
+                        int n = Integer.parseInt(body.trim());
+                        bounds = new int[]{n, n};
+                    } else {
+                        String upper = body.substring(comma + 1).trim();
+                        bounds = new int[]{Integer.parseInt(body.substring(0, comma).trim()),
+                                upper.isEmpty() ? UNBOUNDED : Integer.parseInt(upper)};
+                    }
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+                pos = close + 1;
+            }
+            // 惰性或占有修饰符；占有量词不回溯，这里仍保守处理
+            if (pos < regex.length() && (regex.charAt(pos) == '?' || regex.charAt(pos) == '+')) {
+                pos++;
+            }
+            return bounds;
+        }
+
+        private void skipCharClass() {
+            pos++; // 跳过'['
+            if (pos < regex.length() && regex.charAt(pos) == '^') {
+                pos++;
+            }
+            boolean first = true;
+            int depth = 1;
+            while (depth > 0 && pos < regex.length()) {
+                char c = regex.charAt(pos);
+                if (c == '\\') {
+                    pos += 2;
+                } else if (c == '[') {
+                    depth++;
+                    pos++;
+                } else if (c == ']' && !first) {
+                    depth--;
+                    pos++;
+                } else {
+                    pos++;
+                }
+                first = false;
+            }
+        }
+    }
+
+    /**
+     * 分组扫描帧，记录分支首字符和是否包含可变长度量词
+     */
+    private static final class Frame {
+        // 各分支的首字符描述，null表示未知或可为空
+        private final List<String> branchFirsts = new ArrayList<>();
+        // 当前分支是否已记录首字符
+        private boolean firstRecorded;
+        // 分组内是否包含可变长度的量词
+        private boolean containsVariable;
+        // 分组内（含子分组）被可变次数重复的原子描述，null表示未知
+        private final List<String> variableAtoms = new ArrayList<>();
+        // 各分支中必须出现一次的原子描述（未被量词修饰或最少出现一次）
+        private final List<List<String>> branchMandatory = new ArrayList<>();
+        // 当前分支最近一个原子是否已记为必需原子
+        private boolean lastAtomMandatory;
+        // 分组内的无界重复数量（固定次数重复按展开后计）
+        private int unboundedCount;
+        // 是否为零宽断言
+        private boolean lookaround;
+
+        Frame() {
+            branchFirsts.add(null);
+            branchMandatory.add(new ArrayList<>());
+        }
+
+        void recordFirst(String first) {
+            if (!firstRecorded) {
+                branchFirsts.set(branchFirsts.size() - 1, first);
+                firstRecorded = true;
+            }
+        }
+
+        void newBranch() {
+            branchFirsts.add(null);
+            branchMandatory.add(new ArrayList<>());
+            firstRecorded = false;
+            lastAtomMandatory = false;
+        }
+
+        /**
+         * 记录一个非分组原子，在被量词修饰前视为必需
+         */
+        void recordAtom(String atom) {
+            lastAtomMandatory = atom != null;
+            if (lastAtomMandatory) {
+                branchMandatory.get(branchMandatory.size() - 1).add(atom);
+            }
+        }
+
+        /**
+         * 最近的非分组原子被量词修饰：可出现零次时不再是必需原子，次数可变时记为可变原子
+         */
+        void quantifyLastAtom(int min, boolean variable) {
+            if (!lastAtomMandatory) {
+                return;
+            }
+            List<String> mandatory = branchMandatory.get(branchMandatory.size() - 1);
+            String atom = mandatory.get(mandatory.size() - 1);
+            if (min == 0) {
+                mandatory.remove(mandatory.size() - 1);
+            }
+            if (variable) {
+                variableAtoms.add(atom);
+            }
+            lastAtomMandatory = false;
+        }
+
+        /**
+         * 每个分支都有与所有可变原子都不重叠的必需原子，可变部分无法越过它匹配到下一次重复
+         */
+        boolean isDelimited() {
+            for (List<String> mandatory : branchMandatory) {
+                boolean delimited = false;
+                for (String atom : mandatory) {
+                    if (!overlapsAny(atom)) {
+                        delimited = true;
+                        break;
+                    }
+                }
+                if (!delimited) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean overlapsAny(String atom) {
+            for (String variable : variableAtoms) {
+                if (overlaps(atom, variable)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 任意两个分支的首字符可能相同则认为有歧义
+         */
+        boolean isAmbiguous() {
+            if (lookaround || branchFirsts.size() < 2) {
+                return false;
+            }
+            for (int i = 0; i < branchFirsts.size(); i++) {
+                for (int j = i + 1; j < branchFirsts.size(); j++) {
+                    if (overlaps(branchFirsts.get(i), branchFirsts.get(j))) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private static boolean overlaps(String a, String b) {
+            // 空分支或首字符未知（以分组开头）时保守地认为重叠
+            if (a == null || b == null) {
+                return true;
+            }
+            if (a.length() == 1 && b.length() == 1 && !".".equals(a) && !".".equals(b)) {
+                return a.equals(b);
+            }
+            Pattern left;
+            Pattern right;
+            try {
+                left = toPattern(a);
+                right = toPattern(b);
+            } catch (PatternSyntaxException e) {
+                return true;
+            }
+            // 用样本字符近似判断两个首字符集合是否有交集
+            for (int i = 0; i < OVERLAP_SAMPLE_CHARS.length(); i++) {
+                String sample = String.valueOf(OVERLAP_SAMPLE_CHARS.charAt(i));
+                if (left.matcher(sample).matches() && right.matcher(sample).matches()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static Pattern toPattern(String first) {
+            if (".".equals(first)) {
+                return Pattern.compile(".", Pattern.DOTALL);
+            }
+            return first.length() == 1 ? Pattern.compile(Pattern.quote(first)) : Pattern.compile(first);
+        }
+    }
+
+    /**
+     * 代价分析报告
+     */
+    public static class CostReport {
+        // 正则语法是否有效
+        private final boolean valid;
+        // 语法错误描述
+        private final String error;
+        // 最坏情况复杂度等级
+        private final Complexity complexity;
+        // 多项式复杂度的估计次数（线性时为1，指数级时为0）
+        private final int polynomialDegree;
+        // 发现的问题描述
+        private final List<String> issues;
+        // 对抗性输入上每个字符的最大字符访问次数
+        private final double worstStepsPerChar;
+        // 代价最高的对抗性输入
+        private final String worstInput;
+        // 是否超出预算
+        private final boolean overBudget;
+
+        CostReport(boolean valid, String error, Complexity complexity, int polynomialDegree, List<String> issues,
+                   double worstStepsPerChar, String worstInput, boolean overBudget) {
+            this.valid = valid;
+            this.error = error;
+            this.complexity = complexity;
+            this.polynomialDegree = polynomialDegree;
+            this.issues = Collections.unmodifiableList(issues);
+            this.worstStepsPerChar = worstStepsPerChar;
+            this.worstInput = worstInput;
+            this.overBudget = overBudget;
+        }
+
+        static CostReport invalid(String error) {
+            return new CostReport(false, error, null, 0, Collections.<String>emptyList(), 0, null, true);
+        }
+
+        public boolean isValid() {
+            return valid;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public Complexity getComplexity() {
+            return complexity;
+        }
+
+        public int getPolynomialDegree() {
+            return polynomialDegree;
+        }
+
+        public List<String> getIssues() {
+            return issues;
+        }
+
+        public double getWorstStepsPerChar() {
+            return worstStepsPerChar;
+        }
+
+        public String getWorstInput() {
+            return worstInput;
+        }
+
+        public boolean isOverBudget() {
+            return overBudget;
+        }
+
+        @Override
+        public String toString() {
+            return "CostReport{valid=" + valid +
+                    (error != null ? ", error='" + error + '\'' : "") +
+                    ", complexity=" + complexity +
+                    ", polynomialDegree=" + polynomialDegree +
+                    ", issues=" + issues +
+                    ", worstStepsPerChar=" + String.format("%.2f", worstStepsPerChar) +
+                    ", overBudget=" + overBudget +
+                    '}';
+        }
+    }
+}
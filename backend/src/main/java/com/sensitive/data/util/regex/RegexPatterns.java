@@ -1,5 +1,6 @@
 package com.sensitive.data.util.regex;
 
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.regex.Pattern;
@@ -13,6 +14,10 @@ public class RegexPatterns {
     
     private static final Map<SensitiveDataType, Pattern> PATTERNS = new HashMap<>();
     
+    // 纯数字类正则的每次匹配都落在一个数字串区域内（数字串之间至多间隔一个空格或连字符），
+    // 这里记录匹配至少包含的数字个数，数字不足的区域无需执行对应正则
+    private static final Map<SensitiveDataType, Integer> MIN_DIGITS = new EnumMap<>(SensitiveDataType.class);
+    
     static {
         // 身份证号：支持15位和18位，最后一位可能是X，使用严格的边界匹配
         // 15位：[1-9]\d{5}\d{2}(0[1-9]|1[0-2])(0[1-9]|[12]\d|3[01])\d{3}
@@ -64,6 +69,11 @@ public class RegexPatterns {
         // 用户名：字母开头，允许字母、数字、下划线，长度4-20，使用严格的边界匹配
         PATTERNS.put(SensitiveDataType.USERNAME, 
                 Pattern.compile("(?<!\\w)[A-Za-z][A-Za-z0-9_]{3,19}(?!\\w)"));
+        
+        MIN_DIGITS.put(SensitiveDataType.PHONE_NUMBER, 11);
+        MIN_DIGITS.put(SensitiveDataType.ID_CARD, 15);
+        MIN_DIGITS.put(SensitiveDataType.BANK_CARD, 13);
+        MIN_DIGITS.put(SensitiveDataType.CREDIT_CARD, 16);
     }
     
     /**
@@ -79,4 +89,13 @@ public class RegexPatterns {
     public static boolean isSupported(SensitiveDataType type) {
         return PATTERNS.containsKey(type);
     }
+    
+    /**
+     * 获取纯数字类正则的一次匹配至少包含的数字个数
+     * @return 数字个数，不是纯数字类正则时返回0
+     */
+    public static int getMinDigits(SensitiveDataType type) {
+        Integer minDigits = MIN_DIGITS.get(type);
+        return minDigits == null ? 0 : minDigits;
+    }
 }
\ No newline at end of file
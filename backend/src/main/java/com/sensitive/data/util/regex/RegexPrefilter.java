@@ -0,0 +1,336 @@
+package com.sensitive.data.util.regex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import com.sensitive.data.model.SensitiveDataRule;
+import com.sensitive.data.model.SensitiveDataType;
+import com.sensitive.data.util.AhoCorasick;
+
+/**
+ * 用户正则规则的字面量预过滤器
+ *
+ * 构建时提取每条规则的字面量因子并统一索引到一个忽略大小写的Aho-Corasick自动机中。
+ * 匹配时先用自动机扫描一遍文本，只有因子出现的规则才会执行完整正则，且仅在因子附近
+ * （由规则的最大匹配长度决定）的区域内执行。没有可提取因子的规则只能全文执行，会被单独记录。
+ */
+public class RegexPrefilter {
+
+    /**
+     * 空的预过滤器
+     */
+    public static final RegexPrefilter EMPTY = new RegexPrefilter(Collections.<SensitiveDataRule>emptyList());
+
+    // 所有成功编译的规则
+    private final List<CompiledRule> compiledRules = new ArrayList<>();
+
+    // 无可提取因子、需要全文执行的规则
+    private final List<CompiledRule> unfilteredRules = new ArrayList<>();
+
+    // 正则语法错误而被跳过的规则
+    private final List<SensitiveDataRule> invalidRules = new ArrayList<>();
+
+    // 因子到规则下标的索引
+    private final Map<String, int[]> factorIndex = new HashMap<>();
+
+    // 因子自动机
+    private final AhoCorasick factorAutomaton;
+
+    // 规则输出的敏感数据类型
+    private final Set<SensitiveDataType> ruleTypes = EnumSet.noneOf(SensitiveDataType.class);
+
+    /**
+     * 构造函数，编译规则并建立因子索引
+     *
+     * @param rules 正则规则列表
+     */
+    public RegexPrefilter(List<SensitiveDataRule> rules) {
+        Map<String, List<Integer>> index = new HashMap<>();
+
+        for (SensitiveDataRule rule : rules) {
+            Pattern pattern;
+            try {
+                pattern = Pattern.compile(rule.getContent());
+            } catch (PatternSyntaxException | NullPointerException e) {
+                invalidRules.add(rule);
+                continue;
+            }
+
+            CompiledRule compiled = new CompiledRule(rule, pattern, LiteralFactorExtractor.extract(rule.getContent()));
+            int ruleIndex = compiledRules.size();
+            compiledRules.add(compiled);
+            if (rule.getSensitiveDataType() != null) {
+                ruleTypes.add(rule.getSensitiveDataType());
+            }
+
+            if (!compiled.factors.isFilterable()) {
+                unfilteredRules.add(compiled);
+                continue;
+            }
+            for (String factor : compiled.factors.getFactors()) {
+                List<Integer> ruleIndexes = index.get(factor);
+                if (ruleIndexes == null) {
+                    ruleIndexes = new ArrayList<>();
+                    index.put(factor, ruleIndexes);
+                }
+                ruleIndexes.add(ruleIndex);
+            }
+        }
+
+        for (Map.Entry<String, List<Integer>> entry : index.entrySet()) {
+            List<Integer> ruleIndexes = entry.getValue();
+            int[] array = new int[ruleIndexes.size()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = ruleIndexes.get(i);
+            }
+            factorIndex.put(entry.getKey(), array);
+        }
+
+        this.factorAutomaton = new AhoCorasick(new ArrayList<>(factorIndex.keySet()), true);
+    }
+
+    /**
+     * 对文本执行所有正则规则
+     *
+     * @param text 待检测文本
+     * @return 规则命中列表
+     */
+    public List<RuleMatch> match(String text) {
+        return match(text, text);
+    }
+
+    /**
+     * 对文本执行所有正则规则，正则匹配在受预算保护的输入上进行
+     *
+     * @param text 待检测文本，用于因子扫描
+     * @param input 与text内容相同的正则输入，通常为{@link BudgetedCharSequence}
+     * @return 规则命中列表，预算耗尽时返回已找到的部分结果
+     */
+    public List<RuleMatch> match(String text, CharSequence input) {
+        if (text == null || text.isEmpty() || compiledRules.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<RuleMatch> results = new ArrayList<>();
+
+        try {
+            // 1. 一次扫描找出所有因子出现的位置，为被触发的规则收集待验证区域
+            List<AhoCorasick.MatchResult> factorHits = factorAutomaton.match(text);
+            if (!factorHits.isEmpty()) {
+                List<int[]>[] regions = collectRegions(text, factorHits);
+                for (int i = 0; i < regions.length; i++) {
+                    if (regions[i] != null) {
+                        verifyRegions(compiledRules.get(i), input, regions[i], results);
+                    }
+                }
+            }
+
+            // 2. 无因子规则只能全文执行
+            for (CompiledRule rule : unfilteredRules) {
+                findAll(rule, rule.pattern.matcher(input), results);
+            }
+        } catch (BudgetedCharSequence.BudgetExceededException e) {
+            // 预算耗尽，放弃剩余规则，保留已找到的结果
+        }
+
+        return results;
+    }
+
+    /**
+     * 根据因子命中位置计算每条规则的待验证区域
+     */
+    @SuppressWarnings("unchecked")
+    private List<int[]>[] collectRegions(String text, List<AhoCorasick.MatchResult> factorHits) {
+        int textLength = text.length();
+        List<int[]>[] regions = new List[compiledRules.size()];
+        boolean[] wholeText = new boolean[compiledRules.size()];
+
+        for (AhoCorasick.MatchResult hit : factorHits) {
+            int[] ruleIndexes = factorIndex.get(hit.getPattern());
+            if (ruleIndexes == null) {
+                continue;
+            }
+            for (int ruleIndex : ruleIndexes) {
+                if (wholeText[ruleIndex]) {
+                    continue;
+                }
+                if (regions[ruleIndex] == null) {
+                    regions[ruleIndex] = new ArrayList<>();
+                }
+
+                LiteralFactorExtractor.LiteralFactors factors = compiledRules.get(ruleIndex).factors;
+                if (!factors.isBounded()) {
+                    // 长度无界的规则只能在全文范围内验证
+                    wholeText[ruleIndex] = true;
+                    regions[ruleIndex].clear();
+                    regions[ruleIndex].add(new int[]{0, textLength});
+                    continue;
+                }
+
+                // 包含该因子的任一匹配都落在[因子结束-最大长度, 因子开始+最大长度]之内
+                int maxLength = factors.getMaxLength();
+                int start = Math.max(0, hit.getEnd() - maxLength);
+                int end = Math.min(textLength, hit.getStart() + maxLength);
+                regions[ruleIndex].add(new int[]{codePointStart(text, start), codePointEnd(text, end)});
+            }
+        }
+        return regions;
+    }
+
+    /**
+     * 区域起点落在代理对中间时前移到代理对开头，避免区域内的匹配从半个字符开始
+     */
+    private static int codePointStart(String text, int index) {
+        if (index > 0 && index < text.length() && Character.isLowSurrogate(text.charAt(index))
+                && Character.isHighSurrogate(text.charAt(index - 1))) {
+            return index - 1;
+        }
+        return index;
+    }
+
+    /**
+     * 区域终点落在代理对中间时后移到代理对结尾，避免截断最后一个字符
+     */
+    private static int codePointEnd(String text, int index) {
+        if (index > 0 && index < text.length() && Character.isLowSurrogate(text.charAt(index))
+                && Character.isHighSurrogate(text.charAt(index - 1))) {
+            return index + 1;
+        }
+        return index;
+    }
+
+    /**
+     * 合并重叠区域后逐个区域执行正则匹配
+     */
+    private void verifyRegions(CompiledRule rule, CharSequence text, List<int[]> regions, List<RuleMatch> results) {
+        // 因子命中按结束位置有序，区域起点基本有序，这里仍做一次排序保证合并正确
+        Collections.sort(regions, (a, b) -> Integer.compare(a[0], b[0]));
+
+        Matcher matcher = rule.pattern.matcher(text);
+        // 透明边界使零宽断言能看到区域外的字符，与全文匹配语义保持一致
+        matcher.useTransparentBounds(true);
+        matcher.useAnchoringBounds(false);
+
+        int currentStart = regions.get(0)[0];
+        int currentEnd = regions.get(0)[1];
+        for (int i = 1; i < regions.size(); i++) {
+            int[] region = regions.get(i);
+            if (region[0] <= currentEnd) {
+                currentEnd = Math.max(currentEnd, region[1]);
+            } else {
+                matcher.region(currentStart, currentEnd);
+                findAll(rule, matcher, results);
+                currentStart = region[0];
+                currentEnd = region[1];
+            }
+        }
+        matcher.region(currentStart, currentEnd);
+        findAll(rule, matcher, results);
+    }
+
+    private void findAll(CompiledRule rule, Matcher matcher, List<RuleMatch> results) {
+        while (matcher.find()) {
+            if (matcher.end() > matcher.start()) {
+                results.add(new RuleMatch(rule.rule, matcher.start(), matcher.end()));
+            }
+        }
+    }
+
+    /**
+     * 获取没有可提取字面量因子、需要全文执行的规则，供规则作者优化
+     *
+     * @return 规则列表
+     */
+    public List<SensitiveDataRule> getUnfilteredRegexRules() {
+        List<SensitiveDataRule> rules = new ArrayList<>(unfilteredRules.size());
+        for (CompiledRule rule : unfilteredRules) {
+            rules.add(rule.rule);
+        }
+        return rules;
+    }
+
+    /**
+     * 获取因语法错误被跳过的规则
+     *
+     * @return 规则列表
+     */
+    public List<SensitiveDataRule> getInvalidRules() {
+        return Collections.unmodifiableList(invalidRules);
+    }
+
+    /**
+     * 获取规则输出的敏感数据类型，用于判断某次检测是否需要执行用户正则规则
+     *
+     * @return 类型集合
+     */
+    public Set<SensitiveDataType> getRuleTypes() {
+        return Collections.unmodifiableSet(ruleTypes);
+    }
+
+    /**
+     * 获取成功编译的规则数量
+     *
+     * @return 规则数量
+     */
+    public int getRuleCount() {
+        return compiledRules.size();
+    }
+
+    /**
+     * 编译后的正则规则
+     */
+    private static class CompiledRule {
+        private final SensitiveDataRule rule;
+        private final Pattern pattern;
+        private final LiteralFactorExtractor.LiteralFactors factors;
+
+        CompiledRule(SensitiveDataRule rule, Pattern pattern, LiteralFactorExtractor.LiteralFactors factors) {
+            this.rule = rule;
+            this.pattern = pattern;
+            this.factors = factors;
+        }
+    }
+
+    /**
+     * 规则命中结果
+     */
+    public static class RuleMatch {
+        // 命中的规则
+        private final SensitiveDataRule rule;
+        // 匹配的起始位置（包含）
+        private final int start;
+        // 匹配的结束位置（不包含）
+        private final int end;
+
+        public RuleMatch(SensitiveDataRule rule, int start, int end) {
+            this.rule = rule;
+            this.start = start;
+            this.end = end;
+        }
+
+        public SensitiveDataRule getRule() {
+            return rule;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        @Override
+        public String toString() {
+            return "RuleMatch{rule=" + rule.getId() + ", start=" + start + ", end=" + end + "}";
+        }
+    }
+}
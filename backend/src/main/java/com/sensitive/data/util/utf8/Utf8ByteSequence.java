@@ -0,0 +1,132 @@
+package com.sensitive.data.util.utf8;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * UTF-8字节数组的ASCII投影视图，供结构化正则直接在字节上执行
+ *
+ * 下标为字节偏移：ASCII字节原样返回，多字节字符的每个字节返回一个占位字符。
+ * 占位字符按原字符的类别选取（字母或数字返回一个汉字，其余返回全角空格），
+ * 对只消费ASCII字符的正则而言，\w、\d、\b和前后断言在投影上的判定与原文一致，
+ * 因此匹配结果只需把字节偏移换算为字符偏移。视图不复制字节数组。
+ */
+public final class Utf8ByteSequence implements CharSequence {
+
+    // 字母或数字类多字节字符的占位符：不属于\w，但Character.isLetterOrDigit为true
+    static final char LETTER_PLACEHOLDER = '\u4E00';
+
+    // 其他多字节字符的占位符：既不属于\w，也不是字母或数字
+    static final char OTHER_PLACEHOLDER = '\u3000';
+
+    private final byte[] bytes;
+    private final int offset;
+    private final int length;
+
+    public Utf8ByteSequence(byte[] bytes) {
+        this(bytes, 0, bytes.length);
+    }
+
+    public Utf8ByteSequence(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        byte b = bytes[offset + index];
+        if (b >= 0) {
+            return (char) b;
+        }
+        return Character.isLetterOrDigit(codePointAt(bytes, offset + index))
+                ? LETTER_PLACEHOLDER : OTHER_PLACEHOLDER;
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new Utf8ByteSequence(bytes, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, offset, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 解码指定字节所属字符的码点，向前最多回溯3个续字节找到首字节
+     */
+    static int codePointAt(byte[] bytes, int index) {
+        int lead = index;
+        while (lead > 0 && index - lead < 3 && (bytes[lead] & 0xC0) == 0x80) {
+            lead--;
+        }
+        int b0 = bytes[lead] & 0xFF;
+        if (b0 < 0x80) {
+            return b0;
+        }
+        if (b0 >= 0xF0 && lead + 3 < bytes.length) {
+            return ((b0 & 0x07) << 18) | ((bytes[lead + 1] & 0x3F) << 12)
+                    | ((bytes[lead + 2] & 0x3F) << 6) | (bytes[lead + 3] & 0x3F);
+        }
+        if (b0 >= 0xE0 && lead + 2 < bytes.length) {
+            return ((b0 & 0x0F) << 12) | ((bytes[lead + 1] & 0x3F) << 6) | (bytes[lead + 2] & 0x3F);
+        }
+        if (b0 >= 0xC0 && lead + 1 < bytes.length) {
+            return ((b0 & 0x1F) << 6) | (bytes[lead + 1] & 0x3F);
+        }
+        return 0xFFFD;
+    }
+
+    /**
+     * 检查字节数组是否为合法的UTF-8编码（拒绝过长编码、代理区码点和超出范围的码点）
+     *
+     * @param bytes 字节数组
+     * @return 是否合法
+     */
+    public static boolean isWellFormed(byte[] bytes) {
+        int i = 0;
+        int n = bytes.length;
+        while (i < n) {
+            int b0 = bytes[i] & 0xFF;
+            if (b0 < 0x80) {
+                i++;
+                continue;
+            }
+            int len;
+            int min;
+            if (b0 >= 0xC2 && b0 <= 0xDF) {
+                len = 2;
+                min = 0x80;
+            } else if (b0 >= 0xE0 && b0 <= 0xEF) {
+                len = 3;
+                min = 0x800;
+            } else if (b0 >= 0xF0 && b0 <= 0xF4) {
+                len = 4;
+                min = 0x10000;
+            } else {
+                return false;
+            }
+            if (i + len > n) {
+                return false;
+            }
+            int cp = b0 & (0xFF >> (len + 1));
+            for (int k = 1; k < len; k++) {
+                int b = bytes[i + k] & 0xFF;
+                if ((b & 0xC0) != 0x80) {
+                    return false;
+                }
+                cp = (cp << 6) | (b & 0x3F);
+            }
+            if (cp < min || cp > 0x10FFFF || (cp >= 0xD800 && cp <= 0xDFFF)) {
+                return false;
+            }
+            i += len;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,135 @@
+package com.sensitive.data.util.utf8;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sensitive.data.util.AhoCorasick;
+
+/**
+ * 字节级关键词匹配器，直接在UTF-8字节上执行多模式匹配
+ *
+ * 关键词的UTF-8字节序列固定，把每个字节映射为0-255的字符后构建Aho-Corasick自动机，
+ * 扫描时以同样的映射读取字节，自动机的字母表即为字节。UTF-8是自同步编码，
+ * 合法输入中关键词字节序列只会在字符边界上命中。匹配结果中的位置为字节偏移，模式串为原关键词。
+ */
+public final class Utf8KeywordMatcher {
+
+    private final AhoCorasick automaton;
+
+    // 字节映射后的模式串到原关键词
+    private final Map<String, String> keywordsByPattern = new HashMap<>();
+
+    /**
+     * 构造函数
+     *
+     * @param keywords 关键词
+     */
+    public Utf8KeywordMatcher(Collection<String> keywords) {
+        this(keywords, false);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param keywords 关键词
+     * @param ignoreCase 是否忽略大小写，按字节映射后的字符折叠，可能把少量非ASCII字节视为相同，只适合做预判
+     */
+    public Utf8KeywordMatcher(Collection<String> keywords, boolean ignoreCase) {
+        List<String> patterns = new ArrayList<>(keywords.size());
+        for (String keyword : keywords) {
+            if (keyword == null || keyword.isEmpty()) {
+                continue;
+            }
+            byte[] encoded = keyword.getBytes(StandardCharsets.UTF_8);
+            char[] chars = new char[encoded.length];
+            for (int i = 0; i < encoded.length; i++) {
+                chars[i] = (char) (encoded[i] & 0xFF);
+            }
+            String pattern = new String(chars);
+            if (ignoreCase) {
+                for (int i = 0; i < chars.length; i++) {
+                    chars[i] = AhoCorasick.foldCase(chars[i]);
+                }
+                keywordsByPattern.put(new String(chars), keyword);
+            } else {
+                keywordsByPattern.put(pattern, keyword);
+            }
+            patterns.add(pattern);
+        }
+        this.automaton = new AhoCorasick(patterns, ignoreCase);
+    }
+
+    /**
+     * 匹配UTF-8字节，返回所有命中
+     *
+     * @param bytes UTF-8字节
+     * @return 匹配结果，位置为字节偏移
+     */
+    public List<AhoCorasick.MatchResult> match(byte[] bytes) {
+        List<AhoCorasick.MatchResult> hits = automaton.match(new ByteChars(bytes));
+        if (hits.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<AhoCorasick.MatchResult> results = new ArrayList<>(hits.size());
+        for (AhoCorasick.MatchResult hit : hits) {
+            results.add(new AhoCorasick.MatchResult(keywordsByPattern.get(hit.getPattern()),
+                    hit.getStart(), hit.getEnd()));
+        }
+        return results;
+    }
+
+    /**
+     * 判断UTF-8字节中是否包含任一关键词
+     *
+     * @param bytes UTF-8字节
+     * @return 是否包含
+     */
+    public boolean containsAny(byte[] bytes) {
+        return automaton.findFirst(new ByteChars(bytes), null) != null;
+    }
+
+    /**
+     * 把每个字节映射为0-255字符的视图，不复制字节数组
+     */
+    private static final class ByteChars implements CharSequence {
+
+        private final byte[] bytes;
+        private final int offset;
+        private final int length;
+
+        ByteChars(byte[] bytes) {
+            this(bytes, 0, bytes.length);
+        }
+
+        ByteChars(byte[] bytes, int offset, int length) {
+            this.bytes = bytes;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes[offset + index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new ByteChars(bytes, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
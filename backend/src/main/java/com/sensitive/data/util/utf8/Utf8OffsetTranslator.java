@@ -0,0 +1,90 @@
+package com.sensitive.data.util.utf8;
+
+/**
+ * UTF-8字节偏移与Java字符偏移的换算
+ *
+ * 只对报告的命中位置换算：维护一个游标，目标位置在游标之后时从游标继续向前计数，
+ * 在游标之前时从头计数。命中按类型分组、组内递增，总代价约为类型数乘以文本长度。
+ * 每个非续字节计一个字符，4字节字符（代理对）计两个字符。要求输入为合法的UTF-8。
+ */
+public final class Utf8OffsetTranslator {
+
+    private final byte[] bytes;
+
+    // 游标位置的字节偏移和对应的字符偏移
+    private int cursorByte;
+    private int cursorChar;
+
+    public Utf8OffsetTranslator(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * 字节偏移换算为字符偏移，偏移必须位于字符边界
+     *
+     * @param byteOffset 字节偏移
+     * @return 字符偏移
+     */
+    public int toCharOffset(int byteOffset) {
+        if (byteOffset < cursorByte) {
+            cursorByte = 0;
+            cursorChar = 0;
+        }
+        cursorChar += countChars(bytes, cursorByte, byteOffset);
+        cursorByte = byteOffset;
+        return cursorChar;
+    }
+
+    /**
+     * 字符偏移换算为字节偏移，偏移必须位于字符边界
+     *
+     * @param charOffset 字符偏移
+     * @return 字节偏移
+     */
+    public int toByteOffset(int charOffset) {
+        if (charOffset < cursorChar) {
+            cursorByte = 0;
+            cursorChar = 0;
+        }
+        int i = cursorByte;
+        int chars = cursorChar;
+        while (chars < charOffset && i < bytes.length) {
+            int b = bytes[i] & 0xFF;
+            if (b < 0x80) {
+                i++;
+                chars++;
+            } else if (b >= 0xF0) {
+                i += 4;
+                chars += 2;
+            } else if (b >= 0xE0) {
+                i += 3;
+                chars++;
+            } else {
+                i += 2;
+                chars++;
+            }
+        }
+        cursorByte = i;
+        cursorChar = chars;
+        return i;
+    }
+
+    /**
+     * 统计字节区间[from, to)内的字符数
+     *
+     * @param bytes 字节数组
+     * @param from 起始字节偏移（包含）
+     * @param to 结束字节偏移（不包含）
+     * @return 字符数
+     */
+    public static int countChars(byte[] bytes, int from, int to) {
+        int chars = 0;
+        for (int i = from; i < to; i++) {
+            int b = bytes[i] & 0xFF;
+            if ((b & 0xC0) != 0x80) {
+                chars += b >= 0xF0 ? 2 : 1;
+            }
+        }
+        return chars;
+    }
+}
@@ -0,0 +1,94 @@
+package com.sensitive.data.performance;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import com.sensitive.data.model.CompactDetectionResult;
+import com.sensitive.data.model.DetectionCacheEntry;
+import com.sensitive.data.service.cache.DetectionCacheCodec;
+
+/**
+ * 检测结果缓存编解码基准测试，比较紧凑二进制编码与JDK序列化的编码、解码耗时和字节数
+ *
+ * items为单条结果的检测项数。运行方式：执行main方法，或mvn test-compile后用JMH命令行指定本类。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DetectionCacheCodecBenchmark {
+
+    @Param({"2", "20", "200"})
+    private int items;
+
+    private final JdkSerializationRedisSerializer jdk = new JdkSerializationRedisSerializer();
+
+    private DetectionCacheEntry entry;
+
+    private byte[] codecBytes;
+
+    private byte[] jdkBytes;
+
+    @Setup
+    public void setUp() {
+        int[] offsets = new int[items * 2];
+        int[] types = new int[items];
+        int position = 0;
+        for (int i = 0; i < items; i++) {
+            position += 20 + i % 37;
+            offsets[2 * i] = position;
+            offsets[2 * i + 1] = position + 11 + i % 8;
+            types[i] = i % 12;
+        }
+        entry = new DetectionCacheEntry(new CompactDetectionResult(offsets, types, null, 3, false),
+                position + 64, null);
+        codecBytes = DetectionCacheCodec.encode(entry);
+        jdkBytes = jdk.serialize(entry);
+        System.out.printf("%nitems=%d codec=%d bytes, jdk=%d bytes%n", items, codecBytes.length, jdkBytes.length);
+    }
+
+    @Benchmark
+    public byte[] codecEncode() {
+        return DetectionCacheCodec.encode(entry);
+    }
+
+    @Benchmark
+    public DetectionCacheEntry codecDecode() {
+        return DetectionCacheCodec.decode(codecBytes);
+    }
+
+    @Benchmark
+    public byte[] jdkEncode() {
+        return jdk.serialize(entry);
+    }
+
+    @Benchmark
+    public Object jdkDecode() {
+        return jdk.deserialize(jdkBytes);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(DetectionCacheCodecBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,116 @@
+package com.sensitive.data.performance;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.sensitive.data.util.DigitRunScanner;
+
+/**
+ * 数字串扫描基准测试，比较UTF-8字节上按8字节一组的SWAR扫描、字节逐个扫描和字符串逐字符扫描
+ *
+ * 语料：prose为夹杂少量手机号、卡号的中文正文，numeric为数字密集的表格导出文本，
+ * ascii为英文日志。运行方式：执行main方法，或mvn test-compile后用JMH命令行指定本类。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DigitRunScannerBenchmark {
+
+    private static final String[] PROSE_SENTENCES = {
+        "本季度客户服务中心共受理咨询工单，主要涉及账户变更与业务办理流程。",
+        "张三的联系电话是13812345678，请在工作日与其确认合同细节。",
+        "会议纪要：各部门需在月底前提交数据分类分级清单并完成复核。",
+        "退款已原路返回至尾号为6222 0212 3456 7890的银行卡，请注意查收。",
+        "系统将在夜间进行例行维护，期间部分功能可能暂时无法访问。",
+    };
+
+    private static final String[] ASCII_SENTENCES = {
+        "INFO request handled by worker-3 in 12 ms, status=200 ",
+        "WARN retrying upstream call to order-service after timeout ",
+        "DEBUG user session refreshed for account 6222021234567890123 ",
+        "INFO cache warmed with 1024 entries from snapshot ",
+    };
+
+    @Param({"prose", "numeric", "ascii"})
+    private String corpus;
+
+    private String text;
+
+    private byte[] utf8;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        StringBuilder builder = new StringBuilder();
+        while (builder.length() < 16 * 1024) {
+            if ("prose".equals(corpus)) {
+                builder.append(PROSE_SENTENCES[random.nextInt(PROSE_SENTENCES.length)]);
+            } else if ("ascii".equals(corpus)) {
+                builder.append(ASCII_SENTENCES[random.nextInt(ASCII_SENTENCES.length)]);
+            } else {
+                // 表格导出：序号、手机号、身份证号、金额
+                builder.append(random.nextInt(100000)).append(',')
+                        .append(13000000000L + random.nextInt(999999999)).append(',')
+                        .append("11010119").append(70 + random.nextInt(30)).append("0101")
+                        .append(1000 + random.nextInt(9000)).append(',')
+                        .append(random.nextInt(100000)).append(".00\n");
+            }
+        }
+        text = builder.toString();
+        utf8 = text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public DigitRunScanner.Candidates swarBytes() {
+        return DigitRunScanner.scan(utf8);
+    }
+
+    @Benchmark
+    public DigitRunScanner.Candidates perCharString() {
+        return DigitRunScanner.scan(text);
+    }
+
+    /**
+     * 字节逐个判断的基线，只统计数字串个数
+     */
+    @Benchmark
+    public int perByteBytes() {
+        int runs = 0;
+        boolean inRun = false;
+        for (byte b : utf8) {
+            boolean digit = b >= '0' && b <= '9';
+            if (digit && !inRun) {
+                runs++;
+            }
+            inRun = digit;
+        }
+        return runs;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(DigitRunScannerBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
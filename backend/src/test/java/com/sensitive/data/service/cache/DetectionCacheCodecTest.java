@@ -0,0 +1,111 @@
+package com.sensitive.data.service.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import com.sensitive.data.model.CompactDetectionResult;
+import com.sensitive.data.model.DetectionCacheEntry;
+import com.sensitive.data.model.SensitiveDataType;
+import com.sensitive.data.service.detector.impl.SensitiveDataDetectorServiceImpl;
+import com.sensitive.data.service.processor.impl.SensitiveDataProcessorServiceImpl;
+
+/**
+ * 检测结果缓存编解码器单元测试
+ */
+public class DetectionCacheCodecTest {
+
+    @Test
+    public void testRoundTrip() {
+        // 检测项不按起始位置排序、带多标签和原文
+        CompactDetectionResult result = new CompactDetectionResult(new int[] {40, 51, 4, 15, 100000, 100018},
+                new int[] {SensitiveDataType.PHONE_NUMBER.ordinal(), SensitiveDataType.EMAIL.ordinal(),
+                    SensitiveDataType.ID_CARD.ordinal()},
+                new int[] {3, 1 << 20, -1}, 1234567890123L, true);
+        DetectionCacheEntry entry = new DetectionCacheEntry(result, 200000, "原文：含中文😀和ASCII");
+
+        DetectionCacheEntry decoded = DetectionCacheCodec.decode(DetectionCacheCodec.encode(entry));
+        assertEntryEquals(entry, decoded);
+
+        DetectionCacheEntry empty = DetectionCacheEntry.of("无敏感数据",
+                new CompactDetectionResult(new int[0], new int[0], null, 0, false),
+                DetectionCacheEntry.Verification.LENGTH);
+        assertEntryEquals(empty, DetectionCacheCodec.decode(DetectionCacheCodec.encode(empty)));
+    }
+
+    @Test
+    public void testDetectorResultsRoundTripAndAreSmallerThanJdkSerialization() {
+        SensitiveDataDetectorServiceImpl detector =
+                new SensitiveDataDetectorServiceImpl(new SensitiveDataProcessorServiceImpl());
+        String text = "联系电话13812345678，身份证号：110101199001011237，邮箱zhang.san@example.com，"
+                + "卡号4111111111111111";
+        DetectionCacheEntry entry = DetectionCacheEntry.of(text,
+                detector.detectSensitiveDataCompact(text, null, false), DetectionCacheEntry.Verification.LENGTH);
+
+        byte[] encoded = DetectionCacheCodec.encode(entry);
+        assertEntryEquals(entry, DetectionCacheCodec.decode(encoded));
+        byte[] jdk = new JdkSerializationRedisSerializer().serialize(entry);
+        assertTrue(encoded.length + " vs " + jdk.length, encoded.length * 10 < jdk.length);
+    }
+
+    @Test
+    public void testVersionMismatchAndCorruption() {
+        byte[] encoded = DetectionCacheCodec.encode(new DetectionCacheEntry(
+                new CompactDetectionResult(new int[] {1, 2}, new int[] {0}, null, 5, false), 3, null));
+        byte[] otherVersion = encoded.clone();
+        otherVersion[0] = DetectionCacheCodec.FORMAT_VERSION + 1;
+        assertNull(DetectionCacheCodec.decode(otherVersion));
+
+        try {
+            DetectionCacheCodec.decode(Arrays.copyOf(encoded, encoded.length - 1));
+            throw new AssertionError("Truncated entry should be rejected");
+        } catch (IllegalArgumentException e) {
+            // 预期异常
+        }
+    }
+
+    @Test
+    public void testOutOfRangeTypesAndOffsetsAreRejected() {
+        // 类型序号超出枚举范围
+        assertCorrupted(new DetectionCacheEntry(new CompactDetectionResult(new int[] {1, 2},
+                new int[] {SensitiveDataType.values().length}, null, 5, false), 3, null));
+        // 结束位置超出文本长度
+        assertCorrupted(new DetectionCacheEntry(new CompactDetectionResult(new int[] {1, 5},
+                new int[] {0}, null, 5, false), 3, null));
+        // 起始位置为负
+        assertCorrupted(new DetectionCacheEntry(new CompactDetectionResult(new int[] {-1, 2},
+                new int[] {0}, null, 5, false), 3, null));
+        // 结束位置早于起始位置
+        assertCorrupted(new DetectionCacheEntry(new CompactDetectionResult(new int[] {2, 1},
+                new int[] {0}, null, 5, false), 3, null));
+    }
+
+    private static void assertCorrupted(DetectionCacheEntry entry) {
+        byte[] encoded = DetectionCacheCodec.encode(entry);
+        try {
+            DetectionCacheCodec.decode(encoded);
+            throw new AssertionError("Out-of-range entry should be rejected");
+        } catch (IllegalArgumentException e) {
+            // 预期异常
+        }
+    }
+
+    private static void assertEntryEquals(DetectionCacheEntry expected, DetectionCacheEntry actual) {
+        assertEquals(expected.getTextLength(), actual.getTextLength());
+        assertEquals(expected.getText(), actual.getText());
+        CompactDetectionResult e = expected.getResult();
+        CompactDetectionResult a = actual.getResult();
+        assertArrayEquals(e.getOffsets(), a.getOffsets());
+        assertArrayEquals(e.getTypes(), a.getTypes());
+        assertArrayEquals(e.getLabels(), a.getLabels());
+        assertEquals(e.getTotalDetected(), a.getTotalDetected());
+        assertEquals(e.getProcessingTimeMs(), a.getProcessingTimeMs());
+        assertEquals(e.isPartial(), a.isPartial());
+    }
+}
@@ -0,0 +1,249 @@
+package com.sensitive.data.service.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sensitive.data.model.CompactDetectionResult;
+import com.sensitive.data.model.DetectionCacheEntry;
+import com.sensitive.data.service.cache.l2.InMemoryL2CacheBackend;
+import com.sensitive.data.service.cache.l2.L2CacheBackend;
+import com.sensitive.data.service.cache.l2.MappedSegmentL2CacheBackend;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 多级缓存服务单元测试
+ */
+public class SensitiveDataCacheServiceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testL2HitIsPromotedToLocalCache() throws Exception {
+        DetectionCacheEntry entry = new DetectionCacheEntry(
+                new CompactDetectionResult(new int[] {4, 15}, new int[] {0}, null, 1, false), 20, null);
+        try (MappedSegmentL2CacheBackend backend = new MappedSegmentL2CacheBackend(folder.getRoot().toPath(), 2,
+                1 << 20, 128, Duration.ofHours(1))) {
+            SensitiveDataCacheService writer = new SensitiveDataCacheService(new ConcurrentMapCacheManager());
+            writer.setL2CacheBackend(backend);
+            writer.put("key", entry);
+
+            // 另一个实例的本地缓存为空，从二级缓存读取后回填本地缓存
+            ConcurrentMapCacheManager localCache = new ConcurrentMapCacheManager();
+            SensitiveDataCacheService reader = new SensitiveDataCacheService(localCache);
+            reader.setL2CacheBackend(backend);
+            DetectionCacheEntry cached = reader.get("key").orElse(null);
+            assertNotNull(cached);
+            assertEquals(20, cached.getTextLength());
+            assertEquals(15, cached.getResult().getEnd(0));
+            assertNotNull(localCache.getCache(SensitiveDataCacheService.DETECTION_CACHE_NAME).get("key"));
+
+            reader.clearLocal();
+            assertTrue(reader.exists("key"));
+            reader.clear();
+            assertNull(backend.get("key"));
+        }
+    }
+
+    @Test
+    public void testL2FailuresAreMisses() {
+        SensitiveDataCacheService service = new SensitiveDataCacheService(new ConcurrentMapCacheManager());
+        service.setL2CacheBackend(new FailingBackend());
+        DetectionCacheEntry entry = new DetectionCacheEntry(
+                new CompactDetectionResult(new int[0], new int[0], null, 0, false), 3, null);
+        service.put("key", entry);
+        assertTrue(service.get("key").isPresent());
+        assertFalse(service.get("other").isPresent());
+        assertEquals(2, service.getL2Errors());
+    }
+
+    @Test
+    public void testWriteBehindBatchesRemoteWritesAndDropsWhenFull() {
+        InMemoryL2CacheBackend backend = new InMemoryL2CacheBackend();
+        SensitiveDataCacheService service = new SensitiveDataCacheService(new ConcurrentMapCacheManager());
+        service.setL2CacheBackend(backend);
+        ReflectionTestUtils.setField(service, "writeQueueCapacity", 4);
+        try {
+            // 写入线程阻塞在第一批时，队列满后的写入被丢弃，请求线程不等待
+            backend.close();
+            for (int i = 0; i < 20; i++) {
+                service.put("key" + i, entry(i));
+                // 本地缓存同步写入
+                assertTrue(service.getLocal("key" + i) != null);
+            }
+            assertTrue(service.getL2WriteDrops() > 0);
+            backend.open();
+            assertTrue(service.flushWrites(5000));
+            assertEquals(20, backend.getStore().size() + service.getL2WriteDrops());
+            assertTrue(backend.getPutAllCalls() < 20 - service.getL2WriteDrops());
+        } finally {
+            backend.open();
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void testGetAllReadsLocalMissesInOneRoundTrip() {
+        InMemoryL2CacheBackend backend = new InMemoryL2CacheBackend();
+        for (int i = 0; i < 5; i++) {
+            backend.put("key" + i, DetectionCacheCodec.encode(entry(i)));
+        }
+        SensitiveDataCacheService service = new SensitiveDataCacheService(new ConcurrentMapCacheManager());
+        service.setL2CacheBackend(backend);
+        service.put("local", entry(9));
+
+        Map<String, DetectionCacheEntry> found = service.getAll(Arrays.asList("local", "key0", "key3", "missing"));
+        assertEquals(3, found.size());
+        assertEquals(9, found.get("local").getTextLength());
+        assertEquals(3, found.get("key3").getTextLength());
+        assertEquals(1, backend.getGetAllCalls());
+        // 二级缓存命中回填本地缓存
+        assertNotNull(service.getLocal("key0"));
+        service.shutdown();
+    }
+
+    @Test
+    public void testCheapResultsAreNotAdmittedAndHitsAreCountedPerSizeClass() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder().maximumWeight(1 << 20)
+                .weigher(new DetectionCacheWeigher()).recordStats());
+        SensitiveDataCacheService service = new SensitiveDataCacheService(cacheManager);
+
+        // 短文本、窄配置档的检测只需几微秒，不比命中缓存（约5微秒 + 每字符2纳秒 + 每字节5纳秒）更贵，不缓存；
+        // 默认配置档的短文本检测约30微秒，缓存
+        DetectionCacheEntry small = entry(30);
+        int smallWeight = DetectionCacheWeigher.weigh("small", small);
+        assertTrue(smallWeight < 256);
+        assertFalse(service.put("small", small, 3_000L));
+        assertNull(service.getLocal("small"));
+        assertTrue(service.put("small", small, 30_000L));
+
+        // 长文本即使检测很快，命中也要计算整段文本的指纹
+        assertFalse(service.put("long", entry(10_000), 20_000L));
+
+        // 保存原文的大结果按保留字节计权
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            text.append("联系电话");
+        }
+        DetectionCacheEntry large = DetectionCacheEntry.of(text.toString(),
+                new CompactDetectionResult(new int[0], new int[0], null, 0, false),
+                DetectionCacheEntry.Verification.FULL);
+        int largeWeight = DetectionCacheWeigher.weigh("large", large);
+        assertTrue(largeWeight > 8000);
+        assertTrue(service.put("large", large, -1));
+
+        for (int i = 0; i < 3; i++) {
+            assertNotNull(service.getLocal("small"));
+        }
+        assertNotNull(service.getLocal("large"));
+
+        // Caffeine在维护时更新权重
+        ((CaffeineCache) cacheManager.getCache(SensitiveDataCacheService.DETECTION_CACHE_NAME)).getNativeCache()
+                .cleanUp();
+        SensitiveDataCacheService.LocalMetrics metrics = service.getLocalMetrics();
+        assertEquals(2, metrics.getRejected());
+        assertEquals(2, metrics.getEntries());
+        assertEquals(smallWeight + largeWeight, metrics.getWeightedBytes());
+        assertEquals(1 << 20, metrics.getMaximumBytes());
+        // 未准入后的一次未命中和四次命中
+        assertEquals(0.8, metrics.getHitRate(), 1e-9);
+        List<SensitiveDataCacheService.SizeClass> sizeClasses = metrics.getSizeClasses();
+        assertEquals(3, sizeClasses.get(0).getHits());
+        assertEquals(smallWeight, sizeClasses.get(0).getAdmittedBytes());
+        assertEquals(1, sizeClasses.get(3).getHits());
+        assertTrue(sizeClasses.get(0).getHitsPerMegabyte() > sizeClasses.get(3).getHitsPerMegabyte());
+    }
+
+    @Test
+    public void testTierMetricsAreExported() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        try (MappedSegmentL2CacheBackend backend = new MappedSegmentL2CacheBackend(folder.getRoot().toPath(), 2,
+                1 << 20, 128, Duration.ofHours(1))) {
+            CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+            cacheManager.setCaffeine(Caffeine.newBuilder().maximumWeight(1 << 20)
+                    .weigher(new DetectionCacheWeigher()).recordStats());
+            SensitiveDataCacheService service = new SensitiveDataCacheService(cacheManager);
+            service.setL2CacheBackend(backend);
+            service.bindTo(registry);
+
+            service.put("key", entry(3));
+            assertTrue(service.get("key").isPresent());
+            service.clearLocal();
+            // 本地未命中、二级缓存命中并回填；不存在的键两级都未命中
+            assertTrue(service.get("key").isPresent());
+            assertFalse(service.get("missing").isPresent());
+        }
+
+        assertEquals(1, count(registry, "sensitive.cache.gets", "l1", "hit"), 0);
+        assertEquals(2, count(registry, "sensitive.cache.gets", "l1", "miss"), 0);
+        assertEquals(1, count(registry, "sensitive.cache.gets", "l2", "hit"), 0);
+        assertEquals(1, count(registry, "sensitive.cache.gets", "l2", "miss"), 0);
+        assertEquals(1, registry.get("sensitive.cache.promotions").functionCounter().count(), 0);
+        assertEquals(2, registry.get("sensitive.cache.puts").tag("tier", "l1").functionCounter().count(), 0);
+        assertEquals(1, registry.get("sensitive.cache.puts").tag("tier", "l2").functionCounter().count(), 0);
+        assertEquals(2, registry.get("sensitive.cache.put.duration").tag("tier", "l1").timer().count());
+        assertEquals(2, registry.get("sensitive.cache.get.duration").tag("tier", "l2").timer().count());
+        assertEquals(1 << 20, registry.get("sensitive.cache.max.weight").gauge().value(), 0);
+        assertEquals(1, registry.get("sensitive.cache.size").tag("tier", "l2").gauge().value(), 0);
+        assertEquals(0, registry.get("sensitive.cache.evictions").tag("tier", "l2").functionCounter().count(), 0);
+    }
+
+    private static double count(SimpleMeterRegistry registry, String name, String tier, String result) {
+        return registry.get(name).tags("tier", tier, "result", result).functionCounter().count();
+    }
+
+    private static DetectionCacheEntry entry(int textLength) {
+        return new DetectionCacheEntry(new CompactDetectionResult(new int[0], new int[0], null, 0, false),
+                textLength, null);
+    }
+
+    /**
+     * 总是失败的二级缓存后端，模拟Redis不可用
+     */
+    private static final class FailingBackend implements L2CacheBackend {
+
+        @Override
+        public byte[] get(String key) {
+            throw new IllegalStateException("unavailable");
+        }
+
+        @Override
+        public void put(String key, byte[] value) {
+            throw new IllegalStateException("unavailable");
+        }
+
+        @Override
+        public void evict(String key) {
+            throw new IllegalStateException("unavailable");
+        }
+
+        @Override
+        public void clear() {
+            throw new IllegalStateException("unavailable");
+        }
+
+        @Override
+        public String getName() {
+            return "failing";
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.sensitive.data.service.cache.l2;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 测试用的内存二级缓存后端，模拟远程后端并记录批量操作次数，可以让读写阻塞以模拟网络延迟
+ */
+public class InMemoryL2CacheBackend implements L2CacheBackend {
+
+    private final Map<String, byte[]> store = new ConcurrentHashMap<>();
+
+    private final AtomicInteger getAllCalls = new AtomicInteger();
+    private final AtomicInteger putAllCalls = new AtomicInteger();
+
+    private volatile CountDownLatch gate = new CountDownLatch(0);
+
+    @Override
+    public byte[] get(String key) {
+        await();
+        return store.get(key);
+    }
+
+    @Override
+    public void put(String key, byte[] value) {
+        await();
+        store.put(key, value);
+    }
+
+    @Override
+    public List<byte[]> getAll(List<String> keys) {
+        getAllCalls.incrementAndGet();
+        return L2CacheBackend.super.getAll(keys);
+    }
+
+    @Override
+    public void putAll(Map<String, byte[]> entries) {
+        putAllCalls.incrementAndGet();
+        L2CacheBackend.super.putAll(entries);
+    }
+
+    @Override
+    public void evict(String key) {
+        store.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        store.clear();
+    }
+
+    @Override
+    public String getName() {
+        return "memory";
+    }
+
+    @Override
+    public boolean isRemote() {
+        return true;
+    }
+
+    /**
+     * 之后的读写阻塞到{@link #open()}为止
+     */
+    public void close() {
+        gate = new CountDownLatch(1);
+    }
+
+    public void open() {
+        gate.countDown();
+    }
+
+    public Map<String, byte[]> getStore() {
+        return store;
+    }
+
+    public int getGetAllCalls() {
+        return getAllCalls.get();
+    }
+
+    public int getPutAllCalls() {
+        return putAllCalls.get();
+    }
+
+    private void await() {
+        try {
+            gate.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
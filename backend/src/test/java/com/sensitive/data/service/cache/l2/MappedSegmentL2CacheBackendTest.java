@@ -0,0 +1,102 @@
+package com.sensitive.data.service.cache.l2;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * 内存映射二级缓存后端单元测试
+ */
+public class MappedSegmentL2CacheBackendTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testPutGetEvictAndSurviveReopen() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        try (MappedSegmentL2CacheBackend backend = open(directory, 1 << 20, Duration.ofHours(1))) {
+            backend.put("k1", bytes("v1"));
+            backend.put("k2", bytes("v2"));
+            backend.put("k1", bytes("v1-updated"));
+            backend.evict("k2");
+            backend.put("too-large", new byte[backend.getValueCapacity() + 1]);
+
+            assertArrayEquals(bytes("v1-updated"), backend.get("k1"));
+            assertNull(backend.get("k2"));
+            assertNull(backend.get("too-large"));
+            assertEquals(1, backend.getEntryCount());
+            assertEquals(0, backend.getEvictionCount());
+        }
+
+        // 重启后段文件中的条目仍可读取
+        try (MappedSegmentL2CacheBackend reopened = open(directory, 1 << 20, Duration.ofHours(1))) {
+            assertArrayEquals(bytes("v1-updated"), reopened.get("k1"));
+            assertEquals(1, reopened.getEntryCount());
+            reopened.clear();
+            assertNull(reopened.get("k1"));
+            assertEquals(0, reopened.getEntryCount());
+        }
+
+        // 布局变化后段文件被重新初始化
+        try (MappedSegmentL2CacheBackend backend = open(directory, 1 << 20, Duration.ofHours(1))) {
+            backend.put("k3", bytes("v3"));
+        }
+        try (MappedSegmentL2CacheBackend resized = open(directory, 1 << 19, Duration.ofHours(1))) {
+            assertNull(resized.get("k3"));
+        }
+    }
+
+    @Test
+    public void testClockEvictionKeepsReferencedEntries() throws Exception {
+        // 只有一个探测窗口大小的段，所有键竞争同一组记录
+        int window = MappedSegmentL2CacheBackend.PROBE_WINDOW;
+        long segmentBytes = 64 + window * 96L;
+        try (MappedSegmentL2CacheBackend backend = new MappedSegmentL2CacheBackend(folder.getRoot().toPath(), 1,
+                segmentBytes, 64, Duration.ofHours(1))) {
+            for (int i = 0; i < window; i++) {
+                backend.put("key" + i, bytes("value" + i));
+            }
+            // 访问过的条目获得第二次机会
+            assertArrayEquals(bytes("value0"), backend.get("key0"));
+            for (int i = window; i < 2 * window - 1; i++) {
+                backend.put("key" + i, bytes("value" + i));
+            }
+            assertArrayEquals(bytes("value0"), backend.get("key0"));
+            int live = 0;
+            for (int i = 0; i < 2 * window - 1; i++) {
+                live += backend.get("key" + i) != null ? 1 : 0;
+            }
+            assertEquals(window, live);
+            assertEquals(window, backend.getEntryCount());
+            assertEquals(window - 1, backend.getEvictionCount());
+        }
+    }
+
+    @Test
+    public void testExpiredEntriesAreMisses() throws Exception {
+        try (MappedSegmentL2CacheBackend backend = open(folder.getRoot().toPath(), 1 << 20, Duration.ZERO)) {
+            backend.put("k", bytes("v"));
+            assertEquals(1, backend.getEntryCount());
+            assertNull(backend.get("k"));
+            assertEquals(0, backend.getEntryCount());
+        }
+    }
+
+    private static MappedSegmentL2CacheBackend open(Path directory, long segmentBytes, Duration ttl)
+            throws Exception {
+        return new MappedSegmentL2CacheBackend(directory, 2, segmentBytes, 128, ttl);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,124 @@
+package com.sensitive.data.service.detector;
+
+import com.sensitive.data.model.DetectionProfile;
+import com.sensitive.data.model.SensitiveDataDetectionResult;
+import com.sensitive.data.service.detector.impl.SensitiveDataDetectorServiceImpl;
+import com.sensitive.data.service.processor.impl.SensitiveDataProcessorServiceImpl;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 检测请求合并器测试类
+ */
+public class DetectionCoalescerTest {
+
+    @Test
+    public void testConcurrentRequestsEachGetOwnResult() throws Exception {
+        SensitiveDataDetectorServiceImpl detectorService =
+                new SensitiveDataDetectorServiceImpl(new SensitiveDataProcessorServiceImpl());
+        DetectionCoalescer coalescer = new DetectionCoalescer(detectorService);
+        ReflectionTestUtils.setField(coalescer, "maxBatchSize", 8);
+        ReflectionTestUtils.setField(coalescer, "windowMicros", 500L);
+
+        DetectionProfile phoneOnly = DetectionProfile.of("PHONE_NUMBER", null, null, null);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 16; t++) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        String text = "线程" + thread + "第" + i + "条，电话1381234" + String.format("%04d", i)
+                                + "，邮箱user" + i + "@example.com";
+                        DetectionProfile profile = i % 2 == 0 ? null : phoneOnly;
+                        SensitiveDataDetectionResult result = coalescer.detect(text, profile);
+                        assertEquals(text, result.getOriginalText());
+                        SensitiveDataDetectionResult expected = detectorService.detectSensitiveData(text, profile);
+                        assertEquals(describe(expected), describe(result));
+                        assertTrue(result.getTotalDetected() >= (profile == null ? 2 : 1));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        DetectionCoalescer.Metrics metrics = coalescer.getMetrics();
+        assertEquals(800, metrics.getRequests());
+        assertTrue(metrics.getMaxBatchSize() <= 8);
+        assertTrue(metrics.getBatches() >= 100);
+    }
+
+    @Test
+    public void testErrorInBatchCompletesAllWaitingRequests() throws Exception {
+        SensitiveDataDetectorServiceImpl detectorService =
+                new SensitiveDataDetectorServiceImpl(new SensitiveDataProcessorServiceImpl()) {
+                    @Override
+                    public List<SensitiveDataDetectionResult> detectSensitiveDataBulk(List<String> texts,
+                            DetectionProfile profile) {
+                        throw new StackOverflowError();
+                    }
+                };
+        DetectionCoalescer coalescer = new DetectionCoalescer(detectorService);
+        ReflectionTestUtils.setField(coalescer, "maxBatchSize", 3);
+        // 窗口足够长，批次只能由第三个请求凑满后触发
+        ReflectionTestUtils.setField(coalescer, "windowMicros", TimeUnit.SECONDS.toMicros(60));
+        AtomicInteger queued = (AtomicInteger) ReflectionTestUtils.getField(coalescer, "queued");
+
+        DetectionProfile phoneOnly = DetectionProfile.of("PHONE_NUMBER", null, null, null);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // 两个等待中的请求分属不同配置档，第一个分组失败后第二个分组不会执行
+            Future<?> sameProfile = executor.submit(() -> coalescer.detect("电话13812345678", null));
+            while (queued.get() < 1) {
+                Thread.yield();
+            }
+            Future<?> otherProfile = executor.submit(() -> coalescer.detect("电话13912345678", phoneOnly));
+            while (queued.get() < 2) {
+                Thread.yield();
+            }
+            try {
+                coalescer.detect("电话13712345678", null);
+                throw new AssertionError("Error should be rethrown to the thread running the batch");
+            } catch (StackOverflowError e) {
+                // 预期异常
+            }
+            assertFailed(sameProfile);
+            assertFailed(otherProfile);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void assertFailed(Future<?> future) throws Exception {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            throw new AssertionError("Waiting request should fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            assertTrue(e.getCause().getCause() instanceof StackOverflowError);
+        }
+    }
+
+    private static List<String> describe(SensitiveDataDetectionResult result) {
+        return result.getDetectedItems().stream()
+                .map(item -> item.getType() + ":" + item.getStartPosition() + ":" + item.getEndPosition())
+                .collect(Collectors.toList());
+    }
+}
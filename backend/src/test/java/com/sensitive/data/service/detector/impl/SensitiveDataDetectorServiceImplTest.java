@@ -1,16 +1,43 @@
 package com.sensitive.data.service.detector.impl;
 
+import com.sensitive.data.model.BatchDetectionItem;
+import com.sensitive.data.model.CompactDetectionResult;
+import com.sensitive.data.model.DetectionCacheEntry;
+import com.sensitive.data.model.DetectionCheckResult;
+import com.sensitive.data.model.DetectionProfile;
+import com.sensitive.data.model.RiskLevel;
 import com.sensitive.data.model.SensitiveDataDetectionResult;
 import com.sensitive.data.model.SensitiveDataItem;
+import com.sensitive.data.model.SensitiveDataRule;
 import com.sensitive.data.model.SensitiveDataType;
+import com.sensitive.data.service.cache.SensitiveDataCacheService;
+import com.sensitive.data.service.cache.l2.InMemoryL2CacheBackend;
 import com.sensitive.data.service.processor.impl.SensitiveDataProcessorServiceImpl;
 import org.junit.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertNotNull;
 
 /**
  * 敏感数据检测器测试类
@@ -83,4 +110,421 @@ public class SensitiveDataDetectorServiceImplTest {
             assertEquals("4111111111111111", cardItem.getContent());
         }
     }
+
+    @Test
+    public void testRegexBudgetExceededMarksPartialResult() {
+        SensitiveDataDetectorServiceImpl budgetedService =
+                new SensitiveDataDetectorServiceImpl(new SensitiveDataProcessorServiceImpl());
+        ReflectionTestUtils.setField(budgetedService, "regexBudgetBaseSteps", 50L);
+        ReflectionTestUtils.setField(budgetedService, "regexBudgetStepsPerChar", 0L);
+
+        SensitiveDataDetectionResult result = budgetedService.detectSensitiveData("身份证号：110101199001011237，手机号：13812345678");
+        assertTrue(result.isPartial());
+
+        SensitiveDataDetectionResult normalResult = detectorService.detectSensitiveData("手机号：13812345678");
+        assertFalse(normalResult.isPartial());
+    }
+
+    @Test
+    public void testLargeTextIsNotPartialUnderDefaultBudget() {
+        SensitiveDataDetectorServiceImpl defaultService =
+                new SensitiveDataDetectorServiceImpl(new SensitiveDataProcessorServiceImpl());
+
+        // 约100万字的正常文档，每300字一个手机号或身份证号，末尾是邮箱；时间预算随长度增长，不应得到部分结果
+        Random random = new Random(11);
+        StringBuilder document = new StringBuilder();
+        int inserted = 0;
+        while (document.length() < 1_000_000) {
+            for (int j = 0; j < 300; j++) {
+                document.append((char) (0x4E00 + random.nextInt(2000)));
+            }
+            document.append(inserted++ % 2 == 0 ? "13812345678" : "110101199003077777");
+        }
+        document.append("，邮箱zhang@example.com");
+
+        SensitiveDataDetectionResult result = defaultService.detectSensitiveData(document.toString());
+        assertFalse(result.isPartial());
+        assertTrue(result.getDetectedItems().size() > inserted);
+        assertTrue(result.getDetectedItems().stream().anyMatch(item -> item.getType() == SensitiveDataType.EMAIL
+                && "zhang@example.com".equals(item.getContent())));
+    }
+
+    @Test
+    public void testCompositeRuleUsesExistingMatchStreams() {
+        SensitiveDataDetectorServiceImpl compositeService =
+                new SensitiveDataDetectorServiceImpl(new SensitiveDataProcessorServiceImpl());
+        SensitiveDataRule rule = new SensitiveDataRule();
+        rule.setId("COMPOSITE_EMERGENCY_CONTACT");
+        rule.setType(SensitiveDataRule.RuleType.COMPOSITE);
+        rule.setContent("PHONE_NUMBER NEAR(10) '紧急联系人'");
+        rule.setSensitiveDataType(SensitiveDataType.HEALTH_RECORD);
+        compositeService.updateCompositeRules(Collections.singletonList(rule));
+
+        String text = "紧急联系人：13812345678，办公电话：这里是一段足够长的无关说明文字13987654321";
+        List<SensitiveDataItem> items = compositeService.detectSensitiveData(text).getDetectedItems();
+
+        long compositeCount = items.stream().filter(item -> item.getType() == SensitiveDataType.HEALTH_RECORD).count();
+        assertEquals(1, compositeCount);
+        SensitiveDataItem compositeItem = items.stream()
+                .filter(item -> item.getType() == SensitiveDataType.HEALTH_RECORD).findFirst().get();
+        assertEquals("13812345678", compositeItem.getContent());
+        // 锚点关键词只供组合规则使用，不作为检测结果输出
+        assertFalse(items.stream().anyMatch(item -> "紧急联系人".equals(item.getContent())));
+    }
+
+    @Test
+    public void testDetectionProfileLimitsScan() {
+        String text = "手机号13812345678，银行卡4111111111111111，邮箱test@example.com，涉及盗版内容";
+
+        DetectionProfile financial = DetectionProfile.of("BANK_CARD,creditCard", null, false, null);
+        List<SensitiveDataItem> items = detectorService.detectSensitiveData(text, financial).getDetectedItems();
+        assertFalse(items.isEmpty());
+        assertTrue(items.stream().allMatch(item -> item.getType() == SensitiveDataType.BANK_CARD
+                || item.getType() == SensitiveDataType.CREDIT_CARD));
+
+        // 风险下限为HIGH时不输出中低风险类型，关闭关键词后不输出关键词命中
+        DetectionProfile highRisk = DetectionProfile.of(null, "HIGH", false, null);
+        items = detectorService.detectSensitiveData(text, highRisk).getDetectedItems();
+        assertTrue(items.stream().allMatch(item -> item.getType().getRiskLevel() == RiskLevel.HIGH));
+        assertFalse(items.stream().anyMatch(item -> item.getType() == SensitiveDataType.COPYRIGHT));
+
+        DetectionProfile limited = DetectionProfile.of(null, null, null, 1);
+        assertEquals(1, detectorService.detectSensitiveData(text, limited).getDetectedItems().size());
+
+        assertEquals(detectorService.detectSensitiveData(text).getDetectedItems().size(),
+                detectorService.detectSensitiveData(text, DetectionProfile.DEFAULT).getDetectedItems().size());
+    }
+
+    @Test
+    public void testNarrowProfileStillFeedsCompositeRules() {
+        SensitiveDataDetectorServiceImpl compositeService =
+                new SensitiveDataDetectorServiceImpl(new SensitiveDataProcessorServiceImpl());
+        SensitiveDataRule rule = new SensitiveDataRule();
+        rule.setId("COMPOSITE_EMERGENCY_CONTACT");
+        rule.setType(SensitiveDataRule.RuleType.COMPOSITE);
+        rule.setContent("PHONE_NUMBER NEAR(10) '紧急联系人'");
+        rule.setSensitiveDataType(SensitiveDataType.HEALTH_RECORD);
+        compositeService.updateCompositeRules(Collections.singletonList(rule));
+
+        DetectionProfile profile = DetectionProfile.of("HEALTH_RECORD", null, false, null);
+        List<SensitiveDataItem> items = compositeService
+                .detectSensitiveData("紧急联系人：13812345678", profile).getDetectedItems();
+        // 手机号只作为组合规则的输入，不出现在结果中
+        assertEquals(1, items.size());
+        assertEquals(SensitiveDataType.HEALTH_RECORD, items.get(0).getType());
+    }
+
+    @Test
+    public void testShortCircuitQueries() {
+        assertFalse(detectorService.containsSensitiveData("今天天气不错", null));
+        assertNull(detectorService.getMaxRiskLevel("今天天气不错", null));
+
+        assertTrue(detectorService.containsSensitiveData("联系电话13812345678", null));
+        assertEquals(RiskLevel.MEDIUM, detectorService.getMaxRiskLevel("联系电话13812345678", null));
+
+        // 关键词命中也参与风险判定，身份证号为高风险
+        assertEquals(RiskLevel.MEDIUM, detectorService.getMaxRiskLevel("这是盗版软件", null));
+        assertEquals(RiskLevel.HIGH,
+                detectorService.getMaxRiskLevel("这是盗版软件，身份证号：110101199001011237", null));
+
+        // 配置档关闭关键词检测后不再命中关键词
+        DetectionProfile noKeywords = DetectionProfile.of(null, null, false, null);
+        assertFalse(detectorService.containsSensitiveData("这是盗版软件", noKeywords));
+        DetectionProfile highOnly = DetectionProfile.of(null, "HIGH", null, null);
+        assertFalse(detectorService.containsSensitiveData("联系电话13812345678", highOnly));
+    }
+
+    @Test
+    public void testShortCircuitQueriesReportPartialResult() {
+        SensitiveDataDetectorServiceImpl budgetedService =
+                new SensitiveDataDetectorServiceImpl(new SensitiveDataProcessorServiceImpl());
+        ReflectionTestUtils.setField(budgetedService, "regexBudgetBaseSteps", 50L);
+        ReflectionTestUtils.setField(budgetedService, "regexBudgetStepsPerChar", 0L);
+        String text = "没有关键词的一段文字，末尾是邮箱zhang@example.com";
+
+        // 预算耗尽后未扫描完的内容可能包含敏感数据，默认失败关闭
+        DetectionCheckResult contains = budgetedService.checkSensitiveData(text, null, true);
+        assertTrue(contains.isPartial());
+        assertTrue(contains.isSensitive());
+        assertTrue(budgetedService.containsSensitiveData(text, null));
+        DetectionCheckResult maxRisk = budgetedService.checkSensitiveData(text, null, false);
+        assertTrue(maxRisk.isPartial());
+        assertNull(maxRisk.getMaxRiskLevel());
+
+        ReflectionTestUtils.setField(budgetedService, "checkFailClosed", false);
+        contains = budgetedService.checkSensitiveData(text, null, true);
+        assertTrue(contains.isPartial());
+        assertFalse(contains.isSensitive());
+
+        DetectionCheckResult complete = detectorService.checkSensitiveData(text, null, true);
+        assertFalse(complete.isPartial());
+        assertTrue(complete.isSensitive());
+    }
+
+    @Test
+    public void testCompactResultAndCacheStorage() {
+        SensitiveDataDetectorServiceImpl cachedService =
+                new SensitiveDataDetectorServiceImpl(new SensitiveDataProcessorServiceImpl());
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("sensitiveDataDetection");
+        cachedService.setCacheService(new SensitiveDataCacheService(cacheManager));
+
+        String text = "联系电话13812345678";
+        CompactDetectionResult compact = cachedService.detectSensitiveDataCompact(text, null, false);
+        assertEquals(1, compact.getTotalDetected());
+        assertEquals(4, compact.getStart(0));
+        assertEquals(15, compact.getEnd(0));
+        assertEquals(SensitiveDataType.PHONE_NUMBER.ordinal(), compact.getTypes()[0]);
+        assertNull(compact.getPreviews());
+
+        // 缓存中存放的是紧凑结果，键只包含指纹，完整结果由原文还原
+        Map<Object, Object> store = ((ConcurrentMapCache) cacheManager.getCache("sensitiveDataDetection"))
+                .getNativeCache();
+        assertEquals(1, store.size());
+        String key = (String) store.keySet().iterator().next();
+        assertFalse(key.contains("13812345678"));
+        assertTrue(store.get(key) instanceof DetectionCacheEntry);
+        SensitiveDataDetectionResult full = cachedService.detectSensitiveData(text);
+        assertEquals(1, full.getTotalDetected());
+        assertEquals("13812345678", full.getDetectedItems().get(0).getContent());
+        assertNotNull(full.getDetectedItems().get(0).getSuggestion());
+
+        // 掩码预览不写回缓存
+        CompactDetectionResult withPreview = cachedService.detectSensitiveDataCompact(text, null, true);
+        assertEquals(1, withPreview.getPreviews().length);
+        assertFalse(withPreview.getPreviews()[0].contains("13812345678"));
+        assertNull(((DetectionCacheEntry) store.get(key)).getResult().getPreviews());
+    }
+
+    @Test
+    public void testCacheKeysFollowRulesetVersionAndVerifyEntries() {
+        SensitiveDataDetectorServiceImpl cachedService =
+                new SensitiveDataDetectorServiceImpl(new SensitiveDataProcessorServiceImpl());
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("sensitiveDataDetection");
+        cachedService.setCacheService(new SensitiveDataCacheService(cacheManager));
+        Map<Object, Object> store = ((ConcurrentMapCache) cacheManager.getCache("sensitiveDataDetection"))
+                .getNativeCache();
+
+        // 相同规则集在不同实例上版本相同
+        assertEquals(detectorService.getRulesetVersion(), cachedService.getRulesetVersion());
+
+        String text = "这段文本提到了机密项目";
+        assertEquals(0, cachedService.detectSensitiveData(text).getTotalDetected());
+        // 无敏感数据的结果只记入过滤器，不占用缓存条目
+        assertTrue(store.isEmpty());
+        assertEquals(1, cachedService.getCleanFilterCount());
+
+        // 规则变化后版本改变，旧结果随本地缓存和过滤器清空，新规则立即生效
+        long before = cachedService.getRulesetVersion();
+        cachedService.updateSensitiveKeywords(Arrays.asList("机密项目"));
+        assertNotEquals(before, cachedService.getRulesetVersion());
+        assertTrue(store.isEmpty());
+        assertEquals(0, cachedService.getCleanFilterCount());
+        assertEquals(1, cachedService.detectSensitiveData(text).getTotalDetected());
+        String key = (String) store.keySet().iterator().next();
+        assertTrue(key.contains(Long.toHexString(cachedService.getRulesetVersion())));
+
+        // 指纹对应的条目与文本长度不符时视为碰撞，按未命中重新检测
+        store.put(key, new DetectionCacheEntry(new CompactDetectionResult(new int[0], new int[0], null, 0, false),
+                text.length() + 1, null));
+        assertEquals(1, cachedService.detectSensitiveData(text).getTotalDetected());
+        assertEquals(1, cachedService.getCacheKeyCollisions());
+
+        // FULL校验方式逐字比较原文
+        ReflectionTestUtils.setField(cachedService, "cacheVerification", DetectionCacheEntry.Verification.FULL);
+        assertEquals(1, cachedService.detectSensitiveData(text).getTotalDetected());
+        assertEquals(2, cachedService.getCacheKeyCollisions());
+        assertEquals(text, ((DetectionCacheEntry) store.get(key)).getText());
+        assertEquals(1, cachedService.detectSensitiveData(text).getTotalDetected());
+        assertEquals(2, cachedService.getCacheKeyCollisions());
+    }
+
+    @Test
+    public void testCleanTextsAreServedFromFilter() {
+        SensitiveDataDetectorServiceImpl cachedService =
+                new SensitiveDataDetectorServiceImpl(new SensitiveDataProcessorServiceImpl());
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("sensitiveDataDetection");
+        cachedService.setCacheService(new SensitiveDataCacheService(cacheManager));
+        Map<Object, Object> store = ((ConcurrentMapCache) cacheManager.getCache("sensitiveDataDetection"))
+                .getNativeCache();
+
+        String clean = "今天的会议改到下午三点";
+        assertEquals(0, cachedService.detectSensitiveData(clean).getTotalDetected());
+        assertEquals(0, cachedService.getCleanFilterHits());
+        assertEquals(0, cachedService.detectSensitiveData(clean).getTotalDetected());
+        assertEquals(1, cachedService.getCleanFilterHits());
+        // 批量检测同样先查过滤器
+        List<SensitiveDataDetectionResult> results =
+                cachedService.detectSensitiveDataBulk(Arrays.asList(clean, "联系电话13812345678"), null);
+        assertEquals(0, results.get(0).getTotalDetected());
+        assertEquals(1, results.get(1).getTotalDetected());
+        assertEquals(2, cachedService.getCleanFilterHits());
+        // 只有有检测项的结果占用缓存条目
+        assertEquals(1, store.size());
+        assertTrue(cachedService.getCleanFilterSizeInBytes() > 0);
+
+        // 不同的检测配置档分别记录
+        DetectionProfile phoneOnly = DetectionProfile.of("PHONE_NUMBER", null, null, null);
+        assertEquals(0, cachedService.detectSensitiveData(clean, phoneOnly).getTotalDetected());
+        assertEquals(2, cachedService.getCleanFilterHits());
+    }
+
+    @Test
+    public void testLongTextSegmentsAreCachedAndStitched() {
+        SensitiveDataDetectorServiceImpl cachedService =
+                new SensitiveDataDetectorServiceImpl(new SensitiveDataProcessorServiceImpl());
+        cachedService.setCacheService(new SensitiveDataCacheService(new ConcurrentMapCacheManager()));
+
+        // 约10万字的文档，每300字左右有一个手机号或身份证号，部分命中必然跨越段边界
+        Random random = new Random(7);
+        StringBuilder document = new StringBuilder();
+        for (int i = 0; document.length() < 100000; i++) {
+            for (int j = 0; j < 300; j++) {
+                document.append((char) (0x4E00 + random.nextInt(2000)));
+            }
+            document.append(i % 2 == 0 ? "13812345678" : "110101199003077777");
+        }
+        String text = document.toString();
+
+        // 分段检测拼接的结果与整体检测一致
+        CompactDetectionResult expected = detectorService.detectSensitiveDataCompact(text, null, false);
+        CompactDetectionResult stitched = cachedService.detectSensitiveDataCompact(text, null, false);
+        assertTrue(expected.getTotalDetected() > 300);
+        assertArrayEquals(expected.getOffsets(), stitched.getOffsets());
+        assertArrayEquals(expected.getTypes(), stitched.getTypes());
+        long segments = cachedService.getSegmentMisses();
+        assertTrue(segments > 5);
+        assertEquals(0, cachedService.getSegmentHits());
+
+        // 修改中间一段后整篇缓存未命中，只有修改处附近的段重新检测
+        int at = text.length() / 2;
+        String edited = text.substring(0, at) + "修改的段落，联系电话13912345678。" + text.substring(at + 10);
+        expected = detectorService.detectSensitiveDataCompact(edited, null, false);
+        stitched = cachedService.detectSensitiveDataCompact(edited, null, false);
+        assertArrayEquals(expected.getOffsets(), stitched.getOffsets());
+        assertArrayEquals(expected.getTypes(), stitched.getTypes());
+        assertTrue(cachedService.getSegmentMisses() - segments <= 3);
+        assertTrue(cachedService.getSegmentHits() >= segments - 3);
+    }
+
+    @Test
+    public void testRemoteL2RacesDetectionAndBatchUsesOneLookup() {
+        SensitiveDataDetectorServiceImpl cachedService =
+                new SensitiveDataDetectorServiceImpl(new SensitiveDataProcessorServiceImpl());
+        InMemoryL2CacheBackend backend = new InMemoryL2CacheBackend();
+        SensitiveDataCacheService cacheService = new SensitiveDataCacheService(new ConcurrentMapCacheManager());
+        cacheService.setL2CacheBackend(backend);
+        cachedService.setCacheService(cacheService);
+        try {
+            // 二级缓存迟迟不返回时检测照常完成，不等待网络
+            backend.close();
+            assertEquals(1, cachedService.detectSensitiveData("联系电话13812345678").getTotalDetected());
+            backend.open();
+            assertTrue(cacheService.flushWrites(5000));
+            assertEquals(1, backend.getStore().size());
+
+            // 另一实例的批量检测：整批一次读取二级缓存，命中的结果直接使用
+            SensitiveDataDetectorServiceImpl otherInstance =
+                    new SensitiveDataDetectorServiceImpl(new SensitiveDataProcessorServiceImpl());
+            SensitiveDataCacheService otherCache = new SensitiveDataCacheService(new ConcurrentMapCacheManager());
+            otherCache.setL2CacheBackend(backend);
+            otherInstance.setCacheService(otherCache);
+            List<SensitiveDataDetectionResult> results = otherInstance.detectSensitiveDataBatchFlux(
+                    Arrays.asList("联系电话13812345678", "没有敏感数据的文本"), null).collectList().block();
+            assertEquals(1, results.get(0).getTotalDetected());
+            assertEquals(0, results.get(1).getTotalDetected());
+            assertEquals(1, backend.getGetAllCalls());
+            otherCache.shutdown();
+        } finally {
+            backend.open();
+            cacheService.shutdown();
+        }
+    }
+
+    @Test
+    public void testUtf8ByteDetectionMatchesStringDetection() {
+        List<String> corpus = Arrays.asList(
+                "联系电话13812345678，身份证号：110101199001011237。",
+                "卡号4111111111111111和5555 5555 5555 4444，邮箱zhang.san@example.com😀暴力",
+                "用户名admin_2023，护照E12345678，驾照LJ12345678901234X",
+                "账号6222021234567890123在盗版网站出现，编号ABC1234567890123456789",
+                "全角，１３８１２３４５６７８和13812345678都是手机号",
+                "密码：abc123456，password: secret99");
+        for (String text : corpus) {
+            CompactDetectionResult expected = detectorService.detectSensitiveDataCompact(text, null, true);
+            CompactDetectionResult actual = detectorService.detectSensitiveDataUtf8(
+                    text.getBytes(StandardCharsets.UTF_8), null, true);
+            assertArrayEquals(text, expected.getOffsets(), actual.getOffsets());
+            assertArrayEquals(text, expected.getTypes(), actual.getTypes());
+            assertArrayEquals(text, expected.getPreviews(), actual.getPreviews());
+        }
+
+        // 非法的UTF-8回退为字符串检测
+        byte[] malformed = {'1', '3', '8', '1', '2', '3', '4', '5', '6', '7', '8', (byte) 0xFF};
+        assertEquals(1, detectorService.detectSensitiveDataUtf8(malformed, null, false).getTotalDetected());
+    }
+
+    @Test
+    public void testNormalizedInputDetection() {
+        // 全角数字和被零宽字符拆开的号码在规范化后检测，位置和内容对应原文
+        String text = "电话１３８１２３４５６７８，身份证1101011990\u200B01011237。";
+        SensitiveDataDetectionResult result = detectorService.detectSensitiveData(text);
+
+        SensitiveDataItem phone = result.getDetectedItems().stream()
+                .filter(item -> item.getType() == SensitiveDataType.PHONE_NUMBER).findFirst().orElse(null);
+        assertNotNull(phone);
+        assertEquals("１３８１２３４５６７８", phone.getContent());
+        assertEquals(2, phone.getStartPosition());
+
+        SensitiveDataItem idCard = result.getDetectedItems().stream()
+                .filter(item -> item.getType() == SensitiveDataType.ID_CARD).findFirst().orElse(null);
+        assertNotNull(idCard);
+        assertEquals("1101011990\u200B01011237", idCard.getContent());
+        assertEquals(text.indexOf('。'), idCard.getEndPosition());
+
+        assertTrue(detectorService.containsSensitiveData("ｚｈａｎｇｓａｎ＠ｅｘａｍｐｌｅ．ｃｏｍ", null));
+    }
+
+    @Test
+    public void testReactiveDetectionRunsOnSchedulerInInputOrder() {
+        SensitiveDataDetectorServiceImpl service =
+                new SensitiveDataDetectorServiceImpl(new SensitiveDataProcessorServiceImpl());
+        Scheduler scheduler = Schedulers.newBoundedElastic(4, 100, "detector-test");
+        service.setDetectorScheduler(scheduler);
+        ReflectionTestUtils.setField(service, "batchParallelism", 4);
+        try {
+            List<String> texts = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                texts.add(i % 3 == 0 ? "电话1381234" + String.format("%04d", i) : "第" + i + "条普通文本");
+            }
+            List<SensitiveDataDetectionResult> results = service.detectSensitiveDataBatch(texts).block();
+            assertEquals(texts.size(), results.size());
+            for (int i = 0; i < texts.size(); i++) {
+                assertEquals(texts.get(i), results.get(i).getOriginalText());
+                assertEquals(i % 3 == 0 ? 1 : 0, results.get(i).getTotalDetected());
+            }
+
+            // 异步检测在订阅后才执行，并且运行在检测调度器上
+            AtomicReference<String> thread = new AtomicReference<>();
+            Mono<SensitiveDataDetectionResult> async = service.detectSensitiveDataAsync("电话13812345678")
+                    .doOnNext(result -> thread.set(Thread.currentThread().getName()));
+            assertNull(thread.get());
+            assertEquals(1, async.block().getTotalDetected());
+            assertTrue(thread.get().startsWith("detector-test"));
+            
+            // 流式批量检测带有输入序号，按序号还原后与逐条检测一致
+            List<BatchDetectionItem> streamed = service.detectSensitiveDataStream(Flux.fromIterable(texts), null)
+                    .collectList().block();
+            assertEquals(texts.size(), streamed.size());
+            SensitiveDataDetectionResult[] bySequence = new SensitiveDataDetectionResult[texts.size()];
+            for (BatchDetectionItem item : streamed) {
+                bySequence[(int) item.getSequence()] = item.getResult();
+            }
+            for (int i = 0; i < texts.size(); i++) {
+                assertEquals(texts.get(i), bySequence[i].getOriginalText());
+                assertEquals(results.get(i).getTotalDetected(), bySequence[i].getTotalDetected());
+            }
+        } finally {
+            scheduler.dispose();
+        }
+    }
 }
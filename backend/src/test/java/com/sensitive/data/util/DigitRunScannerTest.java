@@ -0,0 +1,67 @@
+package com.sensitive.data.util;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 数字串扫描器测试类
+ */
+public class DigitRunScannerTest {
+
+    @Test
+    public void testScanMergesRunsSeparatedBySingleSeparator() {
+        String text = "卡号6222 0212 3456 7890，电话13812345678  99-1";
+        DigitRunScanner.Candidates candidates = DigitRunScanner.scan(text);
+
+        assertEquals(3, candidates.size());
+        assertEquals(text.indexOf("6222"), candidates.start(0));
+        assertEquals(text.indexOf("，"), candidates.end(0));
+        assertEquals(16, candidates.digits(0));
+        assertEquals(11, candidates.digits(1));
+        // 两个空格不合并，单个连字符合并
+        assertEquals(text.indexOf("99"), candidates.start(2));
+        assertEquals(3, candidates.digits(2));
+        assertEquals(text.length(), candidates.end(2));
+        assertEquals(16, candidates.getMaxDigits());
+    }
+
+    @Test
+    public void testByteScanMatchesCharScan() {
+        Random random = new Random(42);
+        String alphabet = "0123456789 -a中，";
+        for (int round = 0; round < 500; round++) {
+            StringBuilder builder = new StringBuilder();
+            int length = random.nextInt(80);
+            for (int i = 0; i < length; i++) {
+                builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String text = builder.toString();
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+            DigitRunScanner.Candidates chars = DigitRunScanner.scan(text);
+            DigitRunScanner.Candidates words = DigitRunScanner.scan(bytes);
+            assertEquals(text, chars.size(), words.size());
+            for (int i = 0; i < chars.size(); i++) {
+                // 字节偏移换算回字符偏移后应与逐字符扫描一致
+                assertEquals(text, chars.start(i), new String(bytes, 0, words.start(i), StandardCharsets.UTF_8).length());
+                assertEquals(text, chars.end(i), new String(bytes, 0, words.end(i), StandardCharsets.UTF_8).length());
+                assertEquals(text, chars.digits(i), words.digits(i));
+            }
+        }
+    }
+
+    @Test
+    public void testDigitMask() {
+        byte[] bytes = "0a9/:\u007f5 ".getBytes(StandardCharsets.ISO_8859_1);
+        long word = 0;
+        for (int i = 7; i >= 0; i--) {
+            word = (word << 8) | (bytes[i] & 0xFF);
+        }
+        assertEquals(0x0080000000800080L, DigitRunScanner.digitMask(word));
+        assertEquals(0, DigitRunScanner.digitMask(0xB0B9C0FFE4B8ADE4L));
+    }
+}
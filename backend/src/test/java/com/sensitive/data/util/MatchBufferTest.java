@@ -0,0 +1,78 @@
+package com.sensitive.data.util;
+
+import com.sensitive.data.model.OverlapStrategy;
+import com.sensitive.data.model.SensitiveDataItem;
+import com.sensitive.data.model.SensitiveDataType;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 检测命中缓冲区测试类
+ */
+public class MatchBufferTest {
+
+    private static final String TEXT = "卡号4111111111111111，联系邮箱test@example.com";
+
+    private static MatchBuffer buffer() {
+        MatchBuffer buffer = new MatchBuffer(2);
+        buffer.add(23, 39, SensitiveDataType.EMAIL, null);
+        buffer.add(2, 18, SensitiveDataType.BANK_ACCOUNT, null);
+        buffer.add(2, 18, SensitiveDataType.CREDIT_CARD, null);
+        buffer.add(2, 18, SensitiveDataType.BANK_CARD, null);
+        buffer.add(2, 18, SensitiveDataType.BANK_CARD, "rule-1");
+        buffer.add(3, 18, SensitiveDataType.DRIVER_LICENSE, null);
+        return buffer;
+    }
+
+    @Test
+    public void testSortAndDeduplicateMatchesKeepAllResolver() {
+        MatchBuffer buffer = buffer();
+        buffer.sortAndDeduplicate();
+
+        List<SensitiveDataItem> expected = new OverlapResolver(OverlapStrategy.KEEP_ALL,
+                Arrays.<SensitiveDataType>asList()).resolve(TEXT, buffer().asItems(TEXT, null));
+        assertEquals(expected.size(), buffer.size());
+        for (int i = 0; i < buffer.size(); i++) {
+            assertEquals(expected.get(i).getType(), buffer.type(i));
+            assertEquals(expected.get(i).getStartPosition(), buffer.start(i));
+            assertEquals(expected.get(i).getEndPosition(), buffer.end(i));
+        }
+    }
+
+    @Test
+    public void testRetainAndTruncate() {
+        MatchBuffer buffer = buffer();
+        buffer.retain(i -> buffer.type(i) != SensitiveDataType.BANK_CARD);
+        assertEquals(4, buffer.size());
+        assertEquals(SensitiveDataType.DRIVER_LICENSE, buffer.type(3));
+
+        buffer.truncate(1);
+        assertEquals(1, buffer.size());
+        assertEquals(SensitiveDataType.EMAIL, buffer.type(0));
+    }
+
+    @Test
+    public void testLazyItemsAndLabels() {
+        MatchBuffer buffer = new MatchBuffer();
+        SensitiveDataItem merged = new SensitiveDataItem("4111111111111111", SensitiveDataType.CREDIT_CARD, 2, 18);
+        merged.setLabels(Arrays.asList(SensitiveDataType.CREDIT_CARD, SensitiveDataType.BANK_CARD));
+        buffer.add(merged);
+        buffer.add(23, 39, SensitiveDataType.EMAIL, null);
+
+        List<SensitiveDataItem> items = buffer.asItems(TEXT, type -> "suggestion:" + type.getCode());
+        SensitiveDataItem first = items.get(0);
+        assertEquals("4111111111111111", first.getContent());
+        assertEquals("suggestion:creditCard", first.getSuggestion());
+        assertEquals(Arrays.asList(SensitiveDataType.CREDIT_CARD, SensitiveDataType.BANK_CARD), first.getLabels());
+        // 同一项只创建一次
+        assertSame(first, items.get(0));
+        assertEquals("test@example.com", items.get(1).getContent());
+        assertNull(items.get(1).getLabels());
+    }
+}
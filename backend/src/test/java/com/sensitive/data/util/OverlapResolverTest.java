@@ -0,0 +1,81 @@
+package com.sensitive.data.util;
+
+import com.sensitive.data.model.OverlapStrategy;
+import com.sensitive.data.model.SensitiveDataItem;
+import com.sensitive.data.model.SensitiveDataType;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 检测项重叠消解测试类
+ */
+public class OverlapResolverTest {
+
+    private static final String TEXT = "卡号4111111111111111，联系邮箱test@example.com";
+
+    private static final List<SensitiveDataType> ORDER = Arrays.asList(
+            SensitiveDataType.ID_CARD,
+            SensitiveDataType.CREDIT_CARD,
+            SensitiveDataType.BANK_CARD,
+            SensitiveDataType.DRIVER_LICENSE,
+            SensitiveDataType.EMAIL,
+            SensitiveDataType.BANK_ACCOUNT);
+
+    private static List<SensitiveDataItem> items() {
+        return Arrays.asList(
+                new SensitiveDataItem("test@example.com", SensitiveDataType.EMAIL, 25, 41),
+                new SensitiveDataItem("4111111111111111", SensitiveDataType.BANK_ACCOUNT, 2, 18),
+                new SensitiveDataItem("4111111111111111", SensitiveDataType.CREDIT_CARD, 2, 18),
+                new SensitiveDataItem("4111111111111111", SensitiveDataType.BANK_CARD, 2, 18),
+                new SensitiveDataItem("4111111111111111", SensitiveDataType.BANK_CARD, 2, 18),
+                new SensitiveDataItem("1111111111111111", SensitiveDataType.DRIVER_LICENSE, 3, 18));
+    }
+
+    @Test
+    public void testKeepAllRemovesExactDuplicatesOnly() {
+        List<SensitiveDataItem> resolved = new OverlapResolver(OverlapStrategy.KEEP_ALL, ORDER).resolve(TEXT, items());
+        assertEquals(5, resolved.size());
+        // 结果按起始位置排序
+        assertEquals(SensitiveDataType.EMAIL, resolved.get(4).getType());
+    }
+
+    @Test
+    public void testHighestRisk() {
+        List<SensitiveDataItem> resolved = new OverlapResolver(OverlapStrategy.HIGHEST_RISK, ORDER)
+                .resolve(TEXT, items());
+        assertEquals(2, resolved.size());
+        // 信用卡、银行卡、银行账号同为高风险，按特异性取信用卡；驾照为中风险被丢弃
+        assertEquals(SensitiveDataType.CREDIT_CARD, resolved.get(0).getType());
+        assertEquals(SensitiveDataType.EMAIL, resolved.get(1).getType());
+    }
+
+    @Test
+    public void testMostSpecific() {
+        List<SensitiveDataItem> resolved = new OverlapResolver(OverlapStrategy.MOST_SPECIFIC, ORDER)
+                .resolve(TEXT, items());
+        assertEquals(2, resolved.size());
+        assertEquals(SensitiveDataType.CREDIT_CARD, resolved.get(0).getType());
+    }
+
+    @Test
+    public void testMerged() {
+        List<SensitiveDataItem> resolved = new OverlapResolver(OverlapStrategy.MERGED, ORDER).resolve(TEXT, items());
+        assertEquals(2, resolved.size());
+
+        SensitiveDataItem merged = resolved.get(0);
+        assertEquals(SensitiveDataType.CREDIT_CARD, merged.getType());
+        assertEquals("4111111111111111", merged.getContent());
+        assertEquals(2, merged.getStartPosition());
+        assertEquals(18, merged.getEndPosition());
+        assertEquals(Arrays.asList(SensitiveDataType.CREDIT_CARD, SensitiveDataType.BANK_ACCOUNT,
+                SensitiveDataType.BANK_CARD, SensitiveDataType.DRIVER_LICENSE), merged.getLabels());
+
+        // 未重叠的项保持原样
+        assertNull(resolved.get(1).getLabels());
+    }
+}
@@ -0,0 +1,99 @@
+package com.sensitive.data.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * SingleFlight单元测试
+ */
+public class SingleFlightTest {
+
+    @Test
+    public void testConcurrentCallersShareOneComputation() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> flight.execute("key", "text", () -> {
+                computations.incrementAndGet();
+                started.countDown();
+                await(release);
+                return 42;
+            })));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i < callers; i++) {
+                futures.add(executor.submit(() -> flight.execute("key", "text", computations::incrementAndGet)));
+            }
+            // 等待其余调用者加入进行中的计算
+            while (flight.getMetrics().getSaved() < callers - 1) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            for (Future<Integer> future : futures) {
+                assertEquals(Integer.valueOf(42), future.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, computations.get());
+        assertEquals(1, flight.getMetrics().getExecutions());
+        assertEquals(callers - 1, flight.getMetrics().getSaved());
+        assertEquals(0, flight.inFlight());
+    }
+
+    @Test
+    public void testCollisionComputesSeparatelyAndFailureIsNotRetained() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> first = executor.submit(() -> flight.execute("key", "a", () -> {
+                started.countDown();
+                await(release);
+                return "A";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            // 键相同但输入不同，不共享结果
+            assertEquals("B", flight.execute("key", "b", () -> "B"));
+            release.countDown();
+            assertEquals("A", first.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, flight.getMetrics().getCollisions());
+
+        try {
+            flight.execute("key", "a", () -> {
+                throw new IllegalStateException("boom");
+            });
+        } catch (IllegalStateException e) {
+            // 预期异常
+        }
+        assertEquals(0, flight.inFlight());
+        assertEquals("A", flight.execute("key", "a", () -> "A"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.sensitive.data.util.bloom;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.sensitive.data.util.hash.Fingerprint128;
+
+/**
+ * 按代轮换的布隆过滤器单元测试
+ */
+public class RotatingBloomFilterTest {
+
+    @Test
+    public void testNoFalseNegativesAndBoundedFalsePositives() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(1000, 0.01, 4);
+        long sizeBefore = filter.getSizeInBytes();
+        // 超过第一级容量后追加新的级
+        for (int i = 0; i < 5000; i++) {
+            filter.put(Fingerprint128.of("clean-" + i));
+        }
+        assertTrue(filter.getSizeInBytes() > sizeBefore);
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(filter.mightContain(Fingerprint128.of("clean-" + i)));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (filter.mightContain(Fingerprint128.of("other-" + i))) {
+                falsePositives++;
+            }
+        }
+        // 整代误判率不超过初始误判率的两倍
+        assertTrue("false positives: " + falsePositives, falsePositives < 2000);
+    }
+
+    @Test
+    public void testRotationKeepsRecentlyUsedEntries() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(100, 0.000001, 2);
+        // 每代容量100 + 200，写满后轮换
+        for (int i = 0; i < 300; i++) {
+            filter.put(Fingerprint128.of("a-" + i));
+        }
+        // 在上一代中命中的元素写回当前代
+        assertTrue(filter.mightContain(Fingerprint128.of("a-0")));
+        for (int i = 0; i < 300; i++) {
+            filter.put(Fingerprint128.of("b-" + i));
+        }
+        assertTrue(filter.mightContain(Fingerprint128.of("a-0")));
+        assertFalse(filter.mightContain(Fingerprint128.of("a-1")));
+        assertTrue(filter.mightContain(Fingerprint128.of("b-0")));
+        // 最早的一代已丢弃
+        assertTrue(filter.getApproximateCount() < 600);
+    }
+}
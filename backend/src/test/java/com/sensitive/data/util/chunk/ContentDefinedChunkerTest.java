@@ -0,0 +1,68 @@
+package com.sensitive.data.util.chunk;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * 基于内容的文本分段单元测试
+ */
+public class ContentDefinedChunkerTest {
+
+    private final ContentDefinedChunker chunker = new ContentDefinedChunker(256, 1024, 4096);
+
+    @Test
+    public void testSegmentsCoverTextWithinSizeBounds() {
+        String text = randomText(new Random(1), 100000);
+        int[] ends = chunker.split(text);
+        assertEquals(text.length(), ends[ends.length - 1]);
+        int start = 0;
+        for (int i = 0; i < ends.length; i++) {
+            int length = ends[i] - start;
+            assertTrue(length <= 4096);
+            assertTrue(i == ends.length - 1 || length > 256);
+            start = ends[i];
+        }
+        // 平均长度接近最小长度加边界间隔
+        assertTrue(ends.length > 100000 / 4096 && ends.length < 100000 / 256);
+        assertArrayEquals(new int[0], chunker.split(""));
+        assertArrayEquals(new int[] {100}, chunker.split(text.substring(0, 100)));
+    }
+
+    @Test
+    public void testInsertionOnlyMovesNearbyBoundaries() {
+        String text = randomText(new Random(2), 100000);
+        String inserted = "新增的一段文字";
+        int at = 50000;
+        String edited = text.substring(0, at) + inserted + text.substring(at);
+
+        Set<Integer> original = new HashSet<>();
+        for (int end : chunker.split(text)) {
+            original.add(end);
+        }
+        int[] editedEnds = chunker.split(edited);
+        int changed = 0;
+        for (int end : editedEnds) {
+            int mapped = end > at ? end - inserted.length() : end;
+            if (!original.contains(mapped)) {
+                changed++;
+            }
+        }
+        // 插入点之前的边界不变，之后的边界重新对齐，只有插入点附近的段发生变化
+        assertTrue("changed boundaries: " + changed, changed <= 2);
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append((char) (0x4E00 + random.nextInt(2000)));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,107 @@
+package com.sensitive.data.util.composite;
+
+import com.sensitive.data.model.SensitiveDataItem;
+import com.sensitive.data.model.SensitiveDataRule;
+import com.sensitive.data.model.SensitiveDataType;
+import com.sensitive.data.util.AhoCorasick;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 组合规则引擎测试类
+ */
+public class CompositeRuleEngineTest {
+
+    private static SensitiveDataRule rule(String id, String content) {
+        SensitiveDataRule rule = new SensitiveDataRule();
+        rule.setId(id);
+        rule.setType(SensitiveDataRule.RuleType.COMPOSITE);
+        rule.setContent(content);
+        rule.setSensitiveDataType(SensitiveDataType.TRADE_SECRET);
+        return rule;
+    }
+
+    @Test
+    public void testNearKeyword() {
+        CompositeRuleEngine engine = new CompositeRuleEngine(Collections.singletonList(
+                rule("R1", "PHONE_NUMBER NEAR(5) '紧急联系人'")));
+        assertEquals(Collections.singleton("紧急联系人"), engine.getAnchorKeywords());
+
+        List<SensitiveDataItem> items = Arrays.asList(
+                new SensitiveDataItem("13812345678", SensitiveDataType.PHONE_NUMBER, 8, 19),
+                new SensitiveDataItem("13987654321", SensitiveDataType.PHONE_NUMBER, 60, 71));
+        List<AhoCorasick.MatchResult> hits = Collections.singletonList(new AhoCorasick.MatchResult("紧急联系人", 0, 5));
+
+        List<CompositeRuleEngine.RuleMatch> matches = engine.evaluate(items, hits);
+        assertEquals(1, matches.size());
+        assertEquals(8, matches.get(0).getStart());
+        assertEquals(19, matches.get(0).getEnd());
+    }
+
+    @Test
+    public void testNearBothDirectionsAndOverlap() {
+        CompositeRuleEngine engine = new CompositeRuleEngine(Collections.singletonList(
+                rule("R1", "EMAIL near(3) USERNAME")));
+        List<SensitiveDataItem> items = Arrays.asList(
+                // 用户名在邮箱之后，间隔2
+                new SensitiveDataItem("a", SensitiveDataType.EMAIL, 0, 10),
+                new SensitiveDataItem("b", SensitiveDataType.USERNAME, 12, 20),
+                // 用户名包含邮箱
+                new SensitiveDataItem("c", SensitiveDataType.USERNAME, 100, 130),
+                new SensitiveDataItem("d", SensitiveDataType.EMAIL, 105, 110),
+                // 远离任何用户名
+                new SensitiveDataItem("e", SensitiveDataType.EMAIL, 200, 210));
+
+        List<CompositeRuleEngine.RuleMatch> matches = engine.evaluate(items,
+                Collections.<AhoCorasick.MatchResult>emptyList());
+        assertEquals(2, matches.size());
+        assertEquals(0, matches.get(0).getStart());
+        assertEquals(105, matches.get(1).getStart());
+    }
+
+    @Test
+    public void testAndOr() {
+        CompositeRuleEngine engine = new CompositeRuleEngine(Arrays.asList(
+                rule("AND", "ID_CARD AND BANK_CARD"),
+                rule("OR", "(PASSPORT OR DRIVER_LICENSE) AND ID_CARD")));
+
+        List<SensitiveDataItem> items = new ArrayList<>();
+        items.add(new SensitiveDataItem("id", SensitiveDataType.ID_CARD, 50, 68));
+        List<CompositeRuleEngine.RuleMatch> matches = engine.evaluate(items,
+                Collections.<AhoCorasick.MatchResult>emptyList());
+        assertTrue(matches.isEmpty());
+
+        items.add(new SensitiveDataItem("card", SensitiveDataType.BANK_CARD, 0, 16));
+        items.add(new SensitiveDataItem("passport", SensitiveDataType.PASSPORT, 80, 89));
+        matches = engine.evaluate(items, Collections.<AhoCorasick.MatchResult>emptyList());
+        assertEquals(4, matches.size());
+        // 多来源交错的区间按起始位置输出
+        assertEquals(0, matches.get(0).getStart());
+        assertEquals(50, matches.get(1).getStart());
+        assertEquals("OR", matches.get(2).getRule().getId());
+    }
+
+    @Test
+    public void testInvalidExpressions() {
+        String[] invalid = {"", "PHONE_NUMBER NEAR '紧急'", "UNKNOWN_TYPE", "ID_CARD AND", "'未闭合", "(ID_CARD"};
+        for (String expression : invalid) {
+            try {
+                CompositeExpression.parse(expression);
+                fail("应拒绝表达式: " + expression);
+            } catch (IllegalArgumentException e) {
+                // 预期异常
+            }
+        }
+        CompositeRuleEngine engine = new CompositeRuleEngine(Collections.singletonList(rule("BAD", "ID_CARD OR")));
+        assertEquals(1, engine.getInvalidRules().size());
+        assertEquals(0, engine.getRuleCount());
+    }
+}
@@ -0,0 +1,35 @@
+package com.sensitive.data.util.hash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ * MurmurHash3单元测试
+ */
+public class MurmurHash3Test {
+
+    @Test
+    public void testReferenceVectors() {
+        assertEquals(new Fingerprint128(0L, 0L), MurmurHash3.hash128(new byte[0], 0));
+
+        Fingerprint128 hello = MurmurHash3.hash128("hello".getBytes(StandardCharsets.US_ASCII), 0);
+        assertEquals(0xCBD8A7B341BD9B02L, hello.getHigh());
+        assertEquals(0x5B1E906A48AE1D19L, hello.getLow());
+    }
+
+    @Test
+    public void testCharSequenceMatchesUtf16Bytes() {
+        String[] samples = {"", "a", "手机号13812345678", "身份证号：110101199003077777，邮箱test@example.com"};
+        for (String sample : samples) {
+            assertEquals(sample, MurmurHash3.hash128(sample.getBytes(StandardCharsets.UTF_16LE), 0),
+                    MurmurHash3.hash128(sample, 0));
+        }
+        assertEquals(Fingerprint128.of("abc"), Fingerprint128.of(new StringBuilder("abc")));
+        assertNotEquals(Fingerprint128.of("abc"), Fingerprint128.of("abd"));
+        assertEquals(32, Fingerprint128.of("abc").toString().length());
+    }
+}
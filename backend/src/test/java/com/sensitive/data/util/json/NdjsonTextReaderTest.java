@@ -0,0 +1,37 @@
+package com.sensitive.data.util.json;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * NDJSON文本读取测试类
+ */
+public class NdjsonTextReaderTest {
+
+    @Test
+    public void testReadJsonStringsAndRawLines() {
+        String body = "\"电话13812345678\"\n\n\"第一行\\n第二行\"\r\n原始文本，不是JSON\n\"未闭合的引号\n";
+        List<String> texts = NdjsonTextReader.read(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))).collectList().block();
+
+        assertEquals(Arrays.asList("电话13812345678", "第一行\n第二行", "原始文本，不是JSON", "\"未闭合的引号"), texts);
+    }
+
+    @Test
+    public void testReadOnDemand() {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            body.append('"').append(i).append("\"\n");
+        }
+        List<String> first = NdjsonTextReader.read(
+                new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8))).take(3).collectList().block();
+
+        assertEquals(Arrays.asList("0", "1", "2"), first);
+    }
+}
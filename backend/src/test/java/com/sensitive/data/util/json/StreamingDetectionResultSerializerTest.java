@@ -0,0 +1,54 @@
+package com.sensitive.data.util.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sensitive.data.model.SensitiveDataItem;
+import com.sensitive.data.model.SensitiveDataType;
+import com.sensitive.data.model.StreamingDetectionResult;
+import com.sensitive.data.util.MatchBuffer;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 检测结果流式序列化测试类
+ */
+public class StreamingDetectionResultSerializerTest {
+
+    private static final String TEXT = "卡号4111111111111111，电话13812345678，备用13812345679";
+
+    @Test
+    public void testWritesItemsAndTypeDictionary() throws Exception {
+        MatchBuffer matches = new MatchBuffer();
+        SensitiveDataItem merged = new SensitiveDataItem("4111111111111111", SensitiveDataType.CREDIT_CARD, 2, 18);
+        merged.setLabels(Arrays.asList(SensitiveDataType.CREDIT_CARD, SensitiveDataType.BANK_CARD));
+        matches.add(merged);
+        matches.add(21, 32, SensitiveDataType.PHONE_NUMBER, null);
+        matches.add(35, 46, SensitiveDataType.PHONE_NUMBER, null);
+        StreamingDetectionResult result = new StreamingDetectionResult(TEXT, matches,
+                type -> "建议:" + type.getCode(), 5, false);
+
+        JsonNode json = new ObjectMapper().readTree(new ObjectMapper().writeValueAsString(result));
+        assertEquals(3, json.get("totalDetected").asInt());
+        assertFalse(json.get("partial").asBoolean());
+
+        // 每种类型在字典中只出现一次，合并项的标签类型也在字典中
+        JsonNode types = json.get("types");
+        assertEquals(3, types.size());
+        assertEquals("建议:phoneNumber", types.get("phoneNumber").get("suggestion").asText());
+        assertTrue(types.has("bankCard"));
+
+        JsonNode items = json.get("detectedItems");
+        assertEquals(3, items.size());
+        assertEquals("creditCard", items.get(0).get("type").asText());
+        assertEquals("4111111111111111", items.get(0).get("content").asText());
+        assertEquals("bankCard", items.get(0).get("labels").get(1).asText());
+        assertEquals("13812345678", items.get(1).get("content").asText());
+        assertEquals(35, items.get(2).get("startPosition").asInt());
+        assertFalse(items.get(1).has("suggestion"));
+    }
+}
@@ -0,0 +1,54 @@
+package com.sensitive.data.util.normalize;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 输入规范化测试类
+ */
+public class TextNormalizerTest {
+
+    @Test
+    public void testUnchangedTextIsReturnedAsIs() {
+        String text = "联系人：张三，电话13812345678（工作日）。";
+        NormalizedText normalized = TextNormalizer.normalize(text);
+
+        assertSame(text, normalized.getText());
+        assertFalse(normalized.isChanged());
+        assertFalse(TextNormalizer.requiresNormalization(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testFoldAndRemoveWithOffsetMapping() {
+        String text = "Ａ\u200B\u200D１２\u3000３\uFEFF";
+        NormalizedText normalized = TextNormalizer.normalize(text);
+
+        assertEquals("A12 3", normalized.getText());
+        assertTrue(normalized.isShifted());
+        assertTrue(TextNormalizer.requiresNormalization(text.getBytes(StandardCharsets.UTF_8)));
+
+        // "12 3"在规范化文本中为[1, 5)，对应原文[3, 7)，不包含前后的零宽字符
+        assertEquals(3, normalized.toOriginalStart(1));
+        assertEquals(7, normalized.toOriginalEnd(5));
+        assertEquals(0, normalized.toOriginalStart(0));
+        assertEquals(1, normalized.toOriginalEnd(1));
+    }
+
+    @Test
+    public void testByteCheckMatchesCharCheck() {
+        for (char c = 0x80; c < 0xFFFF; c++) {
+            if (Character.isSurrogate(c)) {
+                continue;
+            }
+            byte[] utf8 = String.valueOf(c).getBytes(StandardCharsets.UTF_8);
+            assertEquals(Integer.toHexString(c), TextNormalizer.requiresNormalization(c),
+                    TextNormalizer.requiresNormalization(utf8));
+        }
+    }
+}
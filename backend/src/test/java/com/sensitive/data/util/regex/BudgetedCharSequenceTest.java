@@ -0,0 +1,67 @@
+package com.sensitive.data.util.regex;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 正则执行预算测试类
+ */
+public class BudgetedCharSequenceTest {
+
+    private static String repeat(char c, int count) {
+        StringBuilder sb = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testCatastrophicBacktrackingIsAborted() {
+        // (.*a){12}b 在全a输入上需要大量回溯
+        Pattern pattern = Pattern.compile("(.*a){12}b");
+        BudgetedCharSequence input = new BudgetedCharSequence(repeat('a', 40), 100_000, TimeUnit.SECONDS.toNanos(5));
+
+        long start = System.nanoTime();
+        try {
+            pattern.matcher(input).find();
+            fail("预算耗尽时应中止匹配");
+        } catch (BudgetedCharSequence.BudgetExceededException e) {
+            assertTrue(input.isExhausted());
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    public void testTimeBudgetIsEnforced() {
+        Pattern pattern = Pattern.compile("(.*a){12}b");
+        BudgetedCharSequence input = new BudgetedCharSequence(repeat('a', 40), Long.MAX_VALUE,
+                TimeUnit.MILLISECONDS.toNanos(20));
+
+        try {
+            pattern.matcher(input).find();
+            fail("超时应中止匹配");
+        } catch (BudgetedCharSequence.BudgetExceededException e) {
+            assertTrue(input.isExhausted());
+        }
+    }
+
+    @Test
+    public void testNormalMatchingWithinBudget() {
+        Pattern pattern = Pattern.compile("1[3-9]\\d{9}");
+        BudgetedCharSequence input = new BudgetedCharSequence("手机号13812345678", 10_000, TimeUnit.SECONDS.toNanos(1));
+
+        Matcher matcher = pattern.matcher(input);
+        assertTrue(matcher.find());
+        assertEquals("13812345678", matcher.group());
+        assertFalse(input.isExhausted());
+    }
+}
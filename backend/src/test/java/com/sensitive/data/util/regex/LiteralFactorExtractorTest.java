@@ -0,0 +1,65 @@
+package com.sensitive.data.util.regex;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 字面量因子提取器测试类
+ */
+public class LiteralFactorExtractorTest {
+
+    @Test
+    public void testLiteralRunIsExtracted() {
+        LiteralFactorExtractor.LiteralFactors factors = LiteralFactorExtractor.extract("合同编号[:：]\\s?HT\\d{8}");
+
+        // 少量字面量组成的字符类会被枚举，因子延伸到字符类之后
+        assertTrue(factors.isFilterable());
+        assertEquals(Arrays.asList("合同编号:", "合同编号："), factors.getFactors());
+        assertTrue(factors.isBounded());
+        assertEquals(16, factors.getMaxLength());
+    }
+
+    @Test
+    public void testAlternationProducesFactorPerBranch() {
+        LiteralFactorExtractor.LiteralFactors factors = LiteralFactorExtractor.extract("(?:工号|员工编号)\\d{6}");
+
+        assertTrue(factors.getFactors().containsAll(Arrays.asList("工号", "员工编号")));
+        assertEquals(2, factors.getFactors().size());
+    }
+
+    @Test
+    public void testFactorsAreCaseFolded() {
+        LiteralFactorExtractor.LiteralFactors factors = LiteralFactorExtractor.extract("(?i)API[-_]KEY=\\w+");
+
+        assertEquals(Arrays.asList("api-key=", "api_key="), factors.getFactors());
+        assertFalse(factors.isBounded());
+    }
+
+    @Test
+    public void testOptionalAndLookaroundAreNotRequired() {
+        // 可选部分和零宽断言里的字面量不能作为必需因子
+        assertFalse(LiteralFactorExtractor.extract("(?:ID)?\\d{6}").isFilterable());
+        assertFalse(LiteralFactorExtractor.extract("(?<=编号)\\d{6}").isFilterable());
+        assertFalse(LiteralFactorExtractor.extract("[A-Z]{2}\\d+").isFilterable());
+    }
+
+    @Test
+    public void testEscapesAndQuotedLiterals() {
+        assertEquals(Arrays.asList("@corp.example.com"),
+                LiteralFactorExtractor.extract("\\w+@corp\\.example\\.com").getFactors());
+        assertEquals(Arrays.asList("a+b"), LiteralFactorExtractor.extract("\\Qa+b\\E\\d").getFactors());
+    }
+
+    @Test
+    public void testCommentModeIsNotAnalyzed() {
+        LiteralFactorExtractor.LiteralFactors factors = LiteralFactorExtractor.extract("(?x) secret \\d+ # comment");
+
+        assertFalse(factors.isFilterable());
+        assertFalse(factors.isBounded());
+    }
+}
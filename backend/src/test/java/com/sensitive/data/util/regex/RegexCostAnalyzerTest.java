@@ -0,0 +1,105 @@
+package com.sensitive.data.util.regex;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 正则代价分析器测试类
+ */
+public class RegexCostAnalyzerTest {
+
+    private final RegexCostAnalyzer analyzer = new RegexCostAnalyzer(256, 200, TimeUnit.MILLISECONDS.toNanos(50));
+
+    @Test
+    public void testBuiltInStylePatternsAreWithinBudget() {
+        String[] patterns = {
+                "\\b1[3-9]\\d{9}\\b",
+                "合同编号[:：]\\s?HT\\d{8}",
+                "(?i)API[-_]KEY=\\w{8,64}",
+                "[\\w.]{1,64}@corp\\.example\\.com",
+                "(?:\\d{4}[ -]?){3}\\d{4}"
+        };
+        for (String regex : patterns) {
+            RegexCostAnalyzer.CostReport report = analyzer.analyze(regex);
+            assertTrue(regex, report.isValid());
+            assertFalse(regex + " " + report, report.isOverBudget());
+            assertEquals(regex, RegexCostAnalyzer.Complexity.LINEAR, report.getComplexity());
+            assertEquals(regex, 1, report.getPolynomialDegree());
+        }
+    }
+
+    @Test
+    public void testNestedQuantifierIsExponential() {
+        RegexCostAnalyzer.CostReport report = analyzer.analyze("(a+)+b");
+        assertTrue(report.isOverBudget());
+        assertEquals(RegexCostAnalyzer.Complexity.EXPONENTIAL, report.getComplexity());
+        assertFalse(report.getIssues().isEmpty());
+
+        assertTrue(analyzer.analyze("(?:\\w+\\s?)*$").isOverBudget());
+    }
+
+    @Test
+    public void testDelimitedRepeatedGroupsAreAccepted() {
+        // 重复分组内有可变部分无法匹配的分隔符，不是指数级回溯
+        String[] patterns = {
+                "(\\d{1,3}\\.)+\\d{1,3}",
+                "(?:\\d{1,3}\\.){3}\\d{1,3}",
+                "[\\w.-]{1,64}@(?:[A-Za-z0-9-]{1,63}\\.)+[A-Za-z]{2,}",
+                "(?:[a-z0-9]{1,20}-)*[a-z0-9]{1,20}\\.example\\.com",
+                "(?:\\d{3,4}-)+\\d{4}"
+        };
+        for (String regex : patterns) {
+            RegexCostAnalyzer.CostReport report = analyzer.analyze(regex);
+            assertTrue(regex, report.isValid());
+            assertFalse(regex + " " + report, report.getComplexity() == RegexCostAnalyzer.Complexity.EXPONENTIAL);
+            assertFalse(regex + " " + report, report.isOverBudget());
+        }
+
+        // 分隔符可被可变部分匹配时仍为指数级
+        assertEquals(RegexCostAnalyzer.Complexity.EXPONENTIAL, analyzer.analyze("(\\w+\\w)+x").getComplexity());
+        assertEquals(RegexCostAnalyzer.Complexity.EXPONENTIAL, analyzer.analyze("(.+\\.)+x").getComplexity());
+    }
+
+    @Test
+    public void testAmbiguousAlternationIsExponential() {
+        assertEquals(RegexCostAnalyzer.Complexity.EXPONENTIAL, analyzer.analyze("(a|ab)*c").getComplexity());
+        assertEquals(RegexCostAnalyzer.Complexity.EXPONENTIAL, analyzer.analyze("(\\d|[0-9a-f])+x").getComplexity());
+        // 首字符互斥的分支没有歧义
+        assertEquals(RegexCostAnalyzer.Complexity.LINEAR, analyzer.analyze("(?:a|b)*c").getComplexity());
+    }
+
+    @Test
+    public void testPolynomialRuleIsCaughtByBenchmark() {
+        RegexCostAnalyzer.CostReport report = analyzer.analyze(".*a.*a.*b");
+        assertEquals(RegexCostAnalyzer.Complexity.POLYNOMIAL, report.getComplexity());
+        assertEquals(4, report.getPolynomialDegree());
+        assertTrue(report.isOverBudget());
+        assertNotNull(report.getWorstInput());
+    }
+
+    @Test
+    public void testFixedRepeatOfUnboundedGroupIsPolynomial() {
+        // 固定次数重复无界分组，展开后为20个相连的.*
+        RegexCostAnalyzer.CostReport report = analyzer.analyze("(.*a){20}");
+        assertEquals(RegexCostAnalyzer.Complexity.POLYNOMIAL, report.getComplexity());
+        assertEquals(21, report.getPolynomialDegree());
+        assertFalse(report.getIssues().isEmpty());
+
+        // 固定次数重复有界分组仍为线性
+        assertEquals(RegexCostAnalyzer.Complexity.LINEAR, analyzer.analyze("(?:\\d{4}-){3}").getComplexity());
+    }
+
+    @Test
+    public void testInvalidRegex() {
+        RegexCostAnalyzer.CostReport report = analyzer.analyze("(abc");
+        assertFalse(report.isValid());
+        assertNotNull(report.getError());
+        assertTrue(report.isOverBudget());
+    }
+}
@@ -0,0 +1,92 @@
+package com.sensitive.data.util.regex;
+
+import com.sensitive.data.model.SensitiveDataRule;
+import com.sensitive.data.model.SensitiveDataType;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 正则规则预过滤器测试类
+ */
+public class RegexPrefilterTest {
+
+    private static SensitiveDataRule regexRule(String id, String content) {
+        SensitiveDataRule rule = new SensitiveDataRule();
+        rule.setId(id);
+        rule.setType(SensitiveDataRule.RuleType.REGEX);
+        rule.setContent(content);
+        rule.setSensitiveDataType(SensitiveDataType.INTERNAL_CODE);
+        return rule;
+    }
+
+    @Test
+    public void testPrefilteredMatchesEqualFullScan() {
+        List<SensitiveDataRule> rules = Arrays.asList(
+                regexRule("R1", "合同编号[:：]\\s?HT\\d{8}"),
+                regexRule("R2", "(?i)(?<![A-Za-z])token=[A-Za-z0-9]{16}"),
+                regexRule("R3", "(?:工号|员工编号)\\d{6}"),
+                regexRule("R4", "\\d{4}-\\d{4}"));
+        RegexPrefilter prefilter = new RegexPrefilter(rules);
+
+        String text = "请核对合同编号：HT20240101，员工编号123456的TOKEN=abcdEFGH12345678已过期。" +
+                "另一份合同编号:HT2024010，工号654321，电话0755-1234。";
+
+        List<String> expected = new ArrayList<>();
+        for (SensitiveDataRule rule : rules) {
+            Matcher matcher = Pattern.compile(rule.getContent()).matcher(text);
+            while (matcher.find()) {
+                expected.add(rule.getId() + "@" + matcher.start() + "-" + matcher.end());
+            }
+        }
+
+        List<String> actual = new ArrayList<>();
+        for (SensitiveDataRule rule : rules) {
+            for (RegexPrefilter.RuleMatch match : prefilter.match(text)) {
+                if (match.getRule() == rule) {
+                    actual.add(rule.getId() + "@" + match.getStart() + "-" + match.getEnd());
+                }
+            }
+        }
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testSupplementaryCharactersWidenRegions() {
+        // .、\\W和取反字符类按码点匹配，增补平面字符占2个UTF-16字符，区域不能按1个字符计算
+        List<SensitiveDataRule> rules = Arrays.asList(
+                regexRule("R1", "密码.{0,5}\\d{6}"),
+                regexRule("R2", "口令\\W{0,3}\\d{4}"),
+                regexRule("R3", "[^，]{0,2}账号"));
+        RegexPrefilter prefilter = new RegexPrefilter(rules);
+
+        String text = "密码\uD83D\uDE00\uD83D\uDE00\uD83D\uDE00123456，口令\uD83D\uDE00\uD83D\uDE009876，"
+                + "\uD83D\uDE00\uD83D\uDE00账号";
+        List<String> actual = new ArrayList<>();
+        for (RegexPrefilter.RuleMatch match : prefilter.match(text)) {
+            actual.add(match.getRule().getId() + "@" + match.getStart() + "-" + match.getEnd());
+        }
+
+        assertEquals(Arrays.asList("R1@0-14", "R2@15-25", "R3@26-32"), actual);
+    }
+
+    @Test
+    public void testRulesWithoutLiteralAreReported() {
+        SensitiveDataRule filterable = regexRule("R1", "员工编号\\d{6}");
+        SensitiveDataRule unfiltered = regexRule("R2", "[A-Z]{2}\\d{6}");
+        SensitiveDataRule invalid = regexRule("R3", "([0-9]");
+        RegexPrefilter prefilter = new RegexPrefilter(Arrays.asList(filterable, unfiltered, invalid));
+
+        assertEquals(2, prefilter.getRuleCount());
+        assertEquals(Arrays.asList(unfiltered), prefilter.getUnfilteredRegexRules());
+        assertEquals(Arrays.asList(invalid), prefilter.getInvalidRules());
+        assertEquals(0, prefilter.match("这段文本里没有编号").size());
+    }
+}